@@ -18,6 +18,9 @@ var cached = require('gulp-cached');
 var angularTemplateCache = require('gulp-angular-templatecache');
 var argv = require('yargs').argv;
 var log = require('fancy-log');
+var fs = require('fs');
+var path = require('path');
+var zlib = require('zlib');
 
 
 var liveReloadActive = false;
@@ -204,6 +207,62 @@ gulp.task('delMainLessCache', function () {
     delete cached.caches["auto"];
 });
 
+//Precompressed variants are served instead of the files if the browser accepts them, so the server doesn't have to compress them for every request.
+//Must be run after every change of the files, otherwise the outdated variants would be served
+gulp.task('compress', function () {
+    ['js', 'css', 'fonts'].forEach(function (folder) {
+        compressFiles(path.join(staticFolder, folder));
+    });
+});
+
+function compressFiles(folder) {
+    fs.readdirSync(folder).forEach(function (fileName) {
+        var file = path.join(folder, fileName);
+        //Other formats (e.g. woff, png) are already compressed
+        if (!/\.(js|css|svg|ttf|eot|otf)$/.test(fileName)) {
+            return;
+        }
+        var content = fs.readFileSync(file);
+        if (content.length < 1024) {
+            return;
+        }
+        fs.writeFileSync(file + '.gz', zlib.gzipSync(content, {level: zlib.constants.Z_BEST_COMPRESSION}));
+        var brotliParams = {};
+        brotliParams[zlib.constants.BROTLI_PARAM_QUALITY] = zlib.constants.BROTLI_MAX_QUALITY;
+        brotliParams[zlib.constants.BROTLI_PARAM_SIZE_HINT] = content.length;
+        fs.writeFileSync(file + '.br', zlib.brotliCompressSync(content, {params: brotliParams}));
+    });
+}
+
+//Fails the build if a precompressed variant doesn't contain the file's current content. Browsers cache the resources by
+//the hash of the uncompressed file (see WebConfiguration), so an outdated variant would be served until the file changes again
+gulp.task('verify-compressed', function () {
+    var outdated = [];
+    ['js', 'css', 'fonts'].forEach(function (folder) {
+        outdated = outdated.concat(findOutdatedCompressedFiles(path.join(staticFolder, folder)));
+    });
+    if (outdated.length > 0) {
+        throw new Error("Outdated precompressed files (run 'gulp compress'): " + outdated.join(", "));
+    }
+});
+
+function findOutdatedCompressedFiles(folder) {
+    var decompressors = {'.gz': zlib.gunzipSync, '.br': zlib.brotliDecompressSync};
+    var outdated = [];
+    fs.readdirSync(folder).forEach(function (fileName) {
+        var extension = path.extname(fileName);
+        if (!decompressors[extension]) {
+            return;
+        }
+        var compressedFile = path.join(folder, fileName);
+        var file = compressedFile.substring(0, compressedFile.length - extension.length);
+        if (!fs.existsSync(file) || !decompressors[extension](fs.readFileSync(compressedFile)).equals(fs.readFileSync(file))) {
+            outdated.push(compressedFile);
+        }
+    });
+    return outdated;
+}
+
 gulp.task('copyStaticToClasses', function () {
     return gulp.src(staticFolder + '/**/*')
         .pipe(cached("copyStatic"))
@@ -215,6 +274,8 @@ gulp.task('index', function () {
     log("Will build files into folder '" + staticFolder + "'");
     runSequence(
         ['scripts', 'less', 'templates', 'vendor-scripts', 'vendor-css', 'copy-assets'],
+        ['compress'],
+        ['verify-compressed'],
         ['copyStaticToClasses'],
         ['reload']
     );
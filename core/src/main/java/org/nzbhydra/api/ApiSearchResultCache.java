@@ -0,0 +1,244 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.api;
+
+import com.google.common.base.Throwables;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the responses of API searches by their parameters. Concurrent requests for the same uncached search wait for
+ * the one search being executed instead of searching the indexers again. Entries are kept ordered by their last update so
+ * the oldest can be evicted without looking at the others.
+ * <p>
+ * If stale results may be served an expired entry is returned while the search is repeated in the background.
+ */
+public class ApiSearchResultCache<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiSearchResultCache.class);
+
+    private final int maxSize;
+    private final Duration maxAge;
+    private final Supplier<Instant> timeSource;
+    //Oldest update first. Entries are moved to the end when updated
+    private final Map<Integer, Entry<T>> entries = new LinkedHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+
+    public ApiSearchResultCache(int maxSize, Duration maxAge, Supplier<Instant> timeSource) {
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.timeSource = timeSource;
+        refreshExecutor = MdcThreadPoolExecutor.newWithInheritedMdc(maxSize, maxSize, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the cached value for the given key if it's not older than the cache time. Otherwise the value is loaded,
+     * either by the calling thread or (if another thread is already loading it) by waiting for the other thread.
+     *
+     * @param serveStale if true an expired value is returned immediately and loaded again in the background
+     */
+    public T get(int key, Duration cacheTime, boolean serveStale, Supplier<T> loader) {
+        CompletableFuture<T> future;
+        boolean load = false;
+        synchronized (entries) {
+            Instant now = timeSource.get();
+            removeExpired(now);
+            Entry<T> entry = entries.get(key);
+            if (entry != null && entry.value != null && !entry.lastUpdate.plus(cacheTime).isBefore(now)) {
+                hits.incrementAndGet();
+                logger.info("Returning cached search result. Next update of search will be done at {}", LocalDateTime.ofInstant(entry.lastUpdate.plus(cacheTime), ZoneId.systemDefault()));
+                return entry.value;
+            }
+            if (entry != null && entry.value != null && serveStale) {
+                staleHits.incrementAndGet();
+                if (entry.loading == null) {
+                    logger.info("Returning cached search result while updating it in the background because the cache time is exceeded");
+                    CompletableFuture<T> refresh = new CompletableFuture<>();
+                    entry.loading = refresh;
+                    refreshExecutor.execute(() -> loadInBackground(key, refresh, loader));
+                } else {
+                    logger.info("Returning cached search result while it's being updated");
+                }
+                return entry.value;
+            }
+            if (entry != null && entry.loading != null) {
+                coalesced.incrementAndGet();
+                logger.info("Waiting for identical search already being executed");
+                future = entry.loading;
+            } else {
+                misses.incrementAndGet();
+                future = new CompletableFuture<>();
+                load = true;
+                if (entry == null) {
+                    entry = new Entry<>();
+                    entry.loading = future;
+                    entries.put(key, entry);
+                    evictIfNeeded();
+                } else {
+                    logger.info("Updating search because cache time is exceeded");
+                    entry.loading = future;
+                }
+            }
+        }
+        if (load) {
+            return load(key, future, loader);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private T load(int key, CompletableFuture<T> future, Supplier<T> loader) {
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            loadFailed(key, future, e);
+            throw e;
+        }
+        loaded(key, future, value);
+        return value;
+    }
+
+    private void loadInBackground(int key, CompletableFuture<T> future, Supplier<T> loader) {
+        try {
+            load(key, future, loader);
+            logger.debug("Updated cached search result in the background");
+        } catch (Throwable e) {
+            logger.error("Error while updating cached search result in the background", e);
+        }
+    }
+
+    private void loaded(int key, CompletableFuture<T> future, T value) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+            if (entry != null && entry.loading == future) {
+                logger.info("Putting search result into cache");
+                entries.remove(key);
+                entry.value = value;
+                entry.lastUpdate = timeSource.get();
+                entry.loading = null;
+                entries.put(key, entry);
+                evictIfNeeded();
+            }
+        }
+        future.complete(value);
+    }
+
+    private void loadFailed(int key, CompletableFuture<T> future, Throwable e) {
+        synchronized (entries) {
+            Entry<T> entry = entries.get(key);
+            if (entry != null && entry.loading == future) {
+                entry.loading = null;
+                if (entry.value == null) {
+                    entries.remove(key);
+                }
+            }
+        }
+        future.completeExceptionally(e);
+    }
+
+    private void removeExpired(Instant now) {
+        Instant oldestAllowed = now.minus(maxAge);
+        Iterator<Entry<T>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (entry.lastUpdate == null) {
+                //Not loaded yet, newer entries may follow
+                continue;
+            }
+            if (!entry.lastUpdate.isBefore(oldestAllowed)) {
+                break;
+            }
+            if (entry.loading == null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Entry<T>> iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            //Entries being loaded are kept so that requests waiting for them are not cut off
+            if (iterator.next().loading == null) {
+                logger.info("Removing oldest entry from cache because its limit of {} is reached", maxSize);
+                iterator.remove();
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of requests which waited for an identical search instead of searching themselves
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static class Entry<T> {
+        private T value;
+        private Instant lastUpdate;
+        private CompletableFuture<T> loading;
+    }
+
+}
@@ -4,8 +4,10 @@ import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Sets;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.catalina.connector.ClientAbortException;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.SearchSource;
@@ -28,12 +30,13 @@ import org.nzbhydra.mediainfo.Imdb;
 import org.nzbhydra.searching.CategoryProvider;
 import org.nzbhydra.searching.CustomQueryAndTitleMappingHandler;
 import org.nzbhydra.searching.DetailsProvider;
+import org.nzbhydra.searching.SearchAdmission;
+import org.nzbhydra.searching.SearchRejectedException;
 import org.nzbhydra.searching.SearchResult;
 import org.nzbhydra.searching.Searcher;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequestFactory;
-import org.nzbhydra.springnative.ReflectionMarker;
 import org.nzbhydra.web.SessionStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,20 +53,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Clock;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Stream;
 
 @RestController
@@ -97,10 +93,14 @@ public class ExternalApi {
     private MockSearch mockSearch;
     @Autowired
     private CustomQueryAndTitleMappingHandler customQueryAndTitleMappingHandler;
+    @Autowired
+    private SearchAdmission searchAdmission;
     protected Clock clock = Clock.systemUTC();
     private final Random random = new Random();
 
-    private final ConcurrentMap<Integer, CacheEntryValue> cache = new ConcurrentHashMap<>();
+    private final ApiSearchResultCache<NewznabResponse> cache = new ApiSearchResultCache<>(MAX_CACHE_SIZE, Duration.ofHours(MAX_CACHE_AGE_HOURS), () -> clock.instant());
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
 
     //When enabled search results will be mocked instead of indexers actually being searched. Only for configuration of external tools
     private static boolean inMockingMode;
@@ -178,7 +178,7 @@ public class ExternalApi {
                 return handleCachingSearch(params, searchType, searchRequestId);
             }
 
-            NewznabResponse searchResult = search(params, searchRequestId);
+            NewznabResponse searchResult = admittedSearch(params, searchRequestId);
             HttpHeaders httpHeaders = setSearchTypeAndGetHeaders(params, searchResult);
             return new ResponseEntity<>(searchResult, httpHeaders, HttpStatus.OK);
         }
@@ -207,40 +207,38 @@ public class ExternalApi {
     }
 
     protected ResponseEntity<?> handleCachingSearch(NewznabParameters params, NewznabResponse.SearchType searchType, int searchRequestId) {
-        //Remove old entries
-        cache.entrySet().removeIf(x -> x.getValue().getLastUpdate().isBefore(clock.instant().minus(MAX_CACHE_AGE_HOURS, ChronoUnit.HOURS)));
-
-        CacheEntryValue cacheEntryValue;
         int cacheKey = params.cacheKey(searchType);
-        if (cache.containsKey(cacheKey)) {
-            cacheEntryValue = cache.get(cacheKey);
-            int cachetime = params.getCachetime() == null ? configProvider.getBaseConfig().getSearching().getGlobalCacheTimeMinutes().get() : params.getCachetime();
-            if (cacheEntryValue.getLastUpdate().isAfter(clock.instant().minus(cachetime, ChronoUnit.MINUTES))) {
-                Instant nextUpdate = cacheEntryValue.getLastUpdate().plus(cachetime, ChronoUnit.MINUTES);
-                logger.info("Returning cached search result. Next update of search will be done at {}", LocalDateTime.ofInstant(nextUpdate, ZoneId.systemDefault()));
-                NewznabResponse searchResult = cacheEntryValue.getSearchResult();
-
-                HttpHeaders httpHeaders = setSearchTypeAndGetHeaders(params, searchResult);
-                return new ResponseEntity<>(searchResult, httpHeaders, HttpStatus.OK);
-            } else {
-                logger.info("Updating search because cache time is exceeded");
-            }
-        }
-        //Remove oldest entry when max size is reached
-        if (cache.size() == MAX_CACHE_SIZE) {
-            Optional<Entry<Integer, CacheEntryValue>> keyToEvict = cache.entrySet().stream().min(Comparator.comparing(o -> o.getValue().getLastUpdate()));
-            //Should always be the case anyway
-            logger.info("Removing oldest entry from cache because its limit of {} is reached", MAX_CACHE_SIZE);
-            keyToEvict.ifPresent(newznabParametersCacheEntryValueEntry -> cache.remove(newznabParametersCacheEntryValueEntry.getKey()));
-        }
-
-        NewznabResponse searchResult = search(params, searchRequestId);
-        logger.info("Putting search result into cache");
-        cache.put(cacheKey, new CacheEntryValue(params, clock.instant(), searchResult));
+        int cachetime = params.getCachetime() == null ? configProvider.getBaseConfig().getSearching().getGlobalCacheTimeMinutes().get() : params.getCachetime();
+        boolean serveStale = configProvider.getBaseConfig().getSearching().isServeStaleCachedResults();
+        //The search may be executed in the background when stale results are served
+        NewznabResponse searchResult = cache.get(cacheKey, Duration.ofMinutes(cachetime), serveStale, SessionStorage.withCurrentValues(() -> admittedSearch(params, searchRequestId)));
         HttpHeaders httpHeaders = setSearchTypeAndGetHeaders(params, searchResult);
         return new ResponseEntity<>(searchResult, httpHeaders, HttpStatus.OK);
     }
 
+    @PostConstruct
+    public void registerCacheMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        registerCacheCounter("hit", ApiSearchResultCache::getHits);
+        registerCacheCounter("miss", ApiSearchResultCache::getMisses);
+        registerCacheCounter("coalesced", ApiSearchResultCache::getCoalesced);
+        registerCacheCounter("stale", ApiSearchResultCache::getStaleHits);
+    }
+
+    private void registerCacheCounter(String result, ToDoubleFunction<ApiSearchResultCache<NewznabResponse>> function) {
+        FunctionCounter.builder("hydra.api.cache.requests", cache, function)
+            .description("Cached API searches by result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdownCache() {
+        cache.shutdown();
+    }
+
 
     protected ResponseEntity<?> getNzb(NewznabParameters params) throws MissingParameterException, UnknownErrorException {
         if (Strings.isNullOrEmpty(params.getId())) {
@@ -260,6 +258,16 @@ public class ExternalApi {
         return downloadResult.getAsResponseEntity();
     }
 
+    /**
+     * Executes the search once the number of concurrently running API searches allows it. Cache hits don't need to
+     * wait for that.
+     */
+    private NewznabResponse admittedSearch(NewznabParameters params, int searchRequestId) {
+        try (SearchAdmission.Permit ignored = searchAdmission.acquire()) {
+            return search(params, searchRequestId);
+        }
+    }
+
     protected NewznabResponse search(NewznabParameters params, int searchRequestId) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         SearchRequest searchRequest = buildBaseSearchRequest(params, searchRequestId);
@@ -286,6 +294,13 @@ public class ExternalApi {
         return error;
     }
 
+    @ExceptionHandler(value = SearchRejectedException.class)
+    public ResponseEntity<NewznabXmlError> handleRejectedSearch(SearchRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(new NewznabXmlError("500", e.getMessage()));
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity handleUnexpectedError(Exception e) {
         if (e instanceof ClientAbortException || Throwables.getCausalChain(e).stream().anyMatch(x -> x instanceof ClientAbortException)) {
@@ -370,33 +385,4 @@ public class ExternalApi {
         return searchRequest;
     }
 
-
-    @Data
-    @ReflectionMarker
-    @AllArgsConstructor
-    private static class CacheEntryValue {
-        private final NewznabParameters params;
-        private final Instant lastUpdate;
-        private final NewznabResponse searchResult;
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-            CacheEntryValue that = (CacheEntryValue) o;
-            return com.google.common.base.Objects.equal(params, that.params) &&
-                   com.google.common.base.Objects.equal(lastUpdate, that.lastUpdate) &&
-                   com.google.common.base.Objects.equal(searchResult, that.searchResult);
-        }
-
-        @Override
-        public int hashCode() {
-            return com.google.common.base.Objects.hashCode(super.hashCode(), params, lastUpdate, searchResult);
-        }
-    }
-
 }
@@ -35,8 +35,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -64,9 +65,10 @@ public class NewznabJsonTransformer {
         channel.setGenerator("NZBHydra2");
 
         rssRoot.setChannel(channel);
-        List<NewznabJsonItem> items = new ArrayList<>();
+        List<NewznabJsonItem> items = new ArrayList<>(searchResultItems.size());
+        List<String> attributeNames = new ArrayList<>();
         for (SearchResultItem searchResultItem : searchResultItems) {
-            NewznabJsonItem rssItem = buildRssItem(searchResultItem, isNzb);
+            NewznabJsonItem rssItem = buildRssItem(searchResultItem, isNzb, attributeNames);
             items.add(rssItem);
         }
 
@@ -75,7 +77,10 @@ public class NewznabJsonTransformer {
         return rssRoot;
     }
 
-    private NewznabJsonItem buildRssItem(SearchResultItem searchResultItem, boolean isNzb) {
+    /**
+     * @param attributeNames buffer for sorting the attribute names, reused for all items of a response
+     */
+    private NewznabJsonItem buildRssItem(SearchResultItem searchResultItem, boolean isNzb, List<String> attributeNames) {
         NewznabJsonItem rssItem = new NewznabJsonItem();
         String link = downloadUrlBuilder.getDownloadLinkForResults(searchResultItem.getSearchResultId(), false, DownloadType.NZB);
         rssItem.setLink(link);
@@ -87,8 +92,15 @@ public class NewznabJsonTransformer {
         } else {
             rssItem.setPubDate(searchResultItem.getBestDate()); //Contain usenet date because results with neither should've been
         }
-        searchResultItem.getAttributes().put("guid", String.valueOf(searchResultItem.getSearchResultId()));
-        List<NewznabJsonItemAttributes> attributes = searchResultItem.getAttributes().entrySet().stream().map(attribute -> new NewznabJsonItemAttributes(attribute.getKey(), attribute.getValue())).sorted(Comparator.comparing(NewznabJsonItemAttributes::getName)).collect(Collectors.toList());
+        Map<String, String> itemAttributes = searchResultItem.getAttributes();
+        itemAttributes.put("guid", String.valueOf(searchResultItem.getSearchResultId()));
+        attributeNames.clear();
+        attributeNames.addAll(itemAttributes.keySet());
+        Collections.sort(attributeNames);
+        List<NewznabJsonItemAttributes> attributes = new ArrayList<>(attributeNames.size() + 3);
+        for (String attributeName : attributeNames) {
+            attributes.add(new NewznabJsonItemAttributes(attributeName, itemAttributes.get(attributeName)));
+        }
         attributes.add(new NewznabJsonItemAttributes("hydraIndexerScore", String.valueOf(searchResultItem.getIndexer().getConfig().getScore())));
         attributes.add(new NewznabJsonItemAttributes("hydraIndexerHost", String.valueOf(searchResultItem.getIndexer().getConfig().getHost())));
         attributes.add(new NewznabJsonItemAttributes("hydraIndexerName", String.valueOf(searchResultItem.getIndexer().getName())));
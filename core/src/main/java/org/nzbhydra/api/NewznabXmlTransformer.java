@@ -35,9 +35,9 @@ import org.springframework.stereotype.Component;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Component
 public class NewznabXmlTransformer {
@@ -68,9 +68,10 @@ public class NewznabXmlTransformer {
         rssChannel.setGenerator("NZBHydra2");
 
         rssRoot.setRssChannel(rssChannel);
-        List<NewznabXmlItem> items = new ArrayList<>();
+        List<NewznabXmlItem> items = new ArrayList<>(searchResultItems.size());
+        List<String> attributeNames = new ArrayList<>();
         for (SearchResultItem searchResultItem : searchResultItems) {
-            NewznabXmlItem rssItem = buildRssItem(searchResultItem, isNzb);
+            NewznabXmlItem rssItem = buildRssItem(searchResultItem, isNzb, attributeNames);
             items.add(rssItem);
         }
 
@@ -79,6 +80,13 @@ public class NewznabXmlTransformer {
     }
 
     NewznabXmlItem buildRssItem(SearchResultItem searchResultItem, boolean isNzb) {
+        return buildRssItem(searchResultItem, isNzb, new ArrayList<>());
+    }
+
+    /**
+     * @param attributeNames buffer for sorting the attribute names, reused for all items of a response
+     */
+    private NewznabXmlItem buildRssItem(SearchResultItem searchResultItem, boolean isNzb, List<String> attributeNames) {
         NewznabXmlItem rssItem = new NewznabXmlItem();
         String link = downloadUrlBuilder.getDownloadLinkForResults(searchResultItem.getSearchResultId(), false, isNzb ? DownloadType.NZB : DownloadType.TORRENT);
         rssItem.setLink(link);
@@ -90,8 +98,15 @@ public class NewznabXmlTransformer {
         } else {
             rssItem.setPubDate(searchResultItem.getBestDate()); //Contain usenet date because results with neither should've been
         }
-        searchResultItem.getAttributes().put("guid", String.valueOf(searchResultItem.getSearchResultId()));
-        List<NewznabAttribute> newznabAttributes = searchResultItem.getAttributes().entrySet().stream().map(attribute -> new NewznabAttribute(attribute.getKey(), attribute.getValue())).sorted(Comparator.comparing(NewznabAttribute::getName)).collect(Collectors.toList());
+        Map<String, String> attributes = searchResultItem.getAttributes();
+        attributes.put("guid", String.valueOf(searchResultItem.getSearchResultId()));
+        attributeNames.clear();
+        attributeNames.addAll(attributes.keySet());
+        Collections.sort(attributeNames);
+        List<NewznabAttribute> newznabAttributes = new ArrayList<>(attributeNames.size() + 3);
+        for (String attributeName : attributeNames) {
+            newznabAttributes.add(new NewznabAttribute(attributeName, attributes.get(attributeName)));
+        }
         if (searchResultItem.getIndexer() != null) {
             newznabAttributes.add(new NewznabAttribute("hydraIndexerScore", String.valueOf(searchResultItem.getIndexer().getConfig().getScore())));
             newznabAttributes.add(new NewznabAttribute("hydraIndexerHost", getIndexerHost(searchResultItem)));
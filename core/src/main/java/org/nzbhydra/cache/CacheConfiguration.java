@@ -0,0 +1,75 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.nzbhydra.NzbHydra;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.MainConfig;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Defines the size and expiry of all in-memory caches. Every cache is bounded and records stats, which are exposed as
+ * "cache.*" metrics via the actuator. Media infos and images are cached in two tiers: Media infos not kept in memory are
+ * loaded from the database, images not kept in memory are loaded from the disk cache.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    public static final String TITLES = "titles";
+
+    private static final int DEFAULT_MAX_ENTRIES = 100;
+    private static final Duration DEFAULT_EXPIRY = Duration.ofHours(1);
+
+    @Bean
+    @Primary
+    public CacheManager genericCacheManager(ConfigProvider configProvider) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        //Used for caches which aren't registered explicitly
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(DEFAULT_MAX_ENTRIES)
+                .expireAfterWrite(DEFAULT_EXPIRY)
+                .recordStats());
+        MainConfig mainConfig = configProvider.getBaseConfig().getMain();
+        cacheManager.registerCustomCache(TITLES, mediaInfoCache(mainConfig).expireAfterWrite(Duration.ofMinutes(mainConfig.getMediaInfoCacheMinutes())).build());
+        return cacheManager;
+    }
+
+    @Bean
+    public DiskCache imageCache(ConfigProvider configProvider) {
+        MainConfig mainConfig = configProvider.getBaseConfig().getMain();
+        return new DiskCache(new File(NzbHydra.getDataFolder(), "cache"), "images", DiskCache.MAX_ENTRIES,
+                mainConfig.getImageCacheSizeMb() * 1024L * 1024, mainConfig.getImageCacheMemoryMb() * 1024L * 1024);
+    }
+
+    /**
+     * @return a builder for caches of media infos and title searches. The expiry is left to the caller.
+     */
+    public static Caffeine<Object, Object> mediaInfoCache(MainConfig mainConfig) {
+        return Caffeine.newBuilder()
+                .maximumSize(mainConfig.getMediaInfoCacheEntries())
+                .recordStats();
+    }
+
+}
@@ -16,153 +16,372 @@
 
 package org.nzbhydra.cache;
 
-import lombok.SneakyThrows;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.apache.commons.io.FileUtils;
-import org.jetbrains.annotations.NotNull;
 import org.nzbhydra.logging.LoggingMarkers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.time.Instant;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
 
-public class DiskCache extends AbstractValueAdaptingCache {
+/**
+ * Caches files (e.g. proxied images) on disk. The least recently used entries are removed when the cache contains too many
+ * entries or takes up too much space. The index of entries is rebuilt from the cache folder on startup.
+ * <p>
+ * Every key is only loaded once at a time: Concurrent requests for a key which is currently being loaded wait for that
+ * load to finish. The number of loads running at once is limited.
+ * <p>
+ * Optionally the most recently used small entries are also kept in memory so that they don't have to be read from disk.
+ */
+public class DiskCache implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(DiskCache.class);
 
-    private static final int MAX_ENTRIES = 500;
-    private static final int MAX_ENTRIES_SIZE_MB = 50;
-
-    private static final Map<String, Instant> ACCESS_MAP = new HashMap<>();
+    static final int MAX_ENTRIES = 500;
+    private static final long MAX_SIZE_BYTES = 50L * 1024 * 1024;
+    private static final int MAX_CONCURRENT_LOADS = 6;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int MAX_OPEN_ATTEMPTS = 3;
+    //A single large entry shouldn't push all others out of memory
+    private static final int MEMORY_ENTRY_FRACTION = 10;
 
     private final File cacheDir;
     private final String name;
+    private final int maxEntries;
+    private final long maxSizeBytes;
+    //Null if entries are only kept on disk
+    private final Cache<String, byte[]> memoryTier;
+    private final long maxMemoryEntryBytes;
+
+    //File names by access order. Guarded by this
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize = 0;
+
+    private final ConcurrentMap<String, CompletableFuture<File>> runningLoads = new ConcurrentHashMap<>();
+    private final Semaphore loadPermits = new Semaphore(MAX_CONCURRENT_LOADS);
 
     public DiskCache(File cacheDir, String name) {
-        super(false);
+        this(cacheDir, name, MAX_ENTRIES, MAX_SIZE_BYTES);
+    }
+
+    DiskCache(File cacheDir, String name, int maxEntries, long maxSizeBytes) {
+        this(cacheDir, name, maxEntries, maxSizeBytes, 0);
+    }
+
+    /**
+     * @param maxMemoryBytes memory used for the entries kept in memory. 0 to keep all entries only on disk.
+     */
+    public DiskCache(File cacheDir, String name, int maxEntries, long maxSizeBytes, long maxMemoryBytes) {
         this.cacheDir = cacheDir;
         this.name = name;
-        boolean created = cacheDir.mkdirs();
+        this.maxEntries = maxEntries;
+        this.maxSizeBytes = maxSizeBytes;
+        if (maxMemoryBytes > 0) {
+            memoryTier = Caffeine.newBuilder()
+                    .maximumWeight(maxMemoryBytes)
+                    .<String, byte[]>weigher((key, value) -> value.length)
+                    .recordStats()
+                    .build();
+            maxMemoryEntryBytes = maxMemoryBytes / MEMORY_ENTRY_FRACTION;
+        } else {
+            memoryTier = null;
+            maxMemoryEntryBytes = 0;
+        }
+        cacheDir.mkdirs();
         if (!cacheDir.exists()) {
             throw new RuntimeException("Error creating cache dir " + cacheDir.getAbsolutePath());
         }
+        rebuildIndex();
     }
 
-    @Override
     public String getName() {
         return name;
     }
 
-    @Override
-    public Object getNativeCache() {
-        return this;
+    /**
+     * Returns the cached file for the given key. If the cache doesn't contain it yet the loader is called to write it.
+     * The file may be deleted at any time when its entry is removed, use {@link #getResource(String, Loader)} to read it.
+     *
+     * @throws IOException if the loader failed. Nothing is cached in that case.
+     */
+    File get(String key, Loader loader) throws IOException {
+        String fileName = getFileName(key);
+        File cached = lookup(fileName);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<File> load = new CompletableFuture<>();
+        CompletableFuture<File> runningLoad = runningLoads.putIfAbsent(fileName, load);
+        if (runningLoad != null) {
+            logger.debug(LoggingMarkers.DISK_CACHE, "Waiting for running load of {}", key);
+            return waitFor(runningLoad);
+        }
+        try {
+            //Might've been loaded by another thread in the meantime
+            File file = lookup(fileName);
+            if (file == null) {
+                file = load(key, fileName, loader);
+            }
+            load.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            runningLoads.remove(fileName, load);
+        }
     }
 
-    @Override
-    @SneakyThrows
-    public <T> T get(Object key, Callable<T> valueLoader) {
-        if (key instanceof String keyString) {
-            ACCESS_MAP.put(keyString, Instant.now());
-            File keyFile = buildKeyFile(keyString);
-            if (keyFile.exists()) {
-                return (T) Files.readAllBytes(keyFile.toPath());
-            } else {
-                T value = valueLoader.call();
-                if ((value instanceof byte[] bytes)) {
-                    Files.write(keyFile.toPath(), bytes);
-                    return value;
-                } else {
-                    throw new RuntimeException("Illegal type for value " + value.getClass());
-                }
+    /**
+     * Returns the content for the given key, from memory if it's kept there. If the cache doesn't contain it yet the loader is called to write it.
+     * Content read from disk is returned as an already opened stream, so it can still be read when the entry is removed in the meantime.
+     *
+     * @throws IOException if the loader failed. Nothing is cached in that case.
+     */
+    public Resource getResource(String key, Loader loader) throws IOException {
+        if (memoryTier != null) {
+            byte[] content = memoryTier.getIfPresent(key);
+            if (content != null) {
+                return new ByteArrayResource(content);
+            }
+        }
+        for (int attempt = 0; attempt < MAX_OPEN_ATTEMPTS; attempt++) {
+            File file = get(key, loader);
+            OpenedEntry opened = open(file);
+            if (opened == null) {
+                logger.debug(LoggingMarkers.DISK_CACHE, "Entry {} was removed before it could be opened", key);
+                continue;
             }
+            if (memoryTier == null || opened.size() > maxMemoryEntryBytes) {
+                return new InputStreamResource(opened.inputStream(), key) {
+                    @Override
+                    public long contentLength() {
+                        return opened.size();
+                    }
+                };
+            }
+            byte[] content;
+            try (InputStream inputStream = opened.inputStream()) {
+                content = inputStream.readAllBytes();
+            }
+            memoryTier.put(key, content);
+            return new ByteArrayResource(content);
+        }
+        throw new IOException("Entry " + key + " was repeatedly removed before it could be read");
+    }
+
+    /**
+     * @return a value identifying the cached content of the key which doesn't change unless the key changes
+     */
+    public String getETag(String key) {
+        return "\"" + getFileName(key) + "\"";
+    }
+
+    public synchronized int getEntryCount() {
+        return entrySizes.size();
+    }
+
+    public synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    public synchronized void evict(String key) {
+        if (memoryTier != null) {
+            memoryTier.invalidate(key);
+        }
+        String fileName = getFileName(key);
+        if (entrySizes.containsKey(fileName)) {
+            logger.debug(LoggingMarkers.DISK_CACHE, "Evicting entry {}", key);
+            removeEntry(fileName);
         } else {
-            throw new RuntimeException("Illegal type for key " + key.getClass());
+            logger.debug(LoggingMarkers.DISK_CACHE, "Can't evict not existing entry {}", key);
+        }
+    }
+
+    public synchronized void clear() throws IOException {
+        logger.debug(LoggingMarkers.DISK_CACHE, "Clearing cache");
+        FileUtils.cleanDirectory(cacheDir);
+        entrySizes.clear();
+        totalSize = 0;
+        if (memoryTier != null) {
+            memoryTier.invalidateAll();
         }
     }
 
     @Override
-    @SneakyThrows
-    public void put(Object key, Object value) {
-        if ((key instanceof String keyString) && (value instanceof byte[] valueBytes)) {
-            logger.debug(LoggingMarkers.DISK_CACHE, "Writing entry with key {} and size {}", keyString, valueBytes.length);
-            Files.write(buildKeyFile(keyString).toPath(), valueBytes);
-            ACCESS_MAP.put(keyString, Instant.now());
-        } else {
-            throw new RuntimeException("Illegal type for key " + key.getClass() + " and/or value " + value.getClass());
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("hydra.cache.disk.entries", this, DiskCache::getEntryCount)
+                .description("Entries in the disk cache")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("hydra.cache.disk.size", this, DiskCache::getTotalSize)
+                .description("Bytes used by the disk cache")
+                .baseUnit("bytes")
+                .tag("cache", name)
+                .register(registry);
+        if (memoryTier != null) {
+            CaffeineCacheMetrics.monitor(registry, memoryTier, name);
         }
-        cleanAfterPut();
     }
 
-    private void cleanAfterPut() {
-        while (ACCESS_MAP.size() > MAX_ENTRIES) {
-            logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "{} entries in cache - exceeds limit of {}", ACCESS_MAP.size(), MAX_ENTRIES);
-            deleteOldestEntry();
+    private File load(String key, String fileName, Loader loader) throws IOException {
+        try {
+            loadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to load " + key);
         }
-        while (Arrays.stream(cacheDir.listFiles()).mapToDouble(File::length).sum() / (1024 * 1024) > MAX_ENTRIES_SIZE_MB) {
-            logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "Cache takes up too much space (more than {})", MAX_ENTRIES_SIZE_MB);
-            deleteOldestEntry();
+        File tempFile = new File(cacheDir, fileName + TEMP_FILE_SUFFIX);
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile.toPath())) {
+                loader.load(outputStream);
+            }
+            File file = new File(cacheDir, fileName);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.debug(LoggingMarkers.DISK_CACHE, "Writing entry with key {} and size {}", key, file.length());
+            addEntry(fileName, file.length());
+            return file;
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+            loadPermits.release();
         }
     }
 
-    private void deleteOldestEntry() {
-        Optional<Map.Entry<String, Instant>> oldestEntry = ACCESS_MAP.entrySet().stream().min(Map.Entry.comparingByValue());
-        if (oldestEntry.isPresent()) {
-            logger.debug(LoggingMarkers.DISK_CACHE, "Removing oldest entry {}", oldestEntry.get());
-            ACCESS_MAP.remove(oldestEntry.get().getKey());
-            FileUtils.deleteQuietly(buildKeyFile(oldestEntry.get().getKey()));
+    /**
+     * Opens the file while no entry can be removed. An opened file can still be read after it was deleted.
+     *
+     * @return null if the entry was removed
+     */
+    private synchronized OpenedEntry open(File file) throws IOException {
+        Long size = entrySizes.get(file.getName());
+        if (size == null) {
+            return null;
+        }
+        try {
+            return new OpenedEntry(Files.newInputStream(file.toPath()), size);
+        } catch (NoSuchFileException e) {
+            return null;
         }
     }
 
-    @NotNull
-    private File buildKeyFile(String keyString) {
-        return new File(cacheDir, keyString);
+    private synchronized File lookup(String fileName) {
+        if (entrySizes.get(fileName) == null) {
+            return null;
+        }
+        File file = new File(cacheDir, fileName);
+        if (!file.exists()) {
+            logger.debug(LoggingMarkers.DISK_CACHE, "File {} of cache entry was deleted", fileName);
+            totalSize -= entrySizes.remove(fileName);
+            return null;
+        }
+        return file;
     }
 
-    @Override
-    public void evict(Object key) {
-        if (key instanceof String keyString) {
-            File keyFile = buildKeyFile(keyString);
-            if (keyFile.exists()) {
-                logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "Evicting entry {}", keyString);
-                ACCESS_MAP.remove(keyString);
-                FileUtils.deleteQuietly(keyFile);
-            } else {
-                logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "Can't evict not existing entry {}", keyString);
-            }
+    private synchronized void addEntry(String fileName, long size) {
+        Long previousSize = entrySizes.put(fileName, size);
+        totalSize += size - (previousSize == null ? 0 : previousSize);
+        removeLeastRecentlyUsedEntries();
+    }
+
+    private void removeLeastRecentlyUsedEntries() {
+        Iterator<Map.Entry<String, Long>> iterator = entrySizes.entrySet().iterator();
+        //The most recently used entry is always kept, even if it's too large on its own
+        while ((entrySizes.size() > maxEntries || totalSize > maxSizeBytes) && entrySizes.size() > 1) {
+            Map.Entry<String, Long> oldest = iterator.next();
+            logger.debug(LoggingMarkers.DISK_CACHE, "Removing oldest entry {} ({} entries with {} bytes in cache)", oldest.getKey(), entrySizes.size(), totalSize);
+            totalSize -= oldest.getValue();
+            iterator.remove();
+            FileUtils.deleteQuietly(new File(cacheDir, oldest.getKey()));
         }
     }
 
-    @Override
-    @SneakyThrows
-    public void clear() {
-        if (!cacheDir.exists()) {
+    private void removeEntry(String fileName) {
+        Long size = entrySizes.remove(fileName);
+        if (size != null) {
+            totalSize -= size;
+        }
+        FileUtils.deleteQuietly(new File(cacheDir, fileName));
+    }
+
+    private synchronized void rebuildIndex() {
+        File[] files = cacheDir.listFiles(File::isFile);
+        if (files == null) {
             return;
         }
-        logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "Clearing cache");
-        FileUtils.cleanDirectory(cacheDir);
-        ACCESS_MAP.clear();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                //Left over from a load that was interrupted by a shutdown
+                FileUtils.deleteQuietly(file);
+                continue;
+            }
+            if (!FILE_NAME_PATTERN.matcher(file.getName()).matches()) {
+                //Older versions used the base64 encoded key as file name. These files would never be found again
+                logger.debug(LoggingMarkers.DISK_CACHE, "Deleting file {} not named by current scheme", file.getName());
+                FileUtils.deleteQuietly(file);
+                continue;
+            }
+            entrySizes.put(file.getName(), file.length());
+            totalSize += file.length();
+        }
+        removeLeastRecentlyUsedEntries();
+        logger.debug(LoggingMarkers.DISK_CACHE, "Found {} entries with {} bytes in cache {}", entrySizes.size(), totalSize, name);
     }
 
-    @Override
-    @SneakyThrows
-    protected Object lookup(Object key) {
-        if (key instanceof String keyString) {
-            File keyFile = buildKeyFile(keyString);
-            if (keyFile.exists()) {
-                logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "Found entry for key {}", keyString);
-                return Files.readAllBytes(keyFile.toPath());
-            } else {
-                logger.debug(LoggingMarkers.CONFIG_READ_WRITE, "Did not find entry for key {}", keyString);
+    private static String getFileName(String key) {
+        //Keys may contain characters not allowed in file names
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+    }
+
+    private static File waitFor(CompletableFuture<File> load) throws IOException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for load");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
             }
+            throw new IOException("Error while loading", e.getCause());
         }
-        return null;
+    }
+
+    private record OpenedEntry(InputStream inputStream, long size) {
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        void load(OutputStream outputStream) throws IOException;
     }
 
 }
@@ -1,44 +0,0 @@
-/*
- *  (C) Copyright 2024 TheOtherP (theotherp@posteo.net)
- *
- *  Licensed under the Apache License, Version 2.0 (the "License");
- *  you may not use this file except in compliance with the License.
- *  You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- *  Unless required by applicable law or agreed to in writing, software
- *  distributed under the License is distributed on an "AS IS" BASIS,
- *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- *  See the License for the specific language governing permissions and
- *  limitations under the License.
- */
-
-package org.nzbhydra.cache;
-
-import org.nzbhydra.NzbHydra;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.support.AbstractCacheManager;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-import java.io.File;
-import java.util.Collection;
-import java.util.List;
-
-@Configuration
-public class ImageCacheConfig {
-
-
-    @Bean
-    public CacheManager imageCacheManager() {
-        return new AbstractCacheManager() {
-            @Override
-            protected Collection<? extends Cache> loadCaches() {
-                return List.of(new DiskCache(new File(NzbHydra.getDataFolder(), "cache"), "images"));
-            }
-        };
-    }
-
-}
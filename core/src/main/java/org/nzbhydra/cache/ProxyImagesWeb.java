@@ -17,34 +17,56 @@
 package org.nzbhydra.cache;
 
 import org.nzbhydra.webaccess.HydraOkHttp3ClientHttpRequestFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 public class ProxyImagesWeb {
 
     private final HydraOkHttp3ClientHttpRequestFactory hydraOkHttp3ClientHttpRequestFactory;
+    private final DiskCache imageCache;
 
-    public ProxyImagesWeb(HydraOkHttp3ClientHttpRequestFactory hydraOkHttp3ClientHttpRequestFactory) {
+    public ProxyImagesWeb(HydraOkHttp3ClientHttpRequestFactory hydraOkHttp3ClientHttpRequestFactory, DiskCache imageCache) {
         this.hydraOkHttp3ClientHttpRequestFactory = hydraOkHttp3ClientHttpRequestFactory;
+        this.imageCache = imageCache;
     }
 
     @RequestMapping(value = "/cache/{originalUrl}", method = RequestMethod.GET, produces = MediaType.IMAGE_JPEG_VALUE)
-    @Cacheable(cacheNames = "images", cacheManager = "imageCacheManager")
-    public byte[] proxyImage(@PathVariable String originalUrl) throws Exception {
-        try (ClientHttpResponse response = hydraOkHttp3ClientHttpRequestFactory.createRequest(new URI(new String(Base64.getDecoder().decode(originalUrl), StandardCharsets.UTF_8)), HttpMethod.GET).execute()) {
-            return response.getBody().readAllBytes();
+    public ResponseEntity<Resource> proxyImage(@PathVariable String originalUrl, WebRequest webRequest) throws Exception {
+        //The image for a URL never changes so the browser may keep using its copy
+        String eTag = imageCache.getETag(originalUrl);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
         }
+        URI uri = new URI(new String(Base64.getDecoder().decode(originalUrl), StandardCharsets.UTF_8));
+        Resource image = imageCache.getResource(originalUrl, outputStream -> {
+            try (ClientHttpResponse response = hydraOkHttp3ClientHttpRequestFactory.createRequest(uri, HttpMethod.GET).execute()) {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw new IOException("Unable to load image from " + uri + ": " + response.getStatusCode());
+                }
+                response.getBody().transferTo(outputStream);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(eTag)
+                .cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePrivate())
+                .body(image);
     }
 
 }
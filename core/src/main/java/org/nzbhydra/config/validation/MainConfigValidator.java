@@ -84,6 +84,12 @@ public class MainConfigValidator implements ConfigValidator<MainConfig> {
         if (newMain.getKeepStatsForWeeks() != null && newMain.getKeepHistoryForWeeks() != null && newMain.getKeepStatsForWeeks() > newMain.getKeepHistoryForWeeks()) {
             result.getErrorMessages().add("Please set the time to keep stats to a value not higher than the time to keep history.");
         }
+        if (newMain.getMediaInfoCacheEntries() < 0 || newMain.getMediaInfoCacheMinutes() <= 0) {
+            result.getErrorMessages().add("Please set the media info cache entries to a value not lower than 0 and the media info cache time to a positive value.");
+        }
+        if (newMain.getImageCacheSizeMb() <= 0 || newMain.getImageCacheMemoryMb() < 0) {
+            result.getErrorMessages().add("Please set the image cache size to a positive value and the image memory cache size to a value not lower than 0.");
+        }
 
         if (newMain.getBackupFolder() != null) {
             final File backupFolderFile;
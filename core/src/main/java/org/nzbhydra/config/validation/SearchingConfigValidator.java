@@ -78,6 +78,12 @@ public class SearchingConfigValidator implements ConfigValidator<SearchingConfig
                 errors.add("The group 'season' is not allowed in custom mapping input patterns.");
             }
         }
+        if (newConfig.getApiEarlyReturnSeconds().isPresent() && newConfig.getTimeout() != null && newConfig.getApiEarlyReturnSeconds().get() >= newConfig.getTimeout()) {
+            warnings.add("The API early return time in \"Searching\" is not lower than the timeout and will have no effect");
+        }
+        if (newConfig.getMaxConcurrentApiSearches() > 0 && newConfig.getMaxConcurrentApiSearches() + newConfig.getApiSearchQueueSize() >= newBaseConfig.getMain().getWebServerThreads()) {
+            warnings.add("The number of concurrent API searches plus the API search queue size in \"Searching\" is not lower than the number of web server threads. Waiting searches may block the web UI and downloads");
+        }
         final List<String> emptyTrailing = (newConfig.getRemoveTrailing().stream().filter(Strings::isNullOrEmpty)).toList();
         if (!emptyTrailing.isEmpty()) {
             errors.add("Trailing values to remove contains empty values");
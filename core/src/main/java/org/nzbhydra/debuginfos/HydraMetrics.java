@@ -0,0 +1,181 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.debuginfos;
+
+import com.google.common.collect.Multiset;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the timings and counts of the search and download pipeline. The meters are available via /actuator/metrics and
+ * /actuator/prometheus. Timers publish histograms so that percentiles can be calculated across instances.
+ * <p>
+ * Spring Boot adds its registries to Micrometer's global registry, so the meters can be recorded from anywhere without
+ * wiring a registry into every class. Without a registry (e.g. in unit tests) the meters are still created but discard
+ * everything recorded.
+ * <p>
+ * Meters are created once per name and tags and then reused, events are recorded often (e.g. for every indexer call).
+ * Missing tag values are recorded as "unknown". Errors while recording are logged and never passed on to the caller.
+ */
+public final class HydraMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(HydraMetrics.class);
+
+    private static final MeterRegistry registry = Metrics.globalRegistry;
+
+    private static final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+    private static final Map<List<String>, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private static final Map<List<String>, Counter> counters = new ConcurrentHashMap<>();
+
+    private HydraMetrics() {
+    }
+
+    /**
+     * @param accessType e.g. "search" or "nfo"
+     * @param result     "successful" or "error"
+     */
+    public static void recordIndexerRequest(String indexer, String accessType, String result, long millis) {
+        record(() -> timer("hydra.indexer.request", "Calls to indexers", "indexer", indexer, "type", accessType, "result", result).record(millis, TimeUnit.MILLISECONDS));
+    }
+
+    public static void recordIndexerParsing(String indexer, long millis) {
+        record(() -> timer("hydra.indexer.parse", "Parsing and mapping of the results returned by an indexer", "indexer", indexer).record(millis, TimeUnit.MILLISECONDS));
+    }
+
+    public static void recordIndexerPersistence(String indexer, long millis) {
+        record(() -> timer("hydra.indexer.persist", "Persisting the accepted results of an indexer search", "indexer", indexer).record(millis, TimeUnit.MILLISECONDS));
+    }
+
+    public static void countRejectedResults(String indexer, Multiset<String> reasonsForRejection) {
+        record(() -> {
+            for (Multiset.Entry<String> entry : reasonsForRejection.entrySet()) {
+                counter("hydra.results.rejected", "indexer", indexer, "reason", entry.getElement()).increment(entry.getCount());
+            }
+        });
+    }
+
+    public static void recordResultAcceptance(long millis) {
+        record(() -> timer("hydra.results.accept", "Checking search results for acceptance").record(millis, TimeUnit.MILLISECONDS));
+    }
+
+    public static void recordDuplicateDetection(long millis) {
+        record(() -> timer("hydra.search.duplicates", "Duplicate detection of search results").record(millis, TimeUnit.MILLISECONDS));
+    }
+
+    public static void recordResultsWrite(int count, long millis) {
+        record(() -> {
+            timer("hydra.search.results.write", "Writing a batch of search results to the database").record(millis, TimeUnit.MILLISECONDS);
+            summary("hydra.search.results.written", "Search results written to the database per batch", null).record(count);
+        });
+    }
+
+    public static void recordSearch(String source, long millis) {
+        record(() -> timer("hydra.search", "Searches including indexer selection, all indexer calls and result processing", "source", source).record(millis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @param statusCheckType "history" or "queue"
+     */
+    public static void recordDownloaderPoll(String downloader, String statusCheckType, boolean successful, long millis) {
+        record(() -> {
+            timer("hydra.downloader.poll", "Polling a downloader's history or queue for download status updates",
+                "downloader", downloader, "type", statusCheckType, "result", successful ? "successful" : "error").record(millis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    public static void recordNzbProxied(String indexer, long bytes, long millis) {
+        record(() -> {
+            timer("hydra.nzb.proxy", "Downloading NZBs or torrents from indexers to pass them on", "indexer", indexer).record(millis, TimeUnit.MILLISECONDS);
+            summary("hydra.nzb.proxy.bytes", "Size of NZBs or torrents passed on", "bytes", "indexer", indexer).record(bytes);
+        });
+    }
+
+    /**
+     * Registers the executor's queue size, active threads and completed tasks as "executor.*" metrics tagged with the name.
+     */
+    public static void monitorExecutor(ExecutorService executor, String name) {
+        record(() -> new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry));
+    }
+
+    private static void record(Runnable recording) {
+        try {
+            recording.run();
+        } catch (Exception e) {
+            logger.warn("Unable to record metrics", e);
+        }
+    }
+
+    /**
+     * @param tags alternating tag keys and values
+     */
+    private static Timer timer(String name, String description, String... tags) {
+        String[] finalTags = withoutNullValues(tags);
+        return timers.computeIfAbsent(key(name, finalTags), x -> Timer.builder(name)
+            .description(description)
+            .tags(finalTags)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    private static DistributionSummary summary(String name, String description, String baseUnit, String... tags) {
+        String[] finalTags = withoutNullValues(tags);
+        return summaries.computeIfAbsent(key(name, finalTags), x -> DistributionSummary.builder(name)
+            .description(description)
+            .baseUnit(baseUnit)
+            .tags(finalTags)
+            .register(registry));
+    }
+
+    private static Counter counter(String name, String... tags) {
+        String[] finalTags = withoutNullValues(tags);
+        return counters.computeIfAbsent(key(name, finalTags), x -> registry.counter(name, finalTags));
+    }
+
+    //Micrometer doesn't allow null tag values
+    private static String[] withoutNullValues(String... tags) {
+        String[] result = tags.clone();
+        for (int i = 1; i < result.length; i += 2) {
+            if (result[i] == null) {
+                result[i] = "unknown";
+            }
+        }
+        return result;
+    }
+
+    private static List<String> key(String name, String... tags) {
+        List<String> key = new ArrayList<>(tags.length + 1);
+        key.add(name);
+        key.addAll(Arrays.asList(tags));
+        return key;
+    }
+
+}
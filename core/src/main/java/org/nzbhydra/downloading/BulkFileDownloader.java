@@ -0,0 +1,268 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.downloading;
+
+import jakarta.annotation.PreDestroy;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchSource;
+import org.nzbhydra.config.downloading.FileDownloadAccessType;
+import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.debuginfos.HydraMetrics;
+import org.nzbhydra.indexers.IndexerAccessTracker;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
+import org.nzbhydra.searching.IndexerForSearchSelector;
+import org.nzbhydra.searching.db.SearchResultEntity;
+import org.nzbhydra.searching.db.SearchResultRepository;
+import org.nzbhydra.web.SessionStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Downloads the files of multiple search results (e.g. when the user selected a couple of results in the UI to add them
+ * to a downloader or to download them as ZIP). The files are downloaded concurrently but with only a few connections per
+ * indexer at once. Results that would exceed an indexer's download limit are not downloaded at all.
+ * <p>
+ * The results are handed to the caller's thread in the order in which they were given, each one as soon as it and all
+ * results before it are downloaded, so the caller can process one file while the others are still being downloaded.
+ */
+@Component
+public class BulkFileDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkFileDownloader.class);
+
+    private static final int MAX_CONCURRENT_DOWNLOADS = 8;
+    private static final int MAX_CONCURRENT_DOWNLOADS_PER_INDEXER = 2;
+
+    @Autowired
+    private FileHandler fileHandler;
+    @Autowired
+    private SearchResultRepository searchResultRepository;
+    @Autowired
+    private ConfigProvider configProvider;
+    @Autowired
+    private IndexerAccessTracker indexerAccessTracker;
+    protected Clock clock = Clock.systemUTC();
+
+    private final ThreadPoolExecutor executor;
+
+    public BulkFileDownloader() {
+        executor = MdcThreadPoolExecutor.newWithInheritedMdc(MAX_CONCURRENT_DOWNLOADS, MAX_CONCURRENT_DOWNLOADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        HydraMetrics.monitorExecutor(executor, "bulkFileDownloads");
+    }
+
+    /**
+     * Loads the search results with the given IDs using one query.
+     *
+     * @return the found search results by their ID, in the order of the given IDs. IDs of unknown (e.g. outdated) results are missing.
+     */
+    public Map<Long, SearchResultEntity> loadSearchResults(Collection<Long> searchResultIds) {
+        Map<Long, SearchResultEntity> foundById = new LinkedHashMap<>();
+        for (SearchResultEntity searchResult : searchResultRepository.findAllById(searchResultIds)) {
+            foundById.put(searchResult.getId(), searchResult);
+        }
+        Map<Long, SearchResultEntity> ordered = new LinkedHashMap<>();
+        for (Long searchResultId : searchResultIds) {
+            if (foundById.containsKey(searchResultId)) {
+                ordered.put(searchResultId, foundById.get(searchResultId));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Downloads the files of the given search results via NZBHydra and calls the consumer for each result in the order of
+     * the given results. The consumer is always called in the calling thread. If it throws a checked exception no more
+     * downloads are started and the exception is rethrown after the running downloads are finished. Unchecked exceptions
+     * are rethrown immediately.
+     */
+    public <E extends Exception> void download(Collection<SearchResultEntity> searchResults, SearchSource accessSource, ResultConsumer<E> consumer) throws E {
+        if (searchResults.isEmpty()) {
+            return;
+        }
+        List<SearchResultEntity> ordered = new ArrayList<>(searchResults);
+        BlockingQueue<Result> results = new LinkedBlockingQueue<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        int runningLanes = 0;
+        for (Map.Entry<String, List<Integer>> entry : groupByIndexer(ordered).entrySet()) {
+            String indexerName = entry.getKey();
+            List<Integer> indexerResults = entry.getValue();
+            IndexerConfig indexerConfig;
+            try {
+                indexerConfig = configProvider.getIndexerByName(indexerName);
+            } catch (RuntimeException e) {
+                //The indexer may have been deleted since the search
+                logger.warn("Not downloading {} results of unknown indexer {}", indexerResults.size(), indexerName);
+                indexerResults.forEach(index -> results.add(new Result(index, ordered.get(index), DownloadResult.createErrorResult("Indexer " + indexerName + " not found"))));
+                continue;
+            }
+            int remainingDownloads = getRemainingDownloads(ordered.get(indexerResults.get(0)), indexerConfig);
+            Queue<Integer> toDownload = new ConcurrentLinkedQueue<>();
+            for (Integer index : indexerResults) {
+                if (toDownload.size() < remainingDownloads) {
+                    toDownload.add(index);
+                } else {
+                    logger.info("Not downloading \"{}\" because the download limit of indexer {} is reached", ordered.get(index).getTitle(), indexerName);
+                    results.add(new Result(index, ordered.get(index), DownloadResult.createErrorResult("Download limit of indexer " + indexerName + " reached")));
+                }
+            }
+            int lanes = Math.min(MAX_CONCURRENT_DOWNLOADS_PER_INDEXER, toDownload.size());
+            for (int i = 0; i < lanes; i++) {
+                //Each lane downloads one file after the other so that the indexer never gets more than the allowed number of connections
+                executor.execute(wrap(() -> downloadAll(ordered, toDownload, accessSource, results, cancelled)));
+                runningLanes++;
+            }
+        }
+        logger.debug("Downloading {} files using {} connections", ordered.size(), runningLanes);
+
+        E consumerException = null;
+        //Results which finished before the ones preceding them, by their position
+        Map<Integer, Result> finishedEarly = new HashMap<>();
+        int next = 0;
+        while (next < ordered.size()) {
+            Result result;
+            try {
+                result = results.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled.set(true);
+                throw new RuntimeException("Interrupted while waiting for downloads", e);
+            }
+            finishedEarly.put(result.index(), result);
+            while (finishedEarly.containsKey(next)) {
+                result = finishedEarly.remove(next++);
+                if (result.downloadResult() == null || consumerException != null) {
+                    //Skipped because of an earlier error
+                    continue;
+                }
+                try {
+                    consumer.accept(result.searchResult(), result.downloadResult());
+                } catch (RuntimeException e) {
+                    cancelled.set(true);
+                    throw e;
+                } catch (Exception e) {
+                    cancelled.set(true);
+                    //The consumer may only throw unchecked exceptions or E
+                    @SuppressWarnings("unchecked") E typed = (E) e;
+                    consumerException = typed;
+                }
+            }
+        }
+        if (consumerException != null) {
+            throw consumerException;
+        }
+    }
+
+    private void downloadAll(List<SearchResultEntity> searchResults, Queue<Integer> toDownload, SearchSource accessSource, BlockingQueue<Result> results, AtomicBoolean cancelled) {
+        Integer index = null;
+        try {
+            while ((index = toDownload.poll()) != null) {
+                SearchResultEntity searchResult = searchResults.get(index);
+                if (cancelled.get()) {
+                    results.add(new Result(index, searchResult, null));
+                    continue;
+                }
+                DownloadResult downloadResult;
+                try {
+                    downloadResult = fileHandler.getFileByResult(FileDownloadAccessType.PROXY, accessSource, searchResult);
+                } catch (Exception e) {
+                    logger.error("Error while downloading \"{}\"", searchResult.getTitle(), e);
+                    downloadResult = DownloadResult.createErrorResult("Error while downloading " + searchResult.getTitle() + ": " + e.getMessage());
+                }
+                results.add(new Result(index, searchResult, downloadResult));
+            }
+        } finally {
+            //The caller waits for a result for every search result, even if this lane dies unexpectedly
+            if (index != null) {
+                completeWithError(searchResults, index, results);
+                while ((index = toDownload.poll()) != null) {
+                    completeWithError(searchResults, index, results);
+                }
+            }
+        }
+    }
+
+    private static void completeWithError(List<SearchResultEntity> searchResults, int index, BlockingQueue<Result> results) {
+        SearchResultEntity searchResult = searchResults.get(index);
+        results.add(new Result(index, searchResult, DownloadResult.createErrorResult("Unexpected error while downloading " + searchResult.getTitle())));
+    }
+
+    private Runnable wrap(Runnable runnable) {
+        Supplier<Void> withSession = SessionStorage.withCurrentValues(() -> {
+            runnable.run();
+            return null;
+        });
+        return withSession::get;
+    }
+
+    /**
+     * @return the positions of the search results by the names of their indexers
+     */
+    private Map<String, List<Integer>> groupByIndexer(List<SearchResultEntity> searchResults) {
+        Map<String, List<Integer>> byIndexer = new LinkedHashMap<>();
+        for (int i = 0; i < searchResults.size(); i++) {
+            byIndexer.computeIfAbsent(searchResults.get(i).getIndexer().getName(), x -> new ArrayList<>()).add(i);
+        }
+        return byIndexer;
+    }
+
+    /**
+     * @return the number of downloads still allowed for the indexer, {@link Integer#MAX_VALUE} if it has no download limit
+     */
+    private int getRemainingDownloads(SearchResultEntity searchResult, IndexerConfig indexerConfig) {
+        if (indexerConfig.getDownloadLimit().isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        Instant since = IndexerForSearchSelector.getHitLimitComparisonTime(indexerConfig, clock).toInstant(ZoneOffset.UTC);
+        int downloads = indexerAccessTracker.countSince(searchResult.getIndexer().getId(), IndexerAccessTracker.AccessGroup.DOWNLOADS, since);
+        return Math.max(0, indexerConfig.getDownloadLimit().get() - downloads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface ResultConsumer<E extends Exception> {
+        void accept(SearchResultEntity searchResult, DownloadResult downloadResult) throws E;
+    }
+
+    private record Result(int index, SearchResultEntity searchResult, DownloadResult downloadResult) {
+    }
+
+}
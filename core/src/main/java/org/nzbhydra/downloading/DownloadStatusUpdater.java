@@ -33,7 +33,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -135,14 +137,18 @@ public class DownloadStatusUpdater {
             logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Returning and setting {} status update disabled because no current downloads are waiting for updates", statusCheckType);
             return;
         }
-        List<FileDownloadEntity> updatedDownloads = new ArrayList<>();
+        //A download may be matched by multiple downloaders or entries but only needs to be saved once
+        Set<FileDownloadEntity> updatedDownloads = new LinkedHashSet<>();
         logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "{} downloads waiting for {} update", downloadsWaitingForUpdate.size(), statusCheckType);
         for (Downloader downloader : downloaderProvider.getAllDownloaders()) {
             if (downloader.isEnabled()) {
                 updatedDownloads.addAll(downloader.checkForStatusUpdates(downloadsWaitingForUpdate, statusCheckType));
             }
         }
-        downloadRepository.saveAll(updatedDownloads);
+        if (!updatedDownloads.isEmpty()) {
+            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Saving {} downloads with updated status", updatedDownloads.size());
+            downloadRepository.saveAll(new ArrayList<>(updatedDownloads));
+        }
     }
 
 }
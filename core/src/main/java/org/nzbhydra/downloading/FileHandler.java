@@ -1,23 +1,24 @@
 package org.nzbhydra.downloading;
 
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.Sets;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 import org.jetbrains.annotations.NotNull;
+import org.nzbhydra.Jackson;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.SearchSource;
 import org.nzbhydra.config.downloading.DownloadType;
 import org.nzbhydra.config.downloading.FileDownloadAccessType;
 import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.indexers.IndexerApiAccessEntityShort;
+import org.nzbhydra.indexers.IndexerAccessTracker;
 import org.nzbhydra.indexers.IndexerApiAccessEntityShortRepository;
 import org.nzbhydra.indexers.IndexerApiAccessType;
 import org.nzbhydra.indexers.NfoResult;
-import org.nzbhydra.misc.TempFileProvider;
 import org.nzbhydra.notifications.DownloadNotificationEvent;
 import org.nzbhydra.searching.SearchModuleProvider;
 import org.nzbhydra.searching.db.SearchResultEntity;
@@ -28,14 +29,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -47,6 +48,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +70,8 @@ public class FileHandler {
     @Autowired
     private IndexerApiAccessEntityShortRepository shortRepository;
     @Autowired
+    private IndexerAccessTracker indexerAccessTracker;
+    @Autowired
     protected SearchModuleProvider searchModuleProvider;
     @Autowired
     protected HydraOkHttp3ClientHttpRequestFactory clientHttpRequestFactory;
@@ -78,9 +82,9 @@ public class FileHandler {
     @Autowired
     private IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions;
 
-    private final Set<File> temporaryZipFiles = new HashSet<>();
     @Autowired
-    private TempFileProvider tempFileProvider;
+    @Lazy
+    private BulkFileDownloader bulkFileDownloader;
 
     public DownloadResult getFileByGuid(long guid, SearchSource accessSource) throws InvalidSearchResultIdException {
         final SearchResultEntity searchResult = getResultFromGuid(guid, accessSource);
@@ -168,13 +172,14 @@ public class FileHandler {
             if (configProvider.getBaseConfig().getMain().isKeepHistory()) {
                 downloadRepository.save(downloadEntity);
             }
-            shortRepository.save(new IndexerApiAccessEntityShort(result.getIndexer(), false, IndexerApiAccessType.NZB));
+            saveShortTermAccess(result, false);
 
             publishEvents(result, downloadEntity);
             return DownloadResult.createErrorResult("An error occurred while downloading " + result.getTitle() + " from indexer " + result.getIndexer().getName(), HttpStatus.valueOf(e.getStatus()), downloadEntity);
         }
 
         long responseTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        HydraMetrics.recordNzbProxied(result.getIndexer().getName(), fileContent.length, responseTime);
         //LATER CHeck content of file for errors, perhaps an indexer returns successful code but error in message for some reason
         logger.info("{} download from indexer successfully completed in {}ms", result.getDownloadType() == DownloadType.NZB ? "NZB" : "Torrent", responseTime);
 
@@ -182,7 +187,7 @@ public class FileHandler {
         if (configProvider.getBaseConfig().getMain().isKeepHistory()) {
             downloadRepository.save(downloadEntity);
         }
-        shortRepository.save(new IndexerApiAccessEntityShort(result.getIndexer(), true, IndexerApiAccessType.NZB));
+        saveShortTermAccess(result, true);
         publishEvents(result, downloadEntity);
 
         return DownloadResult.createSuccessfulDownloadResult(result.getTitle(), fileContent, downloadEntity);
@@ -195,12 +200,18 @@ public class FileHandler {
         if (configProvider.getBaseConfig().getMain().isKeepHistory()) {
             downloadRepository.save(downloadEntity);
         }
-        shortRepository.save(new IndexerApiAccessEntityShort(result.getIndexer(), true, IndexerApiAccessType.NZB));
+        saveShortTermAccess(result, true);
         publishEvents(result, downloadEntity);
 
         return DownloadResult.createSuccessfulRedirectResult(result.getTitle(), actualUrl != null ? actualUrl : result.getLink(), downloadEntity);
     }
 
+    private void saveShortTermAccess(SearchResultEntity result, boolean successful) {
+        IndexerApiAccessEntityShort shortAccess = new IndexerApiAccessEntityShort(result.getIndexer(), successful, IndexerApiAccessType.NZB);
+        shortRepository.save(shortAccess);
+        indexerAccessTracker.recordAccess(shortAccess);
+    }
+
     private void publishEvents(SearchResultEntity result, FileDownloadEntity downloadEntity) {
         try {
             eventPublisher.publishEvent(new FileDownloadEvent(downloadEntity, result));
@@ -213,107 +224,85 @@ public class FileHandler {
     }
 
 
-    public FileZipResponse getFilesAsZip(List<Long> guids) throws Exception {
-        Path tempDirectory;
-        try {
-            tempDirectory = Files.createTempDirectory("nzbhydra");
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        final NzbsDownload nzbsDownload = getNzbsAsFiles(guids, tempDirectory);
-        if (nzbsDownload.files.isEmpty()) {
-            return new FileZipResponse(false, null, "No files could be retrieved", Collections.emptyList(), guids);
-        }
-        File zip = createZip(nzbsDownload.files);
-        zip.deleteOnExit();
-        logger.info("Successfully added {}/{} files to ZIP", nzbsDownload.files.size(), guids.size());
-        if (nzbsDownload.tempDirectory != null) {
-            nzbsDownload.tempDirectory.toFile().delete();
-        }
-
-        String message = nzbsDownload.failedIds.isEmpty() ? "All files successfully retrieved" : nzbsDownload.failedIds.size() + " files could not be loaded";
-        return new FileZipResponse(true, zip.getAbsolutePath(), message, nzbsDownload.successfulIds, nzbsDownload.failedIds);
-    }
-
-    private NzbsDownload getNzbsAsFiles(Collection<Long> guids, Path targetDirectory) {
-        final NzbsDownload nzbsDownload;
-
-        final List<File> files = new ArrayList<>();
+    /**
+     * Downloads the files for the given search results and writes them to the stream as ZIP, each one as soon as it's
+     * downloaded. No temporary files are created. The status and headers of the HTTP response are sent before the first
+     * file so the results can't be returned in a header. Instead they're written as {@link FileZipResponse} JSON to the
+     * ZIP's comment which the UI reads from the end of the ZIP.
+     */
+    public FileZipResponse writeFilesAsZip(List<Long> guids, OutputStream outputStream) throws IOException {
         final List<Long> successfulIds = new ArrayList<>();
         final List<Long> failedIds = new ArrayList<>();
+        final Set<String> fileNames = new HashSet<>();
+        ZipOutputStream zos = new ZipOutputStream(outputStream);
 
+        bulkFileDownloader.download(getResultsForProxying(guids, failedIds), SearchSource.INTERNAL, (searchResult, result) -> {
+            if (!result.isSuccessful()) {
+                failedIds.add(searchResult.getId());
+                return;
+            }
+            String fileName = getUniqueFileName(result, fileNames);
+            logger.debug("Adding file {} to ZIP", fileName);
+            zos.putNextEntry(new ZipEntry(fileName));
+            zos.write(result.getContent());
+            zos.closeEntry();
+            successfulIds.add(searchResult.getId());
+        });
+
+        FileZipResponse response;
+        if (successfulIds.isEmpty()) {
+            response = new FileZipResponse(false, null, "No files could be retrieved", Collections.emptyList(), guids);
+        } else {
+            logger.info("Successfully added {}/{} files to ZIP", successfulIds.size(), guids.size());
+            String message = failedIds.isEmpty() ? "All files successfully retrieved" : failedIds.size() + " files could not be loaded";
+            response = new FileZipResponse(true, null, message, successfulIds, failedIds);
+        }
+        zos.setComment(Jackson.JSON_MAPPER.writeValueAsString(response));
+        zos.finish();
+        return response;
+    }
+
+    /**
+     * Loads the search results which may be downloaded via NZBHydra. The IDs of all others are added to the failed IDs.
+     */
+    private List<SearchResultEntity> getResultsForProxying(Collection<Long> guids, List<Long> failedIds) {
+        final Map<Long, SearchResultEntity> searchResults = bulkFileDownloader.loadSearchResults(guids);
+        final List<SearchResultEntity> resultsToDownload = new ArrayList<>();
         for (Long guid : guids) {
-            DownloadResult result;
-            try {
-                final SearchResultEntity searchResult = getResultFromGuid(guid, SearchSource.INTERNAL);
-                final IndexerConfig indexerConfig = configProvider.getIndexerByName(searchResult.getIndexer().getName());
-                final FileDownloadAccessType accessType = indexerSpecificDownloadExceptions.getAccessTypeForIndexer(indexerConfig, FileDownloadAccessType.PROXY, searchResult);
-                if (accessType == FileDownloadAccessType.PROXY) {
-                    result = getFileByGuid(guid, FileDownloadAccessType.PROXY, SearchSource.INTERNAL);
-                } else {
-                    logger.info("Can't download NZB from indexer {} because it forbids direct access from NZBHydra", indexerConfig.getName());
-                    failedIds.add(guid);
-                    continue;
-                }
-            } catch (InvalidSearchResultIdException e) {
+            final SearchResultEntity searchResult = searchResults.get(guid);
+            if (searchResult == null) {
+                logger.error("Download request with invalid/outdated GUID {}", guid);
                 failedIds.add(guid);
                 continue;
             }
-            if (!result.isSuccessful()) {
+            final IndexerConfig indexerConfig = configProvider.getIndexerByName(searchResult.getIndexer().getName());
+            final FileDownloadAccessType accessType = indexerSpecificDownloadExceptions.getAccessTypeForIndexer(indexerConfig, FileDownloadAccessType.PROXY, searchResult);
+            if (accessType != FileDownloadAccessType.PROXY) {
+                logger.info("Can't download NZB from indexer {} because it forbids direct access from NZBHydra", indexerConfig.getName());
                 failedIds.add(guid);
                 continue;
             }
-            try {
-                String title = result.getFileName().replaceAll("[\\\\/:*?\"<>|!]", "_");
-                File tempFile = new File(targetDirectory.toFile(), title);
-                logger.debug("Writing content to temp file {}", tempFile.getAbsolutePath());
-                Files.write(tempFile.toPath(), result.getContent());
-                files.add(tempFile);
-                successfulIds.add(guid);
-            } catch (IOException e) {
-                logger.error("Unable to write file content to temporary file: {}", e.getMessage());
-                failedIds.add(guid);
-            }
+            resultsToDownload.add(searchResult);
         }
-
-        return new NzbsDownload(files, successfulIds, failedIds, targetDirectory);
+        return resultsToDownload;
     }
 
-    public File createZip(List<File> nzbFiles) throws Exception {
-        logger.info("Creating ZIP with files");
-
-        File tempFile = tempFileProvider.getTempFile("nzbs", ".zip");
-        temporaryZipFiles.add(tempFile);
-        tempFile.deleteOnExit();
-        logger.debug("Using temp file {}", tempFile.getAbsolutePath());
-        FileOutputStream fos = new FileOutputStream(tempFile);
-        ZipOutputStream zos = new ZipOutputStream(fos);
-
-        for (File file : nzbFiles) {
-            addToZipFile(file, zos);
-            file.delete();
-        }
-
-        zos.close();
-        fos.close();
-
-        return tempFile;
+    private static String sanitizeFileName(String fileName) {
+        return fileName.replaceAll("[\\\\/:*?\"<>|!]", "_");
     }
 
-    private static void addToZipFile(File file, ZipOutputStream zos) throws IOException {
-        logger.debug("Adding file {} to temporary ZIP file", file.getAbsolutePath());
-        FileInputStream fis = new FileInputStream(file);
-        ZipEntry zipEntry = new ZipEntry(file.getName());
-        zos.putNextEntry(zipEntry);
-
-        byte[] bytes = new byte[1024];
-        int length;
-        while ((length = fis.read(bytes)) >= 0) {
-            zos.write(bytes, 0, length);
+    private static String getUniqueFileName(DownloadResult result, Set<String> usedFileNames) {
+        String fileName = sanitizeFileName(result.getFileName());
+        String uniqueFileName = fileName;
+        int counter = 1;
+        while (!usedFileNames.add(uniqueFileName)) {
+            int extensionIndex = fileName.lastIndexOf('.');
+            uniqueFileName = extensionIndex > 0
+                ? fileName.substring(0, extensionIndex) + " (" + counter + ")" + fileName.substring(extensionIndex)
+                : fileName + " (" + counter + ")";
+            counter++;
         }
-
-        zos.closeEntry();
-        fis.close();
+        return uniqueFileName;
     }
 
 
@@ -387,30 +376,28 @@ public class FileHandler {
             //Shouldn't happen
             return SaveOrSendResultsResponse.notOk("Black hole folder not set", searchResultIds);
         }
-        final NzbsDownload nzbsAsFiles = getNzbsAsFiles(Sets.newHashSet(searchResultIds), Paths.get(configProvider.getBaseConfig().getDownloading().getSaveNzbsTo().get()));
-        if (nzbsAsFiles.successfulIds.isEmpty()) {
+        final Path targetDirectory = Paths.get(configProvider.getBaseConfig().getDownloading().getSaveNzbsTo().get());
+        final List<Long> successfulIds = new ArrayList<>();
+        final List<Long> failedIds = new ArrayList<>();
+        bulkFileDownloader.download(getResultsForProxying(searchResultIds, failedIds), SearchSource.INTERNAL, (searchResult, result) -> {
+            if (!result.isSuccessful()) {
+                failedIds.add(searchResult.getId());
+                return;
+            }
+            try {
+                File file = new File(targetDirectory.toFile(), sanitizeFileName(result.getFileName()));
+                logger.debug("Writing content to file {}", file.getAbsolutePath());
+                Files.write(file.toPath(), result.getContent());
+                successfulIds.add(searchResult.getId());
+            } catch (IOException e) {
+                logger.error("Unable to write file content to file: {}", e.getMessage());
+                failedIds.add(searchResult.getId());
+            }
+        });
+        if (successfulIds.isEmpty()) {
             return SaveOrSendResultsResponse.notOk("Unable to save file for download NZB for some reason", searchResultIds);
         }
-        return new SaveOrSendResultsResponse(true, null, nzbsAsFiles.successfulIds, nzbsAsFiles.failedIds);
-    }
-
-    public Set<File> getTemporaryZipFiles() {
-        return temporaryZipFiles;
-    }
-
-    private static class NzbsDownload {
-        private final List<File> files;
-        private final List<Long> successfulIds;
-        private final List<Long> failedIds;
-        private final Path tempDirectory;
-
-
-        private NzbsDownload(List<File> files, List<Long> successfulIds, List<Long> failedIds, Path tempDirectory) {
-            this.files = files;
-            this.successfulIds = successfulIds;
-            this.failedIds = failedIds;
-            this.tempDirectory = tempDirectory;
-        }
+        return new SaveOrSendResultsResponse(true, null, successfulIds, failedIds);
     }
 
 }
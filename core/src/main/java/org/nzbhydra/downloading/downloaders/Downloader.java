@@ -31,8 +31,9 @@ import org.nzbhydra.config.downloading.DownloaderConfig;
 import org.nzbhydra.config.downloading.FileDownloadAccessType;
 import org.nzbhydra.config.downloading.NzbAddingType;
 import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.downloading.AddFilesRequest;
-import org.nzbhydra.downloading.DownloadResult;
+import org.nzbhydra.downloading.BulkFileDownloader;
 import org.nzbhydra.downloading.FileDownloadEntity;
 import org.nzbhydra.downloading.FileDownloadStatus;
 import org.nzbhydra.downloading.FileHandler;
@@ -54,18 +55,21 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Component
 public abstract class Downloader {
 
     private static final Logger logger = LoggerFactory.getLogger(Downloader.class);
+    private static final Pattern NAME_CLEANUP_PATTERN = Pattern.compile("[^a-zA-Z0-9 _\\-]");
 
     protected final Map<Long, String> guidExternalIds = ExpiringMap.builder()
             .expirationPolicy(ExpirationPolicy.CREATED)
@@ -80,6 +84,7 @@ public abstract class Downloader {
 
 
     protected FileHandler fileHandler;
+    protected BulkFileDownloader bulkFileDownloader;
     protected SearchResultRepository searchResultRepository;
     private final ApplicationEventPublisher applicationEventPublisher;
     private final IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions;
@@ -88,8 +93,9 @@ public abstract class Downloader {
     protected DownloaderConfig downloaderConfig;
     protected List<Long> downloadRates = new ArrayList<>();
 
-    public Downloader(FileHandler fileHandler, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, DownloadUrlBuilder downloadUrlBuilder) {
+    public Downloader(FileHandler fileHandler, BulkFileDownloader bulkFileDownloader, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, DownloadUrlBuilder downloadUrlBuilder) {
         this.fileHandler = fileHandler;
+        this.bulkFileDownloader = bulkFileDownloader;
         this.searchResultRepository = searchResultRepository;
         this.applicationEventPublisher = applicationEventPublisher;
         this.indexerSpecificDownloadExceptions = indexerSpecificDownloadExceptions;
@@ -115,59 +121,52 @@ public abstract class Downloader {
         Set<Long> addedNzbs = new HashSet<>();
         Set<SearchResultEntity> missedNzbs = new HashSet<>();
         try {
+            Map<Long, SearchResultEntity> searchResultsById = bulkFileDownloader.loadSearchResults(searchResults.stream().map(x -> Long.valueOf(x.getSearchResultId())).collect(Collectors.toList()));
+            Map<Long, String> categoriesToSend = new HashMap<>();
+            List<SearchResultEntity> toUpload = new ArrayList<>();
             for (AddFilesRequest.SearchResult entry : searchResults) {
                 Long guid = Long.valueOf(entry.getSearchResultId());
-                String categoryToSend;
-
-                if ("Use original category".equals(category)) {
-                    if ("N/A".equals(entry.getOriginalCategory())) {
-                        logger.info("Using mapped category {} because the original category is N/A", entry.getMappedCategory());
-                        categoryToSend = entry.getMappedCategory();
-                    } else {
-                        categoryToSend = entry.getOriginalCategory();
-                    }
-                } else if ("Use mapped category".equals(category)) {
-                    categoryToSend = entry.getMappedCategory();
-                } else if ("Use no category".equals(category)) {
-                    categoryToSend = null;
-                } else {
-                    categoryToSend = category;
-                }
-
-                Optional<SearchResultEntity> optionalResult = searchResultRepository.findById(guid);
-                if (optionalResult.isEmpty()) {
+                if (!searchResultsById.containsKey(guid)) {
                     logger.error("Download request with invalid/outdated GUID {}", guid);
                     throw new InvalidSearchResultIdException(guid, true);
                 }
-                final SearchResultEntity searchResult = optionalResult.get();
-                final String searchResultTitle = optionalResult.get().getTitle();
-                final IndexerConfig indexerConfig = configProvider.getIndexerByName(optionalResult.get().getIndexer().getName());
-                try {
+                categoriesToSend.put(guid, getCategoryToSend(entry, category));
+            }
 
-                    NzbAddingType addingType = getNzbAddingType(searchResult.getDownloadType(), searchResult);
-                    final FileDownloadAccessType accessTypeForIndexer = indexerSpecificDownloadExceptions.getAccessTypeForIndexer(indexerConfig, configProvider.getBaseConfig().getDownloading().getNzbAccessType(), searchResult);
-                    if (addingType == NzbAddingType.UPLOAD && accessTypeForIndexer == FileDownloadAccessType.PROXY) {
-                        DownloadResult result = fileHandler.getFileByResult(FileDownloadAccessType.PROXY, SearchSource.INTERNAL, optionalResult.get()); //Uploading NZBs can only be done via proxying
-                        if (result.isSuccessful()) {
-                            String externalId = addContent(result.getContent(), result.getTitle(), searchResult.getDownloadType(), categoryToSend);
-                            result.getDownloadEntity().setExternalId(externalId);
-                            fileHandler.updateStatusByEntity(result.getDownloadEntity(), FileDownloadStatus.NZB_ADDED);
-                            addedNzbs.add(guid);
-                        } else {
-                            missedNzbs.add(searchResult);
-                        }
-                    } else {
-                        String link = downloadUrlBuilder.getDownloadLinkForSendingToDownloader(searchResult, false);
-                        String externalId = addLink(link, searchResultTitle, searchResult.getDownloadType(), categoryToSend);
-                        guidExternalIds.put(guid, externalId);
-                        addedNzbs.add(guid);
-                    }
+            for (SearchResultEntity searchResult : searchResultsById.values()) {
+                final IndexerConfig indexerConfig = configProvider.getIndexerByName(searchResult.getIndexer().getName());
+                NzbAddingType addingType = getNzbAddingType(searchResult.getDownloadType(), searchResult);
+                final FileDownloadAccessType accessTypeForIndexer = indexerSpecificDownloadExceptions.getAccessTypeForIndexer(indexerConfig, configProvider.getBaseConfig().getDownloading().getNzbAccessType(), searchResult);
+                if (addingType == NzbAddingType.UPLOAD && accessTypeForIndexer == FileDownloadAccessType.PROXY) {
+                    //Uploading NZBs can only be done via proxying. The files are downloaded below in parallel
+                    toUpload.add(searchResult);
+                    continue;
+                }
+                try {
+                    String link = downloadUrlBuilder.getDownloadLinkForSendingToDownloader(searchResult, false);
+                    String externalId = addLink(link, searchResult.getTitle(), searchResult.getDownloadType(), categoriesToSend.get(searchResult.getId()));
+                    guidExternalIds.put(searchResult.getId(), externalId);
+                    addedNzbs.add(searchResult.getId());
                 } catch (DuplicateNzbException e) {
-                    if (searchResult != null) {
-                        missedNzbs.add(searchResult);
-                    }
+                    missedNzbs.add(searchResult);
                 }
             }
+
+            //Each file is uploaded as soon as it's downloaded while the others are still being downloaded
+            bulkFileDownloader.download(toUpload, SearchSource.INTERNAL, (searchResult, result) -> {
+                if (!result.isSuccessful()) {
+                    missedNzbs.add(searchResult);
+                    return;
+                }
+                try {
+                    String externalId = addContent(result.getContent(), result.getTitle(), searchResult.getDownloadType(), categoriesToSend.get(searchResult.getId()));
+                    result.getDownloadEntity().setExternalId(externalId);
+                    fileHandler.updateStatusByEntity(result.getDownloadEntity(), FileDownloadStatus.NZB_ADDED);
+                    addedNzbs.add(searchResult.getId());
+                } catch (DuplicateNzbException e) {
+                    missedNzbs.add(searchResult);
+                }
+            });
         } catch (InvalidSearchResultIdException | DownloaderException | EntityNotFoundException e) {
             String message;
             if (e instanceof EntityNotFoundException) {
@@ -193,6 +192,21 @@ public abstract class Downloader {
         }
     }
 
+    private static String getCategoryToSend(AddFilesRequest.SearchResult entry, String category) {
+        if ("Use original category".equals(category)) {
+            if ("N/A".equals(entry.getOriginalCategory())) {
+                logger.info("Using mapped category {} because the original category is N/A", entry.getMappedCategory());
+                return entry.getMappedCategory();
+            }
+            return entry.getOriginalCategory();
+        } else if ("Use mapped category".equals(category)) {
+            return entry.getMappedCategory();
+        } else if ("Use no category".equals(category)) {
+            return null;
+        }
+        return category;
+    }
+
     protected NzbAddingType getNzbAddingType(DownloadType downloadType, SearchResultEntity searchResult) {
         return downloaderConfig.getNzbAddingType();
     }
@@ -235,46 +249,52 @@ public abstract class Downloader {
         List<FileDownloadEntity> updatedDownloads = new ArrayList<>();
         try {
             List<DownloaderEntry> downloaderEntries;
-            if (statusCheckType == StatusCheckType.HISTORY) {
-                downloaderEntries = getHistory(earliestDownload);
-            } else {
-                downloaderEntries = getQueue(earliestDownload);
+            Stopwatch pollStopwatch = Stopwatch.createStarted();
+            String pollType = statusCheckType.name().toLowerCase(Locale.ROOT);
+            try {
+                if (statusCheckType == StatusCheckType.HISTORY) {
+                    downloaderEntries = getHistory(earliestDownload);
+                } else {
+                    downloaderEntries = getQueue(earliestDownload);
+                }
+            } catch (DownloaderException e) {
+                HydraMetrics.recordDownloaderPoll(downloaderConfig.getName(), pollType, false, pollStopwatch.elapsed(TimeUnit.MILLISECONDS));
+                throw e;
             }
+            HydraMetrics.recordDownloaderPoll(downloaderConfig.getName(), pollType, true, pollStopwatch.elapsed(TimeUnit.MILLISECONDS));
             logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Found {} downloader history entries", downloaderEntries.size());
             Set<FileDownloadEntity> matchedDownloads = new HashSet<>();
             Set<DownloaderEntry> matchedEntries = new HashSet<>();
+            DownloaderEntryIndex entryIndex = new DownloaderEntryIndex(downloaderEntries);
             for (FileDownloadEntity download : downloads) {
-                for (DownloaderEntry entry : downloaderEntries) {
-                    if (download.getSearchResult() == null) {
+                if (download.getSearchResult() == null) {
+                    continue;
+                }
+                for (DownloaderEntry entry : getMatchingDownloaderEntries(download, entryIndex)) {
+                    matchedDownloads.add(download);
+                    matchedEntries.add(entry);
+                    logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Found match between download and downloader entry with title {}", entry.getNzbName());
+                    FileDownloadStatus newStatus = getDownloadStatusFromDownloaderEntry(entry, statusCheckType);
+                    if (newStatus == null) {
+                        //Could be any status that we're not prepared for
+                        logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Unable to map downloader status {}", entry.getStatus());
                         continue;
                     }
-                    if (isDownloadMatchingDownloaderEntry(download, entry)) {
-                        matchedDownloads.add(download);
-                        matchedEntries.add(entry);
-                        logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Found match between download and downloader entry with title {}", entry.getNzbName());
-                        FileDownloadStatus newStatus = getDownloadStatusFromDownloaderEntry(entry, statusCheckType);
-                        if (newStatus == null) {
-                            //Could be any status that we're not prepared for
-                            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Unable to map downloader status {}", entry.getStatus());
-                            continue;
-                        }
-                        if ((download.getStatus() == FileDownloadStatus.NONE || download.getStatus() == FileDownloadStatus.REQUESTED) && download.getExternalId() == null && statusCheckType == StatusCheckType.QUEUE) {
-                            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Current download status is {} and no downloader ID was set. Setting ID {} now", entry.getStatus(), entry.getNzbId());
-                            //Setting the external ID will make it better identifiable in the history later and make false positives less likely
-                            download.setExternalId(String.valueOf(entry.getNzbId()));
-                        }
-                        if (newStatus.canUpdate(download.getStatus())) {
-                            download.setStatus(newStatus);
-                            updatedDownloads.add(download);
-                            logger.info("Updating download status for {} to {}", entry.getNzbName(), newStatus);
-                        }
-                        if (newStatus.isFinal()) {
-                            logger.debug(LoggingMarkers.NOTIFICATIONS, "Throwing notification for final download status {} of {}", newStatus, entry.getNzbName());
-                            applicationEventPublisher.publishEvent(new DownloadCompletionNotificationEvent(entry.getNzbName(), newStatus.humanize()));
-                        }
+                    if ((download.getStatus() == FileDownloadStatus.NONE || download.getStatus() == FileDownloadStatus.REQUESTED) && download.getExternalId() == null && statusCheckType == StatusCheckType.QUEUE) {
+                        logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Current download status is {} and no downloader ID was set. Setting ID {} now", entry.getStatus(), entry.getNzbId());
+                        //Setting the external ID will make it better identifiable in the history later and make false positives less likely
+                        download.setExternalId(String.valueOf(entry.getNzbId()));
+                    }
+                    if (newStatus.canUpdate(download.getStatus())) {
+                        download.setStatus(newStatus);
+                        updatedDownloads.add(download);
+                        logger.info("Updating download status for {} to {}", entry.getNzbName(), newStatus);
+                    }
+                    if (newStatus.isFinal()) {
+                        logger.debug(LoggingMarkers.NOTIFICATIONS, "Throwing notification for final download status {} of {}", newStatus, entry.getNzbName());
+                        applicationEventPublisher.publishEvent(new DownloadCompletionNotificationEvent(entry.getNzbName(), newStatus.humanize()));
                     }
                 }
-
             }
             Sets.SetView<FileDownloadEntity> unmatchedDownloads = Sets.difference(new HashSet<>(downloads), matchedDownloads);
             if (!unmatchedDownloads.isEmpty()) {
@@ -307,30 +327,60 @@ public abstract class Downloader {
 
     protected abstract FileDownloadStatus getDownloadStatusFromDownloaderEntry(DownloaderEntry entry, StatusCheckType statusCheckType);
 
-    boolean isDownloadMatchingDownloaderEntry(FileDownloadEntity download, DownloaderEntry entry) {
+    List<DownloaderEntry> getMatchingDownloaderEntries(FileDownloadEntity download, DownloaderEntryIndex entryIndex) {
         if (download.getExternalId() != null) {
-            boolean idMatches = download.getExternalId() != null && download.getExternalId().equals(entry.getNzbId());
-            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Trying to match downloader entry {} with download {}. Id match: {}. ", entry, download, idMatches);
+            List<DownloaderEntry> idMatches = entryIndex.getById(download.getExternalId());
+            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Trying to match download {} by ID. Id matches: {}. ", download, idMatches);
             return idMatches;
         }
         if (guidExternalIds.containsKey(download.getSearchResult().getId())) {
-            boolean idFromMapMatches = guidExternalIds.containsKey(download.getSearchResult().getId()) && guidExternalIds.get(download.getSearchResult().getId()).equals(entry.getNzbId());
-            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Trying to match downloader entry {} with download {}. Id map match: {}. ", entry, download, idFromMapMatches);
+            List<DownloaderEntry> idFromMapMatches = entryIndex.getById(guidExternalIds.get(download.getSearchResult().getId()));
+            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Trying to match download {} by ID from map. Id map matches: {}. ", download, idFromMapMatches);
             return idFromMapMatches;
         }
 
         if (download.getSearchResult().getTitle() == null) {
-            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Unable to match downloader entry {} with download {} without title ", entry, download);
-            return false;
+            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Unable to match download {} without title ", download);
+            return Collections.emptyList();
         }
-        //Remove any special characters that might've been removed by the downloader
-        String downloadTitleCleaned = download.getSearchResult().getTitle().replaceAll("[^a-zA-Z0-9 _\\-]", "");
-        String entryTitleCleaned = entry.getNzbName().replaceAll("[^a-zA-Z0-9 _\\-]", "");
-        boolean nameMatches = downloadTitleCleaned.equalsIgnoreCase(entryTitleCleaned);
-        logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Trying to match downloader entry {} with download {}. Name match: {}. ", entry, download, nameMatches);
+        List<DownloaderEntry> nameMatches = entryIndex.getByName(download.getSearchResult().getTitle());
+        logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Trying to match download {} by name. Name matches: {}. ", download, nameMatches);
         return nameMatches;
     }
 
+    /**
+     * Allows looking up downloader entries by their ID and name without comparing every download with every entry.
+     */
+    static class DownloaderEntryIndex {
+
+        private final Map<String, List<DownloaderEntry>> entriesById = new HashMap<>();
+        private final Map<String, List<DownloaderEntry>> entriesByName = new HashMap<>();
+
+        DownloaderEntryIndex(List<DownloaderEntry> entries) {
+            for (DownloaderEntry entry : entries) {
+                if (entry.getNzbId() != null) {
+                    entriesById.computeIfAbsent(entry.getNzbId(), x -> new ArrayList<>()).add(entry);
+                }
+                if (entry.getNzbName() != null) {
+                    entriesByName.computeIfAbsent(normalizeName(entry.getNzbName()), x -> new ArrayList<>()).add(entry);
+                }
+            }
+        }
+
+        List<DownloaderEntry> getById(String nzbId) {
+            return entriesById.getOrDefault(nzbId, Collections.emptyList());
+        }
+
+        List<DownloaderEntry> getByName(String title) {
+            return entriesByName.getOrDefault(normalizeName(title), Collections.emptyList());
+        }
+
+        private static String normalizeName(String name) {
+            //Remove any special characters that might've been removed by the downloader
+            return NAME_CLEANUP_PATTERN.matcher(name).replaceAll("").toLowerCase(Locale.ROOT);
+        }
+    }
+
     public String getUrl() {
         return downloaderConfig.getUrl();
     }
@@ -17,6 +17,7 @@
 package org.nzbhydra.downloading.downloaders;
 
 import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.downloading.BulkFileDownloader;
 import org.nzbhydra.downloading.DownloaderType;
 import org.nzbhydra.downloading.FileHandler;
 import org.nzbhydra.downloading.IndexerSpecificDownloadExceptions;
@@ -40,6 +41,8 @@ public class DownloaderInstatiator {
     @Autowired
     protected FileHandler nzbHandler;
     @Autowired
+    private BulkFileDownloader bulkFileDownloader;
+    @Autowired
     protected SearchResultRepository searchResultRepository;
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
@@ -63,13 +66,13 @@ public class DownloaderInstatiator {
     public Downloader instantiate(DownloaderType downloaderType) {
         switch (downloaderType) {
             case NZBGET -> {
-                return new NzbGet(nzbHandler, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, ssl, downloadUrlBuilder);
+                return new NzbGet(nzbHandler, bulkFileDownloader, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, ssl, downloadUrlBuilder);
             }
             case SABNZBD -> {
-                return new Sabnzbd(nzbHandler, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, restTemplate, requestFactory, downloadUrlBuilder);
+                return new Sabnzbd(nzbHandler, bulkFileDownloader, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, restTemplate, requestFactory, downloadUrlBuilder);
             }
             case TORBOX -> {
-                return new Torbox(nzbHandler, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, requestFactory, downloadUrlBuilder, torboxHttpRequestFactory);
+                return new Torbox(nzbHandler, bulkFileDownloader, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, requestFactory, downloadUrlBuilder, torboxHttpRequestFactory);
             }
         }
         throw new RuntimeException("Unable to instantiate " + downloaderType);
@@ -23,6 +23,7 @@ import org.nzbhydra.GenericResponse;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.downloading.DownloadType;
 import org.nzbhydra.config.downloading.DownloaderConfig;
+import org.nzbhydra.downloading.BulkFileDownloader;
 import org.nzbhydra.downloading.FileDownloadStatus;
 import org.nzbhydra.downloading.FileHandler;
 import org.nzbhydra.downloading.IndexerSpecificDownloadExceptions;
@@ -84,8 +85,8 @@ public class NzbGet extends Downloader {
 
     private final Ssl ssl;
 
-    public NzbGet(FileHandler nzbHandler, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, Ssl ssl, DownloadUrlBuilder downloadUrlBuilder) {
-        super(nzbHandler, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, downloadUrlBuilder);
+    public NzbGet(FileHandler nzbHandler, BulkFileDownloader bulkFileDownloader, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, Ssl ssl, DownloadUrlBuilder downloadUrlBuilder) {
+        super(nzbHandler, bulkFileDownloader, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, downloadUrlBuilder);
         this.ssl = ssl;
     }
 
@@ -13,6 +13,7 @@ import org.nzbhydra.GenericResponse;
 import org.nzbhydra.Jackson;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.downloading.DownloadType;
+import org.nzbhydra.downloading.BulkFileDownloader;
 import org.nzbhydra.downloading.DownloaderType;
 import org.nzbhydra.downloading.FileDownloadStatus;
 import org.nzbhydra.downloading.FileHandler;
@@ -80,12 +81,14 @@ public class Sabnzbd extends Downloader {
     }
 
     private Instant lastErrorLogged;
+    private Long lastHistoryUpdate;
+    private List<DownloaderEntry> lastHistoryEntries = new ArrayList<>();
 
     private final RestTemplate restTemplate;
     private final HydraOkHttp3ClientHttpRequestFactory requestFactory;
 
-    public Sabnzbd(FileHandler nzbHandler, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, RestTemplate restTemplate, HydraOkHttp3ClientHttpRequestFactory requestFactory, DownloadUrlBuilder downloadUrlBuilder) {
-        super(nzbHandler, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, downloadUrlBuilder);
+    public Sabnzbd(FileHandler nzbHandler, BulkFileDownloader bulkFileDownloader, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, RestTemplate restTemplate, HydraOkHttp3ClientHttpRequestFactory requestFactory, DownloadUrlBuilder downloadUrlBuilder) {
+        super(nzbHandler, bulkFileDownloader, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, downloadUrlBuilder);
         this.restTemplate = restTemplate;
         this.requestFactory = requestFactory;
     }
@@ -261,24 +264,38 @@ public class Sabnzbd extends Downloader {
 
     @Override
     public List<DownloaderEntry> getHistory(Instant earliestDownloadTime) throws DownloaderException {
-        //TODO: Store and use last_history_update? See https://sabnzbd.org/wiki/advanced/api#history_main
+        //See https://sabnzbd.org/wiki/advanced/api#history_main - if nothing changed since the last call no entries are sent
         UriComponentsBuilder uriBuilder = getBaseUrl().queryParam("mode", "history");
+        if (lastHistoryUpdate != null) {
+            uriBuilder.queryParam("last_history_update", lastHistoryUpdate);
+        }
         HistoryResponse queueResponse = callSabnzb(uriBuilder.build().toUri(), HistoryResponse.class);
-        List<DownloaderEntry> historyEntries = new ArrayList<>();
-        for (HistoryEntry historyEntry : queueResponse.getHistory().getSlots()) {
-            DownloaderEntry entry = new DownloaderEntry();
-            entry.setNzbId(historyEntry.getNzo_id());
-            entry.setNzbName(historyEntry.getName()); //nzbName ends with .nzb
-            entry.setStatus(historyEntry.getStatus());
-            entry.setTime(Instant.ofEpochSecond(historyEntry.getCompleted()));
+        Long responseHistoryUpdate = queueResponse.getHistory().getLast_history_update();
+        if (lastHistoryUpdate != null && lastHistoryUpdate.equals(responseHistoryUpdate)) {
+            logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "History unchanged since last check. Using {} known entries", lastHistoryEntries.size());
+        } else {
+            List<DownloaderEntry> historyEntries = new ArrayList<>();
+            for (HistoryEntry historyEntry : queueResponse.getHistory().getSlots()) {
+                DownloaderEntry entry = new DownloaderEntry();
+                entry.setNzbId(historyEntry.getNzo_id());
+                entry.setNzbName(historyEntry.getName()); //nzbName ends with .nzb
+                entry.setStatus(historyEntry.getStatus());
+                entry.setTime(Instant.ofEpochSecond(historyEntry.getCompleted()));
+                historyEntries.add(entry);
+            }
+            lastHistoryEntries = historyEntries;
+            lastHistoryUpdate = responseHistoryUpdate;
+        }
+
+        List<DownloaderEntry> entriesToCheck = new ArrayList<>();
+        for (DownloaderEntry entry : lastHistoryEntries) {
             if (entry.getTime().isBefore(earliestDownloadTime)) {
                 logger.debug(LoggingMarkers.DOWNLOAD_STATUS_UPDATE, "Stopping transforming history entries because the current history entry is from {} which is before earliest download to check which is from {}", entry.getTime(), earliestDownloadTime);
-                return historyEntries;
+                return entriesToCheck;
             }
-            historyEntries.add(entry);
+            entriesToCheck.add(entry);
         }
-
-        return historyEntries;
+        return entriesToCheck;
     }
 
     @Override
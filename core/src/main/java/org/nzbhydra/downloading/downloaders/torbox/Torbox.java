@@ -24,6 +24,7 @@ import org.nzbhydra.GenericResponse;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.downloading.DownloadType;
 import org.nzbhydra.config.downloading.NzbAddingType;
+import org.nzbhydra.downloading.BulkFileDownloader;
 import org.nzbhydra.downloading.DownloaderType;
 import org.nzbhydra.downloading.FileDownloadStatus;
 import org.nzbhydra.downloading.FileHandler;
@@ -87,8 +88,8 @@ public class Torbox extends Downloader {
     private final List<TorboxDownload> lastTorboxDownloads = new ArrayList<>();
 
 
-    public Torbox(FileHandler nzbHandler, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, HydraOkHttp3ClientHttpRequestFactory requestFactory, DownloadUrlBuilder downloadUrlBuilder, TorboxHttpRequestFactory torboxHttpRequestFactory) {
-        super(nzbHandler, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, downloadUrlBuilder);
+    public Torbox(FileHandler nzbHandler, BulkFileDownloader bulkFileDownloader, SearchResultRepository searchResultRepository, ApplicationEventPublisher applicationEventPublisher, IndexerSpecificDownloadExceptions indexerSpecificDownloadExceptions, ConfigProvider configProvider, HydraOkHttp3ClientHttpRequestFactory requestFactory, DownloadUrlBuilder downloadUrlBuilder, TorboxHttpRequestFactory torboxHttpRequestFactory) {
+        super(nzbHandler, bulkFileDownloader, searchResultRepository, applicationEventPublisher, indexerSpecificDownloadExceptions, configProvider, downloadUrlBuilder);
         this.restTemplate = new RestTemplate(torboxHttpRequestFactory);
         this.restTemplate.getInterceptors().add((request, body, execution) -> {
             request.getHeaders().add("Authorization", "Bearer " + downloaderConfig.getApiKey());
@@ -26,11 +26,12 @@ import org.nzbhydra.downloading.InvalidSearchResultIdException;
 import org.nzbhydra.downloading.SaveOrSendResultsResponse;
 import org.nzbhydra.indexers.NfoResult;
 import org.nzbhydra.indexers.exceptions.IndexerAccessException;
+import org.nzbhydra.web.SessionStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
@@ -40,12 +41,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
-import java.util.Collections;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 public class NzbHandlingWeb {
@@ -82,31 +85,33 @@ public class NzbHandlingWeb {
     }
 
     /**
-     * Provides an internal access to a ZIP file with NZBs via GUID
+     * Provides an internal access to a ZIP file with NZBs via GUID. The ZIP is streamed while the NZBs are downloaded.
      *
-     * @return The ZIP content or a generic response with an error
+     * @return The ZIP content. Which NZBs could be added is contained as {@link FileZipResponse} JSON in the ZIP's comment
      */
-    @RequestMapping(value = "/internalapi/nzbzip", produces = MediaType.APPLICATION_JSON_VALUE, method = RequestMethod.POST)
+    @RequestMapping(value = "/internalapi/nzbzip", produces = "application/zip", method = RequestMethod.POST)
     @Secured({"ROLE_USER"})
-    public FileZipResponse getNzbZipData(@RequestBody List<Long> guids) {
-        logger.debug("getNzbZipData: {}", guids);
-        try {
-            return fileHandler.getFilesAsZip(guids);
-        } catch (Exception e) {
-            logger.error("Error while creating ZIP with NZBs", e);
-            return new FileZipResponse(false, null, "Error while creating ZIP with NZBs: " + e.getMessage(), Collections.emptyList(), guids);
-        }
-    }
-
-    @RequestMapping(value = "/internalapi/nzbzipDownload", produces = MediaType.APPLICATION_JSON_VALUE, method = RequestMethod.POST)
-    @Secured({"ROLE_USER"})
-    public FileSystemResource downloadNzbZip(@RequestBody String zipFilepath) {
-        logger.debug("downloadNzbZip: {}", zipFilepath);
-        final Optional<File> matchingFile = fileHandler.getTemporaryZipFiles().stream().filter(x -> x.getAbsolutePath().equals(zipFilepath)).findFirst();
-        if (matchingFile.isPresent()) {
-            return new FileSystemResource(zipFilepath);
-        }
-        throw new RuntimeException("Not allowed to access file " + zipFilepath + " as it was not created by NZBHydra");
+    public ResponseEntity<StreamingResponseBody> getNzbZip(@RequestBody List<Long> guids) {
+        logger.debug("getNzbZip: {}", guids);
+        //The body is written in another thread
+        Function<OutputStream, FileZipResponse> zipWriter = SessionStorage.withCurrentValues(outputStream -> {
+            try {
+                return fileHandler.writeFilesAsZip(guids, outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        StreamingResponseBody body = outputStream -> {
+            try {
+                zipWriter.apply(outputStream);
+            } catch (UncheckedIOException e) {
+                logger.error("Error while writing ZIP with NZBs", e.getCause());
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"nzbs.zip\"")
+            .body(body);
     }
 
 
@@ -1,5 +1,10 @@
 package org.nzbhydra.historystats;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
@@ -12,10 +17,14 @@ import org.nzbhydra.downloading.FileDownloadEntity;
 import org.nzbhydra.historystats.stats.HistoryRequest;
 import org.nzbhydra.indexers.IndexerSearchEntity;
 import org.nzbhydra.indexers.IndexerSearchRepository;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
 import org.nzbhydra.searching.db.SearchEntity;
 import org.nzbhydra.searching.db.SearchRepository;
 import org.nzbhydra.springnative.ReflectionMarker;
 import org.nzbhydra.web.SessionStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -23,26 +32,53 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unchecked")
 @Component
 public class History {
 
+    private static final Logger logger = LoggerFactory.getLogger(History.class);
+
     public static final String DOWNLOAD_TABLE = "INDEXERNZBDOWNLOAD x left join SEARCHRESULT s on x.SEARCH_RESULT_ID = s.ID LEFT JOIN INDEXER i ON s.INDEXER_ID = i.ID";
     public static final String SEARCH_TABLE = "SEARCH x";
     public static final String NOTIFICATION_TABLE = "NOTIFICATION x";
 
+    /**
+     * The columns of each history which may be filtered and sorted by. Filters by value or range on the indexed columns can use an
+     * index, all others (and any text filter) have to check every row. See V1__INITIAL.sql and V4__HISTORY_INDEXES.sql.
+     */
+    private static final Map<String, HistoryTable> HISTORY_TABLES = Map.of(
+        SEARCH_TABLE, new HistoryTable("search", "SEARCH",
+            Set.of("time", "query", "user_agent", "category_name", "source", "username", "ip"),
+            Set.of("time", "source", "username")),
+        DOWNLOAD_TABLE, new HistoryTable("download", "INDEXERNZBDOWNLOAD",
+            Set.of("time", "name", "title", "status", "access_source", "age", "username", "ip"),
+            Set.of("time", "status")),
+        NOTIFICATION_TABLE, new HistoryTable("notification", "NOTIFICATION",
+            Set.of("time", "notification_event_type"),
+            Set.of("time"))
+    );
+    private static final Set<String> INDEXABLE_FILTER_TYPES = Set.of("checkboxes", "boolean", "numberRange", "time");
+
     @PersistenceContext
     private EntityManager entityManager;
     @Autowired
@@ -51,9 +87,39 @@ public class History {
     private IndexerSearchRepository indexerSearchRepository;
     @Autowired
     private ConfigProvider configProvider;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+
+    private final Set<String> warnedUnindexedFilters = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor countExecutor;
+    //Counting all matching rows is expensive for a large history. Counts are only computed once per filter and refreshed in the background when they're requested again
+    private final LoadingCache<CountQuery, Long> countCache;
+
+    public History() {
+        countExecutor = MdcThreadPoolExecutor.newWithInheritedMdc(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        countExecutor.allowCoreThreadTimeOut(true);
+        countCache = CacheBuilder.newBuilder()
+            .maximumSize(100)
+            .refreshAfterWrite(30, TimeUnit.SECONDS)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build(CacheLoader.asyncReloading(CacheLoader.from(this::count), countExecutor));
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        countExecutor.shutdownNow();
+    }
 
     @Transactional
     public <T> Page<T> getHistory(HistoryRequest requestData, String tableName, Class<T> resultClass) {
+        HistoryTable historyTable = HISTORY_TABLES.get(tableName);
         Map<String, Object> parameters = new HashMap<>();
 
         List<String> wheres = new ArrayList<>();
@@ -63,6 +129,7 @@ public class History {
             Object filterValue = columnAndFilterDefinition.getValue().getFilterValue();
             Object filterType = columnAndFilterDefinition.getValue().getFilterType();
             String columnName = columnAndFilterDefinition.getKey();
+            checkFilter(historyTable, columnName, String.valueOf(filterType));
             if (filterType.equals("freetext")) {
                 wheres.add(String.format("LOWER(%s) LIKE :%s", columnName, columnName));
                 parameters.put(columnName, "%" + filterValue.toString().toLowerCase() + "%");
@@ -76,72 +143,85 @@ public class History {
                 wheres.add(String.format("%s = :%s", columnName, columnName));
                 parameters.put(columnName, filterValue);
             } else if (filterType.equals("numberRange")) {
-                Map<String, String> map = (Map<String, String>) filterValue;
+                Map<String, Object> map = (Map<String, Object>) filterValue;
                 if (map.containsKey("min")) {
-                    wheres.add(String.format("%s > %s", columnName, map.get("min")));
+                    wheres.add(String.format("%s > :%sMin", columnName, columnName));
+                    parameters.put(columnName + "Min", map.get("min"));
                 }
                 if (map.containsKey("max")) {
-                    wheres.add(String.format("%s < %s", columnName, map.get("max")));
+                    wheres.add(String.format("%s < :%sMax", columnName, columnName));
+                    parameters.put(columnName + "Max", map.get("max"));
                 }
             } else if (filterType.equals("time")) {
                 Map<String, String> beforeAndAfter = (Map<String, String>) columnAndFilterDefinition.getValue().getFilterValue();
                 if (beforeAndAfter.get("before") != null) {
                     //yyyy-MM-dd'T'HH:mm:ssZ
-                    wheres.add(String.format("%s <= PARSEDATETIME('%s', 'yyyy-MM-ddHH:mm:ss.SSS')", columnName, beforeAndAfter.get("before").replace("T", "").replace("Z", "")));
+                    wheres.add(String.format("%s <= PARSEDATETIME(:%sBefore, 'yyyy-MM-ddHH:mm:ss.SSS')", columnName, columnName));
+                    parameters.put(columnName + "Before", beforeAndAfter.get("before").replace("T", "").replace("Z", ""));
                 }
                 if (beforeAndAfter.get("after") != null) {
-                    wheres.add(String.format("%s >= PARSEDATETIME('%s', 'yyyy-MM-ddHH:mm:ss.SSS')", columnName, beforeAndAfter.get("after").replace("T", "").replace("Z", "")));
+                    wheres.add(String.format("%s >= PARSEDATETIME(:%sAfter, 'yyyy-MM-ddHH:mm:ss.SSS')", columnName, columnName));
+                    parameters.put(columnName + "After", beforeAndAfter.get("after").replace("T", "").replace("Z", ""));
                 }
             }
         }
-        SortModel sortModel = requestData.getSortModel();
-        boolean useNullsLast = true;
-        boolean useLower = true;
-        if (sortModel != null) {
-            String column = sortModel.getColumn();
-            if ("time".equalsIgnoreCase(column) || "age".equalsIgnoreCase(column)) {
-                useNullsLast = false;
-                useLower = false;
-            }
-            if (useLower) {
+        SortModel sortModel = requestData.getSortModel() == null ? new SortModel("time", 2) : requestData.getSortModel();
+        String column = sortModel.getColumn();
+        checkColumn(historyTable, column);
+        boolean ascending = sortModel.getSortMode() == 1;
+        boolean sortByTime = "time".equalsIgnoreCase(column);
+        if (sortByTime) {
+            //Matches the (TIME, ID) indexes so that the rows can be read in order
+            sort = String.format(" order by x.TIME %1$s, x.ID %1$s", ascending ? "ASC" : "DESC");
+        } else {
+            boolean isAge = "age".equalsIgnoreCase(column);
+            if (!isAge) {
                 column = "lower(" + column + ")";
             }
-            sort = String.format(" order by %s %s %s ", column, sortModel.getSortMode() == 1 ? "ASC" : "DESC", useNullsLast ? "nulls last" : "");
-        }
-        //Always sort by newest next so order remains stable
-        if (!"time".equalsIgnoreCase(sortModel.getColumn())) {
-            sort += ", time desc";
+            //Always sort by newest next so order remains stable
+            sort = String.format(" order by %s %s %s, x.TIME DESC, x.ID DESC", column, ascending ? "ASC" : "DESC", isAge ? "" : "nulls last");
         }
 
-
         String whereConditions = "";
         if (!wheres.isEmpty()) {
             whereConditions = " WHERE " + String.join(" AND ", wheres);
         }
 
-        String paging = String.format(" LIMIT %d OFFSET %d", requestData.getLimit(), (requestData.getPage() - 1) * requestData.getLimit());
-
-
-        String selectQuerySql = "SELECT x.* FROM " + tableName + whereConditions + sort + paging;
-        String countQuerySql = "SELECT COUNT(x.*) FROM " + tableName + whereConditions;
+        String selectQuerySql;
+        SeekPosition seekPosition = requestData.getSeekPosition();
+        boolean seekBackwards = false;
+        if (sortByTime && seekPosition != null && seekPosition.getTime() != null) {
+            //Start reading from the row next to the page loaded before instead of skipping all rows up to the requested page
+            seekBackwards = seekPosition.isBefore();
+            boolean readAscending = ascending != seekBackwards;
+            String comparison = readAscending ? ">" : "<";
+            String seekCondition = String.format("x.TIME %1$s= :seekTime AND (x.TIME %1$s :seekTime OR x.ID %1$s :seekId)", comparison);
+            String direction = readAscending ? "ASC" : "DESC";
+            selectQuerySql = "SELECT x.* FROM " + tableName + (wheres.isEmpty() ? " WHERE " : whereConditions + " AND ") + seekCondition +
+                String.format(" order by x.TIME %1$s, x.ID %1$s", direction) + String.format(" LIMIT %d", requestData.getLimit());
+        } else {
+            String paging = String.format(" LIMIT %d OFFSET %d", requestData.getLimit(), (requestData.getPage() - 1) * requestData.getLimit());
+            selectQuerySql = "SELECT x.* FROM " + tableName + whereConditions + sort + paging;
+        }
 
         Query selectQuery = entityManager.createNativeQuery(selectQuerySql, resultClass);
-        Query countQuery = entityManager.createNativeQuery(countQuerySql);
-
         for (Entry<String, Object> entry : parameters.entrySet()) {
             selectQuery.setParameter(entry.getKey(), entry.getValue());
-            countQuery.setParameter(entry.getKey(), entry.getValue());
+        }
+        if (selectQuerySql.contains(":seekTime")) {
+            selectQuery.setParameter("seekTime", seekPosition.getTime());
+            selectQuery.setParameter("seekId", seekPosition.getId());
         }
 
-        List resultList = selectQuery.getResultList();
-        Pageable pageable;
-        if (sortModel == null) {
-            pageable = PageRequest.of(requestData.getPage() - 1, requestData.getLimit());
-        } else {
-            pageable = PageRequest.of(requestData.getPage() - 1, requestData.getLimit(), sortModel.getSortMode() == 1 ? Sort.Direction.ASC : Sort.Direction.DESC, sortModel.getColumn());
+        List resultList = new ArrayList<>(selectQuery.getResultList());
+        if (seekBackwards) {
+            Collections.reverse(resultList);
         }
+        Pageable pageable = PageRequest.of(requestData.getPage() - 1, requestData.getLimit(), ascending ? Sort.Direction.ASC : Sort.Direction.DESC, sortModel.getColumn());
 
-        Long count = (Long) countQuery.getSingleResult();
+        //Without filters the rows of the base table are counted which the database can do without reading them
+        String countQuerySql = wheres.isEmpty() ? "SELECT COUNT(*) FROM " + historyTable.baseTable() : "SELECT COUNT(x.*) FROM " + tableName + whereConditions;
+        long count = countCache.getUnchecked(new CountQuery(countQuerySql, parameters));
         if (resultClass == SearchEntity.class) {
             resultList.forEach(x -> Hibernate.initialize(((SearchEntity) x).getIdentifiers()));
         } else if (resultClass == FileDownloadEntity.class) {
@@ -152,6 +232,36 @@ public class History {
         return new PageImpl<>(resultList, pageable, count);
     }
 
+    private long count(CountQuery countQuery) {
+        return transactionTemplate.execute(status -> {
+            Query query = entityManager.createNativeQuery(countQuery.sql());
+            countQuery.parameters().forEach(query::setParameter);
+            return ((Number) query.getSingleResult()).longValue();
+        });
+    }
+
+    /**
+     * Rejects filters on columns which aren't shown in the history (the column names are part of the SQL) and logs once for every
+     * filter which can't use an index.
+     */
+    private void checkFilter(HistoryTable historyTable, String columnName, String filterType) {
+        checkColumn(historyTable, columnName);
+        String column = columnName.toLowerCase(Locale.ROOT);
+        if (historyTable.indexedColumns().contains(column) && INDEXABLE_FILTER_TYPES.contains(filterType)) {
+            return;
+        }
+        if (warnedUnindexedFilters.add(historyTable.name() + "." + column + "." + filterType)) {
+            logger.info("Filtering {} history by {} ({}) has to check every entry. This may take a while for a large history", historyTable.name(), column, filterType);
+        }
+        logger.debug(LoggingMarkers.PERFORMANCE, "Filter by {} ({}) can't use an index", column, filterType);
+    }
+
+    private static void checkColumn(HistoryTable historyTable, String columnName) {
+        if (columnName == null || !historyTable.columns().contains(columnName.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("History can't be filtered or sorted by column " + columnName);
+        }
+    }
+
     public List<SearchEntity> getHistoryForSearching() {
         String currentUserName = SessionStorage.username.get();
         Page<SearchEntity> history = currentUserName == null ? searchRepository.findForUserSearchHistory(PageRequest.of(0, 100)) : searchRepository.findForUserSearchHistory(currentUserName, PageRequest.of(0, 100));
@@ -204,4 +314,16 @@ public class History {
         private boolean successful;
         private int resultsCount;
     }
+
+    /**
+     * @param name           the name used in log messages
+     * @param baseTable      the table containing the history's entries
+     * @param columns        the columns which may be filtered and sorted by
+     * @param indexedColumns the columns for which filters by value or range can use an index
+     */
+    private record HistoryTable(String name, String baseTable, Set<String> columns, Set<String> indexedColumns) {
+    }
+
+    private record CountQuery(String sql, Map<String, Object> parameters) {
+    }
 }
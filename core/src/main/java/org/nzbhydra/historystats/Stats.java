@@ -1,11 +1,14 @@
 package org.nzbhydra.historystats;
 
 import com.google.common.base.Stopwatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import org.nzbhydra.config.indexer.IndexerConfig;
 import org.nzbhydra.config.indexer.SearchModuleType;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.historystats.stats.AverageResponseTime;
 import org.nzbhydra.historystats.stats.CountPerDayOfWeek;
 import org.nzbhydra.historystats.stats.CountPerHourOfDay;
@@ -24,6 +27,7 @@ import org.nzbhydra.indexers.IndexerApiAccessEntityShortRepository;
 import org.nzbhydra.indexers.IndexerEntity;
 import org.nzbhydra.indexers.IndexerRepository;
 import org.nzbhydra.logging.LoggingMarkers;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
 import org.nzbhydra.searching.SearchModuleProvider;
 import org.nzbhydra.searching.db.SearchResultRepository;
 import org.nzbhydra.searching.uniqueness.IndexerUniquenessScoreEntity;
@@ -31,10 +35,13 @@ import org.nzbhydra.searching.uniqueness.IndexerUniquenessScoreEntityRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -45,11 +52,15 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -58,6 +69,7 @@ public class Stats {
 
     private static final Logger logger = LoggerFactory.getLogger(Stats.class);
     private static final int TIMEOUT = 120;
+    private static final int MAX_CONCURRENT_SECTIONS = 4;
 
     @Autowired
     private SearchModuleProvider searchModuleProvider;
@@ -71,8 +83,34 @@ public class Stats {
     private SearchResultRepository searchResultRepository;
     @Autowired
     private IndexerUniquenessScoreEntityRepository uniquenessScoreEntityRepository;
+    @Autowired
+    private StatsRollups statsRollups;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+
+    //Shared by all requests so that concurrent stats requests don't use up all DB connections
+    private final ThreadPoolExecutor executor;
+
+    public Stats() {
+        executor = MdcThreadPoolExecutor.newWithInheritedMdc(MAX_CONCURRENT_SECTIONS, MAX_CONCURRENT_SECTIONS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        HydraMetrics.monitorExecutor(executor, "stats");
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        //Aborts the section's queries
+        transactionTemplate.setTimeout(TIMEOUT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
-    @Transactional(readOnly = true)
     public StatsResponse getAllStats(StatsRequest statsRequest) throws InterruptedException {
         logger.debug("Request for stats between {} and {}", statsRequest.getAfter(), statsRequest.getBefore());
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -81,97 +119,74 @@ public class Stats {
         statsResponse.setAfter(statsRequest.getAfter());
         statsResponse.setBefore(statsRequest.getBefore());
 
-        ExecutorService executor = Executors.newFixedThreadPool(1); //Multithreading doesn't improve performance but it allows us to stop calculation when the time is over
-
-        List<Future> futures = new ArrayList<>();
-
-
+        List<Section<?>> sections = new ArrayList<>();
         if (statsRequest.isAvgResponseTimes()) {
-            futures.add(executor.submit(() -> statsResponse.setAvgResponseTimes(averageResponseTimes(statsRequest))));
+            sections.add(submit("avgResponseTimes", () -> averageResponseTimes(statsRequest), statsResponse::setAvgResponseTimes));
         }
         if (statsRequest.isIndexerApiAccessStats()) {
-            futures.add(executor.submit(() -> statsResponse.setIndexerApiAccessStats(indexerApiAccesses(statsRequest))));
+            sections.add(submit("indexerApiAccessStats", () -> indexerApiAccesses(statsRequest), statsResponse::setIndexerApiAccessStats));
         }
         if (statsRequest.isAvgIndexerUniquenessScore()) {
-            futures.add(executor.submit(() -> statsResponse.setIndexerScores(indexerScores(statsRequest))));
+            sections.add(submit("avgIndexerUniquenessScore", () -> indexerScores(statsRequest), statsResponse::setIndexerScores));
         }
 
         if (statsRequest.isSearchesPerDayOfWeek()) {
-            futures.add(executor.submit(() -> statsResponse.setSearchesPerDayOfWeek(countPerDayOfWeek("SEARCH", statsRequest))));
+            sections.add(submit("searchesPerDayOfWeek", () -> countPerDayOfWeek("SEARCH", statsRequest), statsResponse::setSearchesPerDayOfWeek));
         }
         if (statsRequest.isDownloadsPerDayOfWeek()) {
-            futures.add(executor.submit(() -> statsResponse.setDownloadsPerDayOfWeek(countPerDayOfWeek("INDEXERNZBDOWNLOAD", statsRequest))));
+            sections.add(submit("downloadsPerDayOfWeek", () -> countPerDayOfWeek("INDEXERNZBDOWNLOAD", statsRequest), statsResponse::setDownloadsPerDayOfWeek));
         }
 
         if (statsRequest.isSearchesPerHourOfDay()) {
-            futures.add(executor.submit(() -> statsResponse.setSearchesPerHourOfDay(countPerHourOfDay("SEARCH", statsRequest))));
+            sections.add(submit("searchesPerHourOfDay", () -> countPerHourOfDay("SEARCH", statsRequest), statsResponse::setSearchesPerHourOfDay));
         }
         if (statsRequest.isDownloadsPerHourOfDay()) {
-            futures.add(executor.submit(() -> statsResponse.setDownloadsPerHourOfDay(countPerHourOfDay("INDEXERNZBDOWNLOAD", statsRequest))));
+            sections.add(submit("downloadsPerHourOfDay", () -> countPerHourOfDay("INDEXERNZBDOWNLOAD", statsRequest), statsResponse::setDownloadsPerHourOfDay));
         }
 
         if (statsRequest.isIndexerDownloadShares()) {
-            futures.add(executor.submit(() -> statsResponse.setIndexerDownloadShares(indexerDownloadShares(statsRequest))));
+            sections.add(submit("indexerDownloadShares", () -> indexerDownloadShares(statsRequest), statsResponse::setIndexerDownloadShares));
         }
 
-
         if (statsRequest.isDownloadsPerAgeStats()) {
-            futures.add(executor.submit(() -> statsResponse.setDownloadsPerAgeStats(downloadsPerAgeStats())));
+            sections.add(submit("downloadsPerAgeStats", this::downloadsPerAgeStats, statsResponse::setDownloadsPerAgeStats));
         }
 
         if (statsRequest.isSuccessfulDownloadsPerIndexer()) {
-            futures.add(executor.submit(() -> statsResponse.setSuccessfulDownloadsPerIndexer(successfulDownloadsPerIndexer(statsRequest))));
+            sections.add(submit("successfulDownloadsPerIndexer", () -> successfulDownloadsPerIndexer(statsRequest), statsResponse::setSuccessfulDownloadsPerIndexer));
         }
 
         if (statsRequest.isUserAgentSearchShares()) {
-            futures.add(executor.submit(() -> statsResponse.setUserAgentSearchShares(userAgentSearchShares(statsRequest))));
+            sections.add(submit("userAgentSearchShares", () -> userAgentSearchShares(statsRequest), statsResponse::setUserAgentSearchShares));
         }
 
         if (statsRequest.isUserAgentDownloadShares()) {
-            futures.add(executor.submit(() -> statsResponse.setUserAgentDownloadShares(userAgentDownloadShares(statsRequest))));
+            sections.add(submit("userAgentDownloadShares", () -> userAgentDownloadShares(statsRequest), statsResponse::setUserAgentDownloadShares));
         }
 
-
+        //No result (instead of an empty one) if there's no data at all so that the UI can hide the section
         if (statsRequest.isSearchSharesPerUser()) {
-            Long countSearchesWithData = (Long) entityManager.createNativeQuery("SELECT count(*) FROM SEARCH t WHERE t.USERNAME IS NOT NULL").getSingleResult();
-            if (countSearchesWithData.intValue() > 0) {
-                futures.add(executor.submit(() -> statsResponse.setSearchSharesPerUser(downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "USERNAME"))));
-            }
+            sections.add(submit("searchSharesPerUser", () -> hasValues("SEARCH", "USERNAME") ? downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "USERNAME") : null, statsResponse::setSearchSharesPerUser));
         }
         if (statsRequest.isDownloadSharesPerUser()) {
-            Long countDownloadsWithData = (Long) entityManager.createNativeQuery("SELECT count(*) FROM INDEXERNZBDOWNLOAD t WHERE t.USERNAME IS NOT NULL").getSingleResult();
-            if (countDownloadsWithData > 0) {
-                futures.add(executor.submit(() -> statsResponse.setDownloadSharesPerUser(downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "USERNAME"))));
-            }
+            sections.add(submit("downloadSharesPerUser", () -> hasValues("INDEXERNZBDOWNLOAD", "USERNAME") ? downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "USERNAME") : null, statsResponse::setDownloadSharesPerUser));
         }
         if (statsRequest.isSearchSharesPerIp()) {
-            Long countSearchesWithData = (Long) entityManager.createNativeQuery("SELECT count(*) FROM SEARCH t WHERE t.IP IS NOT NULL").getSingleResult();
-            if (countSearchesWithData > 0) {
-                futures.add(executor.submit(() -> statsResponse.setSearchSharesPerIp(downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "IP"))));
-            }
+            sections.add(submit("searchSharesPerIp", () -> hasValues("SEARCH", "IP") ? downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "IP") : null, statsResponse::setSearchSharesPerIp));
         }
         if (statsRequest.isDownloadSharesPerIp()) {
-            Long countDownloadsWithData = (Long) entityManager.createNativeQuery("SELECT count(*) FROM INDEXERNZBDOWNLOAD t WHERE t.IP IS NOT NULL").getSingleResult();
-            if (countDownloadsWithData > 0) {
-                futures.add(executor.submit(() -> statsResponse.setDownloadSharesPerIp(downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "IP"))));
-            }
+            sections.add(submit("downloadSharesPerIp", () -> hasValues("INDEXERNZBDOWNLOAD", "IP") ? downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "IP") : null, statsResponse::setDownloadSharesPerIp));
         }
 
-
-        executor.shutdown();
-        boolean wasCompleted = executor.awaitTermination(TIMEOUT, TimeUnit.SECONDS);
-        if (!wasCompleted) {
-            executor.shutdownNow();
-            logger.error("Aborted stats generation because it took longer than {} seconds. Please restart", TIMEOUT);
-        } else {
-            for (Future future : futures) {
-                try {
-                    future.get();
-                } catch (ExecutionException e) {
-                    logger.error("Error during calculation of stats", e.getCause());
-                }
+        //Sections may wait in the queue for the ones before them, each of which is aborted after the timeout
+        long startDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos((long) TIMEOUT * sections.size());
+        try {
+            for (Section<?> section : sections) {
+                collect(section, startDeadline, statsResponse);
             }
-
+        } catch (InterruptedException e) {
+            sections.forEach(section -> section.future().cancel(true));
+            throw e;
         }
 
         statsResponse.setNumberOfConfiguredIndexers(searchModuleProvider.getIndexers().size());
@@ -181,6 +196,48 @@ public class Stats {
         return statsResponse;
     }
 
+    /**
+     * Calculates the section on the stats executor in its own read-only transaction (and with that its own connection).
+     */
+    private <T> Section<T> submit(String name, Supplier<T> calculation, Consumer<T> resultSetter) {
+        CompletableFuture<Long> started = new CompletableFuture<>();
+        Future<TimedResult<T>> future = executor.submit(() -> {
+            started.complete(System.nanoTime());
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            T result = transactionTemplate.execute(status -> calculation.get());
+            return new TimedResult<>(result, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        });
+        return new Section<>(name, started, future, resultSetter);
+    }
+
+    /**
+     * Waits for the section's result and sets it in the response. A section that fails, isn't started before the start deadline
+     * or isn't finished within the timeout after it was started is listed as failed, the other sections are still returned.
+     */
+    private <T> void collect(Section<T> section, long startDeadline, StatsResponse statsResponse) throws InterruptedException {
+        try {
+            long startedAt = section.started().get(Math.max(0, startDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            long deadline = startedAt + TimeUnit.SECONDS.toNanos(TIMEOUT);
+            TimedResult<T> timedResult = section.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            section.resultSetter().accept(timedResult.result());
+            statsResponse.getSectionTimes().put(section.name(), timedResult.millis());
+            logger.debug(LoggingMarkers.PERFORMANCE, "Calculation of stats section {} took {}ms", section.name(), timedResult.millis());
+        } catch (ExecutionException e) {
+            logger.error("Error during calculation of stats section " + section.name(), e.getCause());
+            statsResponse.getFailedSections().add(section.name());
+        } catch (TimeoutException e) {
+            section.future().cancel(true);
+            logger.error("Aborted calculation of stats section {} because it took longer than {} seconds", section.name(), TIMEOUT);
+            statsResponse.getFailedSections().add(section.name());
+        }
+    }
+
+    private record Section<T>(String name, CompletableFuture<Long> started, Future<TimedResult<T>> future, Consumer<T> resultSetter) {
+    }
+
+    private record TimedResult<T>(T result, long millis) {
+    }
+
 
     List<IndexerDownloadShare> indexerDownloadShares(final StatsRequest statsRequest) {
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -236,28 +293,35 @@ public class Stats {
         List<AverageResponseTime> averageResponseTimes = new ArrayList<>();
         String sql = "SELECT\n" +
             "  NAME,\n" +
-            "  avg(RESPONSE_TIME) AS avg\n" +
-            "FROM INDEXERAPIACCESS\n" +
-            "  LEFT JOIN indexer i ON INDEXERAPIACCESS.INDEXER_ID = i.ID\n" +
-            buildWhereFromStatsRequest(false, statsRequest) +
-            "GROUP BY INDEXER_ID\n" +
-            "ORDER BY avg ASC";
+            "  sum(RESPONSE_TIME_SUM),\n" +
+            "  sum(RESPONSE_TIME_COUNT)\n" +
+            "FROM " + apiAccessSource() + " r\n" +
+            "  LEFT JOIN indexer i ON r.INDEXER_ID = i.ID\n" +
+            buildWhereFromStatsRequest(false, statsRequest, true) +
+            "GROUP BY INDEXER_ID, NAME";
 
         Query query = entityManager.createNativeQuery(sql);
         List resultList = query.getResultList();
         Set<String> indexerNamesToInclude = searchModuleProvider.getIndexers().stream().filter(x -> x.getConfig().getState() == IndexerConfig.State.ENABLED || statsRequest.isIncludeDisabled()).map(Indexer::getName).collect(Collectors.toSet());
-        OptionalDouble overallAverage = resultList.stream().filter(x -> ((Object[]) x)[1] != null).mapToLong(x -> ((BigDecimal) ((Object[]) x)[1]).longValue()).average();
-
+        Map<String, Long> averagesByIndexerName = new HashMap<>();
         for (Object result : resultList) {
             Object[] resultSet = (Object[]) result;
-            String indexerName = (String) resultSet[0];
+            long responseTimeCount = ((Number) resultSet[2]).longValue();
+            if (responseTimeCount > 0) {
+                averagesByIndexerName.put((String) resultSet[0], ((Number) resultSet[1]).longValue() / responseTimeCount);
+            }
+        }
+        OptionalDouble overallAverage = averagesByIndexerName.values().stream().mapToLong(Long::longValue).average();
 
-            if (resultSet[0] == null || resultSet[1] == null || !indexerNamesToInclude.contains(indexerName)) {
+        for (Entry<String, Long> entry : averagesByIndexerName.entrySet()) {
+            String indexerName = entry.getKey();
+            if (indexerName == null || !indexerNamesToInclude.contains(indexerName)) {
                 continue;
             }
-            long averageResponseTime = ((BigDecimal) resultSet[1]).longValue();
+            long averageResponseTime = entry.getValue();
             averageResponseTimes.add(new AverageResponseTime(indexerName, averageResponseTime, averageResponseTime - overallAverage.orElse(0D)));
         }
+        averageResponseTimes.sort(Comparator.comparingDouble(AverageResponseTime::getAvgResponseTime));
         logger.debug(LoggingMarkers.PERFORMANCE, "Calculated average response times for indexers. Took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return averageResponseTimes;
     }
@@ -316,11 +380,11 @@ public class Stats {
             "FROM (\n" +
             "  (SELECT\n" +
             "     INDEXER_ID,\n" +
-            "     cast(count(INDEXER_ID) AS FLOAT) AS count" +
-            "   FROM INDEXERAPIACCESS\n" +
-            buildWhereFromStatsRequest(false, statsRequest) +
+            "     cast(sum(ACCESS_COUNT) AS DOUBLE PRECISION) AS count" +
+            "   FROM " + apiAccessSource() + " r\n" +
+            buildWhereFromStatsRequest(false, statsRequest, true) +
             "   GROUP BY INDEXER_ID,\n" +
-            "     truncate(time)))\n" +
+            "     truncate(TIME)))\n" +
             "GROUP BY INDEXER_ID";
 
         Map<Integer, Double> accessesPerDayCountMap = new HashMap<>();
@@ -333,7 +397,7 @@ public class Stats {
             if (!indexerIdsToInclude.contains(indexerId)) {
                 continue;
             }
-            Double avg = ((BigDecimal) array[1]).doubleValue();
+            Double avg = ((Number) array[1]).doubleValue();
             accessesPerDayCountMap.put(indexerId, avg);
         }
         logger.debug(LoggingMarkers.PERFORMANCE, "Calculating accesses per day took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
@@ -343,9 +407,9 @@ public class Stats {
         String countByResultSql = "SELECT\n" +
             "     INDEXER_ID,\n" +
             "     RESULT,\n" +
-            "     count(result) AS count\n" +
-            "   FROM INDEXERAPIACCESS\n" +
-            buildWhereFromStatsRequest(false, statsRequest) +
+            "     sum(ACCESS_COUNT) AS count\n" +
+            "   FROM " + apiAccessSource() + " r\n" +
+            buildWhereFromStatsRequest(false, statsRequest, true) +
             "   GROUP BY INDEXER_ID, RESULT\n" +
             "   ORDER BY INDEXER_ID, RESULT";
 
@@ -362,7 +426,7 @@ public class Stats {
                 continue;
             }
             String result = (String) array[1];
-            int count = ((Long) array[2]).intValue();
+            int count = ((Number) array[2]).intValue();
             if (result.equals(IndexerAccessResult.SUCCESSFUL.name())) {
                 successCountMap.put(indexerId, count);
             } else if (result.equals(IndexerAccessResult.CONNECTION_ERROR.name())) {
@@ -408,9 +472,9 @@ public class Stats {
         logger.debug("Calculating count for day of week for table {}", table);
         String sql = "SELECT \n" +
             "  DAYOFWEEK(time) AS dayofweek, \n" +
-            "  count(*)        AS counter \n" +
-            "FROM " + table + " \n" +
-            buildWhereFromStatsRequest(false, statsRequest) +
+            "  sum(COUNTER)    AS counter \n" +
+            "FROM " + countSource(table) + " t \n" +
+            buildWhereFromStatsRequest(false, statsRequest, isRolledUp(table)) +
             "GROUP BY DAYOFWEEK(time)";
 
         List<CountPerDayOfWeek> dayOfWeekCounts = new ArrayList<>();
@@ -429,7 +493,7 @@ public class Stats {
 
             //want      6   0   1   2   3   4   5
             //          S   M   T   W   T   F   S
-            Long counter = (Long) resultSet[1];
+            Number counter = (Number) resultSet[1];
             int indexInList = (index + 5) % 7;
             dayOfWeekCounts.get(indexInList).setCount(counter.intValue());
         }
@@ -443,9 +507,9 @@ public class Stats {
         logger.debug("Calculating count for hour of day for table {}", table);
         String sql = "SELECT \n" +
             "  HOUR(time) AS hourofday, \n" +
-            "  count(*)        AS counter \n" +
-            "FROM " + table + " \n" +
-            buildWhereFromStatsRequest(false, statsRequest) +
+            "  sum(COUNTER)    AS counter \n" +
+            "FROM " + countSource(table) + " t \n" +
+            buildWhereFromStatsRequest(false, statsRequest, isRolledUp(table)) +
             "GROUP BY HOUR(time)";
 
         List<CountPerHourOfDay> hourOfDayCounts = new ArrayList<>();
@@ -457,7 +521,7 @@ public class Stats {
         for (Object o : resultList) {
             Object[] o2 = (Object[]) o;
             Integer index = (Integer) o2[0];
-            Long counter = (Long) o2[1];
+            Number counter = (Number) o2[1];
             hourOfDayCounts.get(index).setCount(counter.intValue());
         }
 
@@ -547,24 +611,20 @@ public class Stats {
         String sql = "" +
             "SELECT\n" +
             "  " + column + ",\n" +
-            "  count(*) AS peruser,\n" +
-            "  (SELECT count(*)\n" +
-            "   FROM " + tablename + "\n" +
-            "   WHERE " + column + " IS NOT NULL AND " + column + " != ''" +
-            buildWhereFromStatsRequest(true, statsRequest) +
-            ") AS countall\n" +
-            "FROM " + tablename + "\n" +
+            "  sum(COUNTER) AS peruser\n" +
+            "FROM " + countSource(tablename) + " t\n" +
             " WHERE " + column + " IS NOT NULL AND " + column + " != ''\n" +
-            buildWhereFromStatsRequest(true, statsRequest) +
+            buildWhereFromStatsRequest(true, statsRequest, isRolledUp(tablename)) +
             "GROUP BY " + column;
         Query query = entityManager.createNativeQuery(sql);
         List<Object> resultList = query.getResultList();
         List<DownloadOrSearchSharePerUserOrIp> result = new ArrayList<>();
+        long countAll = resultList.stream().mapToLong(x -> ((Number) ((Object[]) x)[1]).longValue()).sum();
         for (Object o : resultList) {
             Object[] o2 = (Object[]) o;
             String usernameOrIp = (String) o2[0];
-            int countForUser = ((Long) o2[1]).intValue();
-            float percentSuccessful = 100F / (((Long) o2[2]).floatValue() / ((Long) o2[1]).floatValue());
+            int countForUser = ((Number) o2[1]).intValue();
+            float percentSuccessful = 100F / ((float) countAll / countForUser);
             result.add(new DownloadOrSearchSharePerUserOrIp(usernameOrIp, countForUser, percentSuccessful));
         }
         result.sort(Comparator.comparingDouble(DownloadOrSearchSharePerUserOrIp::getPercentage).reversed());
@@ -577,11 +637,11 @@ public class Stats {
         logger.debug("Calculating user agent search shares");
         String sql = "SELECT\n" +
             "  user_agent,\n" +
-            "  count(*)\n" +
-            "FROM SEARCH\n" +
-            "WHERE user_agent IS NOT NULL\n" +
+            "  sum(COUNTER)\n" +
+            "FROM " + countSource("SEARCH") + " t\n" +
+            "WHERE user_agent != ''\n" +
             "AND SOURCE = 'API'" +
-            buildWhereFromStatsRequest(true, statsRequest) +
+            buildWhereFromStatsRequest(true, statsRequest, true) +
             "GROUP BY user_agent";
         Query query = entityManager.createNativeQuery(sql);
         List<Object> resultList = query.getResultList();
@@ -590,7 +650,7 @@ public class Stats {
         for (Object o : resultList) {
             Object[] o2 = (Object[]) o;
             String userAgent = (String) o2[0];
-            int countForUserAgent = ((Long) o2[1]).intValue();
+            int countForUserAgent = ((Number) o2[1]).intValue();
             countAll += countForUserAgent;
             result.add(new UserAgentShare(userAgent, countForUserAgent));
         }
@@ -675,22 +735,21 @@ public class Stats {
         Stopwatch stopwatch = Stopwatch.createStarted();
         logger.debug("Calculating downloads per age percentages");
         DownloadPerAgeStats result = new DownloadPerAgeStats();
-        String percentage = """
-            SELECT CASE
-                   WHEN (SELECT CAST(COUNT(*) AS FLOAT) AS COUNT
-                         FROM INDEXERNZBDOWNLOAD
-                         WHERE AGE > %d) > 0
-                     THEN SELECT CAST(100 AS FLOAT) / (CAST(COUNT(i.*) AS FLOAT)/ x.COUNT)
-            FROM INDEXERNZBDOWNLOAD i,
-            ( SELECT COUNT(*) AS COUNT
-            FROM INDEXERNZBDOWNLOAD
-            WHERE AGE > %d) AS x
-            ELSE 0 END""";
-        result.setPercentOlder1000(((BigDecimal) entityManager.createNativeQuery(String.format(percentage, 1000, 1000)).getResultList().get(0)).intValue());
-        result.setPercentOlder2000(((BigDecimal) entityManager.createNativeQuery(String.format(percentage, 2000, 2000)).getResultList().get(0)).intValue());
-        result.setPercentOlder3000(((BigDecimal) entityManager.createNativeQuery(String.format(percentage, 3000, 3000)).getResultList().get(0)).intValue());
-        final Double averageAge = (Double) entityManager.createNativeQuery("SELECT AVG(AGE) FROM INDEXERNZBDOWNLOAD").getResultList().get(0);
-        result.setAverageAge(averageAge == null ? 0 : averageAge.intValue());
+        //One scan for all values instead of one per value
+        String sql = """
+            SELECT
+              COUNT(*),
+              SUM(CASE WHEN AGE > 1000 THEN 1 ELSE 0 END),
+              SUM(CASE WHEN AGE > 2000 THEN 1 ELSE 0 END),
+              SUM(CASE WHEN AGE > 3000 THEN 1 ELSE 0 END),
+              AVG(AGE)
+            FROM INDEXERNZBDOWNLOAD""";
+        Object[] values = (Object[]) entityManager.createNativeQuery(sql).getSingleResult();
+        long countAll = ((Number) values[0]).longValue();
+        result.setPercentOlder1000(getPercentage(values[1], countAll));
+        result.setPercentOlder2000(getPercentage(values[2], countAll));
+        result.setPercentOlder3000(getPercentage(values[3], countAll));
+        result.setAverageAge(values[4] == null ? 0 : ((Number) values[4]).intValue());
         logger.debug(LoggingMarkers.PERFORMANCE, "Calculated downloads per age percentages . Took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
 
         result.setDownloadsPerAge(downloadsPerAge());
@@ -698,13 +757,54 @@ public class Stats {
     }
 
 
+    private static int getPercentage(Object count, long countAll) {
+        long countValue = count == null ? 0 : ((Number) count).longValue();
+        return countValue > 0 ? (int) (100D / ((double) countAll / countValue)) : 0;
+    }
+
+    private boolean hasValues(String table, String column) {
+        String sql = "SELECT count(*) FROM " + countSource(table) + " t WHERE t." + column + " IS NOT NULL AND t." + column + " != ''";
+        return ((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue() > 0;
+    }
+
+    private static boolean isRolledUp(String table) {
+        return table.equals(StatsRollups.SEARCHES.sourceTable());
+    }
+
+    /**
+     * @return SQL for a derived table with a TIME column and the number of rows for that time in COUNTER. Searches are read
+     * from their hourly rollup where TIME is the start of the hour.
+     */
+    private String countSource(String table) {
+        if (isRolledUp(table)) {
+            return "(SELECT HOUR_START AS TIME, SOURCE, USERNAME, IP, USER_AGENT, SEARCH_COUNT AS COUNTER FROM " + statsRollups.hourly(StatsRollups.SEARCHES) + " r)";
+        }
+        return "(SELECT TIME, USERNAME, IP, 1 AS COUNTER FROM " + table + ")";
+    }
+
     private String buildWhereFromStatsRequest(boolean useAnd, StatsRequest statsRequest) {
+        return buildWhereFromStatsRequest(useAnd, statsRequest, false);
+    }
+
+    /**
+     * @return SQL for a derived table with the hourly indexer API access counts. TIME is the start of the hour.
+     */
+    private String apiAccessSource() {
+        return "(SELECT HOUR_START AS TIME, INDEXER_ID, RESULT, ACCESS_COUNT, RESPONSE_TIME_SUM, RESPONSE_TIME_COUNT FROM " + statsRollups.hourly(StatsRollups.INDEXER_API_ACCESSES) + " h)";
+    }
+
+    /**
+     * @param hourly if the TIME column contains the start of hours. Hours starting before the requested time range but
+     *               ending in it are included.
+     */
+    private String buildWhereFromStatsRequest(boolean useAnd, StatsRequest statsRequest, boolean hourly) {
         if (statsRequest.getAfter() == null && statsRequest.getBefore() == null) {
             return " ";
         }
+        Instant after = statsRequest.getAfter() == null ? null : (hourly ? statsRequest.getAfter().truncatedTo(ChronoUnit.HOURS) : statsRequest.getAfter());
         return (useAnd ? " AND " : " WHERE ") +
-            (statsRequest.getAfter() != null ? " TIME > DATEADD('SECOND', " + statsRequest.getAfter().getEpochSecond() + ", DATE '1970-01-01') " : "") +
-            ((statsRequest.getBefore() != null && statsRequest.getAfter() != null) ? " AND " : " ") +
+            (after != null ? " TIME" + (hourly ? " >= " : " > ") + "DATEADD('SECOND', " + after.getEpochSecond() + ", DATE '1970-01-01') " : "") +
+            ((statsRequest.getBefore() != null && after != null) ? " AND " : " ") +
             (statsRequest.getBefore() != null ? " TIME < DATEADD('SECOND', " + statsRequest.getBefore().getEpochSecond() + ", DATE '1970-01-01') " : "");
     }
 
@@ -0,0 +1,213 @@
+package org.nzbhydra.historystats;
+
+import com.google.common.base.Stopwatch;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.nzbhydra.tasks.HydraTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Maintains hourly aggregates of the searches and indexer API accesses (see V3__STATS_ROLLUPS.sql).
+ * Only hours which ended since the last run are aggregated. The stats read the aggregates together with the rows that weren't
+ * aggregated yet, so they're always up to date.
+ * <p>
+ * Rows are expected to be committed shortly after their TIME. The last {@value #HOURS_ROLLED_UP_AGAIN} rolled up hours are
+ * aggregated again on every run, so rows committed up to that late are still counted. Rows committed even later (e.g. after
+ * the system clock was changed) are never included in the stats.
+ */
+@Component
+public class StatsRollups {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollups.class);
+
+    private static final long TEN_MINUTES = 1000 * 60 * 10;
+    private static final int CHUNK_SIZE = 50_000;
+    //Rows are saved when an indexer responds or a search is finished, i.e. usually at most a few minutes after their TIME
+    private static final int MINUTES_UNTIL_HOUR_CLOSED = 10;
+    private static final int HOURS_ROLLED_UP_AGAIN = 2;
+
+    static final Rollup SEARCHES = new Rollup("SEARCH", "STATS_SEARCH_HOURLY",
+        List.of("HOUR_START", "SOURCE", "USERNAME", "IP", "USER_AGENT"),
+        List.of("SEARCH_COUNT"),
+        """
+            SELECT
+              DATE_TRUNC('HOUR', TIME) AS HOUR_START,
+              COALESCE(SOURCE, '') AS SOURCE,
+              COALESCE(USERNAME, '') AS USERNAME,
+              COALESCE(IP, '') AS IP,
+              COALESCE(USER_AGENT, '') AS USER_AGENT,
+              COUNT(*) AS SEARCH_COUNT
+            FROM SEARCH
+            WHERE TIME IS NOT NULL AND %s
+            GROUP BY DATE_TRUNC('HOUR', TIME), COALESCE(SOURCE, ''), COALESCE(USERNAME, ''), COALESCE(IP, ''), COALESCE(USER_AGENT, '')""");
+
+    static final Rollup INDEXER_API_ACCESSES = new Rollup("INDEXERAPIACCESS", "STATS_INDEXERAPIACCESS_HOURLY",
+        List.of("HOUR_START", "INDEXER_ID", "RESULT"),
+        List.of("ACCESS_COUNT", "RESPONSE_TIME_SUM", "RESPONSE_TIME_COUNT"),
+        """
+            SELECT
+              DATE_TRUNC('HOUR', TIME) AS HOUR_START,
+              INDEXER_ID,
+              COALESCE(RESULT, '') AS RESULT,
+              COUNT(*) AS ACCESS_COUNT,
+              COALESCE(SUM(RESPONSE_TIME), 0) AS RESPONSE_TIME_SUM,
+              COUNT(RESPONSE_TIME) AS RESPONSE_TIME_COUNT
+            FROM INDEXERAPIACCESS
+            WHERE TIME IS NOT NULL AND INDEXER_ID IS NOT NULL AND %s
+            GROUP BY DATE_TRUNC('HOUR', TIME), INDEXER_ID, COALESCE(RESULT, '')""");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return SQL for a derived table containing the hourly aggregates of all rows of the rollup's source table
+     */
+    String hourly(Rollup rollup) {
+        String columns = String.join(", ", rollup.allColumns());
+        String notRolledUp = "TIME >= COALESCE((SELECT ROLLED_UP_UNTIL FROM STATS_ROLLUP_STATE WHERE NAME = '" + rollup.sourceTable() + "'), TIMESTAMP '1970-01-01 00:00:00')";
+        return "(SELECT " + columns + " FROM " + rollup.rollupTable() + " UNION ALL " + rollup.aggregateSql().formatted(notRolledUp) + ")";
+    }
+
+    @HydraTask(configId = "updateStatsRollups", name = "Update stats rollups", interval = TEN_MINUTES)
+    public synchronized void update() {
+        update(SEARCHES);
+        update(INDEXER_API_ACCESSES);
+    }
+
+    void update(Rollup rollup) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Timestamp until = transactionTemplate.execute(status -> getLastClosedHour());
+        transactionTemplate.executeWithoutResult(status -> reopenLastHours(rollup));
+        int chunks = 0;
+        boolean moreToDo = true;
+        while (moreToDo) {
+            moreToDo = Boolean.TRUE.equals(transactionTemplate.execute(status -> rollUpNextChunk(rollup, until)));
+            chunks++;
+        }
+        logger.debug(LoggingMarkers.PERFORMANCE, "Rolled up {} until {} in {} chunks. Took {}ms", rollup.sourceTable(), until, chunks, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Rows are only rolled up when the hour they belong to ended at least {@value #MINUTES_UNTIL_HOUR_CLOSED} minutes ago. Rolling up by
+     * time instead of by ID makes sure a row which was given its ID before but committed after a row with a higher ID isn't skipped.
+     * The time is determined by the database because the TIME columns are stored in its local time.
+     */
+    private Timestamp getLastClosedHour() {
+        return (Timestamp) entityManager.createNativeQuery("SELECT DATE_TRUNC('HOUR', DATEADD('MINUTE', -" + MINUTES_UNTIL_HOUR_CLOSED + ", LOCALTIMESTAMP))")
+            .getSingleResult();
+    }
+
+    /**
+     * Removes the aggregates of the last {@value #HOURS_ROLLED_UP_AGAIN} rolled up hours so that they're aggregated again,
+     * including rows which were committed after the hour was rolled up.
+     */
+    private void reopenLastHours(Rollup rollup) {
+        Timestamp rolledUpUntil = getRolledUpUntil(rollup);
+        if (rolledUpUntil == null) {
+            return;
+        }
+        Timestamp from = Timestamp.valueOf(rolledUpUntil.toLocalDateTime().minusHours(HOURS_ROLLED_UP_AGAIN));
+        entityManager.createNativeQuery("DELETE FROM " + rollup.rollupTable() + " WHERE HOUR_START >= :from")
+            .setParameter("from", from)
+            .executeUpdate();
+        entityManager.createNativeQuery("UPDATE STATS_ROLLUP_STATE SET ROLLED_UP_UNTIL = :from WHERE NAME = :name")
+            .setParameter("from", from)
+            .setParameter("name", rollup.sourceTable())
+            .executeUpdate();
+    }
+
+    /**
+     * Rolls up the rows of the hours following the last rolled up one, about {@value #CHUNK_SIZE} rows but always whole hours.
+     *
+     * @return true if there are more hours to roll up
+     */
+    private boolean rollUpNextChunk(Rollup rollup, Timestamp until) {
+        Timestamp from = getRolledUpUntil(rollup);
+        if (from != null && !from.before(until)) {
+            return false;
+        }
+        String fromCondition = from == null ? "" : "TIME >= :from AND ";
+        Query chunkEndQuery = entityManager.createNativeQuery("SELECT DATEADD('HOUR', 1, DATE_TRUNC('HOUR', TIME)) FROM " + rollup.sourceTable() +
+                " WHERE " + fromCondition + "TIME < :until ORDER BY TIME LIMIT 1 OFFSET " + CHUNK_SIZE)
+            .setParameter("until", until);
+        Query mergeQuery = entityManager.createNativeQuery(getMergeSql(rollup, fromCondition + "TIME < :to"));
+        if (from != null) {
+            chunkEndQuery.setParameter("from", from);
+            mergeQuery.setParameter("from", from);
+        }
+        Timestamp to = (Timestamp) chunkEndQuery.getResultList().stream().findFirst().orElse(until);
+        if (to.after(until)) {
+            to = until;
+        }
+
+        mergeQuery.setParameter("to", to).executeUpdate();
+        entityManager.createNativeQuery("UPDATE STATS_ROLLUP_STATE SET ROLLED_UP_UNTIL = :to WHERE NAME = :name")
+            .setParameter("to", to)
+            .setParameter("name", rollup.sourceTable())
+            .executeUpdate();
+        return to.before(until);
+    }
+
+    private static String getMergeSql(Rollup rollup, String condition) {
+        String matching = String.join(" AND ", rollup.keyColumns().stream().map(x -> "T." + x + " = S." + x).toList());
+        String increments = String.join(", ", rollup.valueColumns().stream().map(x -> x + " = T." + x + " + S." + x).toList());
+        String columns = String.join(", ", rollup.allColumns());
+        String values = String.join(", ", rollup.allColumns().stream().map(x -> "S." + x).toList());
+        return "MERGE INTO " + rollup.rollupTable() + " T USING (" + rollup.aggregateSql().formatted(condition) + ") S ON (" + matching + ")\n" +
+            "WHEN MATCHED THEN UPDATE SET " + increments + "\n" +
+            "WHEN NOT MATCHED THEN INSERT (" + columns + ") VALUES (" + values + ")";
+    }
+
+    private Timestamp getRolledUpUntil(Rollup rollup) {
+        return (Timestamp) entityManager.createNativeQuery("SELECT ROLLED_UP_UNTIL FROM STATS_ROLLUP_STATE WHERE NAME = :name")
+            .setParameter("name", rollup.sourceTable())
+            .getSingleResult();
+    }
+
+    /**
+     * Removes all aggregates so that all rows are rolled up again on the next run, including those with a TIME before the
+     * hours rolled up so far.
+     */
+    synchronized void reset() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Rollup rollup : List.of(SEARCHES, INDEXER_API_ACCESSES)) {
+                entityManager.createNativeQuery("DELETE FROM " + rollup.rollupTable()).executeUpdate();
+                entityManager.createNativeQuery("UPDATE STATS_ROLLUP_STATE SET ROLLED_UP_UNTIL = NULL WHERE NAME = :name")
+                    .setParameter("name", rollup.sourceTable())
+                    .executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * @param aggregateSql selects the hourly aggregates of the source table's rows matching the condition inserted for %s
+     */
+    record Rollup(String sourceTable, String rollupTable, List<String> keyColumns, List<String> valueColumns, String aggregateSql) {
+
+        List<String> allColumns() {
+            return Stream.concat(keyColumns.stream(), valueColumns.stream()).toList();
+        }
+    }
+
+}
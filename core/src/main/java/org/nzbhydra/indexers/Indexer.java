@@ -7,6 +7,7 @@ import org.nzbhydra.config.BaseConfigHandler;
 import org.nzbhydra.config.ConfigChangedEvent;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.indexers.exceptions.IndexerAccessException;
 import org.nzbhydra.indexers.exceptions.IndexerAuthException;
 import org.nzbhydra.indexers.exceptions.IndexerErrorCodeException;
@@ -66,7 +67,6 @@ public abstract class Indexer<T> {
 
     private static final List<DateTimeFormatter> DATE_FORMATs = Arrays.asList(DateTimeFormatter.RFC_1123_DATE_TIME, DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH));
 
-    private final Object dbLock = "";
 
     @Autowired
     protected ConfigProvider configProvider;
@@ -96,6 +96,10 @@ public abstract class Indexer<T> {
     protected BaseConfigHandler baseConfigHandler;
     @Autowired
     private IndexerSearchResultPersistor searchResultPersistor;
+    @Autowired
+    protected IndexerStateStore indexerStateStore;
+    @Autowired
+    protected IndexerAccessTracker indexerAccessTracker;
 
 
     protected IndexerEntity indexer;
@@ -109,7 +113,7 @@ public abstract class Indexer<T> {
     }
 
 
-    public Indexer(ConfigProvider configProvider, IndexerRepository indexerRepository, SearchResultRepository searchResultRepository, IndexerApiAccessRepository indexerApiAccessRepository, IndexerApiAccessEntityShortRepository indexerApiAccessShortRepository, IndexerLimitRepository indexerStatusRepository, IndexerWebAccess indexerWebAccess, SearchResultAcceptor resultAcceptor, CategoryProvider categoryProvider, InfoProvider infoProvider, ApplicationEventPublisher eventPublisher, QueryGenerator queryGenerator, CustomQueryAndTitleMappingHandler titleMapping, BaseConfigHandler baseConfigHandler, IndexerSearchResultPersistor persistor) {
+    public Indexer(ConfigProvider configProvider, IndexerRepository indexerRepository, SearchResultRepository searchResultRepository, IndexerApiAccessRepository indexerApiAccessRepository, IndexerApiAccessEntityShortRepository indexerApiAccessShortRepository, IndexerLimitRepository indexerStatusRepository, IndexerWebAccess indexerWebAccess, SearchResultAcceptor resultAcceptor, CategoryProvider categoryProvider, InfoProvider infoProvider, ApplicationEventPublisher eventPublisher, QueryGenerator queryGenerator, CustomQueryAndTitleMappingHandler titleMapping, BaseConfigHandler baseConfigHandler, IndexerSearchResultPersistor persistor, IndexerStateStore indexerStateStore, IndexerAccessTracker indexerAccessTracker) {
         this.configProvider = configProvider;
         this.indexerRepository = indexerRepository;
         this.searchResultRepository = searchResultRepository;
@@ -124,6 +128,8 @@ public abstract class Indexer<T> {
         this.titleMapping = titleMapping;
         this.baseConfigHandler = baseConfigHandler;
         this.searchResultPersistor = persistor;
+        this.indexerStateStore = indexerStateStore;
+        this.indexerAccessTracker = indexerAccessTracker;
     }
 
 
@@ -230,9 +236,11 @@ public abstract class Indexer<T> {
 
         indexerSearchResult.setPageSize(searchResultItems.size());
         debug(LoggingMarkers.PERFORMANCE, "Parsing of results took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        HydraMetrics.recordIndexerParsing(getName(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
         AcceptorResult acceptorResult = resultAcceptor.acceptResults(searchResultItems, searchRequest, config);
         searchResultItems = acceptorResult.getAcceptedResults();
         indexerSearchResult.setReasonsForRejection(acceptorResult.getReasonsForRejection());
+        HydraMetrics.countRejectedResults(getName(), acceptorResult.getReasonsForRejection());
 
         searchResultItems = persistSearchResults(searchResultItems, indexerSearchResult);
         indexerSearchResult.setSearchResultItems(searchResultItems);
@@ -287,11 +295,10 @@ public abstract class Indexer<T> {
 
     protected List<SearchResultItem> persistSearchResults(List<SearchResultItem> searchResultItems, IndexerSearchResult indexerSearchResult) {
         Stopwatch stopwatch = Stopwatch.createStarted();
-        synchronized (dbLock) { //Locking per indexer prevents multiple threads trying to save the same "new" results to the database
-            searchResultPersistor.persistSearchResults(this, searchResultItems, indexerSearchResult);
-        }
+        searchResultPersistor.persistSearchResults(this, searchResultItems, indexerSearchResult);
 
         getLogger().debug(LoggingMarkers.PERFORMANCE, "Persisting {} search results took {}ms", searchResultItems.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        HydraMetrics.recordIndexerPersistence(getName(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return searchResultItems;
     }
 
@@ -301,33 +308,26 @@ public abstract class Indexer<T> {
             debug("Indexer was successfully called after {} failed attempts in a row", getConfig().getDisabledLevel());
             eventPublisher.publishEvent(new IndexerReenabledNotificationEvent(getConfig().getName(), getConfig().getDisabledAt()));
         }
-        getConfig().setState(IndexerConfig.State.ENABLED);
-        getConfig().setLastError(null);
-        getConfig().setDisabledUntil(null);
-        getConfig().setDisabledLevel(0);
-        getConfig().setDisabledAt(null);
-        baseConfigHandler.save(false);
+        indexerStateStore.setState(getConfig(), IndexerState.ENABLED);
         saveApiAccess(accessType, responseTime, IndexerAccessResult.SUCCESSFUL, true);
     }
 
     protected void handleFailure(String reason, Boolean disablePermanently, IndexerApiAccessType accessType, Long responseTime, IndexerAccessResult accessResult) {
+        IndexerState newState;
         if (disablePermanently) {
             getLogger().warn("Because an unrecoverable error occurred {} will be permanently disabled until reenabled by the user", indexer.getName());
-            getConfig().setState(IndexerConfig.State.DISABLED_SYSTEM);
+            newState = new IndexerState(IndexerConfig.State.DISABLED_SYSTEM, getConfig().getDisabledLevel(), getConfig().getDisabledUntil(), Instant.now(), reason);
         } else {
             if (configProvider.getBaseConfig().getSearching().isIgnoreTemporarilyDisabled()) {
                 return;
             }
-            getConfig().setState(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY);
-            getConfig().setDisabledLevel(getConfig().getDisabledLevel() + 1);
-            long minutesToAdd = DISABLE_PERIODS.get(Math.min(DISABLE_PERIODS.size() - 1, getConfig().getDisabledLevel()));
+            int disabledLevel = getConfig().getDisabledLevel() + 1;
+            long minutesToAdd = DISABLE_PERIODS.get(Math.min(DISABLE_PERIODS.size() - 1, disabledLevel));
             Instant disabledUntil = Instant.now().plus(minutesToAdd, ChronoUnit.MINUTES);
-            getConfig().setDisabledUntil(disabledUntil.toEpochMilli());
-            getLogger().warn("Because an error occurred {} will be temporarily disabled until {}. This is error number {} in a row", indexer.getName(), disabledUntil, getConfig().getDisabledLevel());
+            getLogger().warn("Because an error occurred {} will be temporarily disabled until {}. This is error number {} in a row", indexer.getName(), disabledUntil, disabledLevel);
+            newState = new IndexerState(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY, disabledLevel, disabledUntil.toEpochMilli(), Instant.now(), reason);
         }
-        getConfig().setLastError(reason);
-        getConfig().setDisabledAt(Instant.now());
-        baseConfigHandler.save(false);
+        indexerStateStore.setState(getConfig(), newState);
         eventPublisher.publishEvent(new IndexerDisabledNotificationEvent(indexer.getName(), getConfig().getState(), reason));
 
         saveApiAccess(accessType, responseTime, accessResult, false);
@@ -343,7 +343,9 @@ public abstract class Indexer<T> {
             indexerApiAccessRepository.save(apiAccess);
         }
 
-        indexerApiAccessShortRepository.save(new IndexerApiAccessEntityShort(indexer, successful, accessType));
+        IndexerApiAccessEntityShort shortAccess = new IndexerApiAccessEntityShort(indexer, successful, accessType);
+        indexerApiAccessShortRepository.save(shortAccess);
+        indexerAccessTracker.recordAccess(shortAccess);
     }
 
     protected void handleIndexerAccessException(IndexerAccessException e, IndexerApiAccessType accessType) {
@@ -391,10 +393,17 @@ public abstract class Indexer<T> {
      */
     protected <T> T getAndStoreResultToDatabase(URI uri, Class<T> responseType, IndexerApiAccessType apiAccessType) throws IndexerAccessException {
         Stopwatch stopwatch = Stopwatch.createStarted();
-        T result = callInderWebAccess(uri, responseType);
+        T result;
+        try {
+            result = callInderWebAccess(uri, responseType);
+        } catch (IndexerAccessException e) {
+            HydraMetrics.recordIndexerRequest(getName(), apiAccessType.name().toLowerCase(Locale.ROOT), "error", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            throw e;
+        }
 
         long responseTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
         debug(LoggingMarkers.PERFORMANCE, "Call to {} took {}ms", uri, responseTime);
+        HydraMetrics.recordIndexerRequest(getName(), apiAccessType.name().toLowerCase(Locale.ROOT), "successful", responseTime);
         handleSuccess(apiAccessType, responseTime);
         return result;
     }
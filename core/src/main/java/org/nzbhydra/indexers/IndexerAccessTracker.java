@@ -0,0 +1,252 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.indexers;
+
+import com.google.common.base.Stopwatch;
+import jakarta.annotation.PostConstruct;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the times of the API accesses stored in the short term storage (see {@link IndexerApiAccessEntityShort}) in memory
+ * so that hit and download limits can be checked without querying the database for every indexer on every search.
+ * Filled from the database on startup and updated whenever an access is saved.
+ */
+@Component
+public class IndexerAccessTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerAccessTracker.class);
+
+    //Same as the retention of the short term storage, see ShortIndexerApiAccessCleanup
+    static final Duration RETENTION = Duration.ofDays(2);
+
+    public enum AccessGroup {
+        /**
+         * NZB downloads
+         */
+        DOWNLOADS,
+        /**
+         * Searches and NFO retrievals, used to check the API hit limit before a search
+         */
+        SEARCHES,
+        /**
+         * All accesses but NZB downloads, shown on the indexer status page
+         */
+        API_HITS
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, AccessTimes[]> accessTimesByIndexer = new ConcurrentHashMap<>();
+
+    public IndexerAccessTracker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void loadFromDatabase() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            jdbcTemplate.query("SELECT INDEXER_ID, TIME, API_ACCESS_TYPE FROM INDEXERAPIACCESS_SHORT WHERE TIME > ? ORDER BY TIME ASC", rs -> {
+                    Timestamp time = rs.getTimestamp(2);
+                    String accessType = rs.getString(3);
+                    if (time != null && accessType != null) {
+                        recordAccess(rs.getInt(1), IndexerApiAccessType.valueOf(accessType), time.toInstant());
+                    }
+                },
+                Timestamp.from(Instant.now().minus(RETENTION)));
+        } catch (DataAccessException | IllegalArgumentException e) {
+            logger.error("Unable to load indexer API accesses from database. Hit limits may not be respected until enough new accesses were made", e);
+        }
+        logger.debug(LoggingMarkers.PERFORMANCE, "Loading indexer API accesses from database took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Must be called whenever an access is saved to the short term storage.
+     */
+    public void recordAccess(IndexerApiAccessEntityShort access) {
+        recordAccess(access.getIndexerId(), access.getApiAccessType(), access.getTime());
+    }
+
+    public void recordAccess(int indexerId, IndexerApiAccessType accessType, Instant time) {
+        AccessTimes[] accessTimes = accessTimesByIndexer.computeIfAbsent(indexerId, x -> newAccessTimes());
+        long epochMilli = time.toEpochMilli();
+        if (accessType == IndexerApiAccessType.NZB) {
+            accessTimes[AccessGroup.DOWNLOADS.ordinal()].add(epochMilli);
+            return;
+        }
+        if (accessType == IndexerApiAccessType.SEARCH || accessType == IndexerApiAccessType.NFO) {
+            accessTimes[AccessGroup.SEARCHES.ordinal()].add(epochMilli);
+        }
+        accessTimes[AccessGroup.API_HITS.ordinal()].add(epochMilli);
+    }
+
+    /**
+     * @return the number of accesses after the given time
+     */
+    public int countSince(int indexerId, AccessGroup group, Instant since) {
+        return getAccessTimes(indexerId, group).countAfter(since.toEpochMilli());
+    }
+
+    /**
+     * @return the oldest access after the given time
+     */
+    public Optional<Instant> getOldestSince(int indexerId, AccessGroup group, Instant since) {
+        return toInstant(getAccessTimes(indexerId, group).getFirstAfter(since.toEpochMilli()));
+    }
+
+    /**
+     * @return the number of known accesses, at most <tt>limit</tt>
+     */
+    public int countRecent(int indexerId, AccessGroup group, int limit) {
+        return Math.min(getAccessTimes(indexerId, group).size(), limit);
+    }
+
+    /**
+     * @return the oldest of the last <tt>limit</tt> accesses (or of all accesses if fewer are known)
+     */
+    public Optional<Instant> getOldestOfRecent(int indexerId, AccessGroup group, int limit) {
+        return toInstant(getAccessTimes(indexerId, group).getOldestOfNewest(limit));
+    }
+
+    /**
+     * Removes all accesses made before the given time. Called when the short term storage is cleaned up.
+     */
+    public void removeBefore(Instant time) {
+        long epochMilli = time.toEpochMilli();
+        for (AccessTimes[] accessTimes : accessTimesByIndexer.values()) {
+            for (AccessTimes groupTimes : accessTimes) {
+                groupTimes.removeBefore(epochMilli);
+            }
+        }
+    }
+
+    private AccessTimes getAccessTimes(int indexerId, AccessGroup group) {
+        AccessTimes[] accessTimes = accessTimesByIndexer.get(indexerId);
+        return accessTimes == null ? AccessTimes.EMPTY : accessTimes[group.ordinal()];
+    }
+
+    private static AccessTimes[] newAccessTimes() {
+        AccessTimes[] accessTimes = new AccessTimes[AccessGroup.values().length];
+        for (int i = 0; i < accessTimes.length; i++) {
+            accessTimes[i] = new AccessTimes();
+        }
+        return accessTimes;
+    }
+
+    private static Optional<Instant> toInstant(long epochMilli) {
+        return epochMilli == AccessTimes.NONE ? Optional.empty() : Optional.of(Instant.ofEpochMilli(epochMilli));
+    }
+
+    /**
+     * Ring buffer of access times in epoch milliseconds, sorted ascending. Grows as needed and drops entries older than
+     * the retention when adding.
+     */
+    static class AccessTimes {
+
+        static final long NONE = Long.MIN_VALUE;
+        private static final AccessTimes EMPTY = new AccessTimes();
+
+        private long[] times = new long[16];
+        private int head = 0;
+        private int size = 0;
+
+        synchronized void add(long time) {
+            removeBefore(time - RETENTION.toMillis());
+            if (size == times.length) {
+                long[] newTimes = new long[times.length * 2];
+                for (int i = 0; i < size; i++) {
+                    newTimes[i] = get(i);
+                }
+                times = newTimes;
+                head = 0;
+            }
+            //Accesses are almost always recorded in order. Those that aren't are moved to their position
+            int index = size;
+            while (index > 0 && get(index - 1) > time) {
+                set(index, get(index - 1));
+                index--;
+            }
+            set(index, time);
+            size++;
+        }
+
+        synchronized void removeBefore(long time) {
+            while (size > 0 && times[head] < time) {
+                head = (head + 1) % times.length;
+                size--;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int countAfter(long time) {
+            return size - indexOfFirstAfter(time);
+        }
+
+        synchronized long getFirstAfter(long time) {
+            int index = indexOfFirstAfter(time);
+            return index < size ? get(index) : NONE;
+        }
+
+        synchronized long getOldestOfNewest(int count) {
+            if (size == 0 || count <= 0) {
+                return NONE;
+            }
+            return get(Math.max(0, size - count));
+        }
+
+        private int indexOfFirstAfter(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (get(mid) > time) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private long get(int index) {
+            return times[(head + index) % times.length];
+        }
+
+        private void set(int index, long time) {
+            times[(head + index) % times.length] = time;
+        }
+    }
+
+}
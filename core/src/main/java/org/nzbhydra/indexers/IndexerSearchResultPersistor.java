@@ -16,65 +16,59 @@
 
 package org.nzbhydra.indexers;
 
-import jakarta.persistence.EntityExistsException;
 import lombok.extern.slf4j.Slf4j;
 import org.nzbhydra.searching.SearchResultIdCalculator;
 import org.nzbhydra.searching.db.SearchResultEntity;
-import org.nzbhydra.searching.db.SearchResultRepository;
+import org.nzbhydra.searching.db.SearchResultWriteQueue;
 import org.nzbhydra.searching.dtoseventsenums.IndexerSearchResult;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Calculates the IDs of search results and queues new results to be written to the database. The IDs can be resolved
+ * right away, see {@link SearchResultWriteQueue}.
+ */
 @Component
 @Slf4j
 public class IndexerSearchResultPersistor {
 
 
-    private final SearchResultRepository searchResultRepository;
+    private final SearchResultWriteQueue searchResultWriteQueue;
 
-    public IndexerSearchResultPersistor(SearchResultRepository searchResultRepository) {
-        this.searchResultRepository = searchResultRepository;
+    public IndexerSearchResultPersistor(SearchResultWriteQueue searchResultWriteQueue) {
+        this.searchResultWriteQueue = searchResultWriteQueue;
     }
 
-    @Transactional
     public List<SearchResultItem> persistSearchResults(Indexer<?> indexer, List<SearchResultItem> searchResultItems, IndexerSearchResult indexerSearchResult) {
-        ArrayList<SearchResultEntity> searchResultEntities = new ArrayList<>();
-        Set<Long> alreadySavedIds = searchResultRepository.findAllIdsByIdIn(searchResultItems.stream().map(SearchResultIdCalculator::calculateSearchResultId).collect(Collectors.toList()));
+        Set<SearchResultEntity> newSearchResultEntities = new HashSet<>();
         for (SearchResultItem item : searchResultItems) {
             long guid = SearchResultIdCalculator.calculateSearchResultId(item);
-            if (!alreadySavedIds.contains(guid)) {
-                SearchResultEntity searchResultEntity = new SearchResultEntity();
+            SearchResultEntity searchResultEntity = new SearchResultEntity();
 
-                //Set all entity relevant data
-                searchResultEntity.setIndexer(indexer.getIndexerEntity());
-                searchResultEntity.setTitle(item.getTitle());
-                searchResultEntity.setLink(item.getLink());
-                searchResultEntity.setDetails(item.getDetails());
-                searchResultEntity.setIndexerGuid(item.getIndexerGuid());
-                searchResultEntity.setFirstFound(Instant.now());
-                searchResultEntity.setDownloadType(item.getDownloadType());
-                searchResultEntity.setPubDate(item.getPubDate());
-                searchResultEntities.add(searchResultEntity);
+            //Set all entity relevant data
+            searchResultEntity.setId(guid);
+            searchResultEntity.setIndexer(indexer.getIndexerEntity());
+            searchResultEntity.setTitle(item.getTitle());
+            searchResultEntity.setLink(item.getLink());
+            searchResultEntity.setDetails(item.getDetails());
+            searchResultEntity.setIndexerGuid(item.getIndexerGuid());
+            searchResultEntity.setFirstFound(Instant.now());
+            searchResultEntity.setDownloadType(item.getDownloadType());
+            searchResultEntity.setPubDate(item.getPubDate());
+            if (searchResultWriteQueue.add(searchResultEntity)) {
+                newSearchResultEntities.add(searchResultEntity);
             }
             //LATER Unify guid and searchResultId which are the same
             item.setGuid(guid);
             item.setSearchResultId(guid);
         }
-        indexer.debug("Found {} results which were already in the database and {} new ones", alreadySavedIds.size(), searchResultEntities.size());
-        try {
-            searchResultRepository.saveAll(searchResultEntities);
-            indexerSearchResult.setSearchResultEntities(new HashSet<>(searchResultEntities));
-        } catch (EntityExistsException e) {
-            indexer.error("Unable to save the search results to the database", e);
-        }
+        indexer.debug("Queued {} new results to be saved, {} were already known", newSearchResultEntities.size(), searchResultItems.size() - newSearchResultEntities.size());
+        indexerSearchResult.setSearchResultEntities(newSearchResultEntities);
 
         return searchResultItems;
     }
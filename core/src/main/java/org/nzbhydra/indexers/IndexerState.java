@@ -0,0 +1,44 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.indexers;
+
+import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.springnative.ReflectionMarker;
+
+import java.time.Instant;
+
+/**
+ * Runtime state of an indexer which is changed by the system when an indexer fails or recovers.
+ */
+@ReflectionMarker
+public record IndexerState(IndexerConfig.State state, int disabledLevel, Long disabledUntil, Instant disabledAt, String lastError) {
+
+    public static final IndexerState ENABLED = new IndexerState(IndexerConfig.State.ENABLED, 0, null, null, null);
+
+    public static IndexerState of(IndexerConfig config) {
+        return new IndexerState(config.getState(), config.getDisabledLevel(), config.getDisabledUntil(), config.getDisabledAt(), config.getLastError());
+    }
+
+    public void applyTo(IndexerConfig config) {
+        config.setState(state);
+        config.setDisabledLevel(disabledLevel);
+        config.setDisabledUntil(disabledUntil);
+        config.setDisabledAt(disabledAt);
+        config.setLastError(lastError);
+    }
+
+}
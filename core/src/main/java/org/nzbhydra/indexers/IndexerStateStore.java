@@ -0,0 +1,155 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.indexers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.nzbhydra.Jackson;
+import org.nzbhydra.NzbHydra;
+import org.nzbhydra.config.BaseConfigHandler;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.indexer.IndexerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps track of the runtime state of indexers (enabled, temporarily or permanently disabled, last error). The state is
+ * kept in the indexer configs (so that it's shown in the UI) but not saved with the config. Instead it's written to a
+ * small separate file when it actually changes. Multiple changes in a short time are written at once.
+ */
+@Component
+public class IndexerStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerStateStore.class);
+    private static final long WRITE_DELAY_MS = 5000;
+
+    private final ConfigProvider configProvider;
+    private final File stateFile;
+    private final long writeDelayMs;
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "IndexerStateWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //BaseConfigHandler must have loaded the config before the states can be applied to it
+    @Autowired
+    public IndexerStateStore(ConfigProvider configProvider, @SuppressWarnings("unused") BaseConfigHandler baseConfigHandler) {
+        this(configProvider, new File(NzbHydra.getDataFolder(), "indexerStates.json"), WRITE_DELAY_MS);
+    }
+
+    IndexerStateStore(ConfigProvider configProvider, File stateFile, long writeDelayMs) {
+        this.configProvider = configProvider;
+        this.stateFile = stateFile;
+        this.writeDelayMs = writeDelayMs;
+    }
+
+    @PostConstruct
+    public void loadStates() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        Map<String, IndexerState> states;
+        try {
+            states = Jackson.JSON_MAPPER.readValue(stateFile, new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            logger.error("Unable to read indexer states from {}", stateFile, e);
+            return;
+        }
+        for (IndexerConfig config : configProvider.getBaseConfig().getIndexers()) {
+            IndexerState state = states.get(config.getName());
+            //Disabling and enabling by the user is always saved with the config
+            if (state == null || config.getState() == IndexerConfig.State.DISABLED_USER || state.state() == IndexerConfig.State.DISABLED_USER) {
+                continue;
+            }
+            if (!state.equals(IndexerState.of(config))) {
+                logger.debug("Restoring state {} of indexer {}", state.state(), config.getName());
+                state.applyTo(config);
+            }
+        }
+    }
+
+    /**
+     * Sets the new state of the indexer. Nothing is done if the state didn't change.
+     *
+     * @return true if the state was changed
+     */
+    public boolean setState(IndexerConfig config, IndexerState newState) {
+        synchronized (config) {
+            if (newState.equals(IndexerState.of(config))) {
+                return false;
+            }
+            newState.applyTo(config);
+        }
+        scheduleWrite();
+        return true;
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        //The user may have reenabled indexers
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::write, writeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void write() {
+        writeScheduled.set(false);
+        Map<String, IndexerState> states = new LinkedHashMap<>();
+        for (IndexerConfig config : configProvider.getBaseConfig().getIndexers()) {
+            states.put(config.getName(), IndexerState.of(config));
+        }
+        try {
+            File tempFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp");
+            Jackson.JSON_MAPPER.writeValue(tempFile, states);
+            Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Unable to write indexer states to {}", stateFile, e);
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        executor.shutdownNow();
+        if (writeScheduled.get()) {
+            write();
+        }
+    }
+
+}
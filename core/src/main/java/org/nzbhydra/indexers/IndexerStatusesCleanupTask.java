@@ -16,7 +16,6 @@
 
 package org.nzbhydra.indexers;
 
-import org.nzbhydra.config.BaseConfigHandler;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.ConfigReaderWriter;
 import org.nzbhydra.config.indexer.IndexerConfig;
@@ -36,30 +35,23 @@ public class IndexerStatusesCleanupTask {
 
     private ConfigProvider configProvider;
     ConfigReaderWriter configReaderWriter = new ConfigReaderWriter();
-    private BaseConfigHandler baseConfigHandler;
+    private IndexerStateStore indexerStateStore;
 
     @Autowired
-    public IndexerStatusesCleanupTask(ConfigProvider configProvider, BaseConfigHandler baseConfigHandler) {
+    public IndexerStatusesCleanupTask(ConfigProvider configProvider, IndexerStateStore indexerStateStore) {
         this.configProvider = configProvider;
-        this.baseConfigHandler = baseConfigHandler;
+        this.indexerStateStore = indexerStateStore;
     }
 
     @HydraTask(configId = "cleanUpIndexerStatuses", name = "Clean up indexer statuses", interval = MINUTE)
     public void cleanup() {
-        boolean anyChanges = false;
         for (IndexerConfig config : configProvider.getBaseConfig().getIndexers()) {
             if (config.getState() == IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY && config.getDisabledUntil() != null && Instant.ofEpochMilli(config.getDisabledUntil()).isBefore(Instant.now())) {
                 //Do not reset the level. When the indexer is called the next time (when disabledUntil is in the past)
                 //and an error occurs the level is increased and the indexer gets disabled for a longer time
                 logger.debug("Setting indexer {} back to enabled after having been temporarily disabled until {}", config.getName(), Instant.ofEpochMilli(config.getDisabledUntil()));
-                config.setState(IndexerConfig.State.ENABLED);
-                config.setDisabledUntil(null);
-                config.setLastError(null);
-                anyChanges = true;
+                indexerStateStore.setState(config, new IndexerState(IndexerConfig.State.ENABLED, config.getDisabledLevel(), null, config.getDisabledAt(), null));
             }
         }
-        if (anyChanges) {
-            baseConfigHandler.save(false);
-        }
     }
 }
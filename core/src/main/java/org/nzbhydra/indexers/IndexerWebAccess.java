@@ -4,6 +4,7 @@ import com.google.common.base.Throwables;
 import com.google.common.io.BaseEncoding;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import okhttp3.ResponseBody;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.nzbhydra.Jackson;
@@ -11,10 +12,10 @@ import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.indexer.IndexerConfig;
 import org.nzbhydra.config.indexer.SearchModuleType;
 import org.nzbhydra.indexers.exceptions.IndexerAccessException;
-import org.nzbhydra.indexers.exceptions.IndexerProgramErrorException;
 import org.nzbhydra.indexers.exceptions.IndexerUnreachableException;
 import org.nzbhydra.indexers.torbox.mapping.TorboxSearchResponse;
-import org.nzbhydra.logging.MdcThreadPoolExecutor;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
+import org.nzbhydra.mapping.newznab.xml.Xml;
 import org.nzbhydra.mapping.nzbindex.NzbIndexRoot;
 import org.nzbhydra.springnative.ReflectionMarker;
 import org.nzbhydra.web.WebConfiguration;
@@ -27,32 +28,31 @@ import org.springframework.oxm.UnmarshallingFailureException;
 import org.springframework.stereotype.Component;
 import org.xml.sax.SAXParseException;
 
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.stream.StreamSource;
+import java.io.FilterReader;
 import java.io.IOException;
-import java.io.StringReader;
-import java.net.SocketTimeoutException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 @Component
 public class IndexerWebAccess {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexerWebAccess.class);
+    //Enough for the lines around a parsing error and to recognize error messages
+    private static final int EXCERPT_BUFFER_SIZE = 64 * 1024;
 
     @Autowired
     protected ConfigProvider configProvider;
     @Autowired
     protected WebAccess webAccess;
     protected Unmarshaller unmarshaller = new WebConfiguration().marshaller();
+    protected NewznabXmlStreamParser newznabXmlParser = new NewznabXmlStreamParser();
 
 
     public <T> T get(URI uri, IndexerConfig indexerConfig) throws IndexerAccessException {
@@ -76,75 +76,182 @@ public class IndexerWebAccess {
             headers.put("Authorization", "Bearer " + indexerConfig.getApiKey());
         }
 
-        Future<T> future;
-        ExecutorService executorService = MdcThreadPoolExecutor.newWithInheritedMdc(1);
+        //The timeout is enforced by OkHttp for the whole call, including reading the response
         try {
-            future = executorService.submit(() -> {
-                String response = webAccess.callUrl(uri.toString(), headers, timeout);
-                if (responseType == String.class) {
-                    return (T) response;
-                }
-                if (responseType == NzbIndexRoot.class || responseType == TorboxSearchResponse.class) {
-                    // TODO 23.03.2024: Make more generic
-                    return (T) Jackson.JSON_MAPPER.readValue(response, responseType);
+            if (responseType == String.class) {
+                return (T) webAccess.callUrl(uri.toString(), headers, timeout);
+            }
+            //Parse the response while it's being received instead of buffering it
+            return webAccess.readFromUrl(uri.toString(), headers, timeout, body -> (T) parse(body, responseType));
+        } catch (ParsingFailedException e) {
+            throw new IndexerAccessException("Unable to parse indexer output: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            //The HTTP client keeps the thread's interrupted state when it aborts a call because of an interrupt
+            if (Thread.currentThread().isInterrupted() || Throwables.getCausalChain(e).stream().anyMatch(x -> x instanceof InterruptedException)) {
+                throw new RuntimeException("Unexpected error while accessing indexer", new InterruptedException(cause.getMessage()));
+            }
+            if (cause instanceof InterruptedIOException) {
+                throw new IndexerUnreachableException("Indexer did not complete request within " + timeout + " seconds: " + cause.getMessage());
+            }
+            logger.debug("Indexer communication error", e);
+            throw new IndexerUnreachableException("Error while communicating with indexer " + indexerConfig.getName() + ". Server returned: " + e.getMessage(), e);
+        }
+    }
 
-                }
-                //Fall back to XML
-                return unmarshalXml(response);
-            });
-        } catch (RejectedExecutionException e) {
-            logger.error("Unexpected execution exception while executing call for indexer {}. This will hopefully be fixed soon", indexerConfig.getName(), e);
-            throw new IndexerProgramErrorException("Unexpected error in hydra code. Sorry...");
-        } finally {
-            executorService.shutdown();
+    private Object parse(ResponseBody body, Class responseType) throws IOException {
+        if (responseType == NzbIndexRoot.class || responseType == TorboxSearchResponse.class) {
+            // TODO 23.03.2024: Make more generic
+            return Jackson.JSON_MAPPER.readValue(body.charStream(), responseType);
         }
+        //Fall back to XML
+        ResponseTailReader reader = new ResponseTailReader(body.charStream(), EXCERPT_BUFFER_SIZE);
         try {
-            return future.get(timeout + 1, TimeUnit.SECONDS); //Give it one second more than the actual timeout
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof SocketTimeoutException) {
-                throw new IndexerUnreachableException("Connection with indexer timed out with a time out of " + timeout + " seconds: " + e.getCause().getMessage());
-            }
-            if (e.getCause() instanceof HydraUnmarshallingFailureException) {
-                throw new IndexerAccessException("Unable to parse indexer output: " + e.getCause().getMessage(), e.getCause());
+            if (responseType == Xml.class || responseType == NewznabXmlRoot.class) {
+                return parseNewznabXml(reader);
             }
-            logger.debug("Indexer communication error", e.getCause());
-            throw new IndexerUnreachableException("Error while communicating with indexer " + indexerConfig.getName() + ". Server returned: " + e.getCause().getMessage(), e.getCause());
-        } catch (TimeoutException e) {
-            throw new IndexerUnreachableException("Indexer did not complete request within " + timeout + " seconds");
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error while accessing indexer", e);
+            return unmarshalXml(reader);
+        } catch (HydraUnmarshallingFailureException e) {
+            throw new ParsingFailedException(e);
         }
     }
 
-    private <T> @NotNull T unmarshalXml(String response) throws IOException, HydraUnmarshallingFailureException {
+    private Xml parseNewznabXml(ResponseTailReader reader) throws HydraUnmarshallingFailureException {
         try {
-            try (StringReader reader = new StringReader(response)) {
-                final StreamSource source = new StreamSource(reader);
-                T unmarshalled = (T) unmarshaller.unmarshal(source);
-                return unmarshalled;
+            return newznabXmlParser.parse(reader);
+        } catch (XMLStreamException e) {
+            UnmarshallingFailureException unmarshallingFailureException = new UnmarshallingFailureException(e.getMessage(), e);
+            String response = reader.getTail();
+            if (!response.toLowerCase().contains("function not available")) {
+                //Some indexers like Animetosho don't return a proper error code. This error may happen during caps check and we don't want to log it
+                int lineNumber = e.getLocation() == null ? -1 : e.getLocation().getLineNumber();
+                int columnNumber = e.getLocation() == null ? -1 : e.getLocation().getColumnNumber();
+                logParseException(reader, lineNumber, columnNumber, e.getMessage(), unmarshallingFailureException);
             }
+            throw new HydraUnmarshallingFailureException(e.getMessage(), unmarshallingFailureException, response);
+        }
+    }
+
+    private <T> @NotNull T unmarshalXml(ResponseTailReader reader) throws IOException, HydraUnmarshallingFailureException {
+        try {
+            final StreamSource source = new StreamSource(reader);
+            T unmarshalled = (T) unmarshaller.unmarshal(source);
+            return unmarshalled;
         } catch (UnmarshallingFailureException e) {
+            String response = reader.getTail();
             if (!response.toLowerCase().contains("function not available")) {
                 //Some indexers like Animetosho don't return a proper error code. This error may happen during caps check and we don't want to log it
-                logParseException(response, e);
+                Optional<Throwable> saxParseExceptionOptional = Throwables.getCausalChain(e).stream().filter(x -> x instanceof SAXParseException).findFirst();
+                if (saxParseExceptionOptional.isPresent()) {
+                    SAXParseException saxParseException = (SAXParseException) saxParseExceptionOptional.get();
+                    logParseException(reader, saxParseException.getLineNumber(), saxParseException.getColumnNumber(), saxParseException.getMessage(), e);
+                } else {
+                    logParseException(reader, -1, -1, null, e);
+                }
             }
             throw new HydraUnmarshallingFailureException(e.getMessage(), e, response);
         }
     }
 
-    protected void logParseException(String response, UnmarshallingFailureException e) {
-        Optional<Throwable> saxParseExceptionOptional = Throwables.getCausalChain(e).stream().filter(x -> x instanceof SAXParseException).findFirst();
-        if (saxParseExceptionOptional.isPresent()) {
-            int lineNumber = ((SAXParseException) saxParseExceptionOptional.get()).getLineNumber();
-            int columnNumber = ((SAXParseException) saxParseExceptionOptional.get()).getColumnNumber();
-            String message = saxParseExceptionOptional.get().getMessage();
-            String[] lines = response.split("\\r?\\n");
-            int from = Math.max(0, lineNumber - 5);
-            int to = Math.min(lines.length, lineNumber + 5);
-            String excerpt = String.join("\r\n", Arrays.asList(lines).subList(from, to));
-            logger.error("Unable to parse indexer output at line {} and column {} with error message: {}. Excerpt:\r\n{}", lineNumber, columnNumber, message, excerpt);
-        } else {
+    private void logParseException(ResponseTailReader reader, int lineNumber, int columnNumber, String message, UnmarshallingFailureException e) {
+        String response = reader.getTail();
+        if (lineNumber < 0) {
             logger.debug("Unable to parse indexer output:\n {}", response, e);
+            return;
+        }
+        //Only the last part of the response is kept, its first line may not be the first line of the response
+        String[] lines = response.split("\\r?\\n");
+        int errorIndex = lineNumber - reader.getFirstLineNumberOfTail();
+        int from = Math.max(0, errorIndex - 5);
+        int to = Math.min(lines.length, errorIndex + 5);
+        if (from >= to) {
+            from = Math.max(0, lines.length - 10);
+            to = lines.length;
+        }
+        String excerpt = String.join("\r\n", Arrays.asList(lines).subList(from, to));
+        logger.error("Unable to parse indexer output at line {} and column {} with error message: {}. Excerpt:\r\n{}", lineNumber, columnNumber, message, excerpt);
+    }
+
+    /**
+     * Used to pass parsing errors through {@link WebAccess.BodyReader}.
+     */
+    private static class ParsingFailedException extends IOException {
+        ParsingFailedException(HydraUnmarshallingFailureException cause) {
+            super(cause.getMessage(), cause);
+        }
+
+        @Override
+        public synchronized HydraUnmarshallingFailureException getCause() {
+            return (HydraUnmarshallingFailureException) super.getCause();
+        }
+    }
+
+    /**
+     * Keeps the last characters read from the response so that an excerpt can be logged when parsing fails, without
+     * keeping the whole response in memory.
+     */
+    static class ResponseTailReader extends FilterReader {
+
+        private final char[] tail;
+        private int position = 0;
+        private boolean full = false;
+        private int lineBreaksRead = 0;
+
+        ResponseTailReader(Reader in, int size) {
+            super(in);
+            tail = new char[size];
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                record((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            for (int i = offset; i < offset + read; i++) {
+                record(buffer[i]);
+            }
+            return read;
+        }
+
+        private void record(char c) {
+            tail[position] = c;
+            position = (position + 1) % tail.length;
+            if (position == 0) {
+                full = true;
+            }
+            if (c == '\n') {
+                lineBreaksRead++;
+            }
+        }
+
+        String getTail() {
+            if (!full) {
+                return new String(tail, 0, position);
+            }
+            return new String(tail, position, tail.length - position) + new String(tail, 0, position);
+        }
+
+        /**
+         * @return the (1-based) number of the line in the response with which {@link #getTail()} starts
+         */
+        int getFirstLineNumberOfTail() {
+            if (!full) {
+                return 1;
+            }
+            int lineBreaksInTail = 0;
+            for (char c : tail) {
+                if (c == '\n') {
+                    lineBreaksInTail++;
+                }
+            }
+            return lineBreaksRead - lineBreaksInTail + 1;
         }
     }
 
@@ -0,0 +1,287 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.indexers;
+
+import org.nzbhydra.mapping.newznab.xml.JaxbPubdateAdapter;
+import org.nzbhydra.mapping.newznab.xml.NewznabAttribute;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlApilimits;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlChannel;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlEnclosure;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlError;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlGuid;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlItem;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlResponse;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
+import org.nzbhydra.mapping.newznab.xml.Xml;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+
+/**
+ * Parses newznab and torznab RSS responses using StAX while they're being read from the indexer. Maps to the same
+ * classes and follows the same element and attribute names as the JAXB annotations on them but without building a DOM,
+ * reflection or buffering the whole response.
+ */
+public class NewznabXmlStreamParser {
+
+    private static final String NEWZNAB_NAMESPACE = "http://www.newznab.com/DTD/2010/feeds/attributes/";
+    private static final String TORZNAB_NAMESPACE = "http://torznab.com/schemas/2015/feed";
+
+    //XMLInputFactory is not guaranteed to be thread safe
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    });
+
+    private final JaxbPubdateAdapter pubdateAdapter = new JaxbPubdateAdapter();
+
+    /**
+     * @return either a {@link NewznabXmlRoot} or a {@link NewznabXmlError}
+     */
+    public Xml parse(Reader reader) throws XMLStreamException {
+        XMLStreamReader streamReader = INPUT_FACTORY.get().createXMLStreamReader(reader);
+        try {
+            nextTag(streamReader);
+            if (isElement(streamReader, "error")) {
+                return parseError(streamReader);
+            }
+            if (!isElement(streamReader, "rss")) {
+                throw new XMLStreamException("Unexpected root element " + streamReader.getName(), streamReader.getLocation());
+            }
+            return parseRoot(streamReader);
+        } finally {
+            streamReader.close();
+        }
+    }
+
+    private NewznabXmlRoot parseRoot(XMLStreamReader reader) throws XMLStreamException {
+        NewznabXmlRoot root = new NewznabXmlRoot();
+        String version = reader.getAttributeValue(null, "version");
+        if (version != null) {
+            root.setVersion(version);
+        }
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (isElement(reader, "channel")) {
+                root.setRssChannel(parseChannel(reader));
+            } else if (isElement(reader, "error")) {
+                root.setError(parseError(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return root;
+    }
+
+    private NewznabXmlChannel parseChannel(XMLStreamReader reader) throws XMLStreamException {
+        NewznabXmlChannel channel = new NewznabXmlChannel();
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (isElement(reader, "item")) {
+                channel.getItems().add(parseItem(reader));
+            } else if (isElement(reader, "title")) {
+                channel.setTitle(readText(reader));
+            } else if (isElement(reader, "description")) {
+                channel.setDescription(readText(reader));
+            } else if (isElement(reader, "link")) {
+                channel.setLink(readText(reader));
+            } else if (isElement(reader, "language")) {
+                channel.setLanguage(readText(reader));
+            } else if (isElement(reader, "webMaster")) {
+                channel.setWebMaster(readText(reader));
+            } else if (isElement(reader, "generator")) {
+                channel.setGenerator(readText(reader));
+            } else if (isElement(reader, NEWZNAB_NAMESPACE, "response")) {
+                NewznabXmlResponse response = new NewznabXmlResponse();
+                response.setOffset(parseInteger(reader.getAttributeValue(null, "offset")));
+                response.setTotal(parseInteger(reader.getAttributeValue(null, "total")));
+                channel.setNewznabResponse(response);
+                skipElement(reader);
+            } else if (isElement(reader, NEWZNAB_NAMESPACE, "apilimits")) {
+                channel.setApiLimits(parseApiLimits(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return channel;
+    }
+
+    private NewznabXmlItem parseItem(XMLStreamReader reader) throws XMLStreamException {
+        NewznabXmlItem item = new NewznabXmlItem();
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if (isElement(reader, NEWZNAB_NAMESPACE, "attr")) {
+                item.getNewznabAttributes().add(parseAttribute(reader));
+            } else if (isElement(reader, TORZNAB_NAMESPACE, "attr")) {
+                item.getTorznabAttributes().add(parseAttribute(reader));
+            } else if (isElement(reader, "title")) {
+                item.setTitle(readText(reader));
+            } else if (isElement(reader, "link")) {
+                item.setLink(readText(reader));
+            } else if (isElement(reader, "enclosure")) {
+                if (item.getEnclosures() == null) {
+                    item.setEnclosures(new ArrayList<>());
+                }
+                item.getEnclosures().add(new NewznabXmlEnclosure(reader.getAttributeValue(null, "url"), parseLong(reader.getAttributeValue(null, "length")), reader.getAttributeValue(null, "type")));
+                skipElement(reader);
+            } else if (isElement(reader, "pubDate")) {
+                item.setPubDate(parseDate(readText(reader)));
+            } else if (isElement(reader, "guid")) {
+                String isPermaLinkValue = reader.getAttributeValue(null, "isPermaLink");
+                boolean isPermaLink = isPermaLinkValue != null && (isPermaLinkValue.trim().equalsIgnoreCase("true") || isPermaLinkValue.trim().equals("1"));
+                item.setRssGuid(new NewznabXmlGuid(readText(reader), isPermaLink));
+            } else if (isElement(reader, "description")) {
+                item.setDescription(readText(reader));
+            } else if (isElement(reader, "comments")) {
+                item.setComments(readText(reader));
+            } else if (isElement(reader, "category")) {
+                item.setCategory(readText(reader));
+            } else if (isElement(reader, "grabs")) {
+                item.setGrabs(parseInteger(readText(reader)));
+            } else if (isElement(reader, "size")) {
+                item.setSize(parseLong(readText(reader)));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return item;
+    }
+
+    private NewznabAttribute parseAttribute(XMLStreamReader reader) throws XMLStreamException {
+        NewznabAttribute attribute = new NewznabAttribute(reader.getAttributeValue(null, "name"), reader.getAttributeValue(null, "value"));
+        skipElement(reader);
+        return attribute;
+    }
+
+    private NewznabXmlApilimits parseApiLimits(XMLStreamReader reader) throws XMLStreamException {
+        NewznabXmlApilimits apiLimits = new NewznabXmlApilimits();
+        apiLimits.setApicurrent(parseInteger(reader.getAttributeValue(null, "apicurrent")));
+        apiLimits.setApiCurrent(parseInteger(reader.getAttributeValue(null, "apiCurrent")));
+        apiLimits.setApimax(parseInteger(reader.getAttributeValue(null, "apimax")));
+        apiLimits.setApiMax(parseInteger(reader.getAttributeValue(null, "apiMax")));
+        apiLimits.setGrabcurrent(parseInteger(reader.getAttributeValue(null, "grabcurrent")));
+        apiLimits.setGrabCurrent(parseInteger(reader.getAttributeValue(null, "grabCurrent")));
+        apiLimits.setGrabmax(parseInteger(reader.getAttributeValue(null, "grabmax")));
+        apiLimits.setGrabMax(parseInteger(reader.getAttributeValue(null, "grabMax")));
+        apiLimits.setApiOldestTime(parseDate(reader.getAttributeValue(null, "apioldesttime")));
+        apiLimits.setGrabOldestTime(parseDate(reader.getAttributeValue(null, "graboldesttime")));
+        skipElement(reader);
+        return apiLimits;
+    }
+
+    private NewznabXmlError parseError(XMLStreamReader reader) throws XMLStreamException {
+        NewznabXmlError error = new NewznabXmlError(reader.getAttributeValue(null, "code"), reader.getAttributeValue(null, "description"));
+        skipElement(reader);
+        return error;
+    }
+
+    private static boolean isElement(XMLStreamReader reader, String localName) {
+        return isElement(reader, "", localName);
+    }
+
+    private static boolean isElement(XMLStreamReader reader, String namespace, String localName) {
+        String elementNamespace = reader.getNamespaceURI();
+        return localName.equals(reader.getLocalName()) && namespace.equals(elementNamespace == null ? "" : elementNamespace);
+    }
+
+    /**
+     * Moves to the next start or end tag, ignoring any text, comments or processing instructions in between.
+     */
+    private static int nextTag(XMLStreamReader reader) throws XMLStreamException {
+        int event = reader.next();
+        while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+            }
+            event = reader.next();
+        }
+        return event;
+    }
+
+    /**
+     * Reads the text of the current element, including that of any child elements, and moves to its end.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                text.append(reader.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Moves to the end of the current element.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private Instant parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return pubdateAdapter.unmarshal(value.trim());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -16,8 +16,8 @@
 
 package org.nzbhydra.indexers;
 
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.indexer.IndexerConfig;
 import org.nzbhydra.config.mediainfo.MediaIdType;
@@ -34,6 +34,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -43,18 +45,17 @@ public class QueryGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(QueryGenerator.class);
 
-    private final Map<SearchRequest, String> generatedQueries =
-            ExpiringMap.builder()
-                    .expiration(1, TimeUnit.MINUTES)
-                    .expirationPolicy(ExpirationPolicy.CREATED)
-                    .build();
+    private final Cache<QueryKey, String> generatedQueries = Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterWrite(1, TimeUnit.MINUTES)
+            .build();
 
     @Autowired
     private ConfigProvider configProvider;
     @Autowired
     private InfoProvider infoProvider;
 
-    public synchronized String generateQueryIfApplicable(SearchRequest searchRequest, String query, Indexer indexer) throws IndexerSearchAbortedException {
+    public String generateQueryIfApplicable(SearchRequest searchRequest, String query, Indexer indexer) throws IndexerSearchAbortedException {
         if (searchRequest.getQuery().isPresent()) {
             return searchRequest.getQuery().get();
         }
@@ -72,12 +73,16 @@ public class QueryGenerator {
             logger.debug("No query generation needed for {}. indexerDoesntSupportRequiredSearchType: {}. indexerDoesntSupportAnyOfTheProvidedIds: {}. queryGenerationPossible: {}. queryGenerationEnabled: {}. fallbackRequested: {}", indexer.getName(), indexerDoesntSupportRequiredSearchType, indexerDoesntSupportAnyOfTheProvidedIds, queryGenerationPossible, queryGenerationEnabled, fallbackRequested);
             return query;
         }
-        if (generatedQueries.containsKey(searchRequest)) {
-            return generatedQueries.get(searchRequest);
-        }
         if (fallbackState == InternalData.FallbackState.REQUESTED) {
             searchRequest.getInternalData().setFallbackStateByIndexer(config.getName(), InternalData.FallbackState.USED); //
         }
+        boolean addAuthor = searchRequest.getSearchType() == SearchType.BOOK && !config.getSupportedSearchTypes().contains(ActionAttribute.BOOK);
+        QueryKey queryKey = QueryKey.of(searchRequest, fallbackRequested, addAuthor);
+        String generatedQuery = generatedQueries.getIfPresent(queryKey);
+        if (generatedQuery != null) {
+            searchRequest.getInternalData().setQueryGenerated(true);
+            return generatedQuery;
+        }
 
         if (searchRequest.getTitle().isPresent()) {
             query = sanitizeTitleForQuery(searchRequest.getTitle().get());
@@ -122,7 +127,7 @@ public class QueryGenerator {
             }
         }
 
-        if (searchRequest.getSearchType() == SearchType.BOOK && !config.getSupportedSearchTypes().contains(ActionAttribute.BOOK)) {
+        if (addAuthor) {
             if (searchRequest.getAuthor().isPresent()) {
                 query += " " + searchRequest.getAuthor().get();
                 logger.debug("Using author {} in query", searchRequest.getAuthor().get());
@@ -131,7 +136,7 @@ public class QueryGenerator {
 
         logger.debug("{} does not support any of the supplied IDs or the requested search type. The following query was generated: {} ", indexer.getName(), query);
 
-        generatedQueries.put(searchRequest, query);
+        generatedQueries.put(queryKey, query);
         searchRequest.getInternalData().setQueryGenerated(true);
         return query;
     }
@@ -146,4 +151,24 @@ public class QueryGenerator {
         }
         return sanitizedQuery;
     }
+
+    /**
+     * Everything the generated query depends on. Unlike the search request itself this doesn't change while it's cached.
+     */
+    private record QueryKey(SearchType searchType, String title, String internalTitle, Map<MediaIdType, String> identifiers, Integer season, String episode,
+                            String author, boolean fallbackRequested, boolean addAuthor) {
+
+        static QueryKey of(SearchRequest searchRequest, boolean fallbackRequested, boolean addAuthor) {
+            return new QueryKey(searchRequest.getSearchType(),
+                    searchRequest.getTitle().orElse(null),
+                    searchRequest.getInternalData().getTitle().orElse(null),
+                    //Map.copyOf doesn't allow null values
+                    Collections.unmodifiableMap(new HashMap<>(searchRequest.getIdentifiers())),
+                    searchRequest.getSeason().orElse(null),
+                    searchRequest.getEpisode().orElse(null),
+                    searchRequest.getAuthor().orElse(null),
+                    fallbackRequested,
+                    addAuthor);
+        }
+    }
 }
@@ -16,13 +16,13 @@
 
 package org.nzbhydra.indexers.status;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.indexers.IndexerAccessTracker;
+import org.nzbhydra.indexers.IndexerAccessTracker.AccessGroup;
 import org.nzbhydra.indexers.IndexerEntity;
 import org.nzbhydra.logging.LoggingMarkers;
 import org.nzbhydra.searching.SearchModuleProvider;
@@ -32,7 +32,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -49,13 +48,12 @@ public class IndexerStatusesAndLimits {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexerStatusesAndLimits.class);
 
-    private static final DateTimeFormatter DATE_PATTERN = DateTimeFormatter.ofPattern("dd.MM.yyyy-HH:mm:ss:SSS");
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     @Autowired
     private ConfigProvider configProvider;
     @Autowired
-    private EntityManager entityManager;
+    private IndexerAccessTracker indexerAccessTracker;
     @Autowired
     private IndexerLimitRepository indexerLimitRepository;
     @Autowired
@@ -209,42 +207,24 @@ public class IndexerStatusesAndLimits {
         }
 
         public LimitsRetrieval invoke() {
-            String sqlString = "SELECT * FROM INDEXERAPIACCESS_SHORT x WHERE x.INDEXER_ID = :indexerId";
+            Instant since;
             if (indexerConfig.getHitLimitResetTime().isPresent()) {
                 //Fixed point in time where API resets
                 LocalDateTime lastResetTime = LocalDateTime.now(Clock.systemUTC()).truncatedTo(ChronoUnit.HOURS).with(ChronoField.HOUR_OF_DAY, indexerConfig.getHitLimitResetTime().get());
                 if (lastResetTime.isAfter(LocalDateTime.now(Clock.systemUTC()))) {
                     lastResetTime = lastResetTime.minus(1, ChronoUnit.DAYS);
                 }
-                sqlString += " AND x.time > PARSEDATETIME('" + DATE_PATTERN.format(lastResetTime) + "', 'dd.MM.yyyy-HH:mm:ss:SSS')";
+                since = lastResetTime.toInstant(ZoneOffset.UTC);
             } else {
                 //Rolling window, last 24 hours count
-                sqlString += " AND x.TIME > DATEADD('HOUR', -24, CURRENT_TIMESTAMP())";
+                since = Instant.now().minus(24, ChronoUnit.HOURS);
             }
-            sqlString += " ORDER BY TIME ASC";
-            Query query = entityManager.createNativeQuery(sqlString);
-            query.setParameter("indexerId", indexerEntity.getId());
-
-            List resultList = query.getResultList();
-            countApiHits = 0;
-            countDownloads = 0;
-            earliestApiHit = null;
-            earliestDownload = null;
-            for (Object o : resultList) {
-                Object[] array = ((Object[]) o);
-                if ("NZB".equals(array[4])) {
-                    countDownloads += 1;
-                    if (earliestDownload == null) {
-                        earliestDownload = ((Timestamp) array[2]).toInstant();
-                    }
-                } else {
-                    countApiHits += 1;
-                    if (earliestApiHit == null) {
-                        earliestApiHit = ((Timestamp) array[2]).toInstant();
-                    }
-                }
-            }
-            logger.debug(LoggingMarkers.LIMITS, "Indexer {}. Found result in database: {}", indexerEntity.getName(), this);
+            int indexerId = indexerEntity.getId();
+            countApiHits = indexerAccessTracker.countSince(indexerId, AccessGroup.API_HITS, since);
+            countDownloads = indexerAccessTracker.countSince(indexerId, AccessGroup.DOWNLOADS, since);
+            earliestApiHit = indexerAccessTracker.getOldestSince(indexerId, AccessGroup.API_HITS, since).orElse(null);
+            earliestDownload = indexerAccessTracker.getOldestSince(indexerId, AccessGroup.DOWNLOADS, since).orElse(null);
+            logger.debug(LoggingMarkers.LIMITS, "Indexer {}. Found accesses in short term storage: {}", indexerEntity.getName(), this);
             return this;
         }
     }
@@ -0,0 +1,48 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes events from a bounded queue so that logging threads (e.g. searches) don't wait for the console or disk.
+ * <p>
+ * When the queue is almost full DEBUG and TRACE events are dropped and counted. Events with a higher level are never
+ * dropped, the logging thread waits for space in the queue instead.
+ */
+public class DiscardingAsyncAppender extends AsyncAppender {
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        if (event.getLevel().toInt() > Level.DEBUG_INT) {
+            return false;
+        }
+        droppedEvents.incrementAndGet();
+        return true;
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+}
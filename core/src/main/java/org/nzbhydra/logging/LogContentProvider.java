@@ -5,6 +5,7 @@ import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.spi.AppenderAttachable;
 import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -108,23 +109,9 @@ public class LogContentProvider {
         FileAppender<?> fileAppender = null;
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
         for (Logger logger : context.getLoggerList()) {
-            for (Iterator<Appender<ILoggingEvent>> index = logger.iteratorForAppenders();
-                 index.hasNext(); ) {
-                Object enumElement = index.next();
-                if (enumElement instanceof FileAppender<?> temp) {
-                    if (getJsonFile) {
-                        if (!temp.getEncoder().getClass().getName().equals(SensitiveDataRemovingPatternLayoutEncoder.class.getName())) {
-                            fileAppender = temp;
-                            break;
-                        }
-                    } else {
-                        if (temp.getEncoder().getClass().getName().equals(SensitiveDataRemovingPatternLayoutEncoder.class.getName())) {
-                            fileAppender = temp;
-                            break;
-                        }
-                    }
-
-                }
+            fileAppender = findFileAppender(logger.iteratorForAppenders(), getJsonFile);
+            if (fileAppender != null) {
+                break;
             }
         }
 
@@ -136,6 +123,28 @@ public class LogContentProvider {
         return clientLogFile;
     }
 
+    /**
+     * The file appenders may be attached to async appenders instead of the logger.
+     */
+    private FileAppender<?> findFileAppender(Iterator<Appender<ILoggingEvent>> appenders, boolean getJsonFile) {
+        while (appenders.hasNext()) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof FileAppender<?> temp) {
+                boolean isJsonFile = !temp.getEncoder().getClass().getName().equals(SensitiveDataRemovingPatternLayoutEncoder.class.getName());
+                if (isJsonFile == getJsonFile) {
+                    return temp;
+                }
+            } else if (appender instanceof AppenderAttachable<?>) {
+                @SuppressWarnings("unchecked")
+                FileAppender<?> nested = findFileAppender(((AppenderAttachable<ILoggingEvent>) appender).iteratorForAppenders(), getJsonFile);
+                if (nested != null) {
+                    return nested;
+                }
+            }
+        }
+        return null;
+    }
+
     @Data
 @ReflectionMarker
     @AllArgsConstructor
@@ -0,0 +1,49 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.PropertyDefinerBase;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Defines the lowest of the given comma separated levels (e.g. "INFO,DEBUG" results in "DEBUG"). Used in logback.xml to
+ * filter events which none of the appenders behind an appender would log.
+ */
+public class LowestLevelPropertyDefiner extends PropertyDefinerBase {
+
+    private String levels;
+
+    public void setLevels(String levels) {
+        this.levels = levels;
+    }
+
+    @Override
+    public String getPropertyValue() {
+        if (levels == null) {
+            return Level.TRACE.toString();
+        }
+        return Arrays.stream(levels.split(","))
+                .map(x -> Level.toLevel(x.trim(), Level.TRACE))
+                .min(Comparator.comparingInt(Level::toInt))
+                .orElse(Level.TRACE)
+                .toString();
+    }
+
+}
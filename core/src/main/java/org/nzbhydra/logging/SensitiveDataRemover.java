@@ -0,0 +1,81 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.logging;
+
+import java.util.regex.Pattern;
+
+/**
+ * Removes API keys, passwords, usernames and *arr URLs from log output.
+ * <p>
+ * This is called for every logged line, so the patterns are compiled once and only applied when a cheap check finds
+ * that the text may contain something to remove. Most lines don't.
+ */
+public final class SensitiveDataRemover {
+
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("(?i)(r|username|apikey|password)(=|:|%3D)([^&\\s]{2,})");
+    //Format in requests to and responses from *arr:
+    /*
+    "name": "apiKey",
+    "label": "API Key",
+    "value": "apikey",
+    */
+    private static final Pattern ARR_API_KEY_PATTERN = Pattern.compile("(\"name\" ?: ?\"apiKey\",(\\s*\"label\": ?\".*\",)?\\s*\"value\" ?: \")([^\"\\s*]*)");
+    private static final Pattern ARR_BASE_URL_PATTERN = Pattern.compile("(\"name\" ?: ?\"baseUrl\",(\\s*\"label\": ?\".*\",)?\\s*\"value\" ?: \")([^\"\\s*]*)");
+
+    private SensitiveDataRemover() {
+    }
+
+    public static String removeSensitiveData(String txt) {
+        if (txt == null || txt.isEmpty()) {
+            return txt;
+        }
+        if (mayContainParameter(txt)) {
+            txt = PARAMETER_PATTERN.matcher(txt).replaceAll("$1$2<$1>");
+        }
+        if (txt.contains("\"apiKey\"")) {
+            txt = ARR_API_KEY_PATTERN.matcher(txt).replaceAll("$1<apikey>");
+        }
+        if (txt.contains("\"baseUrl\"")) {
+            txt = ARR_BASE_URL_PATTERN.matcher(txt).replaceAll("$1<url>");
+        }
+        return txt;
+    }
+
+    /**
+     * All names matched by {@link #PARAMETER_PATTERN} end with r, e, y or d, so a value can only follow a "=", ":" or
+     * "%3D" directly preceded by one of those letters.
+     */
+    static boolean mayContainParameter(String txt) {
+        for (int i = 1; i < txt.length(); i++) {
+            char c = txt.charAt(i);
+            boolean separator = c == '=' || c == ':'
+                    || (c == '%' && i + 2 < txt.length() && txt.charAt(i + 1) == '3' && (txt.charAt(i + 2) == 'D' || txt.charAt(i + 2) == 'd'));
+            if (separator && isLastLetterOfName(txt.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLastLetterOfName(char c) {
+        return switch (c) {
+            case 'r', 'R', 'e', 'E', 'y', 'Y', 'd', 'D' -> true;
+            default -> false;
+        };
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes sensitive data from the message and exceptions of an event once and passes the event on to all attached
+ * appenders. Meant to be used behind an async appender so that the removal doesn't happen in the logging thread.
+ * <p>
+ * The data is only removed when an appender actually formats the message, so events rejected by the appenders' filters cost nothing.
+ */
+public class SensitiveDataRemovingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        appenders.appendLoopOnAppenders(new RedactedLoggingEvent(event));
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+
+    /**
+     * Returns the cleaned message. The message's arguments are not exposed so that the original message cannot be rebuilt.
+     */
+    static class RedactedLoggingEvent implements ILoggingEvent {
+
+        private final ILoggingEvent event;
+        private String formattedMessage;
+        private IThrowableProxy throwableProxy;
+
+        RedactedLoggingEvent(ILoggingEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public String getFormattedMessage() {
+            //Only ever called from the async appender's worker thread
+            if (formattedMessage == null) {
+                formattedMessage = SensitiveDataRemover.removeSensitiveData(event.getFormattedMessage());
+            }
+            return formattedMessage;
+        }
+
+        @Override
+        public String getMessage() {
+            return getFormattedMessage();
+        }
+
+        @Override
+        public Object[] getArgumentArray() {
+            return null;
+        }
+
+        @Override
+        public IThrowableProxy getThrowableProxy() {
+            if (throwableProxy == null && event.getThrowableProxy() != null) {
+                throwableProxy = new RedactedThrowableProxy(event.getThrowableProxy());
+            }
+            return throwableProxy;
+        }
+
+        @Override
+        public String getThreadName() {
+            return event.getThreadName();
+        }
+
+        @Override
+        public Level getLevel() {
+            return event.getLevel();
+        }
+
+        @Override
+        public String getLoggerName() {
+            return event.getLoggerName();
+        }
+
+        @Override
+        public LoggerContextVO getLoggerContextVO() {
+            return event.getLoggerContextVO();
+        }
+
+        @Override
+        public StackTraceElement[] getCallerData() {
+            return event.getCallerData();
+        }
+
+        @Override
+        public boolean hasCallerData() {
+            return event.hasCallerData();
+        }
+
+        @Override
+        public List<Marker> getMarkerList() {
+            return event.getMarkerList();
+        }
+
+        @Override
+        public Map<String, String> getMDCPropertyMap() {
+            return event.getMDCPropertyMap();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Map<String, String> getMdc() {
+            return event.getMdc();
+        }
+
+        @Override
+        public long getTimeStamp() {
+            return event.getTimeStamp();
+        }
+
+        @Override
+        public int getNanoseconds() {
+            return event.getNanoseconds();
+        }
+
+        @Override
+        public Instant getInstant() {
+            return event.getInstant();
+        }
+
+        @Override
+        public long getSequenceNumber() {
+            return event.getSequenceNumber();
+        }
+
+        @Override
+        public List<KeyValuePair> getKeyValuePairs() {
+            return event.getKeyValuePairs();
+        }
+
+        @Override
+        public void prepareForDeferredProcessing() {
+            event.prepareForDeferredProcessing();
+        }
+    }
+
+    static class RedactedThrowableProxy implements IThrowableProxy {
+
+        private final IThrowableProxy throwableProxy;
+
+        RedactedThrowableProxy(IThrowableProxy throwableProxy) {
+            this.throwableProxy = throwableProxy;
+        }
+
+        @Override
+        public String getMessage() {
+            return SensitiveDataRemover.removeSensitiveData(throwableProxy.getMessage());
+        }
+
+        @Override
+        public String getClassName() {
+            return throwableProxy.getClassName();
+        }
+
+        @Override
+        public StackTraceElementProxy[] getStackTraceElementProxyArray() {
+            return throwableProxy.getStackTraceElementProxyArray();
+        }
+
+        @Override
+        public int getCommonFrames() {
+            return throwableProxy.getCommonFrames();
+        }
+
+        @Override
+        public IThrowableProxy getCause() {
+            return throwableProxy.getCause() == null ? null : new RedactedThrowableProxy(throwableProxy.getCause());
+        }
+
+        @Override
+        public IThrowableProxy[] getSuppressed() {
+            IThrowableProxy[] suppressed = throwableProxy.getSuppressed();
+            if (suppressed == null) {
+                return null;
+            }
+            IThrowableProxy[] redacted = new IThrowableProxy[suppressed.length];
+            for (int i = 0; i < suppressed.length; i++) {
+                redacted[i] = new RedactedThrowableProxy(suppressed[i]);
+            }
+            return redacted;
+        }
+
+        @Override
+        public boolean isCyclic() {
+            return throwableProxy.isCyclic();
+        }
+    }
+
+}
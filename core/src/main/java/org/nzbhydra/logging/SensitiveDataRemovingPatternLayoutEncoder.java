@@ -27,21 +27,15 @@ public class SensitiveDataRemovingPatternLayoutEncoder extends PatternLayoutEnco
 
     public byte[] encode(ILoggingEvent event) {
         String txt = layout.doLayout(event);
-        txt = removeSensitiveData(txt);
+        //Events passed on by the SensitiveDataRemovingAppender have already been cleaned
+        if (!(event instanceof SensitiveDataRemovingAppender.RedactedLoggingEvent)) {
+            txt = removeSensitiveData(txt);
+        }
         return convertToBytes(txt);
     }
 
     protected String removeSensitiveData(String txt) {
-        return txt.replaceAll("(?i)(r|username|apikey|password)(=|:|%3D)([^&\\s]{2,})", "$1$2<$1>")
-                //Format in requests to and responses from *arr:
-                /*
-                "name": "apiKey",
-                "label": "API Key",
-                "value": "apikey",
-                */
-                .replaceAll("(\"name\" ?: ?\"apiKey\",(\\s*\"label\": ?\".*\",)?\\s*\"value\" ?: \")([^\"\\s*]*)", "$1<apikey>")
-                .replaceAll("(\"name\" ?: ?\"baseUrl\",(\\s*\"label\": ?\".*\",)?\\s*\"value\" ?: \")([^\"\\s*]*)", "$1<url>")
-                ;
+        return SensitiveDataRemover.removeSensitiveData(txt);
     }
 
 
@@ -1,9 +1,14 @@
 package org.nzbhydra.mediainfo;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Sets;
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.nzbhydra.cache.CacheConfiguration;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.MainConfig;
 import org.nzbhydra.config.mediainfo.MediaIdType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,12 +17,16 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import static org.nzbhydra.config.mediainfo.MediaIdType.*;
@@ -46,11 +55,12 @@ public class InfoProvider {
     }
 
     private static final Logger logger = LoggerFactory.getLogger(InfoProvider.class);
+    private static final int MAX_SECONDS_WAITING_FOR_CONVERSION = 60;
 
-    private final Map<Integer, MediaInfo> mediaInfoMap = ExpiringMap.builder()
-            .expiration(5, TimeUnit.MINUTES)
-            .expirationPolicy(ExpirationPolicy.ACCESSED)
-            .build();
+    /**
+     * Conversions by ID, including the ones currently running. Failed conversions are removed automatically.
+     */
+    private AsyncCache<ConversionKey, MediaInfo> conversions;
 
     @Autowired
     protected TmdbHandler tmdbHandler;
@@ -60,6 +70,21 @@ public class InfoProvider {
     protected TvMazeHandler tvMazeHandler;
     @Autowired
     private TvInfoRepository tvInfoRepository;
+    @Autowired
+    private ConfigProvider configProvider;
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        MainConfig mainConfig = configProvider.getBaseConfig().getMain();
+        conversions = CacheConfiguration.mediaInfoCache(mainConfig)
+                .expireAfterAccess(mainConfig.getMediaInfoCacheMinutes(), TimeUnit.MINUTES)
+                .buildAsync();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, conversions, "mediaInfos");
+        }
+    }
 
     public boolean canConvert(MediaIdType from, MediaIdType to) {
         return canConvertMap.get(from).contains(to);
@@ -73,7 +98,17 @@ public class InfoProvider {
         return from.stream().anyMatch(x -> canConvertMap.containsKey(x) && canConvertMap.get(x).stream().anyMatch(to::contains));
     }
 
-    @Cacheable(cacheNames = "infos", sync = true, cacheManager = "genericCacheManager")
+    /**
+     * @return all ID types any of the given ID types can be converted to
+     */
+    public Set<MediaIdType> getConvertibleTo(Collection<MediaIdType> from) {
+        Set<MediaIdType> convertibleTo = EnumSet.noneOf(MediaIdType.class);
+        for (MediaIdType idType : from) {
+            convertibleTo.addAll(canConvertMap.getOrDefault(idType, Collections.emptySet()));
+        }
+        return convertibleTo;
+    }
+
     public MediaInfo convert(Map<MediaIdType, String> identifiers) throws InfoProviderException {
         for (MediaIdType idType : REAL_ID_TYPES) {
             if (identifiers.containsKey(idType) && identifiers.get(idType) != null) {
@@ -89,16 +124,32 @@ public class InfoProvider {
     }
 
 
-    @Cacheable(cacheNames = "infos", sync = true, cacheManager = "genericCacheManager")
-    //sync=true is currently apparently not supported by Caffeine. synchronizing by method is good enough because we'll likely rarely hit this method concurrently with different parameters
-    public synchronized MediaInfo convert(String value, MediaIdType fromType) throws InfoProviderException {
+    /**
+     * Converts the ID. Every ID is only converted once at a time: Concurrent calls for an ID which is currently being converted
+     * wait for that conversion to finish while conversions of other IDs run in parallel.
+     */
+    public MediaInfo convert(String value, MediaIdType fromType) throws InfoProviderException {
         if (value == null) {
             throw new InfoProviderException("Unable to convert IDType " + fromType + " with null value");
         }
-        final int hash = Objects.hash(value, fromType);
-        if (mediaInfoMap.containsKey(hash)) {
-            return mediaInfoMap.get(hash);
+        ConversionKey key = new ConversionKey(value, fromType);
+        CompletableFuture<MediaInfo> conversion = new CompletableFuture<>();
+        CompletableFuture<MediaInfo> existingConversion = conversions.asMap().putIfAbsent(key, conversion);
+        if (existingConversion != null) {
+            return waitFor(existingConversion);
         }
+        try {
+            MediaInfo info = convertUncached(value, fromType);
+            conversion.complete(info);
+            return info;
+        } catch (Throwable e) {
+            //Must always be completed, otherwise the conversion would stay in the cache and block all waiting callers
+            conversion.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private MediaInfo convertUncached(String value, MediaIdType fromType) throws InfoProviderException {
         logger.debug("Conversion of {} ID {} requested", fromType, value);
         try {
             MediaInfo info;
@@ -162,7 +213,6 @@ public class InfoProvider {
                     throw new IllegalArgumentException("Wrong IdType");
             }
             logger.debug("Conversion successful: {}", info);
-            mediaInfoMap.put(hash, info);
             return info;
         } catch (Exception e) {
             logger.error("Error while converting {} {}", fromType, value, e);
@@ -171,6 +221,20 @@ public class InfoProvider {
         }
     }
 
+    private static MediaInfo waitFor(CompletableFuture<MediaInfo> conversion) throws InfoProviderException {
+        try {
+            return conversion.get(MAX_SECONDS_WAITING_FOR_CONVERSION, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InfoProviderException("Interrupted while waiting for conversion");
+        } catch (TimeoutException e) {
+            throw new InfoProviderException("Conversion didn't finish within " + MAX_SECONDS_WAITING_FOR_CONVERSION + " seconds");
+        } catch (ExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), InfoProviderException.class);
+            throw new InfoProviderException("Unexpected error while converting infos", e.getCause());
+        }
+    }
+
     public TvInfo findTvInfoInDatabase(Map<MediaIdType, String> ids) {
         Collection<TvInfo> matchingInfos = tvInfoRepository.findByTvrageIdOrTvmazeIdOrTvdbIdOrImdbId(ids.getOrDefault(TVRAGE, "-1"), ids.getOrDefault(TVMAZE, "-1"), ids.getOrDefault(TVDB, "-1"), ids.getOrDefault(IMDB, "-1"));
         return matchingInfos.stream().max(TvInfo::compareTo).orElse(null);
@@ -181,7 +245,7 @@ public class InfoProvider {
         return matchingInfos.stream().max(MovieInfo::compareTo).orElse(null);
     }
 
-    @Cacheable(cacheNames = "titles", sync = true, cacheManager = "genericCacheManager")
+    @Cacheable(cacheNames = CacheConfiguration.TITLES, sync = true, cacheManager = "genericCacheManager")
     public List<MediaInfo> search(String title, MediaIdType titleType) throws InfoProviderException {
         try {
             List<MediaInfo> infos;
@@ -214,5 +278,7 @@ public class InfoProvider {
         }
     }
 
+    private record ConversionKey(String value, MediaIdType type) {
+    }
 
 }
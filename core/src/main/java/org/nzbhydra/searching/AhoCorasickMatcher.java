@@ -0,0 +1,138 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+
+/**
+ * Finds any of a list of strings in a text with one pass over the text, regardless of how many strings are searched.
+ * Matching is case-sensitive, callers must normalize the case of patterns and text themselves. Immutable once built.
+ */
+class AhoCorasickMatcher {
+
+    private final List<String> patterns;
+    private final Node root = new Node();
+    private final int emptyPatternIndex;
+
+    AhoCorasickMatcher(Collection<String> patterns) {
+        this.patterns = List.copyOf(new LinkedHashSet<>(patterns));
+        int emptyIndex = -1;
+        for (int i = 0; i < this.patterns.size(); i++) {
+            String pattern = this.patterns.get(i);
+            if (pattern.isEmpty()) {
+                //Like String.contains("") an empty pattern is found in every text
+                emptyIndex = i;
+                continue;
+            }
+            Node node = root;
+            for (int j = 0; j < pattern.length(); j++) {
+                node = node.children.computeIfAbsent(pattern.charAt(j), x -> new Node());
+            }
+            node.outputs.add(i);
+        }
+        emptyPatternIndex = emptyIndex;
+        buildFailureLinks();
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                Node child = entry.getValue();
+                child.failure = next(node.failure, entry.getKey());
+                //Failure nodes are shallower and were already processed so their outputs are complete
+                child.outputs.addAll(child.failure.outputs);
+                queue.add(child);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    int size() {
+        return patterns.size();
+    }
+
+    String getPattern(int index) {
+        return patterns.get(index);
+    }
+
+    /**
+     * @return the first pattern found in the text
+     */
+    Optional<String> findAny(CharSequence text) {
+        if (emptyPatternIndex >= 0) {
+            return Optional.of(patterns.get(emptyPatternIndex));
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, text.charAt(i));
+            if (!node.outputs.isEmpty()) {
+                return Optional.of(patterns.get(node.outputs.get(0)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the indexes of all patterns found in the text
+     */
+    BitSet findAll(CharSequence text) {
+        BitSet found = new BitSet(patterns.size());
+        if (emptyPatternIndex >= 0) {
+            found.set(emptyPatternIndex);
+        }
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, text.charAt(i));
+            for (Integer output : node.outputs) {
+                found.set(output);
+            }
+        }
+        return found;
+    }
+
+    private Node next(Node node, char c) {
+        while (node != root && !node.children.containsKey(c)) {
+            node = node.failure;
+        }
+        return node.children.getOrDefault(c, root);
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> outputs = new ArrayList<>(1);
+        private Node failure;
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching;
+
+import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the duplicate buckets of all search results found for one search so that new results can be added without
+ * comparing all results again. Buckets are indexed by the normalized title because only results with the same normalized
+ * title can be duplicates. Duplicate identifiers are assigned once per bucket and never change.
+ * <p>
+ * Not thread safe. Filled by {@link DuplicateDetector} while holding the collect lock of its {@link SearchCacheEntry}.
+ */
+public class DuplicateDetectionIndex {
+
+    private final Map<String, List<Bucket>> bucketsByNormalizedTitle = new HashMap<>();
+    private final Map<SearchResultItem, Bucket> bucketsByItem = new HashMap<>();
+    private int nextDuplicateIdentifier = 0;
+
+    public boolean contains(SearchResultItem item) {
+        return bucketsByItem.containsKey(item);
+    }
+
+    public int size() {
+        return bucketsByItem.size();
+    }
+
+    List<Bucket> getBuckets(String normalizedTitle) {
+        return bucketsByNormalizedTitle.getOrDefault(normalizedTitle, Collections.emptyList());
+    }
+
+    Bucket getBucket(SearchResultItem item) {
+        return bucketsByItem.get(item);
+    }
+
+    void addToBucket(Bucket bucket, SearchResultItem item) {
+        bucket.add(item);
+        bucketsByItem.put(item, bucket);
+    }
+
+    Bucket addToNewBucket(SearchResultItem item) {
+        Bucket bucket = new Bucket(nextDuplicateIdentifier++);
+        bucketsByNormalizedTitle.computeIfAbsent(item.getNormalizedTitle(), x -> new ArrayList<>()).add(bucket);
+        addToBucket(bucket, item);
+        return bucket;
+    }
+
+    static class Bucket {
+        private final int duplicateIdentifier;
+        private final LinkedHashSet<SearchResultItem> items = new LinkedHashSet<>();
+        private final Set<Indexer> indexers = new HashSet<>();
+
+        Bucket(int duplicateIdentifier) {
+            this.duplicateIdentifier = duplicateIdentifier;
+        }
+
+        void add(SearchResultItem item) {
+            items.add(item);
+            indexers.add(item.getIndexer());
+            item.setDuplicateIdentifier(duplicateIdentifier);
+        }
+
+        int getDuplicateIdentifier() {
+            return duplicateIdentifier;
+        }
+
+        Set<SearchResultItem> getItems() {
+            return items;
+        }
+
+        boolean containsResultFrom(Indexer indexer) {
+            return indexers.contains(indexer);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package org.nzbhydra.searching;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Multiset;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.downloading.DownloadType;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.logging.LoggingMarkers;
 import org.nzbhydra.searching.dtoseventsenums.DuplicateDetectionResult;
@@ -16,16 +17,20 @@ import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static com.google.common.collect.Lists.newArrayList;
-
 @Component
 public class DuplicateDetector {
 
@@ -35,65 +40,88 @@ public class DuplicateDetector {
     protected ConfigProvider configProvider;
 
     public DuplicateDetectionResult detectDuplicates(Set<SearchResultItem> results) {
-        Map<String, List<SearchResultItem>> groupedByTitle = results.stream().collect(Collectors.groupingBy(x -> x.getTitle().toLowerCase().replaceAll("[ .\\-_]", "")));
-        Multiset<Indexer> countUniqueResultsPerIndexer = HashMultiset.create();
+        return detectDuplicates(new DuplicateDetectionIndex(), results);
+    }
+
+    /**
+     * Adds all results not yet contained in the index and returns the duplicate groups for the given results. Groups only contain
+     * results from the given collection, even if the index knows more duplicates.
+     */
+    public DuplicateDetectionResult detectDuplicates(DuplicateDetectionIndex index, Collection<SearchResultItem> results) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        addToIndex(index, results);
+
+        Set<SearchResultItem> resultsSet = results instanceof Set ? (Set<SearchResultItem>) results : new HashSet<>(results);
+        SortedMap<Integer, DuplicateDetectionIndex.Bucket> bucketsByIdentifier = new TreeMap<>();
+        for (SearchResultItem result : resultsSet) {
+            DuplicateDetectionIndex.Bucket bucket = index.getBucket(result);
+            bucketsByIdentifier.put(bucket.getDuplicateIdentifier(), bucket);
+        }
+
         List<LinkedHashSet<SearchResultItem>> duplicateGroups = new ArrayList<>();
+        //Buckets are created in the order of their identifiers so the last one per title wins
+        Map<String, LinkedHashSet<SearchResultItem>> lastGroupsByNormalizedTitle = new HashMap<>();
+        for (DuplicateDetectionIndex.Bucket bucket : bucketsByIdentifier.values()) {
+            LinkedHashSet<SearchResultItem> group = bucket.getItems().stream().filter(resultsSet::contains).collect(Collectors.toCollection(LinkedHashSet::new));
+            lastGroupsByNormalizedTitle.put(group.iterator().next().getNormalizedTitle(), group);
+            duplicateGroups.add(group);
+        }
+        //As before only the last group of every title is counted as a unique result if it contains only one result
+        Multiset<Indexer> countUniqueResultsPerIndexer = HashMultiset.create();
+        for (LinkedHashSet<SearchResultItem> lastGroup : lastGroupsByNormalizedTitle.values()) {
+            if (lastGroup.size() == 1) {
+                countUniqueResultsPerIndexer.add(lastGroup.iterator().next().getIndexer());
+            }
+        }
+        int countDetectedDuplicates = resultsSet.size() - duplicateGroups.size();
 
-        //In each list of searchResults with the same title we want to find the duplicates
-        int countDetectedDuplicates = 0;
-        for (List<SearchResultItem> titleGroup : groupedByTitle.values()) {
-            titleGroup = titleGroup.stream().sorted(Comparator.comparing(SearchResultItem::getBestDate).reversed()).collect(Collectors.toList());
-            //So we start with a bucket with the first (later we have a list of buckets where all searchResults in a bucket are duplicates)
-            List<LinkedHashSet<SearchResultItem>> listOfBuckets = new ArrayList<>();
-            listOfBuckets.add(new LinkedHashSet<>(newArrayList(titleGroup.get(0))));
-            //And iterate over every other item in the list
-            for (int i = 1; i < titleGroup.size(); i++) {
-                SearchResultItem searchResultItem = titleGroup.get(i);
-                boolean foundBucket = false;
-                //Iterate over already existing buckets
-                for (LinkedHashSet<SearchResultItem> bucket : listOfBuckets) {
-                    if (bucket.stream().map(SearchResultItem::getIndexer).toList().contains(searchResultItem.getIndexer())) {
-                        continue;
-                    }
-                    //And all searchResults in those buckets
-                    for (SearchResultItem other : bucket) {
-                        //Now we can check if the two searchResults are duplicates
-                        boolean same = testForSameness(searchResultItem, other);
-                        if (same) {
-                            //If they are the same we found a bucket for the result. We add it and continue
-                            foundBucket = true;
-                            bucket.add(searchResultItem);
-                            countDetectedDuplicates++;
-                            break;
-                        }
-                    }
-                    //If we already found a bucket for the result we can go on with the next
-                    if (foundBucket) {
+        logger.debug("Duplicate detection for {} search results found {} duplicates", resultsSet.size(), countDetectedDuplicates);
+        logger.debug(LoggingMarkers.PERFORMANCE, "Duplicate detection for {} search results took {}ms", resultsSet.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        HydraMetrics.recordDuplicateDetection(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+
+        return new DuplicateDetectionResult(duplicateGroups, countUniqueResultsPerIndexer, countDetectedDuplicates);
+    }
+
+    /**
+     * Puts every result not yet contained in the index into the first bucket with the same normalized title that contains a duplicate
+     * of it and no result from the same indexer. If no such bucket exists a new one is created. Newer results are added first.
+     */
+    public void addToIndex(DuplicateDetectionIndex index, Collection<SearchResultItem> results) {
+        List<SearchResultItem> newResults = results.stream()
+            .filter(x -> !index.contains(x))
+            .sorted(Comparator.comparing(SearchResultItem::getBestDate, Comparator.nullsLast(Comparator.reverseOrder())))
+            .toList();
+        for (SearchResultItem searchResultItem : newResults) {
+            if (index.contains(searchResultItem)) {
+                //Equal result contained twice in the given results
+                continue;
+            }
+            DuplicateDetectionIndex.Bucket foundBucket = null;
+            //Iterate over already existing buckets with the same title
+            for (DuplicateDetectionIndex.Bucket bucket : index.getBuckets(searchResultItem.getNormalizedTitle())) {
+                if (bucket.containsResultFrom(searchResultItem.getIndexer())) {
+                    continue;
+                }
+                //And all searchResults in those buckets
+                for (SearchResultItem other : bucket.getItems()) {
+                    //Now we can check if the two searchResults are duplicates
+                    if (testForSameness(searchResultItem, other)) {
+                        foundBucket = bucket;
                         break;
                     }
                 }
-                //If we didn't find a bucket for the result we start a new one
-                if (!foundBucket) {
-                    listOfBuckets.add(new LinkedHashSet<>(newArrayList(searchResultItem)));
+                //If we already found a bucket for the result we can go on with the next
+                if (foundBucket != null) {
+                    break;
                 }
             }
-            LinkedHashSet<SearchResultItem> lastBucket = Iterables.getLast(listOfBuckets);
-            if (lastBucket.size() == 1) {
-                countUniqueResultsPerIndexer.add(lastBucket.iterator().next().getIndexer());
-            }
-            duplicateGroups.addAll(listOfBuckets);
-        }
-        int duplicateIdentifier = 0;
-        for (LinkedHashSet<SearchResultItem> group : duplicateGroups) {
-            for (SearchResultItem x : group) {
-                x.setDuplicateIdentifier(duplicateIdentifier);
+            if (foundBucket != null) {
+                index.addToBucket(foundBucket, searchResultItem);
+            } else {
+                //If we didn't find a bucket for the result we start a new one
+                index.addToNewBucket(searchResultItem);
             }
-            duplicateIdentifier++;
         }
-
-        logger.debug("Duplicate detection for {} search results found {} duplicates", results.size(), countDetectedDuplicates);
-
-        return new DuplicateDetectionResult(duplicateGroups, countUniqueResultsPerIndexer, countDetectedDuplicates);
     }
 
     private boolean testForSameness(SearchResultItem result1, SearchResultItem result2) {
@@ -3,11 +3,10 @@ package org.nzbhydra.searching;
 import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Query;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.nzbhydra.config.ConfigProvider;
@@ -16,8 +15,10 @@ import org.nzbhydra.config.category.Category.Subtype;
 import org.nzbhydra.config.downloading.DownloadType;
 import org.nzbhydra.config.indexer.IndexerConfig;
 import org.nzbhydra.config.indexer.SearchModuleType;
+import org.nzbhydra.config.mediainfo.MediaIdType;
 import org.nzbhydra.config.searching.SearchType;
 import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.indexers.IndexerAccessTracker;
 import org.nzbhydra.indexers.IndexerApiAccessType;
 import org.nzbhydra.indexers.status.IndexerLimit;
 import org.nzbhydra.indexers.status.IndexerLimitRepository;
@@ -32,9 +33,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.annotation.RequestScope;
 
-import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.DayOfWeek;
 import java.time.Instant;
@@ -48,15 +47,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-@SuppressWarnings("unchecked")
 @Component
-@RequestScope
 public class IndexerForSearchSelector {
 
     private static final Logger logger = LoggerFactory.getLogger(IndexerForSearchSelector.class);
@@ -71,19 +75,20 @@ public class IndexerForSearchSelector {
     private ConfigProvider configProvider;
     @Autowired
     private ApplicationEventPublisher eventPublisher;
-    @PersistenceContext
-    private EntityManager entityManager;
     @Autowired
     private IndexerLimitRepository indexerLimitRepository;
+    @Autowired
+    private IndexerAccessTracker indexerAccessTracker;
+    @Autowired
+    private IndexerSearchExecutor indexerSearchExecutor;
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+    private final Map<String, Timer> selectionTimers = new ConcurrentHashMap<>();
 
     protected Clock clock = Clock.systemUTC();
 
-    private SearchRequest searchRequest;
-    protected Map<Indexer, String> notSelectedIndersWithReason = new HashMap<>();
-
 
     public IndexerForSearchSelection pickIndexers(SearchRequest searchRequest) {
-        this.searchRequest = searchRequest;
         //Check any indexer that's not disabled by the user. If it's disabled by the system it will be deselected with a proper message later
         List<Indexer> eligibleIndexers = searchModuleProvider.getIndexers().stream().filter(x -> x.getConfig().getState() != IndexerConfig.State.DISABLED_USER).toList();
         if (eligibleIndexers.isEmpty()) {
@@ -91,52 +96,25 @@ public class IndexerForSearchSelector {
             return new IndexerForSearchSelection();
         }
 
-        List<Indexer> selectedIndexers = new ArrayList<>();
+        SelectionContext context = createContext(searchRequest);
         logger.debug("Picking indexers out of " + eligibleIndexers.size());
 
         Stopwatch stopwatch = Stopwatch.createStarted();
-        for (Indexer indexer : eligibleIndexers) {
-            if (!checkInternalAndNotEvenShown(indexer)) {
-                continue;
-            }
-            if (!checkIndexerSelected(indexer)) {
-                continue;
-            }
-            if (!checkIndexerConfigComplete(indexer)) {
-                continue;
-            }
-            if (!checkSearchSource(indexer)) {
-                continue;
-            }
-            if (!checkIndexerStatus(indexer)) {
-                continue;
-            }
-            if (!checkTorznabOnlyUsedForTorrentOrInternalSearches(indexer)) {
-                continue;
-            }
-            if (!checkDisabledForCategory(indexer)) {
-                continue;
-            }
-            if (!checkSchedule(indexer)) {
-                continue;
-            }
-            if (!checkLoadLimiting(indexer)) {
-                continue;
-            }
-            if (!checkSearchId(indexer)) {
-                continue;
-            }
-            if (!checkSearchType(indexer)) {
-                continue;
-            }
-            if (!checkIndexerHitLimit(indexer)) {
-                continue;
-            }
-            if (!checkTooManyFrequentHits(indexer)) {
-                continue;
+        //The checks of one indexer don't depend on those of the others so they're run in parallel. The order of the selected indexers is kept
+        Executor executor = indexerSearchExecutor.getShortTaskExecutor();
+        List<CompletableFuture<Boolean>> checkResults = eligibleIndexers.stream()
+            .map(indexer -> CompletableFuture.supplyAsync(() -> checkIndexer(context, indexer), executor))
+            .toList();
+        List<Indexer> selectedIndexers = new ArrayList<>();
+        for (int i = 0; i < eligibleIndexers.size(); i++) {
+            try {
+                if (checkResults.get(i).join()) {
+                    selectedIndexers.add(eligibleIndexers.get(i));
+                }
+            } catch (CompletionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
             }
-
-            selectedIndexers.add(indexer);
         }
         logger.debug(LoggingMarkers.PERFORMANCE, "Selection of indexers took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         if (selectedIndexers.isEmpty()) {
@@ -147,97 +125,129 @@ public class IndexerForSearchSelector {
 
         eventPublisher.publishEvent(new IndexerSelectionEvent(searchRequest, selectedIndexers.size()));
 
-        return new IndexerForSearchSelection(notSelectedIndersWithReason, selectedIndexers);
+        return new IndexerForSearchSelection(new HashMap<>(context.getNotSelectedIndexersWithReason()), selectedIndexers);
+    }
+
+    protected SelectionContext createContext(SearchRequest searchRequest) {
+        return new SelectionContext(searchRequest,
+            () -> searchRequest.meets(configProvider.getBaseConfig().getSearching().getGenerateQueries()),
+            () -> infoProvider.getConvertibleTo(searchRequest.getIdentifiers().keySet()));
     }
 
-    protected boolean checkIndexerConfigComplete(Indexer indexer) {
+    private boolean checkIndexer(SelectionContext context, Indexer indexer) {
+        long start = System.nanoTime();
+        try {
+            return checkInternalAndNotEvenShown(context, indexer)
+                && checkIndexerSelected(context, indexer)
+                && checkIndexerConfigComplete(context, indexer)
+                && checkSearchSource(context, indexer)
+                && checkIndexerStatus(context, indexer)
+                && checkTorznabOnlyUsedForTorrentOrInternalSearches(context, indexer)
+                && checkDisabledForCategory(context, indexer)
+                && checkSchedule(context, indexer)
+                && checkLoadLimiting(context, indexer)
+                && checkSearchId(context, indexer)
+                && checkSearchType(context, indexer)
+                && checkIndexerHitLimit(context, indexer)
+                && checkTooManyFrequentHits(context, indexer);
+        } finally {
+            if (meterRegistry != null) {
+                selectionTimers.computeIfAbsent(indexer.getName(), name -> Timer.builder("hydra.indexer.selection")
+                        .description("Time needed to check if an indexer should be used for a search")
+                        .tag("indexer", name)
+                        .register(meterRegistry))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    protected boolean checkIndexerConfigComplete(SelectionContext context, Indexer indexer) {
         if (!indexer.getConfig().isConfigComplete()) {
             String message = "Not using " + indexer.getName() + " because configuration is not complete. Please open it in the GUI and complete the config. Call the caps check manually to make sure everything is checked.";
-            return handleIndexerNotSelected(indexer, message, "Configuration incomplete");
+            return handleIndexerNotSelected(context, indexer, message, "Configuration incomplete");
         }
         return true;
     }
 
-    protected boolean checkSearchId(Indexer indexer) {
+    protected boolean checkSearchId(SelectionContext context, Indexer indexer) {
+        SearchRequest searchRequest = context.getSearchRequest();
         boolean needToSearchById = !searchRequest.getIdentifiers().isEmpty() && searchRequest.getQuery().isEmpty();
         if (needToSearchById) {
             boolean canUseAnyProvidedId = !Collections.disjoint(searchRequest.getIdentifiers().keySet(), indexer.getConfig().getSupportedSearchIds());
-            boolean cannotSearchProvidedOrConvertableId = !canUseAnyProvidedId && !infoProvider.canConvertAny(searchRequest.getIdentifiers().keySet(), Sets.newHashSet(indexer.getConfig().getSupportedSearchIds()));
-            boolean queryGenerationEnabled = searchRequest.meets(configProvider.getBaseConfig().getSearching().getGenerateQueries());
-            if (cannotSearchProvidedOrConvertableId && !queryGenerationEnabled) {
+            boolean cannotSearchProvidedOrConvertableId = !canUseAnyProvidedId && Collections.disjoint(context.getConvertibleIdTypes(), indexer.getConfig().getSupportedSearchIds());
+            if (cannotSearchProvidedOrConvertableId && !context.isQueryGenerationEnabled()) {
                 String message = String.format("Not using %s because the search did not provide any ID that the indexer can handle and query generation is disabled", indexer.getName());
-                return handleIndexerNotSelected(indexer, message, "No usable ID");
+                return handleIndexerNotSelected(context, indexer, message, "No usable ID");
             }
         }
         return true;
     }
 
-    protected boolean checkSearchType(Indexer indexer) {
-        boolean audioOrBookSearch = searchRequest.getSearchType() == SearchType.BOOK || searchRequest.getSearchType() == SearchType.MUSIC;
+    protected boolean checkSearchType(SelectionContext context, Indexer indexer) {
+        boolean audioOrBookSearch = context.getSearchRequest().getSearchType() == SearchType.BOOK || context.getSearchRequest().getSearchType() == SearchType.MUSIC;
         if (audioOrBookSearch) {
-            boolean queryGenerationEnabled = searchRequest.meets(configProvider.getBaseConfig().getSearching().getGenerateQueries());
-            boolean indexerSupportsType = indexer.getConfig().getSupportedSearchTypes().stream().anyMatch(x -> searchRequest.getSearchType().matches(x));
-            if (!indexerSupportsType && !queryGenerationEnabled) {
-                String message = String.format("Not using %s because the search uses type %s which the indexer can't handle and query generation is disabled", searchRequest.getSearchType(), indexer.getName());
-                return handleIndexerNotSelected(indexer, message, "Search type not supported");
+            boolean indexerSupportsType = indexer.getConfig().getSupportedSearchTypes().stream().anyMatch(x -> context.getSearchRequest().getSearchType().matches(x));
+            if (!indexerSupportsType && !context.isQueryGenerationEnabled()) {
+                String message = String.format("Not using %s because the search uses type %s which the indexer can't handle and query generation is disabled", context.getSearchRequest().getSearchType(), indexer.getName());
+                return handleIndexerNotSelected(context, indexer, message, "Search type not supported");
             }
         }
         return true;
     }
 
-    protected boolean checkLoadLimiting(Indexer indexer) {
+    protected boolean checkLoadLimiting(SelectionContext context, Indexer indexer) {
         boolean preventedByLoadLimiting = indexer.getConfig().getLoadLimitOnRandom().isPresent() && random.nextInt(indexer.getConfig().getLoadLimitOnRandom().get()) + 1 != 1;
         if (preventedByLoadLimiting) {
-            boolean loadLimitIgnored = configProvider.getBaseConfig().getSearching().isIgnoreLoadLimitingForInternalSearches() && searchRequest.getSource() == SearchSource.INTERNAL;
+            boolean loadLimitIgnored = configProvider.getBaseConfig().getSearching().isIgnoreLoadLimitingForInternalSearches() && context.getSearchRequest().getSource() == SearchSource.INTERNAL;
             if (loadLimitIgnored) {
                 logger.debug("Ignoring load limiting for internal search");
                 return true;
             }
             String message = String.format("Not using %s because load limiting prevented it. Chances of it being picked: 1/%d", indexer.getName(), indexer.getConfig().getLoadLimitOnRandom().get());
-            return handleIndexerNotSelected(indexer, message, "Load limiting");
+            return handleIndexerNotSelected(context, indexer, message, "Load limiting");
         }
         return true;
     }
 
-    protected boolean checkDisabledForCategory(Indexer indexer) {
-        if (searchRequest.getCategory().getSubtype().equals(Subtype.ALL)) {
+    protected boolean checkDisabledForCategory(SelectionContext context, Indexer indexer) {
+        if (context.getSearchRequest().getCategory().getSubtype().equals(Subtype.ALL)) {
             return true;
         }
-        boolean indexerDisabledForThisCategory = !indexer.getConfig().getEnabledCategories().isEmpty() && !indexer.getConfig().getEnabledCategories().contains(searchRequest.getCategory().getName());
+        boolean indexerDisabledForThisCategory = !indexer.getConfig().getEnabledCategories().isEmpty() && !indexer.getConfig().getEnabledCategories().contains(context.getSearchRequest().getCategory().getName());
         if (indexerDisabledForThisCategory) {
-            String message = String.format("Not using %s because it's disabled for category %s", indexer.getName(), searchRequest.getCategory().getName());
-            return handleIndexerNotSelected(indexer, message, "Disabled for category");
+            String message = String.format("Not using %s because it's disabled for category %s", indexer.getName(), context.getSearchRequest().getCategory().getName());
+            return handleIndexerNotSelected(context, indexer, message, "Disabled for category");
         }
         return true;
     }
 
-    protected boolean checkIndexerStatus(Indexer indexer) {
+    protected boolean checkIndexerStatus(SelectionContext context, Indexer indexer) {
         if (indexer.getConfig().getState() == IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY) {
             if (indexer.getConfig().getDisabledUntil() == null || Instant.ofEpochMilli(indexer.getConfig().getDisabledUntil()).isBefore(clock.instant())) {
                 return true;
             }
             String message = String.format("Not using %s because it's disabled until %s due to a previous error ", indexer.getName(), Instant.ofEpochMilli(indexer.getConfig().getDisabledUntil()));
-            return handleIndexerNotSelected(indexer, message, "Disabled temporarily because of previous errors");
+            return handleIndexerNotSelected(context, indexer, message, "Disabled temporarily because of previous errors");
         }
         if (indexer.getConfig().getState() == IndexerConfig.State.DISABLED_SYSTEM) {
             String message = String.format("Not using %s because it's disabled due to a previous unrecoverable error", indexer.getName());
-            return handleIndexerNotSelected(indexer, message, "Disabled permanently because of previous unrecoverable error");
+            return handleIndexerNotSelected(context, indexer, message, "Disabled permanently because of previous unrecoverable error");
         }
         return true;
     }
 
-    protected boolean checkIndexerSelected(Indexer indexer) {
-        if (searchRequest.getIndexers().isEmpty()) {
+    protected boolean checkIndexerSelected(SelectionContext context, Indexer indexer) {
+        if (context.getSearchRequest().getIndexers().isEmpty()) {
             return true;
         }
-        if (searchRequest.getIndexers().get().isEmpty()) {
+        if (context.getSearchRequest().getIndexers().get().isEmpty()) {
             return true;
         }
-        boolean indexerNotSelected = !searchRequest.getIndexers().get().contains(indexer.getName());
+        boolean indexerNotSelected = !context.getSearchRequest().getIndexers().get().contains(indexer.getName());
         if (indexerNotSelected) {
             //Don't send a search log message for this because showing it to the leader would be useless. He knows he hasn't selected it
-            logger.info("Not using {} because it's not in selection {}", indexer.getName(), searchRequest.getIndexers().get());
-            notSelectedIndersWithReason.put(indexer, "Not selected by the user");
+            logger.info("Not using {} because it's not in selection {}", indexer.getName(), context.getSearchRequest().getIndexers().get());
+            context.getNotSelectedIndexersWithReason().put(indexer, "Not selected by the user");
             return false;
         }
         return true;
@@ -247,38 +257,29 @@ public class IndexerForSearchSelector {
      * If an indexer was not shown an the search page (for any reason) it should not be used but also no message should be
      * logged or shown to the user. It doesn't make sense to log "Indexer is incomplete" to the user when he didn't have a chance to even select it
      */
-    protected boolean checkInternalAndNotEvenShown(Indexer indexer) {
-        if (searchRequest.getSource() == SearchSource.API) {
+    protected boolean checkInternalAndNotEvenShown(SelectionContext context, Indexer indexer) {
+        if (context.getSearchRequest().getSource() == SearchSource.API) {
             return true;
         }
 
         return indexer.getConfig().isEligibleForInternalSearch();
     }
 
-    protected boolean checkIndexerHitLimit(Indexer indexer) {
+    protected boolean checkIndexerHitLimit(SelectionContext context, Indexer indexer) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         IndexerConfig indexerConfig = indexer.getConfig();
         if (indexerConfig.getHitLimit().isEmpty() && indexerConfig.getDownloadLimit().isEmpty()) {
             return true;
         }
-        LocalDateTime comparisonTime;
-        LocalDateTime now = LocalDateTime.now(clock);
-        if (indexerConfig.getHitLimitResetTime().isPresent()) {
-            comparisonTime = now.withHour(indexerConfig.getHitLimitResetTime().get());
-            if (comparisonTime.isAfter(now)) {
-                comparisonTime = comparisonTime.minusDays(1);
-            }
-        } else {
-            comparisonTime = now.minusDays(1);
-        }
+        LocalDateTime comparisonTime = getHitLimitComparisonTime(indexerConfig, clock);
         if (indexerConfig.getHitLimit().isPresent()) {
-            boolean limitExceeded = checkIfHitLimitIsExceeded(indexer, indexerConfig, comparisonTime, IndexerApiAccessType.SEARCH, indexerConfig.getHitLimit().get(), "API hit");
+            boolean limitExceeded = checkIfHitLimitIsExceeded(context, indexer, indexerConfig, comparisonTime, IndexerApiAccessType.SEARCH, indexerConfig.getHitLimit().get(), "API hit");
             if (limitExceeded) {
                 return false;
             }
         }
         if (indexerConfig.getDownloadLimit().isPresent()) {
-            boolean limitExceeded = checkIfHitLimitIsExceeded(indexer, indexerConfig, comparisonTime, IndexerApiAccessType.NZB, indexerConfig.getDownloadLimit().get(), "download");
+            boolean limitExceeded = checkIfHitLimitIsExceeded(context, indexer, indexerConfig, comparisonTime, IndexerApiAccessType.NZB, indexerConfig.getDownloadLimit().get(), "download");
             if (limitExceeded) {
                 return false;
             }
@@ -288,35 +289,50 @@ public class IndexerForSearchSelector {
         return true;
     }
 
+    /**
+     * @return the time since which API hits and downloads count towards the indexer's limits: The last reset time if one is configured, otherwise one day ago
+     */
+    public static LocalDateTime getHitLimitComparisonTime(IndexerConfig indexerConfig, Clock clock) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (indexerConfig.getHitLimitResetTime().isEmpty()) {
+            return now.minusDays(1);
+        }
+        LocalDateTime comparisonTime = now.withHour(indexerConfig.getHitLimitResetTime().get());
+        if (comparisonTime.isAfter(now)) {
+            comparisonTime = comparisonTime.minusDays(1);
+        }
+        return comparisonTime;
+    }
+
     /**
      * @return true if more than x hits where made in the last x seconds, false if everything is OK or the indexer isn't know to have such a limit
      */
-    private boolean checkTooManyFrequentHits(Indexer indexer) {
+    private boolean checkTooManyFrequentHits(SelectionContext context, Indexer indexer) {
         if (!indexer.getConfig().getHost().equalsIgnoreCase("omgwtfnzbs.org")) {
             return true;
         }
         final int limitHits = 300;
         final int timespanSeconds = 300;
-        final List recentHitsFromShortHistory = getRecentHitsFromShortHistory(indexer, IndexerApiAccessType.SEARCH, limitHits);
-        if (recentHitsFromShortHistory.isEmpty()) {
+        final Optional<Instant> oldestRecentHit = indexerAccessTracker.getOldestOfRecent(indexer.getIndexerEntity().getId(), getAccessGroup(IndexerApiAccessType.SEARCH), limitHits);
+        if (oldestRecentHit.isEmpty()) {
             logger.debug(LoggingMarkers.LIMITS, "Indexer {}. No recent hits found", indexer.getName());
             return true;
         }
-        Instant oldestAccess = ((Timestamp) Iterables.getLast(recentHitsFromShortHistory)).toInstant();
+        Instant oldestAccess = oldestRecentHit.get();
         long oldestSecondsAgo = Instant.now(clock).getEpochSecond() - oldestAccess.getEpochSecond();
         logger.debug(LoggingMarkers.LIMITS, "Indexer {}. Oldest of {} hits was {} seconds ago while only {} hits are allowed in {} seconds", indexer.getName(), limitHits, oldestSecondsAgo, limitHits, timespanSeconds);
         if (oldestAccess.isBefore(Instant.now(clock).minusSeconds(timespanSeconds))) {
             return true;
         }
         logger.info("Not using {} because too many frequent hits were made: More than {} in {} seconds. Oldest of these hits was {} seconds ago", indexer.getName(), limitHits, timespanSeconds, oldestSecondsAgo);
-        notSelectedIndersWithReason.put(indexer, "Too many frequent hits");
+        context.getNotSelectedIndexersWithReason().put(indexer, "Too many frequent hits");
         return false;
     }
 
     /**
      * @return false if limit not exceeded, true if exceeded
      */
-    private boolean checkIfHitLimitIsExceeded(Indexer indexer, IndexerConfig indexerConfig, LocalDateTime comparisonTime, IndexerApiAccessType accessType, int limit, final String type) {
+    private boolean checkIfHitLimitIsExceeded(SelectionContext context, Indexer indexer, IndexerConfig indexerConfig, LocalDateTime comparisonTime, IndexerApiAccessType accessType, int limit, final String type) {
         Stopwatch stopwatch = Stopwatch.createStarted();
 
         try {
@@ -359,11 +375,13 @@ public class IndexerForSearchSelector {
                 Instant nextAccess = oldestAccess.plus(24, ChronoUnit.HOURS);
                 String message = String.format("Not using %s because all %d allowed " + type + "s were already made. The next " + type + " should be possible at %s", indexerConfig.getName(), limit, nextAccess);
                 logger.debug(LoggingMarkers.PERFORMANCE, "Detection that {} limit has been reached for indexer {} took {}ms", type, indexerConfig.getName(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
-                return !handleIndexerNotSelected(indexer, message, type + " limit reached");
+                return !handleIndexerNotSelected(context, indexer, message, type + " limit reached");
             }
 
             //Check from API short term storage for other indexers
-            List resultList = getRecentHitsFromShortHistory(indexer, accessType, limit);
+            final int indexerId = indexer.getIndexerEntity().getId();
+            final IndexerAccessTracker.AccessGroup accessGroup = getAccessGroup(accessType);
+            final int recentHits = indexerAccessTracker.countRecent(indexerId, accessGroup, limit);
             boolean currentHitsFromApi = false;
             boolean oldestAccessFromApi;
 
@@ -382,7 +400,7 @@ public class IndexerForSearchSelector {
                 logger.debug(LoggingMarkers.LIMITS, "Indexer {}. Got current downloads ({}) and oldest access ({}) from indexerstatus", indexer.getName(), currentHits, oldestAccess);
                 currentHitsFromApi = true;
             } else {
-                currentHits = resultList.size();
+                currentHits = recentHits;
                 logger.debug(LoggingMarkers.LIMITS, "Indexer {}. Got current hits ({}) from database", indexer.getName(), currentHits);
             }
             if (currentHits < limit) {
@@ -390,12 +408,12 @@ public class IndexerForSearchSelector {
                 return false;
             }
             //Found as many as we want, so now we must check if they're all in the time window
-            if (resultList.isEmpty() && oldestAccess == null) {
+            if (recentHits == 0 && oldestAccess == null) {
                 //If we found no results in the history and don't know the last access then the hits (or info) may be very old
                 logger.debug(LoggingMarkers.LIMITS, "Indexer {}. Current hits {} exceeds limit {} but we have no results in list. We'll have to allow it", indexer.getName(), currentHits, limit);
                 return true;
-            } else if (!resultList.isEmpty() && oldestAccess == null) {
-                oldestAccess = ((Timestamp) Iterables.getLast(resultList)).toInstant();
+            } else if (recentHits > 0 && oldestAccess == null) {
+                oldestAccess = indexerAccessTracker.getOldestOfRecent(indexerId, accessGroup, limit).orElse(null);
                 logger.debug(LoggingMarkers.LIMITS, "Got oldest access ({}) from database", oldestAccess);
             }
             oldestAccessFromApi = (oldestAccess != null);
@@ -405,7 +423,7 @@ public class IndexerForSearchSelector {
                 logger.debug(LoggingMarkers.LIMITS, "Indexer {}. oldest access {} is after {}. Not using indexer. Next possible hit at {}", indexer.getName(), oldestAccess, comparisonTimeUtc, nextPossibleHit);
 
                 String message = String.format("Not using %s because all %d allowed " + type + "s were already made. The next " + type + " should be possible at %s", indexerConfig.getName(), limit, nextPossibleHit);
-                return !handleIndexerNotSelected(indexer, message, type + " limit reached");
+                return !handleIndexerNotSelected(context, indexer, message, type + " limit reached");
             } else {
                 if (oldestAccessFromApi) {
                     logger.debug(LoggingMarkers.LIMITS, "Indexer {}. oldest access from API {} is before {}. Allowing access", indexer.getName(), oldestAccess, comparisonTimeUtc);
@@ -426,18 +444,8 @@ public class IndexerForSearchSelector {
         }
     }
 
-    private List getRecentHitsFromShortHistory(Indexer indexer, IndexerApiAccessType accessType, int limit) {
-        final String whereApiAccessType;
-        if (accessType == IndexerApiAccessType.NZB) {
-            whereApiAccessType = "x.API_ACCESS_TYPE = 'NZB'";
-        } else {
-            whereApiAccessType = "x.API_ACCESS_TYPE = 'NFO' OR x.API_ACCESS_TYPE = 'SEARCH'";
-        }
-        Query query = entityManager.createNativeQuery("SELECT x.TIME FROM INDEXERAPIACCESS_SHORT x WHERE x.INDEXER_ID = (:indexerId) AND (" + whereApiAccessType + ") ORDER BY TIME DESC LIMIT (:hitLimit)");
-        query.setParameter("indexerId", indexer.getIndexerEntity().getId());
-        query.setParameter("hitLimit", limit);
-        List resultList = query.getResultList();
-        return resultList;
+    private static IndexerAccessTracker.AccessGroup getAccessGroup(IndexerApiAccessType accessType) {
+        return accessType == IndexerApiAccessType.NZB ? IndexerAccessTracker.AccessGroup.DOWNLOADS : IndexerAccessTracker.AccessGroup.SEARCHES;
     }
 
     LocalDateTime calculateNextPossibleHit(IndexerConfig indexerConfig, Instant firstInWindowAccessTime) {
@@ -456,31 +464,31 @@ public class IndexerForSearchSelector {
         return nextPossibleHit;
     }
 
-    protected boolean checkSearchSource(Indexer indexer) {
-        boolean wrongSearchSource = !searchRequest.meets(indexer.getConfig().getEnabledForSearchSource());
+    protected boolean checkSearchSource(SelectionContext context, Indexer indexer) {
+        boolean wrongSearchSource = !context.getSearchRequest().meets(indexer.getConfig().getEnabledForSearchSource());
         if (wrongSearchSource) {
-            String message = String.format("Not using %s because the search source is %s but the indexer is only enabled for %s searches", indexer.getName(), searchRequest.getSource(), indexer.getConfig().getEnabledForSearchSource());
-            return handleIndexerNotSelected(indexer, message, "Not enabled for this search context");
+            String message = String.format("Not using %s because the search source is %s but the indexer is only enabled for %s searches", indexer.getName(), context.getSearchRequest().getSource(), indexer.getConfig().getEnabledForSearchSource());
+            return handleIndexerNotSelected(context, indexer, message, "Not enabled for this search context");
         }
         return true;
     }
 
-    protected boolean checkTorznabOnlyUsedForTorrentOrInternalSearches(Indexer indexer) {
-        if (searchRequest.getDownloadType() == DownloadType.TORRENT && indexer.getConfig().getSearchModuleType() != SearchModuleType.TORZNAB) {
+    protected boolean checkTorznabOnlyUsedForTorrentOrInternalSearches(SelectionContext context, Indexer indexer) {
+        if (context.getSearchRequest().getDownloadType() == DownloadType.TORRENT && indexer.getConfig().getSearchModuleType() != SearchModuleType.TORZNAB) {
             String message = String.format("Not using %s because a torrent search is requested", indexer.getName());
-            return handleIndexerNotSelected(indexer, message, "No torrent search");
+            return handleIndexerNotSelected(context, indexer, message, "No torrent search");
         }
-        if (searchRequest.getDownloadType() == DownloadType.NZB && indexer.getConfig().getSearchModuleType() == SearchModuleType.TORZNAB && searchRequest.getSource() == SearchSource.API) {
+        if (context.getSearchRequest().getDownloadType() == DownloadType.NZB && indexer.getConfig().getSearchModuleType() == SearchModuleType.TORZNAB && context.getSearchRequest().getSource() == SearchSource.API) {
             String message = String.format("Not using %s because torznab indexers cannot be used by API NZB searches", indexer.getName());
-            return handleIndexerNotSelected(indexer, message, "NZB API search");
+            return handleIndexerNotSelected(context, indexer, message, "NZB API search");
         }
         return true;
     }
 
-    protected boolean checkSchedule(Indexer indexer) {
+    protected boolean checkSchedule(SelectionContext context, Indexer indexer) {
         if (!indexer.getConfig().getSchedule().isEmpty() && indexer.getConfig().getSchedule().stream().noneMatch(this::isInTime)) {
             String message = String.format("Not using %s because the current time is out of its schedule", indexer.getName());
-            return handleIndexerNotSelected(indexer, message, "Out of schedule");
+            return handleIndexerNotSelected(context, indexer, message, "Out of schedule");
         }
         return true;
     }
@@ -543,16 +551,51 @@ public class IndexerForSearchSelector {
         return val >= Math.min(a, b) && val <= Math.max(a, b);
     }
 
-    private boolean handleIndexerNotSelected(Indexer indexer, String message, String reason) {
-        notSelectedIndersWithReason.put(indexer, reason);
+    private boolean handleIndexerNotSelected(SelectionContext context, Indexer indexer, String message, String reason) {
+        context.getNotSelectedIndexersWithReason().put(indexer, reason);
         if (!Strings.isNullOrEmpty(message)) {
             logger.info(message);
-            eventPublisher.publishEvent(new SearchMessageEvent(searchRequest, message));
+            eventPublisher.publishEvent(new SearchMessageEvent(context.getSearchRequest(), message));
         }
         return false;
     }
 
 
+    /**
+     * State of one indexer selection. Shared by the checks of all indexers which may run in parallel.
+     */
+    protected static class SelectionContext {
+        private final SearchRequest searchRequest;
+        private final Map<Indexer, String> notSelectedIndexersWithReason = new ConcurrentHashMap<>();
+        private final Supplier<Boolean> queryGenerationEnabled;
+        private final Supplier<Set<MediaIdType>> convertibleIdTypes;
+
+        protected SelectionContext(SearchRequest searchRequest, Supplier<Boolean> queryGenerationEnabled, Supplier<Set<MediaIdType>> convertibleIdTypes) {
+            this.searchRequest = searchRequest;
+            this.queryGenerationEnabled = Suppliers.memoize(queryGenerationEnabled::get);
+            this.convertibleIdTypes = Suppliers.memoize(convertibleIdTypes::get);
+        }
+
+        public SearchRequest getSearchRequest() {
+            return searchRequest;
+        }
+
+        public Map<Indexer, String> getNotSelectedIndexersWithReason() {
+            return notSelectedIndexersWithReason;
+        }
+
+        public boolean isQueryGenerationEnabled() {
+            return queryGenerationEnabled.get();
+        }
+
+        /**
+         * @return all ID types the provided IDs can be converted to. Determined once for all indexers
+         */
+        public Set<MediaIdType> getConvertibleIdTypes() {
+            return convertibleIdTypes.get();
+        }
+    }
+
     @Data
     @ReflectionMarker
     @NoArgsConstructor
@@ -38,6 +38,7 @@ public class IndexerSearchCacheEntry {
     private IndexerSearchEntity indexerSearchEntity;
     private List<IndexerSearchResult> indexerSearchResults = new ArrayList<>();
     private int nextResultIndex = 0;
+    private int numberOfSavedIndexerSearchResults = 0;
 
     public IndexerSearchCacheEntry(Indexer indexer) {
         this.indexer = indexer;
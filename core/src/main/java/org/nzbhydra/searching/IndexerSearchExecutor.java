@@ -0,0 +1,203 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived pool used for all indexer searches. Threads take the MDC from the submitting thread. The number of concurrent
+ * calls to one indexer is limited so that many parallel searches (e.g. RSS requests from several tools) don't hammer it.
+ */
+@Component
+public class IndexerSearchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerSearchExecutor.class);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor executor;
+    private final int maxConcurrentSearchesPerIndexer;
+    private final Map<String, IndexerQueue> indexerQueues = new ConcurrentHashMap<>();
+
+    public IndexerSearchExecutor(@Value("${nzbhydra.indexerSearch.maxThreads:50}") int maxThreads, @Value("${nzbhydra.indexerSearch.maxConcurrentSearchesPerIndexer:5}") int maxConcurrentSearchesPerIndexer) {
+        this.maxConcurrentSearchesPerIndexer = maxConcurrentSearchesPerIndexer;
+        executor = MdcThreadPoolExecutor.newWithInheritedMdc(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        //Don't keep idle threads around, most instances only search now and then
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("hydra.indexer.executor.queued", executor, x -> x.getQueue().size())
+            .description("Indexer searches waiting for a free thread")
+            .register(meterRegistry);
+        Gauge.builder("hydra.indexer.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Indexer searches currently running")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns a new completion service which puts completed searches in the given queue. Searches submitted to different
+     * completion services may share the same queue.
+     */
+    public <T> CompletionService<T> newCompletionService(String indexerName, BlockingQueue<Future<T>> completionQueue) {
+        return new ExecutorCompletionService<>(forIndexer(indexerName), completionQueue);
+    }
+
+    public <T> Future<T> submit(String indexerName, Callable<T> callable) {
+        return newCompletionService(indexerName, new LinkedBlockingQueue<Future<T>>()).submit(callable);
+    }
+
+    /**
+     * Returns an executor which queues commands per indexer and only hands them to the shared pool when one of the indexer's
+     * permits is free. Searches waiting for a busy indexer don't occupy a pool thread, so they can't starve searches on other indexers.
+     */
+    public Executor forIndexer(String indexerName) {
+        return getIndexerQueue(indexerName);
+    }
+
+    /**
+     * Returns an executor for short tasks which don't call an indexer and so don't need a permit. If no thread is free the
+     * task is run by the calling thread instead of waiting behind running searches.
+     */
+    public Executor getShortTaskExecutor() {
+        return command -> {
+            if (executor.getQueue().isEmpty() && executor.getActiveCount() < executor.getMaximumPoolSize()) {
+                executor.execute(command);
+            } else {
+                command.run();
+            }
+        };
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getWaitingForIndexer(String indexerName) {
+        return getIndexerQueue(indexerName).getWaiting();
+    }
+
+    private IndexerQueue getIndexerQueue(String indexerName) {
+        return indexerQueues.computeIfAbsent(indexerName, name -> {
+            IndexerQueue indexerQueue = new IndexerQueue(name);
+            if (meterRegistry != null) {
+                Gauge.builder("hydra.indexer.executor.waiting", indexerQueue, IndexerQueue::getWaiting)
+                    .description("Searches waiting because the maximum number of concurrent searches for the indexer is reached")
+                    .tag("indexer", name)
+                    .register(meterRegistry);
+            }
+            return indexerQueue;
+        });
+    }
+
+    private class IndexerQueue implements Executor {
+
+        private final String indexerName;
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        private final Semaphore permits = new Semaphore(maxConcurrentSearchesPerIndexer);
+
+        private IndexerQueue(String indexerName) {
+            this.indexerName = indexerName;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            waiting.add(command);
+            dispatch();
+        }
+
+        /**
+         * Submits waiting commands to the pool as long as permits are free. Called when a command is added and when one completes,
+         * the command is always added before a permit is tried and a permit always released before the queue is checked, so none is left behind.
+         */
+        private void dispatch() {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                Runnable command = waiting.poll();
+                if (command == null) {
+                    permits.release();
+                    continue;
+                }
+                try {
+                    executor.execute(() -> {
+                        try {
+                            command.run();
+                        } finally {
+                            permits.release();
+                            try {
+                                dispatch();
+                            } catch (RejectedExecutionException e) {
+                                logger.debug("Not running waiting searches of indexer {} because the pool is shut down", indexerName);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        }
+
+        private int getWaiting() {
+            return waiting.size();
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Waited too long for termination of indexer searches, interrupting");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -183,22 +183,24 @@ public class InternalSearchResultProcessor {
 
     protected SearchResultWebTOBuilder setSearchResultDateRelatedValues(SearchResultWebTOBuilder builder, SearchResultItem item) {
         Instant date = item.getBestDate();
-        long ageInDays = date.until(Instant.now(), ChronoUnit.DAYS);
-        if (ageInDays > 0) {
-            builder.age(ageInDays + "d");
-        } else {
-            long ageInHours = date.until(Instant.now(), ChronoUnit.HOURS);
-            if (ageInHours > 0) {
-                builder.age(ageInHours + "h");
-            } else {
-                long ageInMinutes = date.until(Instant.now(), ChronoUnit.MINUTES);
-                builder.age(ageInMinutes + "m");
-            }
-        }
         builder = builder
+                .age(getAge(date))
                 .age_precise(item.isAgePrecise())
                 .date(LocalDateTime.ofInstant(date, ZoneId.of("UTC")).format(item.isAgePrecise() ? DATE_TIME_FORMATTER : DATE_FORMATTER))
                 .epoch(date.getEpochSecond());
         return builder;
     }
+
+    static String getAge(Instant date) {
+        long ageInDays = date.until(Instant.now(), ChronoUnit.DAYS);
+        if (ageInDays > 0) {
+            return ageInDays + "d";
+        }
+        long ageInHours = date.until(Instant.now(), ChronoUnit.HOURS);
+        if (ageInHours > 0) {
+            return ageInHours + "h";
+        }
+        long ageInMinutes = date.until(Instant.now(), ChronoUnit.MINUTES);
+        return ageInMinutes + "m";
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchingConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of API and web UI searches executed at the same time. Every search blocks a web server thread until all
+ * indexers have responded, so without a limit a couple of tools searching at once may leave no threads for the web UI
+ * or downloads. Searches exceeding the limit wait in a bounded queue for up to the indexer timeout; when the queue is
+ * full they're rejected immediately. Web UI searches are not exempt because they block a thread just the same.
+ * <p>
+ * The limits are read from the config on every call so changes take effect without a restart.
+ */
+@Component
+public class SearchAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchAdmission.class);
+
+    private final ConfigProvider configProvider;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+    private int running;
+    private int queued;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    public SearchAdmission(ConfigProvider configProvider) {
+        this.configProvider = configProvider;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("hydra.search.admission.running", this, SearchAdmission::getRunning)
+            .description("API and web UI searches currently being executed")
+            .register(meterRegistry);
+        Gauge.builder("hydra.search.admission.queued", this, SearchAdmission::getQueued)
+            .description("API and web UI searches waiting to be executed")
+            .register(meterRegistry);
+        FunctionCounter.builder("hydra.search.admission.rejected", this, SearchAdmission::getRejected)
+            .description("API and web UI searches rejected because too many were running or waiting")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Waits until the search may be executed. The returned permit must be closed when the search is done.
+     *
+     * @throws SearchRejectedException if the queue is full or no search finished within the indexer timeout
+     */
+    public Permit acquire() {
+        SearchingConfig searchingConfig = configProvider.getBaseConfig().getSearching();
+        int timeout = searchingConfig.getTimeout() == null ? 30 : searchingConfig.getTimeout();
+        lock.lock();
+        try {
+            if (isAvailable(searchingConfig.getMaxConcurrentApiSearches()) && queued == 0) {
+                running++;
+                return new Permit();
+            }
+            if (queued >= searchingConfig.getApiSearchQueueSize()) {
+                rejected.incrementAndGet();
+                logger.warn("Rejecting search because {} searches are running and {} are waiting", running, queued);
+                throw new SearchRejectedException("Too many concurrent searches. Try again later", timeout);
+            }
+            queued++;
+            try {
+                logger.info("Waiting for one of {} running searches to finish", running);
+                long nanosLeft = TimeUnit.SECONDS.toNanos(timeout);
+                while (!isAvailable(configProvider.getBaseConfig().getSearching().getMaxConcurrentApiSearches())) {
+                    if (nanosLeft <= 0) {
+                        rejected.incrementAndGet();
+                        logger.warn("Rejecting search because no running search finished within {} seconds", timeout);
+                        throw new SearchRejectedException("Too many concurrent searches. Try again later", timeout);
+                    }
+                    nanosLeft = permitReleased.awaitNanos(nanosLeft);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SearchRejectedException("Interrupted while waiting for other searches to finish", timeout);
+            } finally {
+                queued--;
+            }
+            running++;
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isAvailable(int maxConcurrentSearches) {
+        return maxConcurrentSearches <= 0 || running < maxConcurrentSearches;
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            permitReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up all waiting searches so they're admitted right away if the limit was raised.
+     */
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        lock.lock();
+        try {
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public class Permit implements AutoCloseable {
+
+        private boolean released;
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release();
+            }
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import lombok.Data;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.searching.IndexerForSearchSelector.IndexerForSearchSelection;
 import org.nzbhydra.searching.db.SearchEntity;
+import org.nzbhydra.searching.dtoseventsenums.IndexerSearchResult;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.springnative.ReflectionMarker;
@@ -17,6 +18,11 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Data
 @ReflectionMarker
@@ -31,6 +37,19 @@ public class SearchCacheEntry {
     private Multiset<String> reasonsForRejection = HashMultiset.create();
     private int numberOfRemovedDuplicates;
     private Integer numberOfAvailableResults = null;
+    /**
+     * Indexer searches are put here in the order they complete. Searches still running when an API search returned early are collected by the next request for this entry.
+     */
+    private final BlockingQueue<Future<IndexerSearchResult>> completedIndexerSearches = new LinkedBlockingQueue<>();
+    /**
+     * Maps indexer searches which were submitted but not yet taken from {@link #completedIndexerSearches} to the indexer's name
+     */
+    private final Map<Future<IndexerSearchResult>, String> pendingIndexerSearches = new ConcurrentHashMap<>();
+    /**
+     * Held while the results of {@link #completedIndexerSearches} are collected so that concurrent requests for this entry don't take each other's searches
+     */
+    private final ReentrantLock collectLock = new ReentrantLock();
+    private final DuplicateDetectionIndex duplicateDetectionIndex = new DuplicateDetectionIndex();
 
 
     public SearchCacheEntry(SearchRequest searchRequest, IndexerForSearchSelection indexerSelectionResult, SearchEntity searchEntity) {
@@ -3,6 +3,7 @@ package org.nzbhydra.searching;
 import org.nzbhydra.config.indexer.IndexerConfig;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.indexers.IndexerApiAccessEntityShort;
+import org.nzbhydra.indexers.IndexerAccessTracker;
 import org.nzbhydra.indexers.IndexerApiAccessEntityShortRepository;
 import org.nzbhydra.indexers.IndexerApiAccessType;
 import org.nzbhydra.indexers.IndexerEntity;
@@ -34,6 +35,8 @@ public class SearchModuleProvider {
     @Autowired
     private IndexerApiAccessEntityShortRepository shortRepository;
     @Autowired
+    private IndexerAccessTracker indexerAccessTracker;
+    @Autowired
     private IndexerLimitRepository indexerStatusRepository;
     @Autowired
     private IndexerInstantiator indexerInstantiator;
@@ -95,7 +98,9 @@ public class SearchModuleProvider {
                 }
                 if (apiHitsToStoreInitially.containsKey(config.getName())) {
                     IndexerEntity finalIndexerEntity = indexerEntity;
-                    shortRepository.saveAll(IntStream.range(0, apiHitsToStoreInitially.get(config.getName())).mapToObj(x -> new IndexerApiAccessEntityShort(finalIndexerEntity, true, IndexerApiAccessType.SEARCH)).collect(Collectors.toList()));
+                    List<IndexerApiAccessEntityShort> initialAccesses = IntStream.range(0, apiHitsToStoreInitially.get(config.getName())).mapToObj(x -> new IndexerApiAccessEntityShort(finalIndexerEntity, true, IndexerApiAccessType.SEARCH)).collect(Collectors.toList());
+                    shortRepository.saveAll(initialAccesses);
+                    initialAccesses.forEach(indexerAccessTracker::recordAccess);
                     apiHitsToStoreInitially.remove(config.getName());
                 }
 
@@ -0,0 +1,18 @@
+package org.nzbhydra.searching;
+
+/**
+ * Thrown when an API or web UI search can't be executed because too many searches are already running or waiting.
+ */
+public class SearchRejectedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public SearchRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
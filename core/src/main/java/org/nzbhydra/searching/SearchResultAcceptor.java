@@ -1,5 +1,7 @@
 package org.nzbhydra.searching;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
@@ -14,11 +16,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigChangedEvent;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.SearchSource;
 import org.nzbhydra.config.SearchSourceRestriction;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.config.category.Category;
 import org.nzbhydra.config.indexer.IndexerConfig;
 import org.nzbhydra.config.indexer.SearchModuleType;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.logging.LoggingMarkers;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
@@ -26,17 +32,16 @@ import org.nzbhydra.springnative.ReflectionMarker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -48,7 +53,13 @@ public class SearchResultAcceptor {
 
     private static final Pattern TITLE_PATTERN = Pattern.compile("(\\w[\\w']*\\w|\\w)");
 
-    private Map<String, List<String>> titleWordCache = new ConcurrentHashMap<>();
+    private final Cache<String, Set<String>> titleWordCache = Caffeine.newBuilder().maximumSize(10_000).build();
+    private final Cache<String, Pattern> patternCache = Caffeine.newBuilder().maximumSize(100).build();
+    private final Cache<List<String>, WordMatcher> wordMatcherCache = Caffeine.newBuilder().maximumSize(100).build();
+    private final Cache<List<String>, AhoCorasickMatcher> substringMatcherCache = Caffeine.newBuilder().maximumSize(10).build();
+    //Weak keys use identity comparison. Categories are replaced when the config is changed
+    private final Cache<Category, Filters> categoryFilters = Caffeine.newBuilder().weakKeys().build();
+    private volatile ConfigPlan configPlan;
 
     private final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
     private final Validator validator = factory.getValidator();
@@ -60,7 +71,11 @@ public class SearchResultAcceptor {
     public AcceptorResult acceptResults(List<SearchResultItem> items, SearchRequest searchRequest, IndexerConfig indexerConfig) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         BaseConfig baseConfig = configProvider.getBaseConfig();
-        titleWordCache = new HashMap<>();
+        ConfigPlan plan = getConfigPlan(baseConfig);
+        WordMatcher internalDataForbiddenWords = getWordMatcher(searchRequest.getInternalData().getForbiddenWords());
+        WordMatcher internalDataRequiredWords = getWordMatcher(searchRequest.getInternalData().getRequiredWords());
+        boolean matchForbiddenWordsPartially = isMatchForbiddenWordsPartially(indexerConfig);
+        boolean applyGlobalWordAndRegexRestrictions = baseConfig.getSearching().getApplyRestrictions() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), baseConfig.getSearching().getApplyRestrictions().name());
         List<SearchResultItem> acceptedResults = new ArrayList<>();
         Multiset<String> reasonsForRejection = HashMultiset.create();
         HashSet<SearchResultItem> itemsWithoutActualDuplicates = new HashSet<>(items);
@@ -76,10 +91,10 @@ public class SearchResultAcceptor {
             if (!checkForPassword(reasonsForRejection, item)) {
                 continue;
             }
-            if (!checkForForbiddenGroup(reasonsForRejection, item)) {
+            if (!checkForForbiddenGroup(reasonsForRejection, item, plan.forbiddenGroups())) {
                 continue;
             }
-            if (!checkForForbiddenPoster(reasonsForRejection, item)) {
+            if (!checkForForbiddenPoster(reasonsForRejection, item, plan.forbiddenPosters())) {
                 continue;
             }
             if (!checkForSize(searchRequest, reasonsForRejection, item)) {
@@ -101,40 +116,29 @@ public class SearchResultAcceptor {
                 continue;
             }
 
+            String lowerCaseTitle = item.getTitle().toLowerCase();
+
             //Forbidden words from query
-            if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, searchRequest.getInternalData().getForbiddenWords(), item, "internal data")) {
+            if (!checkForForbiddenWords(reasonsForRejection, internalDataForbiddenWords, item, lowerCaseTitle, matchForbiddenWordsPartially, "internal data")) {
                 continue;
             }
 
-            if (!checkRequiredWords(reasonsForRejection, searchRequest.getInternalData().getRequiredWords(), item, "internal data")) {
+            if (!checkRequiredWords(reasonsForRejection, internalDataRequiredWords, item, lowerCaseTitle, "internal data")) {
                 continue;
             }
 
 
             //Globally configured
-            boolean applyWordAndRegexRestrictions = baseConfig.getSearching().getApplyRestrictions() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), baseConfig.getSearching().getApplyRestrictions().name());
-            if (applyWordAndRegexRestrictions) {
-                if (!checkRegexes(item, reasonsForRejection, baseConfig.getSearching().getRequiredRegex().orElse(null), baseConfig.getSearching().getForbiddenRegex().orElse(null))) {
-                    continue;
-                }
-                if (!checkRequiredWords(reasonsForRejection, baseConfig.getSearching().getRequiredWords(), item, "searching config")) {
-                    continue;
-                }
-                if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, baseConfig.getSearching().getForbiddenWords(), item, "searching config")) {
+            if (applyGlobalWordAndRegexRestrictions) {
+                if (!checkFilters(reasonsForRejection, plan.searchingFilters(), item, lowerCaseTitle, matchForbiddenWordsPartially, "searching config")) {
                     continue;
                 }
             }
 
             //Per category
-            applyWordAndRegexRestrictions = item.getCategory().getApplyRestrictionsType() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), item.getCategory().getApplyRestrictionsType().name());
+            boolean applyWordAndRegexRestrictions = item.getCategory().getApplyRestrictionsType() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), item.getCategory().getApplyRestrictionsType().name());
             if (applyWordAndRegexRestrictions) {
-                if (!checkRegexes(item, reasonsForRejection, item.getCategory().getRequiredRegex().orElse(null), item.getCategory().getForbiddenRegex().orElse(null))) {
-                    continue;
-                }
-                if (!checkRequiredWords(reasonsForRejection, item.getCategory().getRequiredWords(), item, "category")) {
-                    continue;
-                }
-                if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, item.getCategory().getForbiddenWords(), item, "category")) {
+                if (!checkFilters(reasonsForRejection, getCategoryFilters(item.getCategory()), item, lowerCaseTitle, matchForbiddenWordsPartially, "category")) {
                     continue;
                 }
             }
@@ -149,6 +153,7 @@ public class SearchResultAcceptor {
         }
 
         logger.debug(LoggingMarkers.PERFORMANCE, "Check of {} search results took {}ms", items.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        HydraMetrics.recordResultAcceptance(stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return new AcceptorResult(acceptedResults, reasonsForRejection);
     }
 
@@ -243,8 +248,12 @@ public class SearchResultAcceptor {
     }
 
     protected boolean checkForForbiddenGroup(Multiset<String> reasonsForRejection, SearchResultItem item) {
-        if (item.getGroup().isPresent()) {
-            if (configProvider.getBaseConfig().getSearching().getForbiddenGroups().stream().anyMatch(x -> item.getGroup().isPresent() && item.getGroup().get().contains(x))) {
+        return checkForForbiddenGroup(reasonsForRejection, item, getSubstringMatcher(configProvider.getBaseConfig().getSearching().getForbiddenGroups()));
+    }
+
+    private boolean checkForForbiddenGroup(Multiset<String> reasonsForRejection, SearchResultItem item, AhoCorasickMatcher forbiddenGroups) {
+        if (item.getGroup().isPresent() && !forbiddenGroups.isEmpty()) {
+            if (forbiddenGroups.findAny(item.getGroup().get()).isPresent()) {
                 logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden group {}", item.getGroup().get());
                 reasonsForRejection.add("In forbidden group");
                 return false;
@@ -254,8 +263,12 @@ public class SearchResultAcceptor {
     }
 
     protected boolean checkForForbiddenPoster(Multiset<String> reasonsForRejection, SearchResultItem item) {
-        if (item.getPoster().isPresent()) {
-            if (configProvider.getBaseConfig().getSearching().getForbiddenPosters().stream().anyMatch(x -> item.getPoster().isPresent() && item.getPoster().get().contains(x))) {
+        return checkForForbiddenPoster(reasonsForRejection, item, getSubstringMatcher(configProvider.getBaseConfig().getSearching().getForbiddenPosters()));
+    }
+
+    private boolean checkForForbiddenPoster(Multiset<String> reasonsForRejection, SearchResultItem item, AhoCorasickMatcher forbiddenPosters) {
+        if (item.getPoster().isPresent() && !forbiddenPosters.isEmpty()) {
+            if (forbiddenPosters.findAny(item.getPoster().get()).isPresent()) {
                 logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden poster {}", item.getPoster().get());
                 reasonsForRejection.add("In forbidden poster");
                 return false;
@@ -265,16 +278,18 @@ public class SearchResultAcceptor {
     }
 
     protected boolean checkRegexes(SearchResultItem item, Multiset<String> reasonsForRejection, String requiredRegex, String forbiddenRegex) {
-        if (!Strings.isNullOrEmpty(requiredRegex)) {
-            Pattern requiredPattern = Pattern.compile(requiredRegex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        return checkRegexes(item, reasonsForRejection, getPattern(requiredRegex), getPattern(forbiddenRegex));
+    }
+
+    private boolean checkRegexes(SearchResultItem item, Multiset<String> reasonsForRejection, Pattern requiredPattern, Pattern forbiddenPattern) {
+        if (requiredPattern != null) {
             if (!requiredPattern.matcher(item.getTitle()).find()) {
                 logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not find required regex in {}", item.getTitle());
                 reasonsForRejection.add("Required regex doesn't match");
                 return false;
             }
         }
-        if (!Strings.isNullOrEmpty(forbiddenRegex)) {
-            Pattern forbiddenPattern = Pattern.compile(forbiddenRegex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        if (forbiddenPattern != null) {
             if (forbiddenPattern.matcher(item.getTitle()).find()) {
                 logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden regex in {}", item.getTitle());
                 reasonsForRejection.add("Forbidden regex matches");
@@ -285,66 +300,120 @@ public class SearchResultAcceptor {
         return true;
     }
 
+    private boolean checkFilters(Multiset<String> reasonsForRejection, Filters filters, SearchResultItem item, String lowerCaseTitle, boolean matchForbiddenWordsPartially, String source) {
+        if (!checkRegexes(item, reasonsForRejection, filters.requiredRegex(), filters.forbiddenRegex())) {
+            return false;
+        }
+        if (!checkRequiredWords(reasonsForRejection, filters.requiredWords(), item, lowerCaseTitle, source)) {
+            return false;
+        }
+        return checkForForbiddenWords(reasonsForRejection, filters.forbiddenWords(), item, lowerCaseTitle, matchForbiddenWordsPartially, source);
+    }
+
     protected boolean checkRequiredWords(Multiset<String> reasonsForRejection, List<String> requiredWords, SearchResultItem item, String source) {
-        if (!requiredWords.isEmpty()) {
-            List<String> titleWords = getTitleWords(item);
-            boolean allPresent = true;
-            for (String requiredWord : requiredWords) {
-                if (requiredWord.contains(".") || requiredWord.contains("-")) {
-                    if (!item.getTitle().toLowerCase().contains(requiredWord.toLowerCase())) {
-                        logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not find required word {} (from {}) in the title {}", requiredWord, source, item.getTitle());
-                        allPresent = false;
-                        break;
-                    }
-                } else {
-                    if (!titleWords.contains(requiredWord.toLowerCase())) { //Words must match
-                        logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not find required word {} (from {}) in the title {}", requiredWord, source, item.getTitle());
-                        allPresent = false;
-                        break;
-                    }
-                }
-            }
-            if (!allPresent) {
-                reasonsForRejection.add("No required word found");
-                return false;
-            }
+        if (requiredWords.isEmpty()) {
+            return true;
+        }
+        return checkRequiredWords(reasonsForRejection, getWordMatcher(requiredWords), item, item.getTitle().toLowerCase(), source);
+    }
+
+    private boolean checkRequiredWords(Multiset<String> reasonsForRejection, WordMatcher requiredWords, SearchResultItem item, String lowerCaseTitle, String source) {
+        if (requiredWords.isEmpty()) {
+            return true;
+        }
+        Optional<String> missing = requiredWords.findMissing(lowerCaseTitle, getTitleWords(lowerCaseTitle));
+        if (missing.isPresent()) {
+            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not find required word {} (from {}) in the title {}", missing.get(), source, item.getTitle());
+            reasonsForRejection.add("No required word found");
+            return false;
         }
         return true;
     }
 
-    private synchronized List<String> getTitleWords(SearchResultItem item) {
-        return titleWordCache.computeIfAbsent(item.getTitle(), s -> {
-            List<String> titleWords = new ArrayList<>();
-            Matcher matcher = TITLE_PATTERN.matcher(item.getTitle().toLowerCase());
+    private Set<String> getTitleWords(String lowerCaseTitle) {
+        return titleWordCache.get(lowerCaseTitle, title -> {
+            Set<String> titleWords = new HashSet<>();
+            Matcher matcher = TITLE_PATTERN.matcher(title);
             while (matcher.find()) {
-                titleWords.add(matcher.group().toLowerCase());
+                titleWords.add(matcher.group());
             }
             return titleWords;
         });
-
     }
 
     protected boolean checkForForbiddenWords(IndexerConfig indexerConfig, Multiset<String> reasonsForRejection, List<String> forbiddenWords, SearchResultItem item, String source) {
-        for (String forbiddenWord : forbiddenWords) {
-            if (forbiddenWord.contains("-") || forbiddenWord.contains(".") || indexerConfig.getHost().toLowerCase().contains("nzbgeek")) {
-                if (item.getTitle().toLowerCase().contains(forbiddenWord.toLowerCase())) {
-                    reasonsForRejection.add("Forbidden word");
-                    logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden word {} (from {}) in title {}", forbiddenWord, source, item.getTitle());
-                    return false;
-                }
-            } else {
-                List<String> titleWords = getTitleWords(item);
-                Optional<String> found = titleWords.stream().filter(x -> x.equalsIgnoreCase(forbiddenWord)).findFirst(); //Title word must match excluded word to reject result, not just be contained
-                if (found.isPresent()) {
-                    logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden word (from {}) in title word {} (full title: {})", source, found.get(), item.getTitle());
-                    reasonsForRejection.add("Forbidden word");
-                    return false;
-                }
-            }
+        if (forbiddenWords.isEmpty()) {
+            return true;
+        }
+        return checkForForbiddenWords(reasonsForRejection, getWordMatcher(forbiddenWords), item, item.getTitle().toLowerCase(), isMatchForbiddenWordsPartially(indexerConfig), source);
+    }
+
+    private boolean checkForForbiddenWords(Multiset<String> reasonsForRejection, WordMatcher forbiddenWords, SearchResultItem item, String lowerCaseTitle, boolean matchPartially, String source) {
+        if (forbiddenWords.isEmpty()) {
+            return true;
+        }
+        //Title word must match excluded word to reject result, not just be contained (unless the word contains "." or "-")
+        Optional<String> found = forbiddenWords.findAny(lowerCaseTitle, matchPartially ? Collections.emptySet() : getTitleWords(lowerCaseTitle), matchPartially);
+        if (found.isPresent()) {
+            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden word {} (from {}) in title {}", found.get(), source, item.getTitle());
+            reasonsForRejection.add("Forbidden word");
+            return false;
         }
         return true;
     }
 
+    private boolean isMatchForbiddenWordsPartially(IndexerConfig indexerConfig) {
+        return indexerConfig.getHost().toLowerCase().contains("nzbgeek");
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        configPlan = null;
+        categoryFilters.invalidateAll();
+        patternCache.invalidateAll();
+        wordMatcherCache.invalidateAll();
+        substringMatcherCache.invalidateAll();
+    }
+
+    private ConfigPlan getConfigPlan(BaseConfig baseConfig) {
+        ConfigPlan plan = configPlan;
+        SearchingConfig searchingConfig = baseConfig.getSearching();
+        if (plan == null || plan.searchingConfig() != searchingConfig) {
+            Filters searchingFilters = new Filters(
+                getPattern(searchingConfig.getRequiredRegex().orElse(null)),
+                getPattern(searchingConfig.getForbiddenRegex().orElse(null)),
+                new WordMatcher(searchingConfig.getRequiredWords()),
+                new WordMatcher(searchingConfig.getForbiddenWords()));
+            plan = new ConfigPlan(searchingConfig, searchingFilters, new AhoCorasickMatcher(searchingConfig.getForbiddenGroups()), new AhoCorasickMatcher(searchingConfig.getForbiddenPosters()));
+            configPlan = plan;
+        }
+        return plan;
+    }
+
+    private Filters getCategoryFilters(Category category) {
+        return categoryFilters.get(category, x -> new Filters(
+            getPattern(category.getRequiredRegex().orElse(null)),
+            getPattern(category.getForbiddenRegex().orElse(null)),
+            new WordMatcher(category.getRequiredWords()),
+            new WordMatcher(category.getForbiddenWords())));
+    }
+
+    private Pattern getPattern(String regex) {
+        if (Strings.isNullOrEmpty(regex)) {
+            return null;
+        }
+        return patternCache.get(regex, x -> Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.DOTALL));
+    }
+
+    private WordMatcher getWordMatcher(List<String> words) {
+        //Lists may be changed later so the cache key must be a copy
+        return wordMatcherCache.get(List.copyOf(words), WordMatcher::new);
+    }
+
+    private AhoCorasickMatcher getSubstringMatcher(List<String> strings) {
+        return substringMatcherCache.get(List.copyOf(strings), AhoCorasickMatcher::new);
+    }
+
     protected boolean checkForPassword(Multiset<String> reasonsForRejection, SearchResultItem item) {
         if (configProvider.getBaseConfig().getSearching().isIgnorePassworded() && item.isPassworded()) {
             logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Ignore passworded result");
@@ -396,6 +465,15 @@ public class SearchResultAcceptor {
         return true;
     }
 
+    /**
+     * Config dependent filters, compiled once after every config change.
+     */
+    private record ConfigPlan(SearchingConfig searchingConfig, Filters searchingFilters, AhoCorasickMatcher forbiddenGroups, AhoCorasickMatcher forbiddenPosters) {
+    }
+
+    private record Filters(Pattern requiredRegex, Pattern forbiddenRegex, WordMatcher requiredWords, WordMatcher forbiddenWords) {
+    }
+
     @Data
 @ReflectionMarker
     @AllArgsConstructor
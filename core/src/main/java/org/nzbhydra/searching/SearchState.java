@@ -32,6 +32,14 @@ class SearchState {
     private int indexersSelected = 0;
     private int indexersFinished = 0;
     private List<SortableMessage> messages = new ArrayList<>();
+    /**
+     * Number of results of the indexer searches finished so far, without duplicate detection
+     */
+    private int numberOfResults = 0;
+    /**
+     * The newest of these results, newest first
+     */
+    private List<SearchStateResult> newestResults = new ArrayList<>();
 
     public SearchState(long searchRequestId) {
         this.searchRequestId = searchRequestId;
@@ -0,0 +1,65 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import org.nzbhydra.springnative.ReflectionMarker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sent to the search's topic when its {@link SearchState} changes. Only contains the changed values and the messages added
+ * since the last update unless {@link #complete} is true.
+ */
+@Data
+@ReflectionMarker
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class SearchStateUpdate {
+
+    private long searchRequestId;
+    private boolean complete;
+    private Boolean indexerSelectionFinished;
+    private Boolean searchFinished;
+    private Integer indexersSelected;
+    private Integer indexersFinished;
+    private List<SortableMessage> messages;
+    /**
+     * Number of results found so far and the newest of them, so the UI can show them before the search is finished. Always sent together
+     */
+    private Integer numberOfResults;
+    private List<SearchStateResult> newestResults;
+
+    SearchStateUpdate(long searchRequestId) {
+        this.searchRequestId = searchRequestId;
+    }
+
+    static SearchStateUpdate complete(SearchState searchState) {
+        SearchStateUpdate update = new SearchStateUpdate(searchState.getSearchRequestId());
+        update.setComplete(true);
+        update.setIndexerSelectionFinished(searchState.isIndexerSelectionFinished());
+        update.setSearchFinished(searchState.isSearchFinished());
+        update.setIndexersSelected(searchState.getIndexersSelected());
+        update.setIndexersFinished(searchState.getIndexersFinished());
+        update.setMessages(new ArrayList<>(searchState.getMessages()));
+        update.setNumberOfResults(searchState.getNumberOfResults());
+        update.setNewestResults(new ArrayList<>(searchState.getNewestResults()));
+        return update;
+    }
+
+}
@@ -12,34 +12,50 @@ import org.nzbhydra.config.searching.SearchType;
 import org.nzbhydra.searching.dtoseventsenums.FallbackSearchInitiatedEvent;
 import org.nzbhydra.searching.dtoseventsenums.IndexerSearchFinishedEvent;
 import org.nzbhydra.searching.dtoseventsenums.IndexerSelectionEvent;
+import org.nzbhydra.searching.dtoseventsenums.PartialSearchResultsEvent;
 import org.nzbhydra.searching.dtoseventsenums.SearchMessageEvent;
 import org.nzbhydra.searching.dtoseventsenums.SearchRequestParameters;
+import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequestFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.access.annotation.Secured;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 public class SearchWeb {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchWeb.class);
+    private static final String SEARCH_STATE_TOPIC = "/topic/searchState/";
+    private static final int NUMBER_OF_NEWEST_RESULTS = 10;
 
     @Autowired
     private Searcher searcher;
@@ -53,8 +69,8 @@ public class SearchWeb {
     private SimpMessageSendingOperations messagingTemplate;
     @Autowired
     private CustomQueryAndTitleMappingHandler customQueryAndTitleMappingHandler;
-
-    private final Lock lock = new ReentrantLock();
+    @Autowired
+    private SearchAdmission searchAdmission;
 
     private final Map<Long, SearchState> searchStates = ExpiringMap.builder()
             .maxSize(10)
@@ -69,20 +85,31 @@ public class SearchWeb {
         SearchRequest searchRequest = createSearchRequest(parameters);
         Stopwatch stopwatch = Stopwatch.createStarted();
         logger.info("New search request: {}", searchRequest);
-        org.nzbhydra.searching.SearchResult searchResult = searcher.search(searchRequest);
+        org.nzbhydra.searching.SearchResult searchResult;
+        //Web searches block a server thread just like API searches so they share the same limit
+        try (SearchAdmission.Permit ignored = searchAdmission.acquire()) {
+            searchResult = searcher.search(searchRequest);
+        }
 
         SearchResponse searchResponse = searchResultProcessor.createSearchResponse(searchResult);
 
-        lock.lock();
-        SearchState searchState = searchStates.get(searchRequest.getSearchRequestId());
-        searchState.setSearchFinished(true);
-        sendSearchState(searchState);
-        lock.unlock();
+        updateSearchState(searchRequest.getSearchRequestId(), (searchState, update) -> {
+            searchState.setSearchFinished(true);
+            update.setSearchFinished(true);
+            return true;
+        });
 
         logger.info("Web search took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return searchResponse;
     }
 
+    @ExceptionHandler(value = SearchRejectedException.class)
+    public ResponseEntity<String> handleRejectedSearch(SearchRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(e.getMessage());
+    }
+
     @Secured({"ROLE_USER"})
     @RequestMapping(value = "/internalapi/shortcutSearch/{searchRequestId}", method = RequestMethod.POST)
     public void shortcutSearch(@PathVariable Long searchRequestId) {
@@ -91,8 +118,36 @@ public class SearchWeb {
     }
 
 
-    private void sendSearchState(SearchState searchState) {
-        messagingTemplate.convertAndSend("/topic/searchState", searchState);
+    /**
+     * Called by the UI after it subscribed to the search's topic. Sends the complete state so that no updates sent before are missed.
+     */
+    @MessageMapping("/connectSearchState/{searchRequestId}")
+    @SendTo(SEARCH_STATE_TOPIC + "{searchRequestId}")
+    public SearchStateUpdate connectSearchState(@DestinationVariable long searchRequestId) {
+        SearchState searchState = searchStates.get(searchRequestId);
+        if (searchState == null) {
+            return null;
+        }
+        synchronized (searchState) {
+            return SearchStateUpdate.complete(searchState);
+        }
+    }
+
+    /**
+     * Applies the change to the search's state and sends the update if the updater returns true. Only updates of the same search need to be
+     * ordered, so each search is locked on its own.
+     */
+    private void updateSearchState(long searchRequestId, BiPredicate<SearchState, SearchStateUpdate> updater) {
+        SearchState searchState = searchStates.get(searchRequestId);
+        if (searchState == null) {
+            return;
+        }
+        synchronized (searchState) {
+            SearchStateUpdate update = new SearchStateUpdate(searchRequestId);
+            if (updater.test(searchState, update)) {
+                messagingTemplate.convertAndSend(SEARCH_STATE_TOPIC + searchRequestId, update);
+            }
+        }
     }
 
 
@@ -156,58 +211,84 @@ public class SearchWeb {
         //Initialize messages for this search request
         final SearchState searchState = new SearchState(searchRequest.getSearchRequestId());
         searchStates.put(searchRequest.getSearchRequestId(), searchState);
-        sendSearchState(searchState);
+        messagingTemplate.convertAndSend(SEARCH_STATE_TOPIC + searchRequest.getSearchRequestId(), SearchStateUpdate.complete(searchState));
 
         return searchRequest;
     }
 
     @EventListener
     public void handleSearchMessageEvent(SearchMessageEvent event) {
-        if (searchStates.containsKey(event.getSearchRequest().getSearchRequestId())) {
-            lock.lock();
-            SearchState searchState = searchStates.get(event.getSearchRequest().getSearchRequestId());
-            if (!searchState.getMessages().contains(event.getMessage())) {
-                searchState.getMessages().add(event.getMessage());
-                searchState.getMessages().sort(Comparator.comparing(x -> x.getMessageSortValue().toLowerCase(Locale.ROOT)));
-                sendSearchState(searchState);
+        updateSearchState(event.getSearchRequest().getSearchRequestId(), (searchState, update) -> {
+            if (searchState.getMessages().contains(event.getMessage())) {
+                return false;
             }
-            lock.unlock();
-        }
+            searchState.getMessages().add(event.getMessage());
+            searchState.getMessages().sort(Comparator.comparing(x -> x.getMessageSortValue().toLowerCase(Locale.ROOT)));
+            update.setMessages(Collections.singletonList(event.getMessage()));
+            return true;
+        });
     }
 
     @EventListener
     public void handleIndexerSelectionEvent(IndexerSelectionEvent event) {
-        if (searchStates.containsKey(event.getSearchRequest().getSearchRequestId())) {
-            lock.lock();
-            SearchState searchState = searchStates.get(event.getSearchRequest().getSearchRequestId());
+        updateSearchState(event.getSearchRequest().getSearchRequestId(), (searchState, update) -> {
             searchState.setIndexerSelectionFinished(true);
             searchState.setIndexersSelected(event.getIndexersSelected());
-            lock.unlock();
-            sendSearchState(searchState);
-        }
+            update.setIndexerSelectionFinished(true);
+            update.setIndexersSelected(event.getIndexersSelected());
+            return true;
+        });
     }
 
     @EventListener
     public void handleFallbackSearchInitatedEvent(FallbackSearchInitiatedEvent event) {
         //An indexer will do a fallback search, meaning we'll have to wait for another indexer search. On the GUI side that's the same as if one more indexer had been selected
-        if (searchStates.containsKey(event.getSearchRequest().getSearchRequestId())) {
-            lock.lock();
-            SearchState searchState = searchStates.get(event.getSearchRequest().getSearchRequestId());
+        updateSearchState(event.getSearchRequest().getSearchRequestId(), (searchState, update) -> {
             searchState.setIndexersSelected(searchState.getIndexersSelected() + 1);
-            lock.unlock();
-            sendSearchState(searchState);
+            update.setIndexersSelected(searchState.getIndexersSelected());
+            return true;
+        });
+    }
+
+    /**
+     * Runs asynchronously because the event is published while the search collects results. Only the number of results and the newest
+     * ones are kept, that's all the UI shows until the search is finished.
+     */
+    @Async
+    @EventListener
+    public void handlePartialSearchResultsEvent(PartialSearchResultsEvent event) {
+        long searchRequestId = event.getSearchRequest().getSearchRequestId();
+        if (!searchStates.containsKey(searchRequestId)) {
+            return;
         }
+        List<SearchStateResult> newestResults = getNewestResults(event.getSearchResultItems().stream().map(SearchWeb::toSearchStateResult));
+        updateSearchState(searchRequestId, (searchState, update) -> {
+            searchState.setNumberOfResults(searchState.getNumberOfResults() + event.getSearchResultItems().size());
+            searchState.setNewestResults(getNewestResults(Stream.concat(searchState.getNewestResults().stream(), newestResults.stream())));
+            update.setNumberOfResults(searchState.getNumberOfResults());
+            update.setNewestResults(new ArrayList<>(searchState.getNewestResults()));
+            return true;
+        });
+    }
+
+    private static SearchStateResult toSearchStateResult(SearchResultItem item) {
+        return new SearchStateResult(item.getTitle(), item.getIndexer().getName(), InternalSearchResultProcessor.getAge(item.getBestDate()), item.getBestDate().getEpochSecond());
+    }
+
+    private static List<SearchStateResult> getNewestResults(Stream<SearchStateResult> results) {
+        return results
+            .sorted(Comparator.comparingLong(SearchStateResult::getEpoch).reversed())
+            .limit(NUMBER_OF_NEWEST_RESULTS)
+            .collect(Collectors.toList());
     }
 
     @EventListener
     public void handleIndexerSearchFinishedEvent(IndexerSearchFinishedEvent event) {
-        if (searchStates.containsKey(event.getSearchRequest().getSearchRequestId())) {
-            lock.lock();
-            SearchState searchState = searchStates.get(event.getSearchRequest().getSearchRequestId());
+        updateSearchState(event.getSearchRequest().getSearchRequestId(), (searchState, update) -> {
             searchState.setIndexersFinished(searchState.getIndexersFinished() + 1);
-            lock.unlock();
-            sendSearchState(searchState);
-        }
+            update.setIndexersFinished(searchState.getIndexersFinished());
+            return true;
+        });
     }
 
 }
@@ -9,19 +9,19 @@ import net.jodah.expiringmap.ExpirationPolicy;
 import net.jodah.expiringmap.ExpiringMap;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.SearchSource;
+import org.nzbhydra.debuginfos.HydraMetrics;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.indexers.IndexerSearchEntity;
 import org.nzbhydra.indexers.IndexerSearchRepository;
 import org.nzbhydra.logging.LoggingMarkers;
-import org.nzbhydra.logging.MdcThreadPoolExecutor;
 import org.nzbhydra.searching.IndexerForSearchSelector.IndexerForSearchSelection;
 import org.nzbhydra.searching.db.IdentifierKeyValuePair;
 import org.nzbhydra.searching.db.SearchEntity;
 import org.nzbhydra.searching.db.SearchRepository;
-import org.nzbhydra.searching.db.SearchResultEntity;
-import org.nzbhydra.searching.db.SearchResultRepository;
+import org.nzbhydra.searching.db.SearchResultWriteQueue;
 import org.nzbhydra.searching.dtoseventsenums.DuplicateDetectionResult;
 import org.nzbhydra.searching.dtoseventsenums.IndexerSearchResult;
+import org.nzbhydra.searching.dtoseventsenums.PartialSearchResultsEvent;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.slf4j.Logger;
@@ -31,22 +31,24 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Component
@@ -64,20 +66,22 @@ public class Searcher {
     @Autowired
     private SearchRepository searchRepository;
     @Autowired
-    private SearchResultRepository searchResultRepository;
+    private SearchResultWriteQueue searchResultWriteQueue;
     @Autowired
     protected IndexerForSearchSelector indexerSelector;
     @Autowired
     private ApplicationEventPublisher eventPublisher;
     @Autowired
     private ConfigProvider configProvider;
-    private final Set<ExecutorService> executors = Collections.synchronizedSet(new HashSet<>());
+    @Autowired
+    protected IndexerSearchExecutor indexerSearchExecutor;
     private final Map<Long, List<Future<IndexerSearchResult>>> searchCallables = ExpiringMap.builder()
             .maxSize(10)
             .expiration(5, TimeUnit.MINUTES) //This should be more than enough... Nobody will wait that long
             .expirationPolicy(ExpirationPolicy.ACCESSED)
             .build();
     private boolean shutdownRequested = false;
+    private final AtomicInteger runningSearches = new AtomicInteger();
 
     /**
      * Maps a search request's hash to its cache entry
@@ -91,9 +95,33 @@ public class Searcher {
 
     @Transactional
     public SearchResult search(SearchRequest searchRequest) {
+        runningSearches.incrementAndGet();
+        try {
+            return doSearch(searchRequest);
+        } finally {
+            runningSearches.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of searches currently running. Background tasks may use this to keep the database free for them
+     */
+    public int getNumberOfRunningSearches() {
+        return runningSearches.get();
+    }
+
+    private SearchResult doSearch(SearchRequest searchRequest) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         eventPublisher.publishEvent(new SearchEvent(searchRequest));
         SearchCacheEntry searchCacheEntry = getSearchCacheEntry(searchRequest);
+        if (!searchCacheEntry.getPendingIndexerSearches().isEmpty()) {
+            logger.debug("Waiting for searches of {} which were still running when the previous request returned", String.join(", ", searchCacheEntry.getPendingIndexerSearches().values()));
+            try {
+                collectIndexerSearchResults(searchRequest, searchCacheEntry, null);
+            } catch (InterruptedException e) {
+                logger.error("Unexpected error while searching", e);
+            }
+        }
 
         SearchResult searchResult = new SearchResult();
         int numberOfWantedResults = searchRequest.getOffset() + searchRequest.getLimit();
@@ -141,10 +169,15 @@ public class Searcher {
 
             searchRequestCache.put(searchRequest.hashCode(), searchCacheEntry);
 
-            //todo: Would be better if duplicate detection would be executed when each indexer's search result items are filled from the new indexerSearchResults
-            //That way they wouldn't be considered eligable and this loop wouldn't be executed as often
-
-            DuplicateDetectionResult duplicateDetectionResult = duplicateDetector.detectDuplicates(new HashSet<>(searchResultItems));
+            //New results were already added to the duplicate index when their indexer search completed. The index is
+            //shared with other requests for the same search which add to it while collecting results
+            DuplicateDetectionResult duplicateDetectionResult;
+            searchCacheEntry.getCollectLock().lock();
+            try {
+                duplicateDetectionResult = duplicateDetector.detectDuplicates(searchCacheEntry.getDuplicateDetectionIndex(), searchResultItems);
+            } finally {
+                searchCacheEntry.getCollectLock().unlock();
+            }
 
             //Save to database
             createOrUpdateIndexerSearchEnties(searchCacheEntry);
@@ -183,6 +216,7 @@ public class Searcher {
         spliceSearchResultItemsAccordingToOffsetAndLimit(searchRequest, searchResult, searchResultItemsToReturn);
 
         logger.debug(LoggingMarkers.PERFORMANCE, "Internal search took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        HydraMetrics.recordSearch(searchRequest.getSource().name().toLowerCase(Locale.ROOT), stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return searchResult;
     }
 
@@ -257,9 +291,12 @@ public class Searcher {
     private void createOrUpdateIndexerSearchEnties(SearchCacheEntry searchCacheEntry) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         int countEntities = 0;
+        boolean keepHistory = configProvider.getBaseConfig().getMain().isKeepHistory();
 
         for (IndexerSearchCacheEntry indexerSearchCacheEntry : searchCacheEntry.getIndexerCacheEntries().values()) {
-            for (IndexerSearchResult indexerSearchResult : indexerSearchCacheEntry.getIndexerSearchResults()) {
+            List<IndexerSearchResult> indexerSearchResults = indexerSearchCacheEntry.getIndexerSearchResults();
+            //Results of previous loops or requests were already saved
+            for (IndexerSearchResult indexerSearchResult : indexerSearchResults.subList(indexerSearchCacheEntry.getNumberOfSavedIndexerSearchResults(), indexerSearchResults.size())) {
                 IndexerSearchEntity entity = indexerSearchCacheEntry.getIndexerSearchEntity();
                 if (entity == null) {
                     entity = new IndexerSearchEntity();
@@ -267,18 +304,17 @@ public class Searcher {
                     entity.setSearchEntity(searchCacheEntry.getSearchEntity());
                     entity.setResultsCount(indexerSearchResult.getTotalResults());
                     entity.setSuccessful(indexerSearchResult.isWasSuccessful());
+                    if (keepHistory) {
+                        entity = indexerSearchRepository.save(entity);
+                        countEntities++;
+                    }
                     indexerSearchCacheEntry.setIndexerSearchEntity(entity);
                 }
-                if (configProvider.getBaseConfig().getMain().isKeepHistory()) {
-                    entity = indexerSearchRepository.save(entity);
-                    for (SearchResultEntity x : indexerSearchResult.getSearchResultEntities()) {
-                        x.setIndexerSearchEntityId(entity.getId());
-                    }
+                if (keepHistory) {
+                    searchResultWriteQueue.link(indexerSearchResult.getSearchResultEntities(), entity.getId());
                 }
-                searchResultRepository.saveAll(indexerSearchResult.getSearchResultEntities());
-                searchCacheEntry.getIndexerCacheEntries().get(indexerSearchResult.getIndexer().getName()).setIndexerSearchEntity(entity);
-                countEntities++;
             }
+            indexerSearchCacheEntry.setNumberOfSavedIndexerSearchResults(indexerSearchResults.size());
         }
         logger.debug(LoggingMarkers.PERFORMANCE, "Saving {} indexer search entities took {}ms", countEntities, stopwatch.elapsed(TimeUnit.MILLISECONDS));
     }
@@ -323,7 +359,12 @@ public class Searcher {
             searchCacheEntry.getIndexerCacheEntries().putIfAbsent(selectedIndexer.getName(), new IndexerSearchCacheEntry(selectedIndexer));
         }
 
+        Collection<String> indexersWithPendingSearches = searchCacheEntry.getPendingIndexerSearches().values();
         for (IndexerSearchCacheEntry indexerSearchCacheEntry : searchCacheEntry.getIndexerCacheEntries().values()) {
+            if (indexersWithPendingSearches.contains(indexerSearchCacheEntry.getIndexer().getName())) {
+                //Results will be added when the search completes
+                continue;
+            }
             final int executedSearches = indexerSearchCacheEntry.getIndexerSearchResults().size();
             if (!searchCacheEntry.getSearchRequest().isLoadAll() && executedSearches >= MAX_QUERIES_UNTIL_BREAK) {
                 //Circuit breaker
@@ -358,25 +399,71 @@ public class Searcher {
             indexerSearchResults.put(entry.getIndexer(), entry.getIndexerSearchResults());
         }
 
-        ExecutorService executor = MdcThreadPoolExecutor.newWithInheritedMdc(indexersToSearch.size());
-        executors.add(executor);
-
         List<IndexerCallable> callables = getRegisteredCallables(searchRequest, indexersToSearch);
 
         try {
             List<Future<IndexerSearchResult>> futures = new ArrayList<>();
             for (IndexerCallable callable : callables) {
-                Future<IndexerSearchResult> future = executor.submit(callable.callable());
-//                searchCallables.put(new SearchFutureEntry(searchRequest.getSearchRequestId(), callable.indexerName()), future);
+                //Completed searches are put into the cache entry's queue so that searches still running after an early return can be collected by the next request
+                CompletionService<IndexerSearchResult> completionService = indexerSearchExecutor.newCompletionService(callable.indexerName(), searchCacheEntry.getCompletedIndexerSearches());
+                Future<IndexerSearchResult> future = completionService.submit(callable.callable());
+                searchCacheEntry.getPendingIndexerSearches().put(future, callable.indexerName());
                 futures.add(future);
             }
             searchCallables.put(searchRequest.getSearchRequestId(), futures);
 
-            for (Future<IndexerSearchResult> future : futures) {
+            collectIndexerSearchResults(searchRequest, searchCacheEntry, getEarlyReturnDeadline(searchRequest));
+        } catch (InterruptedException e) {
+            logger.error("Unexpected error while searching", e);
+        }
+        handleIndexersWithFailedFutureExecutions(indexersToSearch, indexerSearchResults);
+    }
+
+    /**
+     * Takes the indexer searches from the cache entry's queue in the order they complete and adds their results to the cache entry.
+     * Concurrent requests for the same cache entry collect one after the other. Waits at most the configured indexer timeout for
+     * the next search to complete, searches still running after that are collected by the next request.
+     *
+     * @param earlyReturnDeadline If not null the method will return after this time if enough results are loaded, even if some searches are still running
+     */
+    protected void collectIndexerSearchResults(SearchRequest searchRequest, SearchCacheEntry searchCacheEntry, Instant earlyReturnDeadline) throws InterruptedException {
+        searchCacheEntry.getCollectLock().lockInterruptibly();
+        try {
+            long timeoutMillis = getLongestIndexerTimeoutMillis(searchCacheEntry);
+            while (!searchCacheEntry.getPendingIndexerSearches().isEmpty()) {
+                long waitMillis = timeoutMillis;
+                boolean waitingForDeadline = false;
+                if (earlyReturnDeadline != null) {
+                    long millisUntilDeadline = Duration.between(Instant.now(), earlyReturnDeadline).toMillis();
+                    if (millisUntilDeadline <= 0 && isEnoughResultsLoaded(searchRequest, searchCacheEntry)) {
+                        logger.info("Returning early with {} loaded results. Results from {} will be used for the next page", searchCacheEntry.getNumberOfFoundResults(), String.join(", ", searchCacheEntry.getPendingIndexerSearches().values()));
+                        return;
+                    }
+                    if (millisUntilDeadline > 0) {
+                        waitMillis = millisUntilDeadline;
+                        waitingForDeadline = true;
+                    }
+                }
+                Future<IndexerSearchResult> future = searchCacheEntry.getCompletedIndexerSearches().poll(waitMillis, TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    if (waitingForDeadline) {
+                        continue;
+                    }
+                    logger.warn("No indexer search completed within {}ms. Results from {} will be used for the next page", waitMillis, String.join(", ", searchCacheEntry.getPendingIndexerSearches().values()));
+                    return;
+                }
+                if (searchCacheEntry.getPendingIndexerSearches().remove(future) == null) {
+                    //Already collected
+                    continue;
+                }
                 try {
                     IndexerSearchResult indexerSearchResult = future.get();
                     searchCacheEntry.getIndexerCacheEntries().get(indexerSearchResult.getIndexer().getName()).addIndexerSearchResult(indexerSearchResult);
-                    indexerSearchResults.put(indexerSearchResult.getIndexer(), searchCacheEntry.getIndexerCacheEntries().get(indexerSearchResult.getIndexer().getName()).getIndexerSearchResults());
+                    duplicateDetector.addToIndex(searchCacheEntry.getDuplicateDetectionIndex(), indexerSearchResult.getSearchResultItems());
+                    if (!indexerSearchResult.getSearchResultItems().isEmpty()) {
+                        //Handled asynchronously so a copy is passed
+                        eventPublisher.publishEvent(new PartialSearchResultsEvent(searchRequest, new ArrayList<>(indexerSearchResult.getSearchResultItems())));
+                    }
                 } catch (ExecutionException e) {
                     logger.error("Unexpected error while searching", e);
                 } catch (CancellationException e) {
@@ -384,13 +471,32 @@ public class Searcher {
                     searchRequest.setShortcut(true);
                 }
             }
-        } catch (InterruptedException e) {
-            logger.error("Unexpected error while searching", e);
         } finally {
-            executor.shutdownNow(); //Need to explicitly shutdown executor for threads to be closed
-            executors.remove(executor);
+            searchCacheEntry.getCollectLock().unlock();
         }
-        handleIndexersWithFailedFutureExecutions(indexersToSearch, indexerSearchResults);
+    }
+
+    private long getLongestIndexerTimeoutMillis(SearchCacheEntry searchCacheEntry) {
+        int defaultTimeout = configProvider.getBaseConfig().getSearching().getTimeout();
+        int timeout = searchCacheEntry.getIndexerCacheEntries().values().stream()
+            .mapToInt(x -> x.getIndexer().getConfig().getTimeout().orElse(defaultTimeout))
+            .max()
+            .orElse(defaultTimeout);
+        //Give the search a second to complete after the indexer timed out
+        return TimeUnit.SECONDS.toMillis(timeout + 1);
+    }
+
+    private Instant getEarlyReturnDeadline(SearchRequest searchRequest) {
+        if (searchRequest.getSource() != SearchSource.API || searchRequest.isLoadAll()) {
+            return null;
+        }
+        return configProvider.getBaseConfig().getSearching().getApiEarlyReturnSeconds()
+            .map(seconds -> Instant.now().plusSeconds(seconds))
+            .orElse(null);
+    }
+
+    private boolean isEnoughResultsLoaded(SearchRequest searchRequest, SearchCacheEntry searchCacheEntry) {
+        return searchCacheEntry.getNumberOfFoundResults() >= searchRequest.getOffset() + searchRequest.getLimit();
     }
 
     public void shortcutSearch(Long searchRequestId) {
@@ -441,20 +547,6 @@ public class Searcher {
     @PreDestroy
     public void onShutdown() {
         shutdownRequested = true;
-        synchronized (executors) {
-            if (!executors.isEmpty()) {
-                logger.debug("Waiting up to 10 seconds for {} background tasks to finish", executors.size());
-            }
-            for (ExecutorService executorService : executors) {
-                executorService.shutdown();
-                try {
-                    executorService.awaitTermination(10, TimeUnit.SECONDS);
-                } catch (InterruptedException e) {
-                    logger.warn("Waited too long for termination of task, interrupting");
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
     }
 
     @Getter
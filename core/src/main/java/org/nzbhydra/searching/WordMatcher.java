@@ -0,0 +1,96 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Precompiled list of required or forbidden words. Words containing "." or "-" may be found anywhere in the title,
+ * all other words must match a complete title word. Titles and title words passed to the matcher must be lower case.
+ */
+public class WordMatcher {
+
+    private final Set<String> wholeWords = new LinkedHashSet<>();
+    private final AhoCorasickMatcher partialWords;
+    private final AhoCorasickMatcher allWords;
+
+    public WordMatcher(Collection<String> words) {
+        List<String> partial = new ArrayList<>();
+        List<String> all = new ArrayList<>();
+        for (String word : words) {
+            String lowerCaseWord = word.toLowerCase();
+            all.add(lowerCaseWord);
+            if (word.contains(".") || word.contains("-")) {
+                partial.add(lowerCaseWord);
+            } else {
+                wholeWords.add(lowerCaseWord);
+            }
+        }
+        partialWords = new AhoCorasickMatcher(partial);
+        allWords = new AhoCorasickMatcher(all);
+    }
+
+    public boolean isEmpty() {
+        return allWords.isEmpty();
+    }
+
+    /**
+     * @param matchPartially if true all words may be found anywhere in the title, not only those containing "." or "-"
+     * @return the first word found in the title
+     */
+    public Optional<String> findAny(String lowerCaseTitle, Set<String> titleWords, boolean matchPartially) {
+        if (matchPartially) {
+            return allWords.findAny(lowerCaseTitle);
+        }
+        Optional<String> found = partialWords.findAny(lowerCaseTitle);
+        if (found.isPresent()) {
+            return found;
+        }
+        for (String wholeWord : wholeWords) {
+            if (titleWords.contains(wholeWord)) {
+                return Optional.of(wholeWord);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the first word not found in the title
+     */
+    public Optional<String> findMissing(String lowerCaseTitle, Set<String> titleWords) {
+        for (String wholeWord : wholeWords) {
+            if (!titleWords.contains(wholeWord)) {
+                return Optional.of(wholeWord);
+            }
+        }
+        if (!partialWords.isEmpty()) {
+            BitSet found = partialWords.findAll(lowerCaseTitle);
+            int firstMissing = found.nextClearBit(0);
+            if (firstMissing < partialWords.size()) {
+                return Optional.of(partialWords.getPattern(firstMissing));
+            }
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching.cleanup;
+
+import com.google.common.base.Stopwatch;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.nzbhydra.searching.Searcher;
+import org.nzbhydra.tasks.HydraTaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes old rows in chunks. Every chunk is deleted in its own transaction so that tables are never locked for long.
+ * <p>
+ * The chunk size is adapted so that deleting a chunk takes about {@link #TARGET_CHUNK_MILLIS}. After every chunk the deleter
+ * pauses as long as the chunk took and it waits while searches are running, so searches don't have to wait for the database.
+ * The progress is shown in the list of tasks.
+ */
+@Component
+public class ChunkedDeleter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedDeleter.class);
+
+    static final long TARGET_CHUNK_MILLIS = 250;
+    static final int MIN_CHUNK_SIZE = 500;
+    static final int MAX_CHUNK_SIZE = 1_000_000;
+    private static final int INITIAL_CHUNK_SIZE = 10_000;
+    private static final long SEARCH_WAIT_MILLIS = 500;
+    //Don't wait forever if searches are running all the time
+    private static final long MAX_SEARCH_WAIT_MILLIS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Searcher searcher;
+    private final HydraTaskScheduler hydraTaskScheduler;
+
+    public ChunkedDeleter(JdbcTemplate jdbcTemplate, Searcher searcher, HydraTaskScheduler hydraTaskScheduler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.searcher = searcher;
+        this.hydraTaskScheduler = hydraTaskScheduler;
+    }
+
+    /**
+     * Deletes all rows with a value lower than the given one in the ID column. The rows are deleted in ID ranges, so the
+     * column should be ordered by time (i.e. generated by a sequence) and indexed.
+     *
+     * @return the number of deleted rows
+     */
+    public long deleteBelow(String taskName, String description, String table, String idColumn, long belowId) {
+        Map<String, Object> idRange = jdbcTemplate.queryForMap("SELECT MIN(" + idColumn + ") AS LOWEST, MAX(" + idColumn + ") AS HIGHEST FROM " + table);
+        Number lowestId = (Number) idRange.get("LOWEST");
+        if (lowestId == null || lowestId.longValue() >= belowId) {
+            logger.debug(LoggingMarkers.HISTORY_CLEANUP, "No {} to delete", description);
+            return 0;
+        }
+        //No need to go through the range of IDs which don't exist (yet)
+        long endId = Math.min(belowId, ((Number) idRange.get("HIGHEST")).longValue() + 1);
+        String sql = "DELETE FROM " + table + " WHERE " + idColumn + " >= ? AND " + idColumn + " < ?";
+        long[] nextId = {lowestId.longValue()};
+        return deleteInChunks(taskName, description, chunkSize -> {
+            long toId = Math.min(nextId[0] + chunkSize, endId);
+            int deleted = jdbcTemplate.update(sql, nextId[0], toId);
+            nextId[0] = toId;
+            return new Chunk(deleted, toId >= endId);
+        });
+    }
+
+    /**
+     * Deletes all rows matching the condition. For tables which can't be deleted by ID ranges, e.g. because the IDs are hashes.
+     * Every chunk has to find the rows matching the condition, so the condition should be backed by an index.
+     *
+     * @param condition  SQL condition for the table's rows, which are aliased as "t"
+     * @param parameters the condition's parameters
+     * @return the number of deleted rows
+     */
+    public long deleteMatching(String taskName, String description, String table, String condition, Object... parameters) {
+        return deleteMatching(taskName, description, table, () -> {
+        }, condition, parameters);
+    }
+
+    /**
+     * @param afterChunk called after every chunk which deleted rows
+     * @see #deleteMatching(String, String, String, String, Object...)
+     */
+    public long deleteMatching(String taskName, String description, String table, Runnable afterChunk, String condition, Object... parameters) {
+        return deleteMatchingByKey(taskName, description, table, "ID", afterChunk, condition, parameters);
+    }
+
+    /**
+     * For tables without an ID column, e.g. with a composite primary key. H2's "_ROWID_" can be used as the key column.
+     *
+     * @param keyColumn column which identifies the table's rows
+     * @see #deleteMatching(String, String, String, String, Object...)
+     */
+    public long deleteMatchingByKey(String taskName, String description, String table, String keyColumn, String condition, Object... parameters) {
+        return deleteMatchingByKey(taskName, description, table, keyColumn, () -> {
+        }, condition, parameters);
+    }
+
+    private long deleteMatchingByKey(String taskName, String description, String table, String keyColumn, Runnable afterChunk, String condition, Object... parameters) {
+        String sql = "DELETE FROM " + table + " WHERE " + keyColumn + " IN (SELECT t." + keyColumn + " FROM " + table + " t WHERE " + condition + " LIMIT ?)";
+        return deleteInChunks(taskName, description, chunkSize -> {
+            Object[] parametersWithLimit = Arrays.copyOf(parameters, parameters.length + 1);
+            parametersWithLimit[parameters.length] = chunkSize;
+            int deleted = jdbcTemplate.update(sql, parametersWithLimit);
+            if (deleted > 0) {
+                afterChunk.run();
+            }
+            return new Chunk(deleted, deleted < chunkSize);
+        });
+    }
+
+    private long deleteInChunks(String taskName, String description, ChunkDeletion chunkDeletion) {
+        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting {}", description);
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long deleted = 0;
+        int chunkSize = INITIAL_CHUNK_SIZE;
+        boolean done = false;
+        while (!done) {
+            if (!waitForRunningSearches()) {
+                logger.info("Interrupted while deleting {}. Deleted {} so far", description, deleted);
+                break;
+            }
+            Stopwatch chunkStopwatch = Stopwatch.createStarted();
+            Chunk chunk = chunkDeletion.deleteChunk(chunkSize);
+            long chunkMillis = chunkStopwatch.elapsed(TimeUnit.MILLISECONDS);
+            deleted += chunk.deleted();
+            done = chunk.last();
+            logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleted {} {} in {}ms with chunk size {}", chunk.deleted(), description, chunkMillis, chunkSize);
+            chunkSize = adaptChunkSize(chunkSize, chunkMillis);
+            hydraTaskScheduler.reportProgress(taskName, String.format("Deleting %s: %d deleted (%d/s)", description, deleted, getRowsPerSecond(deleted, stopwatch)));
+            if (!done && !pause(chunkMillis)) {
+                break;
+            }
+        }
+        hydraTaskScheduler.reportProgress(taskName, String.format("Deleted %d %s in %ds (%d/s)", deleted, description, stopwatch.elapsed(TimeUnit.SECONDS), getRowsPerSecond(deleted, stopwatch)));
+        logger.debug(LoggingMarkers.PERFORMANCE, "Deleting {} {} took {}ms", deleted, description, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        return deleted;
+    }
+
+    static int adaptChunkSize(int chunkSize, long chunkMillis) {
+        if (chunkMillis > TARGET_CHUNK_MILLIS) {
+            return Math.max(MIN_CHUNK_SIZE, chunkSize / 2);
+        }
+        if (chunkMillis < TARGET_CHUNK_MILLIS / 2) {
+            return Math.min(MAX_CHUNK_SIZE, chunkSize * 2);
+        }
+        return chunkSize;
+    }
+
+    /**
+     * @return false if interrupted
+     */
+    private boolean waitForRunningSearches() {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        while (searcher.getNumberOfRunningSearches() > 0 && stopwatch.elapsed(TimeUnit.MILLISECONDS) < MAX_SEARCH_WAIT_MILLIS) {
+            if (!pause(SEARCH_WAIT_MILLIS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return false if interrupted
+     */
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long getRowsPerSecond(long deleted, Stopwatch stopwatch) {
+        return deleted * 1000 / Math.max(1, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private record Chunk(int deleted, boolean last) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkDeletion {
+        Chunk deleteChunk(int chunkSize);
+    }
+
+}
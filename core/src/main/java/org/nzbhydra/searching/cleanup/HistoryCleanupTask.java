@@ -19,42 +19,41 @@ package org.nzbhydra.searching.cleanup;
 import com.google.common.base.Stopwatch;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.logging.LoggingMarkers;
-import org.nzbhydra.misc.Sleep;
 import org.nzbhydra.tasks.HydraTask;
+import org.nzbhydra.tasks.HydraTaskScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 @Component
 public class HistoryCleanupTask {
 
-    private enum ASC_DESC {
-        ASC,
-        DESC
-    }
+    static final String TASK_NAME = "Delete old history entries";
 
     @Autowired
     private ConfigProvider configProvider;
     @Autowired
-    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ChunkedDeleter chunkedDeleter;
+    @Autowired
+    private HydraTaskScheduler hydraTaskScheduler;
 
     private static final Logger logger = LoggerFactory.getLogger(HistoryCleanupTask.class);
 
     private static final long HOUR = 1000 * 60 * 60;
 
-    @HydraTask(configId = "deleteOldHistory", name = "Delete old history entries", interval = HOUR)
+    @HydraTask(configId = "deleteOldHistory", name = TASK_NAME, interval = HOUR)
     public void deleteOldResults() {
         Stopwatch stopwatch = Stopwatch.createStarted();
         Integer keepSearchResultsForWeeks = configProvider.getBaseConfig().getMain().getKeepHistoryForWeeks();
@@ -66,25 +65,26 @@ public class HistoryCleanupTask {
             return;
         }
 
-        try (Connection connection = dataSource.getConnection()) {
-            Optional<Integer> optionalHighestId;
+        long deleted = 0;
+        try {
+            Optional<Long> optionalHighestId;
             Instant deleteOlderThanHistory;
             if (keepHistory) {
                 int keepDays = keepSearchResultsForWeeks * 7;
                 logger.info("Starting deletion of old history entries older than {} days", keepDays);
                 deleteOlderThanHistory = Instant.now().minus(keepDays, ChronoUnit.DAYS);
-                optionalHighestId = getIdBefore(deleteOlderThanHistory, "SEARCH", ASC_DESC.DESC, connection);
+                optionalHighestId = getIdBefore(deleteOlderThanHistory, "SEARCH");
             } else {
-                optionalHighestId = Optional.of(Integer.MAX_VALUE);
+                optionalHighestId = Optional.of((long) Integer.MAX_VALUE);
                 deleteOlderThanHistory = Instant.now();
             }
 
             if (optionalHighestId.isPresent()) {
-                int highestId = optionalHighestId.get();
+                long highestId = optionalHighestId.get();
                 logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Will delete all entries for search IDs lower than {}", highestId);
-                deleteOldIdentifiers(highestId, connection);
+                deleted += deleteOldIdentifiers(highestId);
 
-                deleteOldIndexerSearches(highestId, connection);
+                deleted += deleteOldIndexerSearches(highestId);
             }
 
             Instant deleteOlderThanStats;
@@ -93,110 +93,76 @@ public class HistoryCleanupTask {
             } else {
                 deleteOlderThanStats = deleteOlderThanHistory;
             }
-            deleteOldIndexerApiAccesses(deleteOlderThanStats, connection);
+            deleted += deleteOldIndexerApiAccesses(deleteOlderThanStats);
+            deleted += deleteOldRollups("STATS_INDEXERAPIACCESS_HOURLY", "hourly indexer API access stats", deleteOlderThanStats);
+            deleted += deleteOldRollups("STATS_SEARCH_HOURLY", "hourly search stats", deleteOlderThanHistory);
 
             if (optionalHighestId.isPresent()) {
-                deleteOldSearches(optionalHighestId.get(), connection);
+                deleted += deleteOldSearches(optionalHighestId.get());
             }
 
-            optionalHighestId = getIdBefore(deleteOlderThanHistory, "INDEXERNZBDOWNLOAD", ASC_DESC.DESC, connection);
+            optionalHighestId = getIdBefore(deleteOlderThanHistory, "INDEXERNZBDOWNLOAD");
             if (optionalHighestId.isPresent()) {
-                deleteOldDownloads(optionalHighestId.get(), connection);
+                deleted += deleteOldDownloads(optionalHighestId.get());
             }
-        } catch (SQLException e) {
-            logger.error("Error while executing SQL", e);
+        } catch (DataAccessException e) {
+            logger.error("Error while deleting old history entries", e);
         }
+        hydraTaskScheduler.reportProgress(TASK_NAME, String.format("Deleted %d entries in %ds", deleted, stopwatch.elapsed(TimeUnit.SECONDS)));
         logger.info("Deletion of old history entries finished");
         logger.debug(LoggingMarkers.PERFORMANCE, "Cleanup of history took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
     }
 
-    public void deleteOldIndexerSearches(Integer searchId, Connection connection) {
-        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting old indexer searches");
-        deleteOldEntries(searchId, "delete from INDEXERSEARCH where SEARCH_ENTITY_ID < ? and rownum() < 10000", "Deleted {} indexer searches from database", connection);
+    public long deleteOldIndexerSearches(long searchId) {
+        return chunkedDeleter.deleteBelow(TASK_NAME, "indexer searches", "INDEXERSEARCH", "SEARCH_ENTITY_ID", searchId);
     }
 
-    public void deleteOldIdentifiers(Integer searchId, Connection connection) {
-        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting old identifiers");
-        deleteOldEntries(searchId, "delete from SEARCH_IDENTIFIERS where SEARCH_ENTITY_ID < ? and rownum() < 10000", "Deleted {} search identifiers from database", connection);
+    public long deleteOldIdentifiers(long searchId) {
+        long deleted = chunkedDeleter.deleteBelow(TASK_NAME, "search identifiers", "SEARCH_IDENTIFIERS", "SEARCH_ENTITY_ID", searchId);
         //Find the lowest searchIdentifierKey. All value pairs referencing a lower ID than that can be deleted
-        int identifierId;
-        try (PreparedStatement statement = connection.prepareStatement("select IDENTIFIERS_ID from SEARCH_IDENTIFIERS order by IDENTIFIERS_ID asc limit 1;")) {
-            ResultSet resultSet = statement.executeQuery();
-            if (!resultSet.next()) {
-                logger.debug(LoggingMarkers.HISTORY_CLEANUP, "No older identifiers to delete");
-                return;
-            }
-            identifierId = resultSet.getInt(1);
-
-        } catch (SQLException e) {
-            logger.error("Error while executing SQL", e);
-            return;
+        List<Long> identifierIds = jdbcTemplate.queryForList("select IDENTIFIERS_ID from SEARCH_IDENTIFIERS order by IDENTIFIERS_ID asc limit 1", Long.class);
+        if (identifierIds.isEmpty()) {
+            logger.debug(LoggingMarkers.HISTORY_CLEANUP, "No older identifiers to delete");
+            return deleted;
         }
 
-        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting old identifier key value pairs");
-        deleteOldEntries(identifierId, "delete from IDENTIFIER_KEY_VALUE_PAIR where ID < ? and rownum() < 10000", "Deleted {} identifier key value pairs from database", connection);
+        return deleted + chunkedDeleter.deleteBelow(TASK_NAME, "identifier key value pairs", "IDENTIFIER_KEY_VALUE_PAIR", "ID", identifierIds.get(0));
     }
 
-    public void deleteOldIndexerApiAccesses(Instant deleteOlderThan, Connection connection) {
-        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting old indexer API accesses");
-        Optional<Integer> optionalId = getIdBefore(deleteOlderThan, "INDEXERAPIACCESS", ASC_DESC.DESC, connection);
+    public long deleteOldIndexerApiAccesses(Instant deleteOlderThan) {
+        Optional<Long> optionalId = getIdBefore(deleteOlderThan, "INDEXERAPIACCESS");
         if (optionalId.isEmpty()) {
             logger.debug(LoggingMarkers.HISTORY_CLEANUP, "No older indexer API accesses to delete");
-            return;
+            return 0;
         }
 
-        deleteOldEntries(optionalId.get(), "delete from INDEXERAPIACCESS where ID < ? and rownum() < 10000", "Deleted {} indexer API accesses from database", connection);
+        return chunkedDeleter.deleteBelow(TASK_NAME, "indexer API accesses", "INDEXERAPIACCESS", "ID", optionalId.get());
     }
 
-    public void deleteOldSearches(Integer searchId, Connection connection) {
-        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting old searches");
-        deleteOldEntries(searchId, "delete from SEARCH where ID < ? and rownum() < 10000", "Deleted {} searches from database", connection);
+    /**
+     * The hourly aggregates maintained by StatsRollups are kept as long as the rows they were aggregated from.
+     */
+    public long deleteOldRollups(String table, String description, Instant deleteOlderThan) {
+        return chunkedDeleter.deleteMatchingByKey(TASK_NAME, description, table, "_ROWID_", "t.HOUR_START < ?", new Timestamp(deleteOlderThan.toEpochMilli()));
     }
 
-    public void deleteOldDownloads(Integer downloadId, Connection connection) {
-        logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Deleting old downloads");
-        deleteOldEntries(downloadId, "delete from indexernzbdownload where id < ? ", "Deleted {} downloads from database", connection);
-        try (PreparedStatement statement = connection.prepareStatement("delete from INDEXERNZBDOWNLOAD where SEARCH_RESULT_ID is null")) {
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            logger.error("Error while executing SQL", e);
-        }
+    public long deleteOldSearches(long searchId) {
+        return chunkedDeleter.deleteBelow(TASK_NAME, "searches", "SEARCH", "ID", searchId);
     }
 
-    @SuppressWarnings("SqlResolve")
-    private Optional<Integer> getIdBefore(Instant deleteOlderThan, final String tableName, ASC_DESC ascDesc, Connection connection) {
-        try (PreparedStatement statement = connection.prepareStatement("select t.id from " + tableName + " t where t.time < ? order by id " + ascDesc + " limit 1")) {
-            statement.setTimestamp(1, new Timestamp(deleteOlderThan.toEpochMilli()));
-            ResultSet resultSet = statement.executeQuery();
-            if (!resultSet.next()) {
-                logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Did not find any entry in table {} older than {}", tableName, deleteOlderThan);
-                return Optional.empty();
-            }
-            return Optional.of(resultSet.getInt(1));
-        } catch (SQLException e) {
-            logger.error("Error while executing SQL", e);
-            return Optional.empty();
-        }
+    public long deleteOldDownloads(long downloadId) {
+        long deleted = chunkedDeleter.deleteBelow(TASK_NAME, "downloads", "INDEXERNZBDOWNLOAD", "ID", downloadId);
+        return deleted + chunkedDeleter.deleteMatching(TASK_NAME, "downloads without search result", "INDEXERNZBDOWNLOAD", "t.SEARCH_RESULT_ID is null");
     }
 
-    public void deleteOldEntries(int lowerThan, String sql, String loggerMessage, Connection connection) {
-        try {
-            int deletedEntities = 0;
-            int lastDeletedEntities;
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                do {
-                    statement.setInt(1, lowerThan);
-                    lastDeletedEntities = statement.executeUpdate();
-                    deletedEntities += lastDeletedEntities;
-                    //Commit and sleep a bit to release locks and give the rest of the program time to read or write from or to db
-                    connection.commit();
-                    Sleep.sleep(20);
-                    logger.debug(LoggingMarkers.HISTORY_CLEANUP, loggerMessage, deletedEntities);
-                } while (lastDeletedEntities > 0);
-            }
-        } catch (SQLException e) {
-            logger.error("Error while executing SQL", e);
+    @SuppressWarnings("SqlResolve")
+    private Optional<Long> getIdBefore(Instant deleteOlderThan, final String tableName) {
+        List<Long> ids = jdbcTemplate.queryForList("select t.id from " + tableName + " t where t.time < ? order by id desc limit 1", Long.class, new Timestamp(deleteOlderThan.toEpochMilli()));
+        if (ids.isEmpty()) {
+            logger.debug(LoggingMarkers.HISTORY_CLEANUP, "Did not find any entry in table {} older than {}", tableName, deleteOlderThan);
+            return Optional.empty();
         }
+        return Optional.of(ids.get(0));
     }
 
 }
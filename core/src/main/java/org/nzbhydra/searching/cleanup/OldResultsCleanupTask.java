@@ -17,18 +17,18 @@
 package org.nzbhydra.searching.cleanup;
 
 import com.google.common.base.Stopwatch;
-import jakarta.persistence.EntityManager;
 import org.nzbhydra.NzbHydra;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.logging.LoggingMarkers;
+import org.nzbhydra.searching.db.SearchResultWriteQueue;
 import org.nzbhydra.tasks.HydraTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
@@ -38,25 +38,27 @@ import java.util.stream.Stream;
 @Component
 public class OldResultsCleanupTask {
 
+    static final String TASK_NAME = "Delete old search results";
+
     @Autowired
     private ConfigProvider configProvider;
     @Autowired
-    private EntityManager entityManager;
+    private ChunkedDeleter chunkedDeleter;
+    @Autowired
+    private SearchResultWriteQueue searchResultWriteQueue;
 
     private static final Logger logger = LoggerFactory.getLogger(OldResultsCleanupTask.class);
 
     private static final long HOUR = 1000 * 60 * 60;
 
-    @HydraTask(configId = "deleteOldSearchResults", name = "Delete old search results", interval = HOUR)
-    @Transactional
+    @HydraTask(configId = "deleteOldSearchResults", name = TASK_NAME, interval = HOUR)
     public void deleteOldResults() {
         Stopwatch stopwatch = Stopwatch.createStarted();
         int keepSearchResultsForDays = configProvider.getBaseConfig().getSearching().getKeepSearchResultsForDays();
-        String sqlString = "delete from SEARCHRESULT where FIRST_FOUND "
-                + " < DATEADD('SECOND', :epochSecond, DATE '1970-01-01') " +
-                "AND ID not in (select SEARCH_RESULT_ID from INDEXERNZBDOWNLOAD where SEARCH_RESULT_ID is not null)";
-        sqlString = sqlString.replace(":epochSecond", String.valueOf(Instant.now().minus(keepSearchResultsForDays, ChronoUnit.DAYS).getEpochSecond()));
-        int deletedResults = entityManager.createNativeQuery(sqlString).executeUpdate();
+        Timestamp deleteOlderThan = Timestamp.from(Instant.now().minus(keepSearchResultsForDays, ChronoUnit.DAYS));
+        //Deleted results must be written again when they're found again
+        long deletedResults = chunkedDeleter.deleteMatching(TASK_NAME, "unused search results", "SEARCHRESULT", searchResultWriteQueue::forgetPersistedIds,
+            "t.FIRST_FOUND < ? AND NOT EXISTS (SELECT 1 FROM INDEXERNZBDOWNLOAD d WHERE d.SEARCH_RESULT_ID = t.ID)", deleteOlderThan);
         if (deletedResults > 0) {
             logger.debug("Deleted {} unused search results from database that were older than {} days", deletedResults, keepSearchResultsForDays);
         } else {
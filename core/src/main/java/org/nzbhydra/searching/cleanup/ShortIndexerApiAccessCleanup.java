@@ -17,6 +17,7 @@
 package org.nzbhydra.searching.cleanup;
 
 import com.google.common.base.Stopwatch;
+import org.nzbhydra.indexers.IndexerAccessTracker;
 import org.nzbhydra.indexers.IndexerApiAccessEntityShortRepository;
 import org.nzbhydra.logging.LoggingMarkers;
 import org.nzbhydra.tasks.HydraTask;
@@ -35,6 +36,8 @@ public class ShortIndexerApiAccessCleanup {
 
     @Autowired
     private IndexerApiAccessEntityShortRepository repository;
+    @Autowired
+    private IndexerAccessTracker indexerAccessTracker;
 
     private static final Logger logger = LoggerFactory.getLogger(ShortIndexerApiAccessCleanup.class);
 
@@ -44,7 +47,9 @@ public class ShortIndexerApiAccessCleanup {
     @Transactional
     public void deleteOldResults() {
         Stopwatch stopwatch = Stopwatch.createStarted();
-        int deletedResults = repository.deleteByTimeBefore(Instant.now().minus(2, ChronoUnit.DAYS));
+        Instant deleteBefore = Instant.now().minus(2, ChronoUnit.DAYS);
+        int deletedResults = repository.deleteByTimeBefore(deleteBefore);
+        indexerAccessTracker.removeBefore(deleteBefore);
         if (deletedResults > 0) {
             logger.debug("Deleted {} indexer API accesses from short term storage", deletedResults);
         }
@@ -18,18 +18,24 @@ package org.nzbhydra.searching.db;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
-import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 
-public interface SearchResultRepository extends JpaRepository<SearchResultEntity, Long> {
+/**
+ * Search results are written in the background by {@link SearchResultWriteQueue}. Methods which read them are implemented
+ * in {@link SearchResultRepositoryCustomImpl} so that queued results are written first.
+ */
+public interface SearchResultRepository extends JpaRepository<SearchResultEntity, Long>, SearchResultRepositoryCustom {
+
+    //Redeclared because the methods in CrudRepository and SearchResultRepositoryCustom have different erasures and calls would be ambiguous
+
+    @Override
+    Optional<SearchResultEntity> findById(Long id);
 
-    @Query("select x.id from SearchResultEntity x where x.id in :ids")
-    Set<Long> findAllIdsByIdIn(@Param("ids") List<Long> ids);
+    @Override
+    boolean existsById(Long id);
 
-    Set<SearchResultEntity> findAllByTitleLikeIgnoreCase(String title);
-    Set<SearchResultEntity> findAllByTitleLike(String title);
+    @Override
+    SearchResultEntity getReferenceById(Long id);
 
 }
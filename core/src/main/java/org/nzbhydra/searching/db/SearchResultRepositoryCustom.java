@@ -0,0 +1,57 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching.db;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface SearchResultRepositoryCustom {
+
+    /**
+     * Overrides the default implementation to make sure results which were just found are resolvable.
+     */
+    Optional<SearchResultEntity> findById(Long id);
+
+    SearchResultEntity getReferenceById(Long id);
+
+    /**
+     * Same as {@link #findById(Long)} for multiple results, loaded with one query.
+     */
+    List<SearchResultEntity> findAllById(Iterable<Long> ids);
+
+    Set<Long> findAllIdsByIdIn(List<Long> ids);
+
+    Set<SearchResultEntity> findAllByTitleLikeIgnoreCase(String title);
+
+    Set<SearchResultEntity> findAllByTitleLike(String title);
+
+    boolean existsById(Long id);
+
+    List<SearchResultEntity> findAll();
+
+    List<SearchResultEntity> findAll(Sort sort);
+
+    Page<SearchResultEntity> findAll(Pageable pageable);
+
+    long count();
+
+}
@@ -0,0 +1,135 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class SearchResultRepositoryCustomImpl implements SearchResultRepositoryCustom {
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    @Lazy
+    private SearchResultWriteQueue searchResultWriteQueue;
+
+    @Override
+    public Optional<SearchResultEntity> findById(Long id) {
+        searchResultWriteQueue.flushIfPending(id);
+        return Optional.ofNullable(entityManager.find(SearchResultEntity.class, id));
+    }
+
+    @Override
+    public SearchResultEntity getReferenceById(Long id) {
+        searchResultWriteQueue.flushIfPending(id);
+        return entityManager.getReference(SearchResultEntity.class, id);
+    }
+
+    @Override
+    public List<SearchResultEntity> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        for (Long id : ids) {
+            searchResultWriteQueue.flushIfPending(id);
+            idList.add(id);
+        }
+        if (idList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return entityManager.createQuery("select r from SearchResultEntity r where r.id in :ids", SearchResultEntity.class)
+            .setParameter("ids", idList)
+            .getResultList();
+    }
+
+    @Override
+    public Set<Long> findAllIdsByIdIn(List<Long> ids) {
+        ids.forEach(searchResultWriteQueue::flushIfPending);
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(entityManager.createQuery("select r.id from SearchResultEntity r where r.id in :ids", Long.class)
+            .setParameter("ids", ids)
+            .getResultList());
+    }
+
+    @Override
+    public Set<SearchResultEntity> findAllByTitleLikeIgnoreCase(String title) {
+        searchResultWriteQueue.flushIfAnyPending();
+        return new HashSet<>(entityManager.createQuery("select r from SearchResultEntity r where upper(r.title) like upper(:title)", SearchResultEntity.class)
+            .setParameter("title", title)
+            .getResultList());
+    }
+
+    @Override
+    public Set<SearchResultEntity> findAllByTitleLike(String title) {
+        searchResultWriteQueue.flushIfAnyPending();
+        return new HashSet<>(entityManager.createQuery("select r from SearchResultEntity r where r.title like :title", SearchResultEntity.class)
+            .setParameter("title", title)
+            .getResultList());
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        searchResultWriteQueue.flushIfPending(id);
+        return entityManager.find(SearchResultEntity.class, id) != null;
+    }
+
+    @Override
+    public List<SearchResultEntity> findAll() {
+        searchResultWriteQueue.flushIfAnyPending();
+        return entityManager.createQuery("select r from SearchResultEntity r", SearchResultEntity.class).getResultList();
+    }
+
+    @Override
+    public List<SearchResultEntity> findAll(Sort sort) {
+        searchResultWriteQueue.flushIfAnyPending();
+        return entityManager.createQuery(QueryUtils.applySorting("select r from SearchResultEntity r", sort, "r"), SearchResultEntity.class).getResultList();
+    }
+
+    @Override
+    public Page<SearchResultEntity> findAll(Pageable pageable) {
+        searchResultWriteQueue.flushIfAnyPending();
+        TypedQuery<SearchResultEntity> query = entityManager.createQuery(QueryUtils.applySorting("select r from SearchResultEntity r", pageable.getSort(), "r"), SearchResultEntity.class);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(query.getResultList());
+        }
+        List<SearchResultEntity> content = query
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+        return new PageImpl<>(content, pageable, count());
+    }
+
+    @Override
+    public long count() {
+        searchResultWriteQueue.flushIfAnyPending();
+        return entityManager.createQuery("select count(r) from SearchResultEntity r", Long.class).getSingleResult();
+    }
+
+}
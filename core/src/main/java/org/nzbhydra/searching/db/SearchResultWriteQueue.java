@@ -0,0 +1,274 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.nzbhydra.debuginfos.HydraMetrics;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes search results to the database in the background. Results found by concurrent searches are collected and
+ * inserted in JDBC batches. Results are only removed from the queue after they were committed so that
+ * {@link #flushIfPending(long)} and {@link #flushIfAnyPending()} can make sure search results can be read even if they were only just found.
+ * Writes always use their own transaction, independent of any transaction of the reading caller which triggered them.
+ * All repository methods which read search results must call one of them first, see {@link SearchResultRepositoryCustom}.
+ */
+@Component
+public class SearchResultWriteQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchResultWriteQueue.class);
+
+    //Only inserts results that don't exist yet so that the first found date and the indexer search of existing results are kept
+    private static final String INSERT_SQL = "MERGE INTO SEARCHRESULT t USING (SELECT CAST(? AS BIGINT) AS ID) s ON t.ID = s.ID " +
+        "WHEN NOT MATCHED THEN INSERT (ID, INDEXER_ID, FIRST_FOUND, TITLE, INDEXERGUID, LINK, DETAILS, DOWNLOAD_TYPE, PUB_DATE, INDEXERSEARCHENTITY) " +
+        "VALUES (s.ID, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    //Results which can't be written are dropped after this many attempts so that they're not retried forever
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final String LINK_SQL = "UPDATE SEARCHRESULT SET INDEXERSEARCHENTITY = ? WHERE ID = ? AND INDEXERSEARCHENTITY IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long writeDelayMs;
+
+    private final Map<Long, SearchResultEntity> pendingInserts = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> pendingLinks = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> failedWriteAttempts = new ConcurrentHashMap<>();
+    //IDs of results which were written (or found to exist) recently. Saves us from queuing them again for every search
+    private final Cache<Long, Boolean> persistedIds = Caffeine.newBuilder().maximumSize(100_000).build();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SearchResultWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SearchResultWriteQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, @Value("${nzbhydra.searchResults.writeBatchSize:1000}") int batchSize, @Value("${nzbhydra.searchResults.writeDelayMs:500}") long writeDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        //A flush may be triggered by a read inside a transaction. Writing in that transaction would make the queue depend on its outcome
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.writeDelayMs = writeDelayMs;
+    }
+
+    @PostConstruct
+    public void startWriter() {
+        executor.scheduleWithFixedDelay(this::flushSafely, writeDelayMs, writeDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return true if the result was queued, false if it's already queued or known to exist in the database
+     */
+    public boolean add(SearchResultEntity entity) {
+        if (persistedIds.getIfPresent(entity.getId()) != null) {
+            return false;
+        }
+        boolean added = pendingInserts.putIfAbsent(entity.getId(), entity) == null;
+        if (added && pendingInserts.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::flushSafely);
+        }
+        return added;
+    }
+
+    /**
+     * Queues the assignment of the given search results to the indexer search which found them first.
+     */
+    public void link(Collection<SearchResultEntity> entities, int indexerSearchEntityId) {
+        for (SearchResultEntity entity : entities) {
+            entity.setIndexerSearchEntityId(indexerSearchEntityId);
+            pendingLinks.putIfAbsent(entity.getId(), indexerSearchEntityId);
+        }
+    }
+
+    public boolean isPending(long id) {
+        return pendingInserts.containsKey(id);
+    }
+
+    /**
+     * Writes all queued results if the result with the given ID is among them. Must be called before a result is loaded by its ID.
+     */
+    public void flushIfPending(long id) {
+        if (isPending(id)) {
+            logger.debug(LoggingMarkers.PERFORMANCE, "Search result with ID {} requested before it was written. Writing queued results now", id);
+            flush();
+        }
+    }
+
+    /**
+     * Writes all queued results. Must be called before results are queried by anything other than their IDs (e.g. their titles).
+     */
+    public void flushIfAnyPending() {
+        if (!pendingInserts.isEmpty() || !pendingLinks.isEmpty()) {
+            logger.debug(LoggingMarkers.PERFORMANCE, "Search results queried while {} were queued. Writing queued results now", pendingInserts.size());
+            flush();
+        }
+    }
+
+    /**
+     * Must be called after search results were deleted from the database so that they will be written again when found again.
+     */
+    public void forgetPersistedIds() {
+        persistedIds.invalidateAll();
+    }
+
+    public int getQueueSize() {
+        return pendingInserts.size();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushScheduled.set(false);
+            writeInserts();
+            writeLinks();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error while writing search results to database", e);
+        }
+    }
+
+    private void writeInserts() {
+        if (pendingInserts.isEmpty()) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<SearchResultEntity> entities = new ArrayList<>(pendingInserts.values());
+        int written = 0;
+        for (List<SearchResultEntity> batch : Lists.partition(entities, batchSize)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream().map(this::toInsertParameters).toList()));
+                batch.forEach(this::markWritten);
+                written += batch.size();
+            } catch (DataAccessException e) {
+                logger.warn("Unable to write batch of {} search results. Will try to write them one by one", batch.size(), e);
+                written += writeOneByOne(batch);
+            }
+        }
+        logger.debug(LoggingMarkers.PERFORMANCE, "Writing {} search results took {}ms", written, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        HydraMetrics.recordResultsWrite(written, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private int writeOneByOne(List<SearchResultEntity> batch) {
+        int written = 0;
+        for (SearchResultEntity entity : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, toInsertParameters(entity)));
+                markWritten(entity);
+                written++;
+            } catch (DataAccessException e) {
+                int attempts = failedWriteAttempts.merge(entity.getId(), 1, Integer::sum);
+                if (attempts >= MAX_WRITE_ATTEMPTS) {
+                    logger.error("Unable to save search result \"{}\" to the database. Giving up after {} attempts", entity.getTitle(), attempts, e);
+                    failedWriteAttempts.remove(entity.getId());
+                    pendingInserts.remove(entity.getId(), entity);
+                    pendingLinks.remove(entity.getId());
+                } else {
+                    logger.warn("Unable to save search result \"{}\" to the database. Will try again", entity.getTitle(), e);
+                }
+            }
+        }
+        return written;
+    }
+
+    private void markWritten(SearchResultEntity entity) {
+        persistedIds.put(entity.getId(), true);
+        failedWriteAttempts.remove(entity.getId());
+        pendingInserts.remove(entity.getId(), entity);
+    }
+
+    private void writeLinks() {
+        if (pendingLinks.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> links = new ArrayList<>(pendingLinks.entrySet());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(LINK_SQL, links.stream().map(x -> new Object[]{x.getValue(), x.getKey()}).toList()));
+        } catch (DataAccessException e) {
+            logger.error("Unable to assign {} search results to their indexer searches", links.size(), e);
+        }
+        for (Map.Entry<Long, Integer> link : links) {
+            pendingLinks.remove(link.getKey(), link.getValue());
+        }
+    }
+
+    private Object[] toInsertParameters(SearchResultEntity entity) {
+        return new Object[]{
+            entity.getId(),
+            entity.getIndexer().getId(),
+            toTimestamp(entity.getFirstFound()),
+            entity.getTitle(),
+            entity.getIndexerGuid(),
+            entity.getLink(),
+            entity.getDetails(),
+            entity.getDownloadType() == null ? null : entity.getDownloadType().name(),
+            toTimestamp(entity.getPubDate()),
+            entity.getIndexerSearchEntityId()
+        };
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+
+}
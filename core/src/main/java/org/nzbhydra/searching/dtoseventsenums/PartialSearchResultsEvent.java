@@ -0,0 +1,40 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.searching.dtoseventsenums;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+import org.nzbhydra.springnative.ReflectionMarker;
+
+import java.util.List;
+
+/**
+ * Published when the accepted results of an indexer search were added to the search while other indexers may still be searching.
+ * Duplicates are not yet detected.
+ */
+@Data
+@ReflectionMarker
+@AllArgsConstructor
+@NoArgsConstructor
+public class PartialSearchResultsEvent {
+
+    private SearchRequest searchRequest;
+    private List<SearchResultItem> searchResultItems;
+
+}
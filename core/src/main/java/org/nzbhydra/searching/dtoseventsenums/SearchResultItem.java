@@ -20,7 +20,9 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 import org.nzbhydra.config.category.Category;
 import org.nzbhydra.config.downloading.DownloadType;
 import org.nzbhydra.indexers.Indexer;
@@ -32,11 +34,14 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Data
 @ReflectionMarker
 public class SearchResultItem  {
 
+    private static final Pattern CHARACTERS_IGNORED_FOR_DUPLICATES = Pattern.compile("[ .\\-_]");
+
     public enum HasNfo {
         NO,
         YES,
@@ -81,6 +86,23 @@ public class SearchResultItem  {
     @NotEmpty
     private String title;
     private Instant usenetDate;
+    @Setter(AccessLevel.NONE)
+    private String normalizedTitle;
+
+    public void setTitle(String title) {
+        this.title = title;
+        normalizedTitle = null;
+    }
+
+    /**
+     * @return The title in lower case without spaces, dots, dashes and underscores. Results with the same normalized title may be duplicates.
+     */
+    public String getNormalizedTitle() {
+        if (normalizedTitle == null && title != null) {
+            normalizedTitle = CHARACTERS_IGNORED_FOR_DUPLICATES.matcher(title.toLowerCase()).replaceAll("");
+        }
+        return normalizedTitle;
+    }
 
     public Optional<Instant> getUsenetDate() {
         return Optional.ofNullable(usenetDate);
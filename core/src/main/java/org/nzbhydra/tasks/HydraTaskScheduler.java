@@ -63,6 +63,7 @@ public class HydraTaskScheduler implements BeanPostProcessor, SmartInitializingS
     private final Map<String, TaskRuntimeInformation> runtimeInformationMap = new HashMap<>();
     private final ConcurrentMap<HydraTask, TaskInformation> taskInformations = new ConcurrentHashMap<>();
     private final Map<String, ScheduledFuture> taskSchedules = new HashMap<>();
+    private final Map<String, String> taskProgress = new ConcurrentHashMap<>();
     private boolean shutdownRequested;
 
     @EventListener
@@ -130,10 +131,18 @@ public class HydraTaskScheduler implements BeanPostProcessor, SmartInitializingS
 
     public List<TaskInformation> getTasks() {
         List<TaskInformation> information = new ArrayList<>(taskInformations.values());
+        information.forEach(x -> x.setProgress(taskProgress.get(x.getName())));
         information.sort(Comparator.comparingLong(x -> x.nextExecutionTime.getEpochSecond()));
         return information;
     }
 
+    /**
+     * Sets the progress of a running task or the outcome of its last run which is shown in the list of tasks.
+     */
+    public void reportProgress(String taskName, String progress) {
+        taskProgress.put(taskName, progress);
+    }
+
     public void runNow(String taskName) {
         logger.info("Running task \"{}\" now", taskName);
         ScheduledFuture scheduledFuture = taskSchedules.get(taskName);
@@ -166,6 +175,13 @@ public class HydraTaskScheduler implements BeanPostProcessor, SmartInitializingS
         private String name;
         private Instant lastExecutionTime;
         private Instant nextExecutionTime;
+        private String progress;
+
+        public TaskInformation(String name, Instant lastExecutionTime, Instant nextExecutionTime) {
+            this.name = name;
+            this.lastExecutionTime = lastExecutionTime;
+            this.nextExecutionTime = nextExecutionTime;
+        }
     }
 
     @Data
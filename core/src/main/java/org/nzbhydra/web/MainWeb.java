@@ -25,6 +25,8 @@ public class MainWeb {
     private ConfigurableEnvironment environment;
     @Autowired
     private UserInfosProvider userInfos;
+    @Autowired
+    private StaticResourceUrls staticResourceUrls;
 
     private SafeConfig getSafeConfig() {
         return new SafeConfig(configProvider.getBaseConfig());
@@ -106,7 +108,7 @@ public class MainWeb {
         bootstrappedData.setBaseUrl(baseUrl);
         session.setAttribute("bootstrap", bootstrappedData);
         String theme = configProvider.getBaseConfig().getMain().getTheme();
-        session.setAttribute("cssUrl", "static/css/" + theme + ".css");
+        session.setAttribute("cssUrl", staticResourceUrls.get("css/" + theme + ".css"));
         session.setAttribute("disableBlockUi", System.getProperty("disableBlockUi", null) != null); //BlockUI overlays stuff and selenium thinks it's visible when it's not
     }
 
@@ -0,0 +1,201 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.web;
+
+import org.nzbhydra.mapping.newznab.NewznabResponse;
+import org.nzbhydra.mapping.newznab.xml.JaxbPubdateAdapter;
+import org.nzbhydra.mapping.newznab.xml.NewznabAttribute;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlApilimits;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlChannel;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlEnclosure;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlError;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlItem;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlResponse;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes newznab and torznab RSS responses directly to the given stream using StAX. Produces the same elements in the
+ * same order as the JAXB annotations on the model classes but only declares the attribute namespaces actually used, so
+ * the result doesn't have to be buffered and fixed afterwards.
+ */
+public class NewznabXmlWriter {
+
+    private static final String NEWZNAB_NAMESPACE = "http://www.newznab.com/DTD/2010/feeds/attributes/";
+    private static final String TORZNAB_NAMESPACE = "http://torznab.com/schemas/2015/feed";
+    private static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+
+    //XMLOutputFactory is not guaranteed to be thread safe
+    private static final ThreadLocal<XMLOutputFactory> OUTPUT_FACTORY = ThreadLocal.withInitial(XMLOutputFactory::newFactory);
+
+    private final JaxbPubdateAdapter pubdateAdapter = new JaxbPubdateAdapter();
+
+    /**
+     * Writes the complete document. The stream is flushed but not closed.
+     */
+    public void write(NewznabXmlRoot root, OutputStream outputStream) throws XMLStreamException {
+        XMLStreamWriter writer = OUTPUT_FACTORY.get().createXMLStreamWriter(outputStream, "UTF-8");
+        try {
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("rss");
+            boolean torznab = root.getSearchType() == NewznabResponse.SearchType.TORZNAB;
+            if (!torznab || usesNewznabElements(root) || hasAttributes(root, false)) {
+                writer.writeNamespace("newznab", NEWZNAB_NAMESPACE);
+            }
+            if (torznab || hasAttributes(root, true)) {
+                writer.writeNamespace("torznab", TORZNAB_NAMESPACE);
+            }
+            writer.writeNamespace("atom", ATOM_NAMESPACE);
+            writeAttribute(writer, "version", root.getVersion());
+            if (root.getRssChannel() != null) {
+                writeChannel(writer, root.getRssChannel());
+            }
+            if (root.getError() != null) {
+                writeError(writer, root.getError());
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static boolean usesNewznabElements(NewznabXmlRoot root) {
+        return root.getRssChannel() != null && (root.getRssChannel().getNewznabResponse() != null || root.getRssChannel().getApiLimits() != null);
+    }
+
+    /**
+     * Our own responses only contain the attributes matching the search type but passed through ones may contain both.
+     */
+    private static boolean hasAttributes(NewznabXmlRoot root, boolean torznab) {
+        if (root.getRssChannel() == null || root.getRssChannel().getItems() == null) {
+            return false;
+        }
+        for (NewznabXmlItem item : root.getRssChannel().getItems()) {
+            List<NewznabAttribute> attributes = torznab ? item.getTorznabAttributes() : item.getNewznabAttributes();
+            if (attributes != null && !attributes.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeChannel(XMLStreamWriter writer, NewznabXmlChannel channel) throws XMLStreamException {
+        writer.writeStartElement("channel");
+        writeElement(writer, "title", channel.getTitle());
+        writeElement(writer, "description", channel.getDescription());
+        writeElement(writer, "link", channel.getLink());
+        writeElement(writer, "language", channel.getLanguage());
+        writeElement(writer, "webMaster", channel.getWebMaster());
+        writeElement(writer, "generator", channel.getGenerator());
+        if (channel.getNewznabResponse() != null) {
+            NewznabXmlResponse response = channel.getNewznabResponse();
+            writer.writeEmptyElement("newznab", "response", NEWZNAB_NAMESPACE);
+            writeAttribute(writer, "offset", response.getOffset());
+            writeAttribute(writer, "total", response.getTotal());
+        }
+        if (channel.getApiLimits() != null) {
+            writeApiLimits(writer, channel.getApiLimits());
+        }
+        if (channel.getItems() != null) {
+            for (NewznabXmlItem item : channel.getItems()) {
+                writeItem(writer, item);
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    private void writeItem(XMLStreamWriter writer, NewznabXmlItem item) throws XMLStreamException {
+        writer.writeStartElement("item");
+        writeElement(writer, "title", item.getTitle());
+        writeElement(writer, "link", item.getLink());
+        if (item.getEnclosures() != null) {
+            for (NewznabXmlEnclosure enclosure : item.getEnclosures()) {
+                writer.writeEmptyElement("enclosure");
+                writeAttribute(writer, "url", enclosure.getUrl());
+                writeAttribute(writer, "length", enclosure.getLength());
+                writeAttribute(writer, "type", enclosure.getType());
+            }
+        }
+        writeElement(writer, "pubDate", pubdateAdapter.marshal(item.getPubDate()));
+        if (item.getRssGuid() != null) {
+            writer.writeStartElement("guid");
+            writer.writeAttribute("isPermaLink", String.valueOf(item.getRssGuid().isPermaLink()));
+            if (item.getRssGuid().getGuid() != null) {
+                writer.writeCharacters(item.getRssGuid().getGuid());
+            }
+            writer.writeEndElement();
+        }
+        writeElement(writer, "description", item.getDescription());
+        writeElement(writer, "comments", item.getComments());
+        writeElement(writer, "category", item.getCategory());
+        writeElement(writer, "grabs", item.getGrabs());
+        writeElement(writer, "size", item.getSize());
+        writeAttributes(writer, "newznab", NEWZNAB_NAMESPACE, item.getNewznabAttributes());
+        writeAttributes(writer, "torznab", TORZNAB_NAMESPACE, item.getTorznabAttributes());
+        writer.writeEndElement();
+    }
+
+    private void writeAttributes(XMLStreamWriter writer, String prefix, String namespace, List<NewznabAttribute> attributes) throws XMLStreamException {
+        if (attributes == null) {
+            return;
+        }
+        for (NewznabAttribute attribute : attributes) {
+            writer.writeEmptyElement(prefix, "attr", namespace);
+            writeAttribute(writer, "name", attribute.getName());
+            writeAttribute(writer, "value", attribute.getValue());
+        }
+    }
+
+    private void writeApiLimits(XMLStreamWriter writer, NewznabXmlApilimits apiLimits) throws XMLStreamException {
+        writer.writeEmptyElement("newznab", "apilimits", NEWZNAB_NAMESPACE);
+        writeAttribute(writer, "apiCurrent", apiLimits.getApiCurrent());
+        writeAttribute(writer, "apiMax", apiLimits.getApiMax());
+        writeAttribute(writer, "grabCurrent", apiLimits.getGrabCurrent());
+        writeAttribute(writer, "grabMax", apiLimits.getGrabMax());
+        writeAttribute(writer, "apioldesttime", pubdateAdapter.marshal(apiLimits.getApiOldestTime()));
+        writeAttribute(writer, "graboldesttime", pubdateAdapter.marshal(apiLimits.getGrabOldestTime()));
+    }
+
+    private static void writeError(XMLStreamWriter writer, NewznabXmlError error) throws XMLStreamException {
+        writer.writeEmptyElement("error");
+        writeAttribute(writer, "code", error.getCode());
+        writeAttribute(writer, "description", error.getDescription());
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String name, Object value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        writer.writeStartElement(name);
+        writer.writeCharacters(value.toString());
+        writer.writeEndElement();
+    }
+
+    private static void writeAttribute(XMLStreamWriter writer, String name, Object value) throws XMLStreamException {
+        if (value != null) {
+            writer.writeAttribute(name, value.toString());
+        }
+    }
+
+}
@@ -4,6 +4,9 @@ import org.nzbhydra.mapping.newznab.OutputType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 public class SessionStorage {
 
     private static final Logger logger = LoggerFactory.getLogger(SessionStorage.class);
@@ -21,5 +24,48 @@ public class SessionStorage {
     public static final ThreadLocal<OutputType> outputType =
             ThreadLocal.withInitial(() -> null);
 
+    /**
+     * Returns a supplier which calls the given supplier with the values of the current thread. Needed when work for a request is done in another thread.
+     */
+    public static <T> Supplier<T> withCurrentValues(Supplier<T> supplier) {
+        Function<Void, T> function = withCurrentValues(x -> supplier.get());
+        return () -> function.apply(null);
+    }
+
+    /**
+     * Same as {@link #withCurrentValues(Supplier)} for work which gets its input only when it's called (e.g. the stream of a response body).
+     */
+    public static <T, R> Function<T, R> withCurrentValues(Function<T, R> function) {
+        String currentUsername = username.get();
+        String currentIp = IP.get();
+        String currentOriginalIp = originalIp.get();
+        String currentUserAgent = userAgent.get();
+        String currentRequestUrl = requestUrl.get();
+        OutputType currentOutputType = outputType.get();
+        return argument -> {
+            String previousUsername = username.get();
+            String previousIp = IP.get();
+            String previousOriginalIp = originalIp.get();
+            String previousUserAgent = userAgent.get();
+            String previousRequestUrl = requestUrl.get();
+            OutputType previousOutputType = outputType.get();
+            set(currentUsername, currentIp, currentOriginalIp, currentUserAgent, currentRequestUrl, currentOutputType);
+            try {
+                return function.apply(argument);
+            } finally {
+                set(previousUsername, previousIp, previousOriginalIp, previousUserAgent, previousRequestUrl, previousOutputType);
+            }
+        };
+    }
+
+    private static void set(String usernameValue, String ipValue, String originalIpValue, String userAgentValue, String requestUrlValue, OutputType outputTypeValue) {
+        username.set(usernameValue);
+        IP.set(ipValue);
+        originalIp.set(originalIpValue);
+        userAgent.set(userAgentValue);
+        requestUrl.set(requestUrlValue);
+        outputType.set(outputTypeValue);
+    }
+
 
 }
@@ -0,0 +1,47 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.web;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+/**
+ * Provides URLs of static resources which contain a hash of the resource's content (e.g. "static/js/alllibs-[hash].js"),
+ * so browsers can cache them until they change. Used in the templates: <code>th:src="${@staticResourceUrls.get('js/alllibs.js')}"</code>
+ */
+@Component
+public class StaticResourceUrls {
+
+    private final ResourceUrlProvider resourceUrlProvider;
+
+    public StaticResourceUrls(ResourceUrlProvider resourceUrlProvider) {
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    /**
+     * @param path path of the resource in the static folder
+     * @return the URL relative to the base URL. Without the hash if the resource can't be found
+     */
+    public String get(String path) {
+        String url = resourceUrlProvider.getForLookupPath("/static/" + path);
+        if (url == null) {
+            return "static/" + path;
+        }
+        return url.substring(1);
+    }
+
+}
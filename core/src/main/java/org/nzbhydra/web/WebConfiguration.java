@@ -9,9 +9,11 @@ import org.nzbhydra.config.EmptyStringToNullDeserializer;
 import org.nzbhydra.config.EmptyStringToNullSerializer;
 import org.nzbhydra.mapping.newznab.NewznabResponse;
 import org.nzbhydra.mapping.newznab.OutputType;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,8 +36,11 @@ import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
 
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.stream.StreamResult;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -46,6 +51,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("unchecked")
 @Configuration(proxyBeanMethods = false)
@@ -53,18 +59,28 @@ public class WebConfiguration extends WebMvcConfigurationSupport {
 
     @Autowired
     private Interceptor interceptor;
+    /**
+     * Newznab and torznab API responses are written compactly unless this is set (e.g. for debugging)
+     */
+    @Value("${nzbhydra.prettyPrintApiResponses:false}")
+    private boolean prettyPrintApiResponses;
 
     private static final Logger logger = LoggerFactory.getLogger(WebConfiguration.class);
 
+    private static final String VERSIONED_STATIC_RESOURCES = "/static/*/{file:.+-[0-9a-f]{32}\\.[^.]+}";
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String[] locations = new String[]{"classpath:/static/"};
+        //Files in the data folder may be changed while running
+        boolean cacheResources = true;
         if (NzbHydra.getDataFolder() != null) {
             File staticFolderFile = new File(new File(NzbHydra.getDataFolder()), "static");
             try {
                 if (staticFolderFile.exists()) {
                     String fileStatic = staticFolderFile.toURI().toURL().toString();
                     locations = new String[]{fileStatic};
+                    cacheResources = false;
                     logger.warn("Found folder {}. Will load UI resources from there instead", staticFolderFile.getAbsolutePath());
                 } else {
                     logger.debug("Static resources folder {} does not exist - using baked in resources", staticFolderFile);
@@ -73,10 +89,11 @@ public class WebConfiguration extends WebMvcConfigurationSupport {
                 logger.error("Unable to build path for local static files");
             }
         }
-        registry.addResourceHandler("/static/**")
-                .addResourceLocations(locations)
-                .setCacheControl(CacheControl.noCache())
-                .resourceChain(false);
+        //The .gz and .br variants are created by the gulp build. Cache-Control is only set for resources which were found
+        //URLs containing the hash of the resource's content (see StaticResourceUrls) never change, so browsers may keep them for a year without asking again
+        addStaticResourceHandler(registry, locations, cacheResources, VERSIONED_STATIC_RESOURCES, CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+        //All other static resources must be revalidated
+        addStaticResourceHandler(registry, locations, cacheResources, "/static/**", CacheControl.noCache());
 
         //Otherwise swagger is not loaded using /swagger-ui/index.html
         registry.addResourceHandler("/swagger-ui/**")
@@ -90,6 +107,15 @@ public class WebConfiguration extends WebMvcConfigurationSupport {
     }
 
 
+    private static void addStaticResourceHandler(ResourceHandlerRegistry registry, String[] locations, boolean cacheResources, String pathPattern, CacheControl cacheControl) {
+        registry.addResourceHandler(pathPattern)
+                .addResourceLocations(locations)
+                .setCacheControl(cacheControl)
+                .resourceChain(cacheResources)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
     @Override
     protected void configurePathMatch(PathMatchConfigurer configurer) {
         configurer.setUseTrailingSlashMatch(true);
@@ -157,7 +183,7 @@ public class WebConfiguration extends WebMvcConfigurationSupport {
                 jacksonConverter.getObjectMapper().registerModule(simpleModule);
             }
         }
-        converters.add(0, new NewznabAndTorznabResponseNamespaceFixer(marshaller()));
+        converters.add(0, new NewznabAndTorznabResponseNamespaceFixer(marshaller(), prettyPrintApiResponses));
     }
 
 
@@ -165,10 +191,14 @@ public class WebConfiguration extends WebMvcConfigurationSupport {
 
         private final Jaxb2Marshaller marshaller;
         private final MappingJackson2HttpMessageConverter jacksonConverter = new MappingJackson2HttpMessageConverter();
+        private final NewznabXmlWriter newznabXmlWriter = new NewznabXmlWriter();
+        private final boolean prettyPrint;
 
 
-        public NewznabAndTorznabResponseNamespaceFixer(Jaxb2Marshaller marshaller) {
+        public NewznabAndTorznabResponseNamespaceFixer(Jaxb2Marshaller marshaller, boolean prettyPrint) {
             this.marshaller = marshaller;
+            this.prettyPrint = prettyPrint;
+            jacksonConverter.setPrettyPrint(prettyPrint);
         }
 
         @Override
@@ -196,8 +226,15 @@ public class WebConfiguration extends WebMvcConfigurationSupport {
         public void write(Object o, MediaType contentType, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
             NewznabResponse newznabResponse = (NewznabResponse) o;
             if (determineOutputType((NewznabResponse) o) == OutputType.JSON) {
-                jacksonConverter.setPrettyPrint(true);
                 jacksonConverter.write(o, MediaType.APPLICATION_JSON, outputMessage);
+            } else if (o instanceof NewznabXmlRoot newznabXmlRoot && !prettyPrint) {
+                //Written directly to the response, only caps and errors still go through JAXB
+                outputMessage.getHeaders().setContentType(MediaType.APPLICATION_XML);
+                try {
+                    newznabXmlWriter.write(newznabXmlRoot, outputMessage.getBody());
+                } catch (XMLStreamException e) {
+                    throw new HttpMessageNotWritableException("Unable to write newznab response", e);
+                }
             } else {
                 outputMessage.getHeaders().setContentType(MediaType.APPLICATION_XML);
                 ByteArrayOutputStream bos = new ByteArrayOutputStream();
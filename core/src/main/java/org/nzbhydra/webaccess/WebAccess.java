@@ -2,6 +2,7 @@ package org.nzbhydra.webaccess;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Stopwatch;
+import okhttp3.Call;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -22,8 +23,8 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.ConnectException;
-import java.net.SocketTimeoutException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -77,7 +78,28 @@ public class WebAccess {
         return callUrl(url, headers, timeout, builder);
     }
 
+    /**
+     * Calls the URL and passes the body of a successful response to the given reader while it's being received, without
+     * buffering it. Unsuccessful responses are handled like in {@link #callUrl(String, Map, int)}.
+     */
+    public <T> T readFromUrl(String url, Map<String, String> headers, int timeout, BodyReader<T> bodyReader) throws IOException {
+        return callUrl(url, headers, timeout, new Builder().url(url), bodyReader);
+    }
+
     private String callUrl(String url, Map<String, String> headers, int timeout, Builder builder) throws IOException {
+        return callUrl(url, headers, timeout, builder, body -> {
+            try {
+                return body.string();
+            } catch (InterruptedIOException e) {
+                //Call timed out while reading the body, don't return an incomplete response
+                throw e;
+            } catch (IOException e) {
+                return null;
+            }
+        });
+    }
+
+    private <T> T callUrl(String url, Map<String, String> headers, int timeout, Builder builder, BodyReader<T> bodyReader) throws IOException {
         for (Entry<String, String> entry : headers.entrySet()) {
             builder.addHeader(entry.getKey(), entry.getValue());
         }
@@ -87,14 +109,18 @@ public class WebAccess {
         OkHttpClient client = requestFactory.getOkHttpClient(request.url().uri().getHost(), timeout);
 
 
-        String bodyAsString;
-        try (Response response = client.newCall(request).execute(); ResponseBody body = response.body()) {
-            try {
-                bodyAsString = body == null ? null : body.string();
-            } catch (IOException e) {
-                bodyAsString = null;
-            }
+        Call call = client.newCall(request);
+        //Limit the whole call including reading the body. Give it one second more than the socket timeouts
+        call.timeout().timeout(timeout + 1L, TimeUnit.SECONDS);
+
+        try (Response response = call.execute(); ResponseBody body = response.body()) {
             if (!response.isSuccessful()) {
+                String bodyAsString;
+                try {
+                    bodyAsString = body == null ? null : body.string();
+                } catch (IOException e) {
+                    bodyAsString = null;
+                }
                 if (response.code() == 429) {
                     //No reason to log body of 429 errors, they all look more or less the same
                     logger.debug("Error 429 (Too many requests or API call limit exceeded) from {}", url);
@@ -110,8 +136,8 @@ public class WebAccess {
 
                 throw new WebAccessException(response.message(), bodyAsString, response.code());
             }
-            return bodyAsString;
-        } catch (ConnectException | SocketTimeoutException e) {
+            return body == null ? null : bodyReader.read(body);
+        } catch (ConnectException | InterruptedIOException e) {
             throw new WebAccessException(e);
         }
     }
@@ -145,4 +171,9 @@ public class WebAccess {
         }
     }
 
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(ResponseBody body) throws IOException;
+    }
+
 }
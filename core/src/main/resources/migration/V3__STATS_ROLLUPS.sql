@@ -0,0 +1,35 @@
+--Hourly aggregates of the search and indexer API access history so that the stats don't have to scan the whole history.
+--Maintained by StatsRollups. Rows with a TIME before ROLLED_UP_UNTIL of the source table are included, NULL means none
+
+create table STATS_ROLLUP_STATE
+(
+    NAME            CHARACTER VARYING(255) not null
+        primary key,
+    ROLLED_UP_UNTIL TIMESTAMP
+);
+
+insert into STATS_ROLLUP_STATE (NAME, ROLLED_UP_UNTIL)
+values ('SEARCH', null),
+       ('INDEXERAPIACCESS', null);
+
+create table STATS_SEARCH_HOURLY
+(
+    HOUR_START   TIMESTAMP              not null,
+    SOURCE       CHARACTER VARYING(255) not null,
+    USERNAME     CHARACTER VARYING(255) not null,
+    IP           CHARACTER VARYING(255) not null,
+    USER_AGENT   CHARACTER VARYING(255) not null,
+    SEARCH_COUNT BIGINT                 not null,
+    primary key (HOUR_START, SOURCE, USERNAME, IP, USER_AGENT)
+);
+
+create table STATS_INDEXERAPIACCESS_HOURLY
+(
+    HOUR_START          TIMESTAMP              not null,
+    INDEXER_ID          INTEGER                not null,
+    RESULT              CHARACTER VARYING(255) not null,
+    ACCESS_COUNT        BIGINT                 not null,
+    RESPONSE_TIME_SUM   BIGINT                 not null,
+    RESPONSE_TIME_COUNT BIGINT                 not null,
+    primary key (HOUR_START, INDEXER_ID, RESULT)
+);
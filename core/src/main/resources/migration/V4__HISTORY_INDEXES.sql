@@ -0,0 +1,15 @@
+--Indexes matching the order of the history pages (newest first, ID to break ties) so that a page can be read starting at the
+--last entry of the page before. They replace the indexes on TIME alone
+
+create index SEARCH_TIME_ID_INDEX
+    on SEARCH (TIME desc, ID desc);
+
+drop index SEARCH_TIME_INDEX;
+
+create index INDEXERNZBDOWNLOAD_TIME_ID_INDEX
+    on INDEXERNZBDOWNLOAD (TIME desc, ID desc);
+
+drop index INDEXERNZBDOWNLOAD_TIME_INDEX;
+
+create index NOTIFICATION_TIME_ID_INDEX
+    on NOTIFICATION (TIME desc, ID desc);
@@ -0,0 +1,4 @@
+--Lets the cleanup find old search results without reading all of them
+
+create index SEARCHRESULT_FIRST_FOUND_INDEX
+    on SEARCHRESULT (FIRST_FOUND);
@@ -947,16 +947,25 @@ angular
     .directive('hydraTasks', hydraTasks);
 
 function hydraTasks() {
-    controller.$inject = ["$scope", "$http"];
+    controller.$inject = ["$scope", "$http", "$interval"];
     return {
         templateUrl: 'static/html/directives/tasks.html',
         controller: controller
     };
 
-    function controller($scope, $http) {
+    function controller($scope, $http, $interval) {
+
+        function loadTasks() {
+            $http.get("internalapi/tasks").then(function (response) {
+                $scope.tasks = response.data;
+            });
+        }
 
-        $http.get("internalapi/tasks").then(function (response) {
-            $scope.tasks = response.data;
+        loadTasks();
+        //Keep the progress of running tasks up to date
+        var updateInterval = $interval(loadTasks, 5000);
+        $scope.$on("$destroy", function () {
+            $interval.cancel(updateInterval);
         });
 
         $scope.runTask = function (taskName) {
@@ -2662,23 +2671,42 @@ function downloadNzbzipButton() {
                     searchTitle = "";
                 }
                 var filename = "NZBHydra NZBs" + searchTitle + ".zip";
-                $http({method: "post", url: link, data: values}).then(function (response) {
-                    if (response.data.successful && response.data.zip !== null) {
-                        link = "internalapi/nzbzipDownload";
-                        FileDownloadService.downloadFile(link, filename, "POST", response.data.zipFilepath);
+                //The ZIP is streamed while the NZBs are downloaded. Which ones could be added is contained in the ZIP's comment
+                $http({method: "post", url: link, data: values, responseType: 'arraybuffer'}).then(function (response) {
+                    var result = readZipComment(response.data);
+                    if (result === null) {
+                        growl.error("Unable to read ZIP with NZBs");
+                    } else if (result.successful) {
+                        FileDownloadService.saveFile(response.data, filename);
                         if (angular.isDefined($scope.callback)) {
-                            $scope.callback({result: response.data.addedIds});
+                            $scope.callback({result: result.addedIds});
                         }
-                        if (response.data.missedIds.length > 0) {
-                            growl.error("Unable to add " + response.missedIds.length + " out of " + values.length + " NZBs to ZIP");
+                        if (result.missedIds.length > 0) {
+                            growl.error("Unable to add " + result.missedIds.length + " out of " + values.length + " NZBs to ZIP");
                         }
                     } else {
-                        growl.error(response.data.message);
+                        growl.error(result.message);
                     }
                 }, function (data, status, headers, config) {
                     growl.error(status);
                 });
             }
+        };
+
+        function readZipComment(buffer) {
+            var view = new DataView(buffer);
+            //The end of central directory record has 22 bytes followed by the comment
+            for (var offset = buffer.byteLength - 22; offset >= 0; offset--) {
+                if (view.getUint32(offset, true) === 0x06054b50) {
+                    var commentLength = view.getUint16(offset + 20, true);
+                    try {
+                        return JSON.parse(new TextDecoder("utf-8").decode(new Uint8Array(buffer, offset + 22, commentLength)));
+                    } catch (e) {
+                        return null;
+                    }
+                }
+            }
+            return null;
         }
     }
 }
@@ -6935,6 +6963,70 @@ function ConfigFields($injector) {
                                 help: '256 should suffice except when working with big databases / many indexers. See <a href="https://github.com/theotherp/nzbhydra2/wiki/Memory-requirements" target="_blank">wiki</a>.',
                                 advanced: true
                             }
+                        },
+                        {
+                            key: 'webServerThreads',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Web server threads',
+                                min: 5,
+                                help: 'Maximum number of requests handled at the same time. Should be higher than the number of concurrent searches plus their queue so that the web UI and downloads stay responsive. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'mediaInfoCacheEntries',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Media info cache entries',
+                                min: 0,
+                                help: 'Number of movie and show infos (and title searches) kept in memory. Infos not in memory are loaded from the database. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'mediaInfoCacheMinutes',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Media info cache time',
+                                addonRight: {
+                                    text: 'minutes'
+                                },
+                                min: 1,
+                                help: 'How long movie and show infos are kept in memory. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'imageCacheSizeMb',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Image cache size',
+                                addonRight: {
+                                    text: 'MB'
+                                },
+                                min: 1,
+                                help: 'Disk space used for proxied images. The least recently used images are deleted when the cache is full. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'imageCacheMemoryMb',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Image memory cache size',
+                                addonRight: {
+                                    text: 'MB'
+                                },
+                                min: 0,
+                                help: 'Memory used to keep the most recently used proxied images in addition to the disk cache. Set to 0 to serve all images from disk. Takes effect on next restart.',
+                                advanced: true
+                            }
                         }
                     ]
 
@@ -7785,6 +7877,47 @@ function ConfigFields($injector) {
                                     text: 'minutes'
                                 }
                             }
+                        },
+                        {
+                            key: 'serveStaleCachedResults',
+                            type: 'horizontalSwitch',
+                            templateOptions: {
+                                type: 'switch',
+                                label: 'Serve stale cached results',
+                                help: 'When enabled cached API search results will be returned even if the cache time is exceeded. The search is then repeated in the background so that the next request gets the updated results.'
+                            }
+                        },
+                        {
+                            key: 'apiEarlyReturnSeconds',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'API early return',
+                                help: 'When set API searches will return after this time if enough results were already found instead of waiting for the slowest indexer. Results of indexers still being searched will be used for the next page. Should be lower than the timeout.',
+                                addonRight: {
+                                    text: 'seconds'
+                                }
+                            }
+                        },
+                        {
+                            key: 'maxConcurrentApiSearches',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Max concurrent searches',
+                                min: 0,
+                                help: 'API and web UI searches executed at the same time. Further searches wait in a queue. Set to 0 to disable the limit.'
+                            }
+                        },
+                        {
+                            key: 'apiSearchQueueSize',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Search queue size',
+                                min: 0,
+                                help: 'API and web UI searches allowed to wait for a running one to finish. When the queue is full further searches are rejected with HTTP status 429 and a Retry-After header instead of blocking.'
+                            }
                         }
                     ]
                 }
@@ -9344,8 +9477,8 @@ function StatsService($http) {
         });
     }
 
-    function buildParams(pageNumber, limit, filterModel, sortModel) {
-        var params = {page: pageNumber, limit: limit, filterModel: filterModel};
+    function buildParams(pageNumber, limit, filterModel, sortModel, seekPosition) {
+        var params = {page: pageNumber, limit: limit, filterModel: filterModel, seekPosition: seekPosition};
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
         }
@@ -9366,8 +9499,8 @@ function StatsService($http) {
         return params;
     }
 
-    function getDownloadHistory(pageNumber, limit, filterModel, sortModel) {
-        var params = buildParams(pageNumber, limit, filterModel, sortModel);
+    function getDownloadHistory(pageNumber, limit, filterModel, sortModel, seekPosition) {
+        var params = buildParams(pageNumber, limit, filterModel, sortModel, seekPosition);
         return $http.post("internalapi/history/downloads", params).then(function (response) {
             return {
                 nzbDownloads: response.data.content,
@@ -9377,8 +9510,8 @@ function StatsService($http) {
         });
     }
 
-    function getNotificationHistory(pageNumber, limit, filterModel, sortModel) {
-        var params = buildParams(pageNumber, limit, filterModel, sortModel);
+    function getNotificationHistory(pageNumber, limit, filterModel, sortModel, seekPosition) {
+        var params = buildParams(pageNumber, limit, filterModel, sortModel, seekPosition);
         return $http.post("internalapi/history/notifications", params).then(function (response) {
             return {
                 notifications: response.data.content,
@@ -10920,13 +11053,14 @@ function SearchHistoryService($filter, $http) {
         });
     }
 
-    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser) {
+    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser, seekPosition) {
         var params = {
             page: pageNumber,
             limit: limit,
             filterModel: filterModel,
             distinct: distinct,
-            onlyCurrentUser: onlyCurrentUser
+            onlyCurrentUser: onlyCurrentUser,
+            seekPosition: seekPosition
         };
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
@@ -11063,16 +11197,17 @@ function SearchHistoryService($filter, $http) {
 
 }
 
-SearchHistoryController.$inject = ["$scope", "$state", "SearchHistoryService", "ConfigService", "localStorageService", "history", "$sce", "$filter", "$timeout", "$http", "$uibModal"];angular
+SearchHistoryController.$inject = ["$scope", "$state", "SearchHistoryService", "HistoryPaginationService", "ConfigService", "localStorageService", "history", "$sce", "$filter", "$timeout", "$http", "$uibModal"];angular
     .module('nzbhydraApp')
     .controller('SearchHistoryController', SearchHistoryController);
 
 
-function SearchHistoryController($scope, $state, SearchHistoryService, ConfigService, localStorageService, history, $sce, $filter, $timeout, $http, $uibModal) {
+function SearchHistoryController($scope, $state, SearchHistoryService, HistoryPaginationService, ConfigService, localStorageService, history, $sce, $filter, $timeout, $http, $uibModal) {
     $scope.limit = 100;
     $scope.pagination = {
         current: 1
     };
+    var loadedPage = 1;
     var sortModel = {
         column: "time",
         sortMode: 2
@@ -11161,9 +11296,12 @@ function SearchHistoryController($scope, $state, SearchHistoryService, ConfigSer
 
 
     $scope.update = function () {
-        SearchHistoryService.getSearchHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (history) {
+        var page = $scope.pagination.current;
+        var seekPosition = HistoryPaginationService.getSeekPosition(loadedPage, page, $scope.searchRequests);
+        SearchHistoryService.getSearchHistory(page, $scope.limit, $scope.filterModel, sortModel, undefined, undefined, seekPosition).then(function (history) {
             $scope.searchRequests = history.searchRequests;
             $scope.totalRequests = history.totalRequests;
+            loadedPage = page;
         });
     };
 
@@ -11732,6 +11870,8 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
 
     var loggedSearchFinished = false;
     $scope.messages = [];
+    $scope.numberOfResults = 0;
+    $scope.newestResults = [];
     $scope.indexerSelectionFinished = false;
     $scope.indexersSelected = 0;
     $scope.indexersFinished = 0;
@@ -11743,17 +11883,21 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
     var stompClient = Stomp.over(socket);
     stompClient.debug = null;
     stompClient.connect({}, function (frame) {
-        stompClient.subscribe('/topic/searchState', function (message) {
+        //Only updates for this search are sent to its topic. Each update only contains what changed, except for the complete state requested after subscribing
+        stompClient.subscribe('/topic/searchState/' + searchRequestId, function (message) {
             var data = JSON.parse(message.body);
-            if (searchRequestId !== data.searchRequestId) {
-                return;
+            if (data.searchFinished !== undefined) {
+                $scope.searchFinished = data.searchFinished;
+            }
+            if (data.indexerSelectionFinished !== undefined) {
+                $scope.indexerSelectionFinished = data.indexerSelectionFinished;
+            }
+            if (data.indexersSelected !== undefined) {
+                $scope.indexersSelected = data.indexersSelected;
+                $scope.progressMax = data.indexersSelected;
             }
-            $scope.searchFinished = data.searchFinished;
-            $scope.indexersSelected = data.indexersSelected;
-            $scope.indexersFinished = data.indexersFinished;
-            $scope.progressMax = data.indexersSelected;
-            if ($scope.progressMax > data.indexersSelected) {
-                $scope.progressMax = ">=" + data.indexersSelected;
+            if (data.indexersFinished !== undefined) {
+                $scope.indexersFinished = data.indexersFinished;
             }
             if ($scope.indexersFinished > 0) {
                 $scope.buttonText = "Show results";
@@ -11761,13 +11905,42 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
                 $scope.btnType = "btn-warning";
             }
             if (data.messages) {
-                $scope.messages = data.messages;
+                if (data.complete) {
+                    $scope.messages = data.messages;
+                    loggedSearchFinished = false;
+                } else {
+                    addMessages(data.messages);
+                }
+            }
+            if (data.numberOfResults !== undefined) {
+                //Results of finished indexers are shown before the search is done. They're not deduplicated yet
+                $scope.numberOfResults = data.numberOfResults;
+                $scope.newestResults = data.newestResults;
             }
             if ($scope.searchFinished && !loggedSearchFinished) {
                 $scope.messages.push("Finished searching. Preparing results...");
                 loggedSearchFinished = true;
             }
         });
+        stompClient.send("/app/connectSearchState/" + searchRequestId);
+    });
+
+    function addMessages(messages) {
+        _.each(messages, function (message) {
+            var known = _.any($scope.messages, function (existing) {
+                return existing.message === message.message && existing.messageSortValue === message.messageSortValue;
+            });
+            if (!known) {
+                $scope.messages.push(message);
+            }
+        });
+        $scope.messages = _.sortBy($scope.messages, function (message) {
+            return _.isString(message) ? "\uffff" : message.messageSortValue.toLowerCase();
+        });
+    }
+
+    $scope.$on("$destroy", function () {
+        stompClient.disconnect();
     });
 
     $scope.shortcutSearch = function () {
@@ -12033,16 +12206,17 @@ function NotificationService($http) {
 
 }
 
-NotificationHistoryController.$inject = ["$scope", "StatsService", "preloadData", "ConfigService", "$timeout", "NotificationService"];angular
+NotificationHistoryController.$inject = ["$scope", "StatsService", "HistoryPaginationService", "preloadData", "ConfigService", "$timeout", "NotificationService"];angular
     .module('nzbhydraApp')
     .controller('NotificationHistoryController', NotificationHistoryController);
 
 
-function NotificationHistoryController($scope, StatsService, preloadData, ConfigService, $timeout, NotificationService) {
+function NotificationHistoryController($scope, StatsService, HistoryPaginationService, preloadData, ConfigService, $timeout, NotificationService) {
     $scope.limit = 100;
     $scope.pagination = {
         current: 1
     };
+    var loadedPage = 1;
     var sortModel = {
         column: "time",
         sortMode: 2
@@ -12069,9 +12243,12 @@ function NotificationHistoryController($scope, StatsService, preloadData, Config
     };
 
     $scope.update = function () {
-        StatsService.getNotificationHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (data) {
+        var page = $scope.pagination.current;
+        var seekPosition = HistoryPaginationService.getSeekPosition(loadedPage, page, $scope.notifications);
+        StatsService.getNotificationHistory(page, $scope.limit, $scope.filterModel, sortModel, seekPosition).then(function (data) {
             $scope.notifications = data.notifications;
             $scope.totalNotifications = data.totalNotifications;
+            loadedPage = page;
         });
     };
 
@@ -12610,6 +12787,32 @@ function IndexController($scope, $http, $stateParams, $state) {
 }
 
 
+angular
+    .module('nzbhydraApp')
+    .factory('HistoryPaginationService', HistoryPaginationService);
+
+function HistoryPaginationService() {
+
+    return {
+        getSeekPosition: getSeekPosition
+    };
+
+    //When the page next to the loaded one is requested it's read starting at the loaded page's first or last entry which is faster than skipping all entries before it
+    function getSeekPosition(loadedPage, requestedPage, entries) {
+        if (!entries || entries.length === 0) {
+            return undefined;
+        }
+        if (requestedPage === loadedPage + 1) {
+            var last = entries[entries.length - 1];
+            return {time: last.time, id: last.id, before: false};
+        }
+        if (requestedPage === loadedPage - 1) {
+            return {time: entries[0].time, id: entries[0].id, before: true};
+        }
+        return undefined;
+    }
+}
+
 HydraAuthService.$inject = ["$q", "$rootScope", "$http", "bootstrapped", "$httpParamSerializerJQLike", "$state"];angular
     .module('nzbhydraApp')
     .factory('HydraAuthService', HydraAuthService);
@@ -13058,7 +13261,8 @@ FileDownloadService.$inject = ["$http", "growl"];angular
 function FileDownloadService($http, growl) {
 
     var service = {
-        downloadFile: downloadFile
+        downloadFile: downloadFile,
+        saveFile: saveFile
     };
 
     return service;
@@ -13070,20 +13274,24 @@ function FileDownloadService($http, growl) {
             data: data,
             responseType: 'arraybuffer'
         }).then(function (response, status, headers, config) {
-            var a = document.createElement('a');
-            var blob = new Blob([response.data], {'type': "application/octet-stream"});
-            a.href = URL.createObjectURL(blob);
-            a.download = filename;
-
-            document.body.appendChild(a);
-            a.click();
-            document.body.removeChild(a);
+            saveFile(response.data, filename);
         }, function (data, status, headers, config) {
             growl.error(status);
         });
 
     }
 
+    function saveFile(data, filename) {
+        var a = document.createElement('a');
+        var blob = new Blob([data], {'type': "application/octet-stream"});
+        a.href = URL.createObjectURL(blob);
+        a.download = filename;
+
+        document.body.appendChild(a);
+        a.click();
+        document.body.removeChild(a);
+    }
+
 
 }
 
@@ -13179,16 +13387,17 @@ angular
     }
 }]);
 
-DownloadHistoryController.$inject = ["$scope", "StatsService", "downloads", "ConfigService", "$timeout", "$sce"];angular
+DownloadHistoryController.$inject = ["$scope", "StatsService", "HistoryPaginationService", "downloads", "ConfigService", "$timeout", "$sce"];angular
     .module('nzbhydraApp')
     .controller('DownloadHistoryController', DownloadHistoryController);
 
 
-function DownloadHistoryController($scope, StatsService, downloads, ConfigService, $timeout, $sce) {
+function DownloadHistoryController($scope, StatsService, HistoryPaginationService, downloads, ConfigService, $timeout, $sce) {
     $scope.limit = 100;
     $scope.pagination = {
         current: 1
     };
+    var loadedPage = 1;
     var sortModel = {
         column: "time",
         sortMode: 2
@@ -13264,9 +13473,12 @@ function DownloadHistoryController($scope, StatsService, downloads, ConfigServic
     }
 
     $scope.update = function () {
-        StatsService.getDownloadHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (downloads) {
+        var page = $scope.pagination.current;
+        var seekPosition = HistoryPaginationService.getSeekPosition(loadedPage, page, $scope.nzbDownloads);
+        StatsService.getDownloadHistory(page, $scope.limit, $scope.filterModel, sortModel, seekPosition).then(function (downloads) {
             $scope.nzbDownloads = downloads.nzbDownloads;
             $scope.totalDownloads = downloads.totalDownloads;
+            loadedPage = page;
         });
     };
 
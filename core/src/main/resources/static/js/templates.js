@@ -40,7 +40,7 @@ $templateCache.put('static/html/directives/save-or-send-file.html','<span ng-if=
 $templateCache.put('static/html/directives/search-result.html','<tr ng-class="{\'duplicate\' : result.duplicateGroupIndex > 0, \'title-group-expanded\': result.titleGroupIndex > 0} "\n    style="margin:0; border-width: 0; padding: 0" ng-if="resultDisplayed" class="search-result-row">\n  <td class="col-md-13 text-break search-results-cell result-title" style="margin:0;" data-label="Title">\n    <div class="d-flex">\n      <div class="d-flex align-items-center justify-content-space-around title-actions me-2">\n        <input type="checkbox"\n               ng-model="foo.selected"\n               ng-click="clickCheckbox($event, result)" data-checkbox-index="0" class="result-checkbox mt-0"/>\n        <a href="" ng-click="toggleTitleExpansion()"\n           ng-class="{\'visibility-hidden\': (result.titlesLength === 1 || result.titleGroupIndex > 0 || result.duplicateGroupIndex > 0)}"\n           class="title-expand-toggle mx-2"\n           uib-tooltip="Click to see or hide all results with the same title"\n           tooltip-placement="top"\n           tooltip-trigger="mouseenter"\n           style="text-decoration: none">\n          <span class="glyphicon" ng-class="{\'glyphicon-minus\': titlesExpanded, \'glyphicon-plus\': !titlesExpanded}"></span>\n        </a>\n      </div>\n      <a ng-if="foo.duplicatesDisplayed" href="" ng-click="toggleDuplicateExpansion()"\n         ng-class="{\'visibility-hidden\': (result.duplicatesLength == 1 || result.duplicateGroupIndex > 0)}"\n         class="duplicate-expand-toggle"\n         uib-tooltip="Click to see or hide all duplicates of this result"\n         tooltip-placement="right"\n         tooltip-trigger="mouseenter" style="text-decoration: none">\n        <!-- Formatting must be so weird because otherwise we\'ll have leading whitespaces in the titles   -->\n        <span class="glyphicon" ng-class="{\'glyphicon-minus\': duplicatesExpanded, \'glyphicon-plus\': !duplicatesExpanded}"></span>\n      </a>\n      <span class="title">{{result.alwaysShowTitles}}<span\n        ng-if="(result.titleGroupIndex === 0 && result.duplicateGroupIndex === 0) || searchResultsControllerShared.isGroupEpisodes || foo.alwaysShowTitles"><img\n        ng-if="result.cover && foo.showCovers" ng-src="{{::result.cover}}" width="{{::coverSize}}px" style="margin-right: 5px" ng-click="showCover(result.cover)"/><span\n        ng-if="result.downloadedAt && searchResultsControllerShared.showDownloadedIndicator" class="fa fa-check" uib-tooltip="Already downloaded at {{::result.downloadedAt}}"\n        tooltip-placement="top" tooltip-trigger="mouseenter"></span>{{ ::result.title }}</span>\n      </span>\n      <span class="badge" ng-if="result.torrentDownloadFactor">{{::result.torrentDownloadFactor}}</span>\n    </div>\n  </td>\n  \n  <td class="col-md-1 search-results-cell result-indexer text-right" data-label="Indexer">\n    {{ ::result.indexer }}\n  </td>\n  <td class="col-md-1 search-results-cell result-category text-right" data-label="Category">\n    {{ ::result.category }}\n  </td>\n  <td class="col-md-1 search-results-cell result-size text-right" data-label="Size">\n    {{ ::result.size | byteFmt: 2 }}\n  </td>\n  <td class="col-md-1 search-results-cell result-details text-right" data-label="Details">\n    <span ng-if="::(result.grabs !== null)">\n        {{ ::result.grabs | kify }}\n    </span>\n    <span ng-if="::result.grabs !== null && result.seeders !== null">\n         /\n    </span>\n    <span ng-if="::result.seeders !== null">\n        {{ ::result.seeders | kify }} / {{ ::result.peers | kify }}\n    </span>\n  </td>\n  <td class="col-md-1 search-results-cell result-age text-right" data-label="Age">\n    <span uib-tooltip="{{ ::result.date }}"\n          tooltip-placement="top"\n          tooltip-trigger="mouseenter">{{ ::result.age }}</span>\n  </td>\n  <td class="col-md-2 search-results-cell result-links" data-label="Links">\n    <div>\n      <a href ng-click="showNfo(result)" ng-class="::{\'no-nfo\': result.hasNfo === \'NO\'}"\n         class="no-underline result-show-nfo-link"\n         uib-tooltip="{{ ::getNfoTooltip() }}"\n         tooltip-placement="top"\n         tooltip-trigger="mouseenter">\n        <i class="fa fa-file-text" aria-hidden="true" ng-class="::{\'fuzzy-nfo\': result.hasNfo == \'MAYBE\'}"\n           style="margin-left:3px; margin-right:3px; vertical-align: middle"></i>\n      </a>\n      <span ng-if="::showDetailsDl">\n        <a ng-if="result.source" target="_blank" href="{{ ::result.source | binsearch | dereferer}}"\n           style="vertical-align: middle" class="no-underline result-details-link"\n           uib-tooltip="Search via Binsearch"\n           tooltip-placement="top"\n           tooltip-trigger="mouseenter">\n            <i class="fa fa-search" aria-hidden="true" style="margin-left:3px; margin-right:3px; vertical-align: middle"></i>\n        </a>\n\n            <a ng-class="::{\'no-nfo\': !result.comments}" href="{{::result.details_link | dereferer}}" target="_blank"\n               class="no-underline result-comments-link"\n               uib-tooltip="Comments"\n               tooltip-placement="top"\n               tooltip-trigger="mouseenter">\n            <i class="fa fa-comment" aria-hidden="true" style="margin-left:0; margin-right:3px;"></i>\n        </a>\n\n        <a target="_blank" href="{{ ::result.details_link | dereferer}}" ng-class="::{\'no-nfo\': !result.details_link}"\n           style="vertical-align: middle" class="no-underline result-details-link"\n           uib-tooltip="Details"\n           tooltip-placement="top"\n           tooltip-trigger="mouseenter">\n            <i class="fa fa-info" aria-hidden="true"\n               style="margin-left:3px; margin-right:3px; vertical-align: middle"></i>\n        </a>\n        \n        </a>\n    </span>\n      <span ng-switch on="::result.downloadType">\n        <span ng-switch-when="TORBOX">\n          <addable-nzbs searchresult="::result"></addable-nzbs>\n        </span>\n        <span ng-switch-when="TORRENT">\n            <a target="_blank" href="gettorrent/user/{{ ::result.searchResultId }}"\n               style="vertical-align: middle; margin-left: 3px; margin-right: 3px"\n               class="no-underline result-torrent-download-link"\n               uib-tooltip="Download torrent"\n               tooltip-placement="top"\n               tooltip-trigger="mouseenter"><span class="glyphicon glyphicon-save"></span>\n            </a>\n          <addable-nzbs searchresult="::result"></addable-nzbs>\n        </span>\n        <save-or-send-file ng-if="result.downloadType!=\'TORBOX\'" search-result-id="result.searchResultId" type="result.downloadType"></save-or-send-file>\n          <span ng-switch-default>\n              <a target="_blank" href="getnzb/user/{{ ::result.searchResultId }}"\n                 style="vertical-align: middle; margin-left: 3px; margin-right: 3px"\n                 class="no-underline result-nzb-download-link"\n                 uib-tooltip="Download NZB"\n                 tooltip-placement="top"\n                 tooltip-trigger="mouseenter"><span class="glyphicon glyphicon-save"></span>\n              </a>\n              <addable-nzbs searchresult="::result"></addable-nzbs>\n          </span>\n      </span>\n    </div>\n  </td>\n</tr>\n');
 $templateCache.put('static/html/directives/selection-button.html','<div class="btn-group">\r\n    <button class="btn selection-button-invert-selection" ng-class="\'btn-\' + btn" ng-click="invertSelection()">Invert\r\n        selection\r\n    </button>\r\n    <button type="button" class="btn dropdown-toggle selection-button-toggle-dropdown" ng-class="\'btn-\' + btn"\r\n            data-toggle="dropdown" aria-haspopup="true" aria-expanded="false">\r\n        <span class="caret"></span>\r\n        <span class="sr-only">Toggle Dropdown</span>\r\n    </button>\r\n    <ul class="dropdown-menu">\r\n        <li><a href="#" ng-click="selectAll(true)" class="selection-button-select-all">Select all</a></li>\r\n        <li><a href="#" ng-click="deselectAll(false)" class="selection-button-deselect-all">Deselect all</a></li>\r\n    </ul>\r\n</div>');
 $templateCache.put('static/html/directives/tab-or-chart.html','<div>\r\n    <ul class="nav nav-tabs">\r\n        <li ng-class="{\'active\': display == \'chart\'}"><a href="#" ng-click="display = \'chart\'">Chart</a></li>\r\n        <li ng-class="{\'active\': display == \'table\'}"><a href="#" ng-click="display = \'table\'">Table</a></li>\r\n    </ul>\r\n\r\n\r\n    <div ng-show="display == \'chart\'">\r\n        <div ng-transclude="chartSlot"></div>\r\n    </div>\r\n\r\n\r\n    <div ng-show="display == \'table\'">\r\n        <div ng-transclude="tableSlot"></div>\r\n    </div>\r\n</div>');
-$templateCache.put('static/html/directives/tasks.html','<!--\n  ~  (C) Copyright 2017 TheOtherP (theotherp@posteo.net)\n  ~\n  ~  Licensed under the Apache License, Version 2.0 (the "License");\n  ~  you may not use this file except in compliance with the License.\n  ~  You may obtain a copy of the License at\n  ~\n  ~      http://www.apache.org/licenses/LICENSE-2.0\n  ~\n  ~  Unless required by applicable law or agreed to in writing, software\n  ~  distributed under the License is distributed on an "AS IS" BASIS,\n  ~  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\n  ~  See the License for the specific language governing permissions and\n  ~  limitations under the License.\n  -->\n\n<div class="text-left row d-sm-flex justify-content-center">\n    <div class="col-xs-20 col-md-14" style="margin-top: 50px">\n        <span style="text-align: center"><h3>Tasks</h3></span>\n        <div class="table-responsive">\n            <table class="table">\n                <tr class="row">\n                    <th class="col-md-10" style="text-align: left">Name</th>\n                    <th class="col-md-5" style="text-align: left">Last execution</th>\n                    <th class="col-md-5" style="text-align: left">Next execution</th>\n                </tr>\n                <tr ng-repeat="task in tasks" class="row">\n                    <td class="col-md-10" style="text-align: left"><a ng-click="runTask(task.name)" class="glyph-link"><span\n                            class="glyphicon glyphicon-play-circle"></span> {{task.name}}</a></td>\n                    <td class="col-md-5" style="text-align: left"><span ng-show="task.lastExecutionTime"\n                                                                        uib-tooltip="{{task.lastExecutionTime | reformatDateSeconds}}">{{ task.lastExecutionTime | humanizeDate }}</span>\n                    </td>\n                    <td class="col-md-5" style="text-align: left"><span\n                            uib-tooltip="{{task.nextExecutionTime | reformatDateSeconds}}">{{task.nextExecutionTime | humanizeDate}}</span>\n                    </td>\n                </tr>\n            </table>\n        </div>\n    </div>\n</div>\n');
+$templateCache.put('static/html/directives/tasks.html','<!--\n  ~  (C) Copyright 2017 TheOtherP (theotherp@posteo.net)\n  ~\n  ~  Licensed under the Apache License, Version 2.0 (the "License");\n  ~  you may not use this file except in compliance with the License.\n  ~  You may obtain a copy of the License at\n  ~\n  ~      http://www.apache.org/licenses/LICENSE-2.0\n  ~\n  ~  Unless required by applicable law or agreed to in writing, software\n  ~  distributed under the License is distributed on an "AS IS" BASIS,\n  ~  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\n  ~  See the License for the specific language governing permissions and\n  ~  limitations under the License.\n  -->\n\n<div class="text-left row d-sm-flex justify-content-center">\n    <div class="col-xs-20 col-md-14" style="margin-top: 50px">\n        <span style="text-align: center"><h3>Tasks</h3></span>\n        <div class="table-responsive">\n            <table class="table">\n                <tr class="row">\n                    <th class="col-md-7" style="text-align: left">Name</th>\n                    <th class="col-md-3" style="text-align: left">Last execution</th>\n                    <th class="col-md-3" style="text-align: left">Next execution</th>\n                    <th class="col-md-7" style="text-align: left">Progress</th>\n                </tr>\n                <tr ng-repeat="task in tasks" class="row">\n                    <td class="col-md-7" style="text-align: left"><a ng-click="runTask(task.name)" class="glyph-link"><span\n                            class="glyphicon glyphicon-play-circle"></span> {{task.name}}</a></td>\n                    <td class="col-md-3" style="text-align: left"><span ng-show="task.lastExecutionTime"\n                                                                        uib-tooltip="{{task.lastExecutionTime | reformatDateSeconds}}">{{ task.lastExecutionTime | humanizeDate }}</span>\n                    </td>\n                    <td class="col-md-3" style="text-align: left"><span\n                            uib-tooltip="{{task.nextExecutionTime | reformatDateSeconds}}">{{task.nextExecutionTime | humanizeDate}}</span>\n                    </td>\n                    <td class="col-md-7" style="text-align: left">{{task.progress}}</td>\n                </tr>\n            </table>\n        </div>\n    </div>\n</div>\n');
 $templateCache.put('static/html/directives/updates.html','<div cg-busy="{promise:loadingPromise,message:\'Loading versions and changelog\'}">\n\n  Current version: {{ currentVersion }}\n  <br>\n  Latest version: {{ latestVersion }} <span ng-if="latestVersionIsBeta">Beta</span>\n  <span ng-if="betaUpdateAvailable">\n        <br>\n        Latest beta version: {{ betaVersion }}\n      </span>\n  <br>\n    <div ng-if="updatedExternally" class="alert alert-warning" role="alert"\n         style="margin-bottom: 0; padding-top: 0; margin-top: 5px">\n        <br>\n        Your NZBHydra instance seems to run in docker or is installed via a package manager. Please update this instance accordingly instead of using the NZBHydra update mechanism.\n    </div>\n  <div ng-if="updateAvailable">\n    <br>\n    A new release ({{ latestVersion }} <span ng-if="latestVersionIsBeta">Beta</span>) is available.\n    <br>\n    <button class="btn btn-info" type="button" ng-click="showChangelog(latestVersion)">See what\'s new</button>\n    <button class="btn btn-success" type="button" ng-click="update(latestVersion)">Install update</button>\n  </div>\n  <div ng-if="betaUpdateAvailable">\n    <br>\n    A new beta release ({{ betaVersion }}) is available.\n    <br>\n    <button class="btn btn-info" type="button" ng-click="showChangelog(betaVersion)">See what\'s new</button>\n    <button class="btn btn-warning" type="button" ng-click="update(betaVersion)">Install beta update</button>\n  </div>\n  <br>\n  <span ng-if="!updateAvailable && !latestVersionIgnored && !betaUpdateAvailable">You\'re up to date!</span>\n  <span ng-if="latestVersionIgnored">The latest version was ignored by you.</span>\n  <button ng-if="!updateAvailable && !betaUpdateAvailable" class="btn btn-warning" type="button" ng-click="forceUpdate()">Force update\n  </button>\n\n    <div class="row">\n    <div class="col-md-4"></div>\n    <div ng-if="wrapperOutdated" class="col-md-12 alert alert-warning" role="alert" style="margin-top: 20px">\n      The NZBHydra wrappers (i.e. the executables or python scripts you use to run NZBHydra) seem to be outdated.Please update them.<br><br>\n      Shut down NZBHydra, <a href="https://github.com/theotherp/nzbhydra2/releases/latest">download the latest version</a> and extract all the relevant wrapper files into your main NZBHydra folder.<br>\n      For Windows these files are:\n      <ul>\n        <li>NZBHydra2.exe</li>\n        <li>NZBHydra2 Console.exe</li>\n      </ul>\n      For linux or macOS these files are:\n      <ul>\n        <li>nzbhydra2 (you may need to chmod +x it)</li>\n        <li>nzbhydra2wrapper.py</li>\n        <li>nzbhydra2wrapperPy3.py</li>\n      </ul>\n      Make sure to overwrite all of these files that already exist - you don\'t need to update any files that aren\'t already present. If you added any of the other listed files manually make sure to update them as well!\n      <br><br>\n      Afterwards start NZBHydra again.\n    </div>\n  </div>\n\n    <ng-include src="\'static/html/directives/version-history.html\'"></ng-include>\n</div>\n');
 $templateCache.put('static/html/directives/version-history.html','<!--\n  ~  (C) Copyright 2017 TheOtherP (theotherp@posteo.net)\n  ~\n  ~  Licensed under the Apache License, Version 2.0 (the "License");\n  ~  you may not use this file except in compliance with the License.\n  ~  You may obtain a copy of the License at\n  ~\n  ~      http://www.apache.org/licenses/LICENSE-2.0\n  ~\n  ~  Unless required by applicable law or agreed to in writing, software\n  ~  distributed under the License is distributed on an "AS IS" BASIS,\n  ~  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\n  ~  See the License for the specific language governing permissions and\n  ~  limitations under the License.\n  -->\n\n<div class="panel panel-default " style="margin-top: 50px; text-align: left">\n  <div class="panel-heading"><h3>Version history</h3></div>\n  <div class="list-group">\n    <li ng-repeat="entry in versionHistory" class="list-group-item text-break"\n        style="padding-top: 20px; padding-bottom: 20px;">\n      <h3 style="margin-top: 0">{{::entry.version}}<span ng-if="!entry.final"> Beta</span> ({{::entry.date}})</h3>\n      <div ng-repeat="change in entry.changes" style="margin-bottom: 5px">\n              <span ng-switch="change.type" style="margin-right: 5px">\n                  <span class="label label-primary" ng-switch-when="note">Note</span>\n                  <span class="label label-warning" ng-switch-when="fix">Fix</span>\n                  <span class="label label-success" ng-switch-when="feature">Feature</span>\n              </span>\n        <span ng-bind-html="change.text  | unsafe"></span>\n      </div>\n    </li>\n  </div>\n</div>\n');
 $templateCache.put('static/html/dirPagination.tpl.html','<ul class="pagination" ng-if="1 < pages.length || !autoHide">\r\n    <li ng-if="boundaryLinks" ng-class="{ disabled : pagination.current == 1 }">\r\n        <a href="" ng-click="setCurrent(1)">&laquo;</a>\r\n    </li>\r\n    <li ng-if="directionLinks" ng-class="{ disabled : pagination.current == 1 }">\r\n        <a href="" ng-click="setCurrent(pagination.current - 1)">&lsaquo;</a>\r\n    </li>\r\n    <li ng-repeat="pageNumber in pages track by tracker(pageNumber, $index)"\r\n        ng-class="{ active : pagination.current == pageNumber, disabled : pageNumber == \'...\' }">\r\n        <a href="" ng-click="setCurrent(pageNumber)">{{ pageNumber }}</a>\r\n    </li>\r\n\r\n    <li ng-if="directionLinks" ng-class="{ disabled : pagination.current == pagination.last }">\r\n        <a href="" ng-click="setCurrent(pagination.current + 1)">&rsaquo;</a>\r\n    </li>\r\n    <li ng-if="boundaryLinks" ng-class="{ disabled : pagination.current == pagination.last }">\r\n        <a href="" ng-click="setCurrent(pagination.last)">&raquo;</a>\r\n    </li>\r\n</ul>');
@@ -52,7 +52,7 @@ $templateCache.put('static/html/restart-modal.html','<div class="modal-header">\
 $templateCache.put('static/html/results-pagination.html','<ul class="pagination" ng-if="1 < pages.length || !autoHide">\r\n    <li ng-if="boundaryLinks" ng-class="{ disabled : pagination.current == 1 }">\r\n        <a href="" ng-click="setCurrent(1)">&laquo;</a>\r\n    </li>\r\n    <li ng-if="directionLinks" ng-class="{ disabled : pagination.current == 1 }">\r\n        <a href="" ng-click="setCurrent(pagination.current - 1)">&lsaquo;</a>\r\n    </li>\r\n    <li ng-repeat="pageNumber in pages track by tracker(pageNumber, $index)"\r\n        ng-class="{ active : pagination.current == pageNumber, disabled : pageNumber == \'...\' }">\r\n        <a href="" ng-click="setCurrent(pageNumber)">{{ pageNumber }}</a>\r\n    </li>\r\n\r\n    <li ng-if="directionLinks" ng-class="{ disabled : pagination.current == pagination.last }">\r\n        <a href="" ng-click="setCurrent(pagination.current + 1)">&rsaquo;</a>\r\n    </li>\r\n    <li ng-if="boundaryLinks" ng-class="{ disabled : pagination.current == pagination.last }">\r\n        <a href="" ng-click="setCurrent(pagination.last)">&raquo;</a>\r\n    </li>\r\n</ul>');
 $templateCache.put('static/html/search-history-details-modal.html','<!--\r\n  ~  (C) Copyright 2017 TheOtherP (theotherp@posteo.net)\r\n  ~\r\n  ~  Licensed under the Apache License, Version 2.0 (the "License");\r\n  ~  you may not use this file except in compliance with the License.\r\n  ~  You may obtain a copy of the License at\r\n  ~\r\n  ~      http://www.apache.org/licenses/LICENSE-2.0\r\n  ~\r\n  ~  Unless required by applicable law or agreed to in writing, software\r\n  ~  distributed under the License is distributed on an "AS IS" BASIS,\r\n  ~  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\r\n  ~  See the License for the specific language governing permissions and\r\n  ~  limitations under the License.\r\n  -->\r\n\r\n<div class="modal-body" style="text-align: left">\r\n   <span ng-show="!details">\r\n   <img src="static/img/spinner.gif">\r\n      Loading...\r\n   </span>\r\n    <table class="table" ng-if="details">\r\n        <caption>Details</caption>\r\n        <thead>\r\n        <tr>\r\n          <th>Host</th>\r\n            <th>User agent</th>\r\n        </tr>\r\n        </thead>\r\n        <tbody>\r\n        <tr>\r\n            <td>{{details.ip}}</td>\r\n            <td>{{details.userAgent}}</td>\r\n        </tr>\r\n        </tbody>\r\n    </table>\r\n\r\n    <table class="table" ng-if="details">\r\n        <caption>Related indexer searches</caption>\r\n        <thead>\r\n        <tr>\r\n            <th>Indexer</th>\r\n            <th>Successful</th>\r\n            <th>Results</th>\r\n        </tr>\r\n        </thead>\r\n        <tbody>\r\n        <tr ng-repeat="entry in details.indexerSearches">\r\n            <td>{{entry.indexerName}}</td>\r\n            <td>{{entry.successful}}</td>\r\n            <td>{{entry.resultsCount}}</td>\r\n        </tr>\r\n        </tbody>\r\n    </table>\r\n</div>\r\n\r\n');
 $templateCache.put('static/html/search-searchhistory-dropdown.html','<ul class="dropdown-menu dropdown-menu-right" role="menu" uib-dropdown-menu aria-labelledby="button-template-url">\r\n  <li role="menuitem" ng-repeat="request in searchHistory">\r\n    <a href="#" ng-click="repeatSearch(request)"\r\n       x-draggable="true" data-request="{{request}}"\r\n       ng-bind-html="formatRequest(request)"\r\n       class="search-history-dropdown-entry"\r\n    ></a></li>\r\n</ul>\r\n');
-$templateCache.put('static/html/search-state.html','<div class="modal-header">\r\n  <h3 style="display: inline-block" class="modal-title">Searching... please wait</h3>\r\n  <button class="btn {{btnType}}" type="button" ng-click="shortcutSearch()"\r\n          uib-tooltip="{{buttonTooltip}}"\r\n          tooltip-placement="top"\r\n          tooltip-trigger="mouseenter"\r\n          style="position: absolute; right: 18px"\r\n  >{{buttonText}}\r\n  </button>\r\n</div>\r\n\r\n<div class="modal-body" style="text-align: left;">\r\n  <img src="static/img/spinner.gif" ng-if="!messages && !indexerSelectionFinished"/>\r\n  \r\n  <div ng-if="messages" style="text-align: left">\r\n    \r\n    <ul style="padding-left: 0">\r\n      <li ng-repeat="message in messages" style="list-style-type: none">\r\n                <span ng-class="{\'indexerStatusHasResults\': hasResults(message)}">\r\n                  {{message.message}}\r\n                </span>\r\n      </li>\r\n    \r\n    </ul>\r\n    <img src="static/img/spinner.gif"/>\r\n  \r\n  </div>\r\n  <div style="margin-top: 15px; margin-bottom: -20px">\r\n    <div ng-if="indexerSelectionFinished">\r\n      Indexers finished:\r\n      <uib-progressbar max="indexersSelected" class="progress-striped active" value="indexersFinished">\r\n        {{indexersFinished}} / {{progressMax}}\r\n      </uib-progressbar>\r\n    </div>\r\n  </div>\r\n</div>\r\n<div class="modal-footer">\r\n    <span style="float: left; margin-top: 5px">\r\n        This window will close automatically when searching is finished\r\n    </span>\r\n</div>\r\n');
+$templateCache.put('static/html/search-state.html','<div class="modal-header">\r\n  <h3 style="display: inline-block" class="modal-title">Searching... please wait</h3>\r\n  <button class="btn {{btnType}}" type="button" ng-click="shortcutSearch()"\r\n          uib-tooltip="{{buttonTooltip}}"\r\n          tooltip-placement="top"\r\n          tooltip-trigger="mouseenter"\r\n          style="position: absolute; right: 18px"\r\n  >{{buttonText}}\r\n  </button>\r\n</div>\r\n\r\n<div class="modal-body" style="text-align: left;">\r\n  <img src="static/img/spinner.gif" ng-if="!messages && !indexerSelectionFinished"/>\r\n  \r\n  <div ng-if="messages" style="text-align: left">\r\n    \r\n    <ul style="padding-left: 0">\r\n      <li ng-repeat="message in messages" style="list-style-type: none">\r\n                <span ng-class="{\'indexerStatusHasResults\': hasResults(message)}">\r\n                  {{message.message}}\r\n                </span>\r\n      </li>\r\n    \r\n    </ul>\r\n    <img src="static/img/spinner.gif"/>\r\n  \r\n  </div>\r\n  <div ng-if="numberOfResults > 0" style="margin-top: 15px">\r\n    {{numberOfResults}} results found so far. Newest:\r\n    <table class="table table-condensed" style="margin-bottom: 0">\r\n      <tr ng-repeat="result in newestResults">\r\n        <td>{{result.title}}</td>\r\n        <td>{{result.indexer}}</td>\r\n        <td>{{result.age}}</td>\r\n      </tr>\r\n    </table>\r\n  </div>\r\n  <div style="margin-top: 15px; margin-bottom: -20px">\r\n    <div ng-if="indexerSelectionFinished">\r\n      Indexers finished:\r\n      <uib-progressbar max="indexersSelected" class="progress-striped active" value="indexersFinished">\r\n        {{indexersFinished}} / {{progressMax}}\r\n      </uib-progressbar>\r\n    </div>\r\n  </div>\r\n</div>\r\n<div class="modal-footer">\r\n    <span style="float: left; margin-top: 5px">\r\n        This window will close automatically when searching is finished\r\n    </span>\r\n</div>\r\n');
 $templateCache.put('static/html/searchtemplate.html','');
 $templateCache.put('static/html/states/config.html','<div class="row">\r\n  <form class="col-sm-20" name="form" name="ctrl.myform" novalidate>\r\n    <ul class="nav nav-tabs config-tabs" role="tablist" style="text-align: left">\r\n      <li ng-repeat="tab in allTabs" ng-class="{\'active\': $index == activeTab}">\r\n        <a href="" ng-click="goToConfigState($index)">{{ tab.name }}</a>\r\n      </li>\r\n      <li style="float: right">\r\n\r\n        <!--        We need to make this switch ourselves becase bs-switch will always make the model dirty-->\r\n        <div class="bootstrap-switch-off bootstrap-switch bootstrap-switch-advanced-toggle-wrapper bootstrap-switch-animate {{showAdvanced ? \'bootstrap-switch-on\' : \'bootstrap-switch-off\'}}"\r\n             style="width: 200px;" ng-click="toggleShowAdvanced()">\r\n          <div class="bootstrap-switch-container" style="width: 352px; margin-left: {{showAdvanced ? \'0\' : \'-154\'}}px;">\r\n            <span class="bootstrap-switch-handle-on bootstrap-switch-primary" style="width: 154px; opacity: 1">Advanced shown</span>\r\n            <span class="bootstrap-switch-label" style="width: 48px;">&nbsp;</span>\r\n            <span class="bootstrap-switch-handle-off bootstrap-switch-default" style="width: 154px;">Advanced hidden</span>\r\n            <input type="checkbox" ng-model="showAdvanced" class="ng-untouched ng-valid ng-not-empty ng-dirty" aria-invalid="false"></div>\r\n        </div>\r\n\r\n        <div class="btn-group">\r\n          <button type="button" class="btn config-button btn-default" data-toggle="dropdown" aria-haspopup="true" aria-expanded="false"\r\n                  uib-tooltip="Allows you to automatically configure NZBHydra2 as an indexer in an external tool."\r\n                  tooltip-placement="top"\r\n                  tooltip-trigger="mouseenter"\r\n          >Configure NZBHydra in...\r\n            <span class="caret"></span>\r\n            <span class="sr-only">Toggle Dropdown</span>\r\n          </button>\r\n          <ul class="dropdown-menu dropdown-menu-right">\r\n            <li>\r\n              <a ng-click="configureIn(\'Lidarr\')">Lidarr</a>\r\n              <a ng-click="configureIn(\'Sonarr\')">Sonarr</a>\r\n              <a ng-click="configureIn(\'Sonarrv3\')">Sonarr v3</a>\r\n              <a ng-click="configureIn(\'Radarr\')">Radarr</a>\r\n              <a ng-click="configureIn(\'Radarrv3\')">Radarr v3+</a>\r\n              <a ng-click="configureIn(\'Readarr\')">Readarr</a>\r\n            </li>\r\n          </ul>\r\n        </div>\r\n\r\n        <button ng-click="apiHelp()" class="btn config-button config-api-button btn-default">API?</button>\r\n        <button ng-click="submit()" class="btn config-button" ng-class="{\'btn-info\': isSavingNeeded(), \'pulse2\': isSavingNeeded(), \'btn-success\': !isSavingNeeded()}">\r\n          Save\r\n        </button>\r\n      </li>\r\n    </ul>\r\n\r\n    <div class="tab-content config">\r\n      <div ng-repeat="tab in allTabs">\r\n        <div class="config-tab-content">\r\n          <formly-form model="tab.model" fields="tab.fields" ng-if="$index == activeTab"\r\n                        options="tab.options">\r\n          </formly-form>\r\n        </div>\r\n      </div>\r\n    </div>\r\n  </form>\r\n</div>\r\n\r\n\r\n<script type="text/ng-template" id="ui-select-multiple.html">\r\n  <ui-select multiple data-ng-model="model[options.key]" data-required="{{ to.required }}"\r\n             data-disabled="{{ to.disabled }}" theme="bootstrap">\r\n    <ui-select-match class="ui-select-match" placeholder="{{ to.getPlaceholder(model[options.key]) }}">\r\n      {{$item[to.labelProp]}}\r\n    </ui-select-match>\r\n    <ui-select-choices class="ui-select-choices" data-repeat="{{ to.ngOptions }}">\r\n      <div ng-bind-html="option[to.labelProp] | highlight: $select.search"></div>\r\n    </ui-select-choices>\r\n  </ui-select>\r\n</script>\r\n\r\n<script type="text/ng-template" id="button-test-connection.html">\r\n  <span style="text-align: left;"><button class="btn btn-default" id="button-test-connection-{{ uniqueId }}"\r\n                                          type="button" ng-click="testConnection()"><span\r\n    class="glyphicon glyphicon-refresh"></span></button> <span\r\n    id="message-test-connection-{{ uniqueId }}"></span></span>\r\n</script>\r\n\r\n\r\n<script type="text/ng-template" id="button-check-caps.html">\r\n  <span style="text-align: left; float: left"><button class="btn btn-default" id="button-check-caps-{{ uniqueId }}"\r\n                                                      type="button" ng-click="checkCaps()"><span\r\n    class="glyphicon glyphicon-refresh"></span></button> <span\r\n    id="message-check-caps-{{ uniqueId }}"></span></span>\r\n</script>\r\n\r\n\r\n<script type="text/ng-template" id="newznab-preset.html">\r\n  <ui-select ng-model="selectedpreset" theme="bootstrap" on-select="selectPreset($item, $model)"\r\n             search-enabled="false">\r\n    <ui-select-match class="ui-select-match" allow-clear="true">{{ display }}</ui-select-match>\r\n    <ui-select-choices class="ui-select-choices" repeat="preset in presets">\r\n      <div ng-bind-html="preset.name"></div>\r\n    </ui-select-choices>\r\n  </ui-select>\r\n</script>\r\n\r\n<script type="text/ng-template" id="repeatSection.html">\r\n  <!--loop through each element in model array-->\r\n  <div class="{{ hideRepeat }} repeatWrapperClass" ng-show="model.showAdvanced || !to.advanced">\r\n    <legend style="overflow: hidden">\r\n   <span class="config-fieldset-legend">{{to.headline}}\r\n       <span class="glyphicon glyphicon-question-sign" ng-if="::options.templateOptions.tooltip"\r\n             uib-popover-html="options.templateOptions.tooltip"\r\n             popover-trigger="\'outsideClick\'"\r\n             style="font-size: 15px; cursor: pointer"></span>\r\n</span>\r\n    </legend>\r\n\r\n    <div class="repeatsection modal-content" ng-repeat="element in model[options.key]"\r\n         ng-init="fields = copyFields(to.fields)">\r\n      <fieldset>\r\n        <legend>\r\n          <span class="config-fieldset-legend">\r\n            {{ element.name ? element.name : (element.username ? element.username : to.altLegendText)}}\r\n          </span>\r\n        </legend>\r\n        <formly-form fields="fields"\r\n                     model="element"\r\n                     form="form">\r\n        </formly-form>\r\n        <div style="margin-bottom:20px;">\r\n          <button type="button" class="btn btn-danger remove-button" ng-click="remove($index)">\r\n            Remove {{ element.name }}\r\n          </button>\r\n        </div>\r\n\r\n      </fieldset>\r\n    </div>\r\n    <hr class="repeat-hr">\r\n    <p class="addNewButton">\r\n      <button type="button" class="btn btn-primary add-button" ng-click="addNew()">{{ to.btnText }}</button>\r\n    </p>\r\n  </div>\r\n</script>\r\n\r\n<script type="text/ng-template" id="setting-wrapper.html">\r\n  <div class="setting-wrapper" ng-show="model.showAdvanced || !to.advanced">\r\n  <div class="form-group form-horizontal" ng-class="{\'row\': !options.templateOptions.noRow}">\r\n    <!--Test-->\r\n    <div class="col-xs-8 col-sm-4 text-right config-label pe-xs-0">\r\n      <label class="control-label align-middle justify-content-flex-end pt-0">\r\n        {{ to.label }} {{ to.required ? "*" : ""}}\r\n      </label>\r\n    </div>\r\n    <div class="col-xs-9 col-sm-6 config-content">\r\n      <!--Before transclude-->\r\n      <formly-transclude></formly-transclude>\r\n      <!--After transclude-->\r\n      <div class="my-messages" ng-messages="fc.$error" ng-if="options.formControl.$touched || form.$submitted"\r\n           ng-messages-multiple>\r\n        <div class="some-message has-error control-label" ng-message="{{::name}}"\r\n             ng-repeat="(name, message) in ::options.validation.messages">\r\n          {{ message(fc.$viewValue, fc.$modelValue, this)}}\r\n        </div>\r\n      </div>\r\n      <div class="my-messages">\r\n        <div class="some-message has-error control-label"\r\n             ng-repeat="message in ::options.validation.customMessages">\r\n          {{ message}}\r\n        </div>\r\n      </div>\r\n    </div>\r\n    <div class="col-xs-1 col-sm-1">\r\n      <div class="config-tooltip">\r\n        <div class="d-flex justify-content-center" ng-if="::to.tooltip" uib-popover-html="to.tooltip" popover-trigger="\'outsideClick\'" popover-placement="auto top">\r\n            <span class="glyphicon glyphicon-question-sign align-middle" style="cursor: pointer"></span>\r\n        </div>\r\n      </div>\r\n    </div>\r\n    <div class="col-xs-20 col-sm-9 config-help mt-xs-2">\r\n      <div class="help-block mx-xs-4">\r\n        <div class="align-middle">\r\n          <span ng-bind-html="to.help | derefererExtracting | unsafe" >\r\n              Help\r\n          </span>\r\n        </div>\r\n      </div>\r\n    </div>\r\n  </div>\r\n  </div>\r\n</script>\r\n\r\n<script type="text/ng-template" id="fieldset-wrapper.html">\r\n  <fieldset ng-show="model.showAdvanced || !to.advanced">\r\n    <legend class="text-left">\r\n      <div class="col-sm-4"></div>\r\n      <div class="col-sm-16">\r\n        <div class="config-fieldset-legend py-3">{{options.templateOptions.label}}\r\n          <span class="glyphicon glyphicon-question-sign" ng-if="::options.templateOptions.tooltip"\r\n              uib-popover-html="options.templateOptions.tooltip"\r\n              tooltip-placement="auto top"\r\n              popover-trigger="\'outsideClick\'"\r\n              style="font-size: 15px; cursor: pointer"></span>\r\n        </div>\r\n      </div>\r\n    </legend>\r\n    <formly-transclude></formly-transclude>\r\n  </fieldset>\r\n</script>\r\n\r\n<script type="text/ng-template" id="notificationRepeatSection.html">\r\n  <!--loop through each element in model array-->\r\n  <div class="{{ hideRepeat }} repeatWrapperClass">\r\n    <legend><div class="config-fieldset-legend py-3">{{to.headline}}</div></legend>\r\n    <div class="repeatsection modal-content" ng-repeat="element in model[options.key]"\r\n         ng-init="fields = copyFields(to.fields)">\r\n      <fieldset>\r\n        <legend>\r\n          <span class="config-fieldset-legend">\r\n            {{ element.eventTypeReadable}}\r\n          </span>\r\n        </legend>\r\n        <formly-form fields="fields"\r\n                     model="element"\r\n                     form="form">\r\n        </formly-form>\r\n        <div style="margin-bottom:20px;">\r\n          <button type="button" class="btn btn-danger remove-button" ng-click="remove($index)">\r\n            Remove {{ element.name }}\r\n          </button>\r\n        </div>\r\n\r\n      </fieldset>\r\n    </div>\r\n    <hr>\r\n\r\n    <div class="btn-group" uib-dropdown is-open="status.isopen">\r\n      <button id="single-button" type="button" class="btn btn-primary" uib-dropdown-toggle ng-disabled="disabled">\r\n        Add new notification <span class="caret"></span>\r\n      </button>\r\n      <ul class="dropdown-menu" uib-dropdown-menu role="menu" aria-labelledby="single-button">\r\n        <li role="menuitem" ng-repeat="event in eventTypes"><a ng-click="addNew(event.key)">{{::event.label}}</a></li>\r\n      </ul>\r\n    </div>\r\n  </div>\r\n</script>\r\n\r\n<script type="text/ng-template" id="button-test-notification.html">\r\n  <span style="text-align: left; float: left">\r\n    <button class="btn btn-default" type="button" ng-click="testNotification()" uib-tooltip="Send a test notification. You need to save the config first." tooltip-placement="top" tooltip-trigger="mouseenter">\r\n      <span class="glyphicon glyphicon-eye-open"></span>\r\n    </button>\r\n  </span>\r\n</script>\r\n');
 $templateCache.put('static/html/states/download-history.html','<div class="row" style="margin-top: 30px; margin-bottom: 20px">\n    <div class="col-md-5"></div>\n    <div class="col-md-10" style="text-align: center">\n        <dir-pagination-controls on-page-change="update()" pagination-id="downloads"></dir-pagination-controls>\n    </div>\n    <div class="col-md-5" style="text-align: right">\n        <button class="btn btn-default" ng-click="update()"><span class="glyphicon glyphicon-refresh"></span></button>\n    </div>\n</div>\n<div class="table-responsive">\n<table class="table">\n    <thead>\n    <tr>\n        <th class="col-md-2" style="width: {{columnSizes.time}}%;">\n            <column-sortable column="time" start-mode="2">Time\n            </column-sortable>\n            <column-filter-wrapper>\n                <time-filter column="time" selected="preselectedTimeInterval"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-2" style="width: {{columnSizes.indexer}}%;">\n            <column-sortable column="name">Indexer\n            </column-sortable>\n            <column-filter-wrapper>\n                <checkboxes-filter column="name" entries="indexersForFiltering" preselect="true" show-invert="true"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-8" style="width: {{columnSizes.title}}%;">\n            <column-sortable column="title">Title\n            </column-sortable>\n            <column-filter-wrapper>\n                <freetext-filter column="title"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-1" style="width: {{columnSizes.result}}%;">\n            <column-sortable column="status">Result <span class="glyphicon glyphicon-question-sign"\n                                                          tooltip-placement="auto top"\n                                                          uib-tooltip="Actual download result only available downloader software configured in NZBHydra"></span></div>\n            </column-sortable>\n            <column-filter-wrapper>\n                <checkboxes-filter column="status" entries="statusesForFiltering" preselect="true" show-invert="false"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-1" style="width: {{columnSizes.source}}%;">\n            <column-sortable column="access_source">Source\n            </column-sortable>\n            <column-filter-wrapper>\n                <boolean-filter column="access_source" options="accessOptionsForFiltering" preselect="0"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-1" style="width: {{columnSizes.age}}%;">\n            <column-sortable column="age">Age</column-sortable>\n            <column-filter-wrapper>\n                <number-range-filter column="age"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-2" style="width: {{columnSizes.username}}%;" ng-if="columnSizes.username > 0">\n            <column-sortable column="username">Username</column-sortable>\n            <column-filter-wrapper>\n                <freetext-filter column="username"/>\n            </column-filter-wrapper>\n        </th>\n        <th class="col-md-2" style="width: {{columnSizes.ip}}%" ng-if="columnSizes.ip > 0">\n            <column-sortable column="ip" reversed="false" start-mode="1">Host</column-sortable>\n            <column-filter-wrapper>\n                <freetext-filter column="ip"/>\n            </column-filter-wrapper>\n        </th>\n    </tr>\n    </thead>\n    <tbody>\n    <tr dir-paginate="nzbDownload in nzbDownloads | itemsPerPage:limit" total-items="totalDownloads"\n        current-page="pagination.current" pagination-id="downloads">\n        <td class="narrow-row">{{ ::nzbDownload.time | reformatDate }}</td>\n        <td class="narrow-row">{{ ::nzbDownload.searchResult.indexer.name }}</td>\n        <td class="narrow-row">\n            <span ng-style="{\'visibility\':!nzbDownload.searchResult.indexerGuid ? \'hidden\' : \'initial\'}">\n                <save-or-send-file search-result-id="nzbDownload.searchResult.id" type="nzbDownload.searchResult.downloadType"></save-or-send-file>\n                <span ng-switch on="::nzbDownload.searchResult.downloadType">\n                    <span ng-switch-when="TORRENT">\n                        <a target="_blank" href="gettorrent/user/{{ ::nzbDownload.searchResult.id }}"\n                           style="vertical-align: middle; margin-left: 3px; margin-right: 3px"\n                           class="no-underline result-torrent-download-link"\n                           uib-tooltip="Download torrent"\n                           tooltip-placement="top"\n                           tooltip-trigger="mouseenter"><span class="glyphicon glyphicon-save"></span>\n                        </a>\n                    </span>\n                    <span ng-switch-default>\n                        <a target="_blank" href="getnzb/user/{{ ::nzbDownload.searchResult.id }}"\n                           style="vertical-align: middle; margin-left: 3px; margin-right: 3px"\n                           class="no-underline result-nzb-download-link"\n                           uib-tooltip="Download NZB"\n                           tooltip-placement="top"\n                           tooltip-trigger="mouseenter"><span class="glyphicon glyphicon-save"></span>\n                        </a>\n                        <addable-nzbs searchresult="::nzbDownload.searchResult" always-ask="true"></addable-nzbs>\n                    </span>\n                </span>\n                <a target="_blank" href="{{ ::nzbDownload.searchResult.details | dereferer }}"\n                   ng-if="nzbDownload.searchResult.details">{{ ::nzbDownload.searchResult.title }}</a><span\n                    ng-if="!nzbDownload.searchResult.details">{{ nzbDownload.searchResult.title }}</span>\n            </span>\n        </td>\n        <td class="narrow-row">\n            <span ng-bind-html="getStatusIcon(nzbDownload.status)" uib-tooltip="{{nzbDownload.status}}"></span>\n        </td>\n        <td class="narrow-row">{{ ::nzbDownload.accessSource === "INTERNAL" ? "Internal" : "API"}}</td>\n        <td class="narrow-row">{{ ::nzbDownload.age }}</td>\n        <td class="narrow-row" ng-if="columnSizes.username > 0">{{ ::nzbDownload.username }}</td>\n        <td class="narrow-row" ng-if="columnSizes.ip > 0">{{ ::nzbDownload.ip }}</td>\n    </tr>\n    </tbody>\n</table>\n</div>\n\n<dir-pagination-controls on-page-change="pageChanged(newPageNumber)"\n                         pagination-id="downloads"></dir-pagination-controls>\n');
@@ -60,7 +60,7 @@ $templateCache.put('static/html/states/header.html','<nav class="navbar navbar-d
 $templateCache.put('static/html/states/indexer-statuses.html','<div class="table-responsive">\r\n<table class="table indexer-statuses-table">\r\n  <caption>Indexer statuses sorted by state, then name. Go to to the config to reenable any disabled indexers\r\n  </caption>\r\n  <thead>\r\n  <tr>\r\n    <th class="col-md-2" style="width:10%">Indexer</th>\r\n    <th class="col-md-1" style="width:3%">State</th>\r\n    <th class="col-md-2" style="width:10%">Disabled at</th>\r\n    <th class="col-md-2" style="width:10%">Disabled until</th>\r\n    <th class="col-md-7" style="width:35%">Last error <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                            uib-tooltip="Only shown when the indexer is currently disabled."></span></th>\r\n    <th class="col-md-2" style="width:6%">API hits <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                         uib-tooltip="Shows the number of API hits either since the last limit reset time or for the last 24 hours, and the limit if configured."></span></th>\r\n    <th class="col-md-2" style="width:8%">Downloads <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                          uib-tooltip="Shows the number of downloads either since the last limit reset time or for the last 24 hours, and the limit if configured."></span></th>\r\n    <th class="col-md-2" style="width:10%">Next hit allowed <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                                  uib-tooltip="Either the next time the API limit is reset (if a certain hour of day is configured) or when the next hit will be allowed by the rolling limit window."></span>\r\n    </th>\r\n    <th class="col-md-2" style="width:8%">VIP expiry</th>\r\n  </tr>\r\n  </thead>\r\n\r\n  <tbody>\r\n  <tr ng-repeat="indexerStatus in statuses">\r\n    <td>{{ indexerStatus.indexer }}</td>\r\n    <td>\r\n            <span class="label" ng-class="getLabelClass(indexerStatus.state)">\r\n            <i ng-if="indexerStatus.state === \'ENABLED\'" class="fa fa-check" uib-tooltip="Enabled" tooltip-placement="top" tooltip-trigger="mouseenter"></i>\r\n            <i ng-if="indexerStatus.state === \'DISABLED_SYSTEM\'" class="fa fa-times" uib-tooltip="Disabled by system" tooltip-placement="top" tooltip-trigger="mouseenter"></i>\r\n            <i ng-if="indexerStatus.state === \'DISABLED_SYSTEM_TEMPORARY\'" class="fa fa-times" uib-tooltip="Temporarily disabled by system" tooltip-placement="top" tooltip-trigger="mouseenter"></i>\r\n            <i ng-if="indexerStatus.state === \'DISABLED_USER\'" class="fa fa-times" uib-tooltip="Disabled by user" tooltip-placement="top" tooltip-trigger="mouseenter"></i>\r\n            </span>\r\n    </td>\r\n    <td>\r\n      <span>{{ indexerStatus.disabledAt | reformatDate}}</span>\r\n    </td>\r\n    <td>\r\n      <span ng-if="indexerStatus.state === \'DISABLED_SYSTEM_TEMPORARY\'">{{ indexerStatus.disabledUntil | reformatDate}}</span>\r\n    </td>\r\n    <td class="indexer-status-reason">{{ indexerStatus.lastError }}</td>\r\n    <td>{{::indexerStatus.apiHits}}<span ng-if="indexerStatus.apiHitLimit">/{{::indexerStatus.apiHitLimit}}</span></td>\r\n    <td>{{::indexerStatus.downloadHits}}<span ng-if="indexerStatus.downloadHitLimit">/{{::indexerStatus.downloadHitLimit}}</span></td>\r\n    <td>{{::indexerStatus.apiResetTime | formatTimestamp}}<span ng-if="indexerStatus.downloadResetTime">/{{::indexerStatus.downloadResetTime | formatTimestamp}}</span></td>\r\n    <td>{{::indexerStatus.vipExpirationDate}} <span class="glyphicon glyphicon-exclamation-sign" tooltip-placement="auto top"\r\n                                                    uib-tooltip="{{indexerStatus.expiryWarning}}" ng-if="indexerStatus.expiryWarning"></span></td>\r\n  </tr>\r\n  </tbody>\r\n</table>\r\n</div>\r\n');
 $templateCache.put('static/html/states/logged-out.html','<div class="container-fluid">\n    <div class="row">\n        <div class="center-form panel">\n            <div class="panel-body">\n                <h2 class="text-center">You were logged out</h2>\n            </div>\n        </div>\n    </div>\n</div>\n');
 $templateCache.put('static/html/states/login.html','<div class="container-fluid">\n    <div class="row">\n        <div class="center-form panel">\n            <div class="panel-body">\n                <h2 class="text-center">Log in</h2>\n                <form method="post" ng-submit="login()" name="loginForm">\n                    <div class="form-group has-feedback">\n                        <input class="form-control input-lg" type="text" name="username" ng-model="user.username"\n                               placeholder="Username" required autofocus auto-focus>\n                        <span class="ion-at form-control-feedback"></span>\n                    </div>\n                    <div class="form-group has-feedback">\n                        <input class="form-control input-lg" type="password" name="password" ng-model="user.password"\n                               placeholder="Password" required>\n                        <span class="ion-key form-control-feedback"></span>\n                    </div>\n                    <button type="submit" ng-disabled="loginForm.$invalid" class="btn btn-lg  btn-block btn-success">Log\n                        in\n                    </button>\n                    You will be forwarded to the search area.\n                </form>\n            </div>\n        </div>\n    </div>\n</div>\n');
-$templateCache.put('static/html/states/main-stats.html','<pattern id="diagonalHatch" patternUnits="userSpaceOnUse" width="4" height="4">\r\n    <path d="M-1,1 l2,-2\r\n           M0,4 l4,-4\r\n           M3,5 l2,-2"></path>\r\n</pattern>\r\n<div class="row" style="margin-top: 30px; margin-bottom: 30px">\r\n    <div class="col-md-6" style="font-size: x-small; text-align: justify; text-justify: auto">\r\n        Disclaimer: Don\'t read too much into these stats. Which indexer is picked for a download depends on its score\r\n        and some more or less random values like posting time of the NZB.\r\n        Some indexers might have nightly downtime which would influence the percentage of successful accesses.\r\n    </div>\r\n    <div class="col-md-4">\r\n        <p class="input-group">\r\n            <span class="input-group-addon" id="after-addon">After</span>\r\n            <input type="text" class="form-control" uib-datepicker-popup ng-model="afterDate" is-open="after.opened"\r\n                   datepicker-options="dateOptions" ng-required="true" close-text="Close"\r\n                   ng-keypress="onKeypress($event)"/>\r\n            <span class="input-group-btn input-group-btn2">\r\n            <button type="button" class="btn btn-default" ng-click="openAfter()"><i\r\n                    class="glyphicon glyphicon-calendar"></i></button>\r\n          </span>\r\n        </p>\r\n    </div>\r\n    <div class="col-md-4">\r\n        <p class="input-group">\r\n            <span class="input-group-addon" id="before-addon">Before</span>\r\n            <input type="text" class="form-control" uib-datepicker-popup ng-model="beforeDate" is-open="before.opened"\r\n                   datepicker-options="dateOptions" ng-required="true" close-text="Close"\r\n                   ng-keypress="onKeypress($event)"/>\r\n            <span class="input-group-btn input-group-btn2">\r\n            <button type="button" class="btn btn-default" ng-click="openBefore()"><i\r\n                    class="glyphicon glyphicon-calendar"></i></button>\r\n          </span>\r\n        </p>\r\n    </div>\r\n    <div class="col-md-3">\r\n        <label>Show disabled indexers</label>\r\n        <input bs-switch type="checkbox" ng-model="foo.includeDisabledIndexersInStats"\r\n               switch-change="toggleIncludeDisabledIndexers()" switch-size="mini"/>\r\n    </div>\r\n    <div class="col-md-3">\r\n        <button type="button" class="btn btn-info" ng-click="refresh()">Refresh</button>\r\n    </div>\r\n</div>\r\n\r\n\r\n<div cg-busy="{promise:statsLoadingPromise,message:\'Calculating stats\', delay:100}">\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.avgResponseTimes" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'avgResponseTimes\')">\r\n                </span>\r\n    \r\n    \r\n                Avg. response times (in ms) <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                  uib-tooltip="Response time is the time an API request takes, from start to completion of the web call"></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.avgResponseTimes">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Indexer</th>\r\n                        <th>Avg. response time (ms)</th>\r\n                        <th>Delta</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="avgResponseTime in stats.avgResponseTimes">\r\n                        <td>{{ avgResponseTime.indexer }}</td>\r\n                        <td>{{ avgResponseTime.avgResponseTime }}</td>\r\n                        <td>{{ avgResponseTime.delta }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart>\r\n                    <nvd3 options="avgResponseTimesChart.options" data="avgResponseTimesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time" tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.avgIndexerUniquenessScore" switch-size="mini" ng-change="onStatsSwitchToggle(\'avgIndexerUniquenessScore\')">\r\n                </span>\r\n                Indexer scores <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                     uib-tooltip="Is not being calculated depending on the after and before dates set above but for the whole time an indexer has been used."></span>\r\n            </div>\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Indexer</th>\r\n                        <th>Avg. score <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                             uib-tooltip="The results uniqueness score determines how unique a downloaded result is to the indexer. A high score means that the indexer often returned results which were either downloaded from that indexer or *could\'ve been\' downloaded from it. See also https://github.com/theotherp/nzbhydra2/wiki/Indexer-results-uniqueness-score"></span>\r\n                        </th>\r\n                        <th># of dl searches <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top" uib-tooltip="Number of searches, which resulted in a download and where this indexer was searched"></span></th>\r\n                        <th>Unique downloads <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                   uib-tooltip="Number of downloads, where no other indexer provided the same result (i.e. without this indexer you would\'ve missed this particular result)"></span></th>\r\n                    </tr>\r\n                    in\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="entry in stats.indexerScores">\r\n                        <td>{{ entry.indexerName }}</td>\r\n                        <td>{{ entry.averageUniquenessScore }}</td>\r\n                        <td>{{ entry.involvedSearches }}</td>\r\n                        <td>{{ entry.uniqueDownloads }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.indexerApiAccessStats" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'indexerApiAccessStats\')">\r\n                </span>\r\n                <caption>Indexer API accesses <span class="glyphicon glyphicon-question-sign" tooltip-placement="top"\r\n                                                    uib-tooltip="An API access is considered failed only when the indexer could not be reached, not if auth was unsuccessful or Hydra had an unexpected error. The average calculation only spans the time since the first search with the indexer."></span>\r\n                </caption>\r\n            </div>\r\n            <table class="table" style="margin-top: 9px" ng-show="foo.statsSwichState.indexerApiAccessStats">\r\n                <thead>\r\n                <tr>\r\n                    <th>Indexer</th>\r\n                    <th>Avg. per day</th>\r\n                    <th>% successful</th>\r\n                    <th>% failed</th>\r\n                </tr>\r\n                </thead>\r\n                <tbody>\r\n                <tr ng-repeat="avgIndexerAccessSuccess in stats.indexerApiAccessStats">\r\n                    <td>{{ avgIndexerAccessSuccess.indexerName }}</td>\r\n                    <td>{{ avgIndexerAccessSuccess.averageAccessesPerDay | number: 0 }}</td>\r\n                    <td>{{ avgIndexerAccessSuccess.percentSuccessful | number: 0}}</td>\r\n                    <td>{{ avgIndexerAccessSuccess.percentConnectionError | number: 0 }}</td>\r\n                </tr>\r\n                </tbody>\r\n            </table>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.indexerDownloadShares" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'indexerDownloadShares\')">\r\n                </span>\r\n                NZB downloads per indexer <span class="glyphicon glyphicon-question-sign" tooltip-placement="top"\r\n                                                uib-tooltip="Only downloads by enabled indexers are taken into account and displayed"></span></caption>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.indexerDownloadShares">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Indexer</th>\r\n                        <th>Total</th>\r\n                        <th>% of all enabled</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="indexerDownloads in stats.indexerDownloadShares">\r\n                        <td>{{ indexerDownloads.indexerName }}</td>\r\n                        <td>{{ indexerDownloads.total | number: 0}}</td>\r\n                        <td>{{ indexerDownloads.share | number: 0 }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart>\r\n                    <nvd3 options="indexerDownloadSharesChart.options" data="indexerDownloadSharesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n\r\n\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadsPerAgeStats" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'downloadsPerAgeStats\')">\r\n                </span>\r\n                NZB downloads per age (in 100 day steps, all downloads)\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadsPerAgeStats">\r\n                <table class="table">\r\n                    <tbody>\r\n                    <tr>\r\n                        <td>Average age</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.averageAge}}</td>\r\n                    </tr>\r\n                    <tr>\r\n                        <td>% older than 1000 days</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.percentOlder1000 | number : 1}}</td>\r\n                    </tr>\r\n                    <tr>\r\n                        <td>% older than 2000 days</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.percentOlder2000 | number : 1}}</td>\r\n                    </tr>\r\n                    <tr>\r\n                        <td>% older than 3000 days</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.percentOlder3000 | number : 1}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="downloadsPerAge">\r\n                    <nvd3 options="downloadsPerAgeChart.options" data="downloadsPerAgeChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.successfulDownloadsPerIndexer"\r\n                       switch-size="mini" ng-change="onStatsSwitchToggle(\'successfulDownloadsPerIndexer\')">\r\n                    </span>\r\n                Successful downloads per indexer <span class="glyphicon glyphicon-question-sign" tooltip-placement="top"\r\n                                                       uib-tooltip="Only works if user scripts report the actual download result of a NZB\'s content. Shows percentage of successful downloads of all downloads with reported status."></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.successfulDownloadsPerIndexer">\r\n                <table class="table">\r\n                    <thead>\r\n                    <th>Indexer</th>\r\n                    <th>% of successful downloads</th>\r\n                    <th># of all downloads</th>\r\n                    <th># of successful downloads</th>\r\n                    <th># of unsuccessful downloads</th>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.successfulDownloadsPerIndexer">\r\n                        <td>{{ stat.indexerName}}</td>\r\n                        <td>{{ stat.percentSuccessful | number : 1}}</td>\r\n                        <td>{{ stat.countAll | number : 0}}</td>\r\n                        <td>{{ stat.countSuccessful | number : 0}}</td>\r\n                        <td>{{ stat.countError | number : 0}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="successfulDownloadsPerIndexerChart">\r\n                    <nvd3 options="successfulDownloadsPerIndexerChart.options"\r\n                          data="successfulDownloadsPerIndexerChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n\r\n        </div>\r\n    </div>\r\n\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchSharesPerUser"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'searchSharesPerUser\')">\r\n                    </span>\r\n\r\n                Searches per username\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchSharesPerUser">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.searchSharesPerUser">\r\n                        <td>{{ stat.key }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="searchSharesPerUserChart">\r\n                    <nvd3 options="searchSharesPerUserChart.options" data="searchSharesPerUserChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadSharesPerUser"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadSharesPerUser\')">\r\n                </span>\r\n                Downloads per username\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadSharesPerUser">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in downloadSharesPerUser">\r\n                        <td>{{ stat.user }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="downloadSharesPerUserChart">\r\n                    <nvd3 options="downloadSharesPerUserChart.options" data="downloadSharesPerUserChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchSharesPerIp" switch-size="mini"\r\n                           ng-change="onStatsSwitchToggle(\'searchSharesPerIp\')">\r\n                    </span>\r\n    \r\n                Searches per host\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchSharesPerIp">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Host</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.searchSharesPerIp">\r\n                        <td>{{ stat.key }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="searchSharesPerIpChart">\r\n                    <nvd3 options="searchSharesPerIpChart.options" data="searchSharesPerIpChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadSharesPerIp"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadSharesPerIp\')">\r\n                </span>\r\n                Downloads per host\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadSharesPerIp">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Host</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in downloadSharesPerIp">\r\n                        <td>{{ stat.key }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="downloadSharesPerIpChart">\r\n                    <nvd3 options="downloadSharesPerIpChart.options" data="downloadSharesPerIpChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.userAgentSearchShares"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'userAgentSearchShares\')">\r\n                </span>\r\n                API Searches per user agent <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                  uib-tooltip="Some tools don\'t use specific user agents. They will most likely show up as \'Mozilla\' or as \'Other\'"></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.userAgentSearchShares">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User agent</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.userAgentSearchShares">\r\n                        <td>{{ stat.userAgent }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="userAgentSearchSharesChart">\r\n                    <nvd3 options="userAgentSearchSharesChart.options" data="userAgentSearchSharesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.userAgentDownloadShares"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'userAgentDownloadShares\')">\r\n                </span>\r\n                API downloads per user agent <span class="glyphicon glyphicon-question-sign"\r\n                                                   tooltip-placement="auto top"\r\n                                                   uib-tooltip="Some tools don\'t use specific user agents. They will most likely show up as \'Mozilla\' or as \'Other\'"></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.userAgentDownloadShares">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User agent</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.userAgentDownloadShares">\r\n                        <td>{{ stat.userAgent }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="userAgentDownloadSharesChart">\r\n                    <nvd3 options="userAgentDownloadSharesChart.options"\r\n                          data="userAgentDownloadSharesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n    </div>\r\n\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchesPerDayOfWeek"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'searchesPerDayOfWeek\')">\r\n                </span>\r\n                Searches per day of week\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchesPerDayOfWeek">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Day of the week</th>\r\n                        <th>Searches</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.searchesPerDayOfWeek">\r\n                        <td>{{ stat.day }}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="weeklyChart">\r\n                    <nvd3 options="searchesPerDayOfWeekChart.options" data="searchesPerDayOfWeekChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchesPerHourOfDay"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'searchesPerHourOfDay\')">\r\n                </span>\r\n                Searches per hour of day\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchesPerHourOfDay">\r\n                <table>\r\n                    <table class="table">\r\n                        <thead>\r\n                        <tr>\r\n                            <th>Hour of the day</th>\r\n                            <th>Searches</th>\r\n                        </tr>\r\n                        </thead>\r\n                        <tbody>\r\n                        <tr ng-repeat="stat in stats.searchesPerHourOfDay">\r\n                            <td>{{ stat.hour }}</td>\r\n                            <td>{{ stat.count }}</td>\r\n                        </tr>\r\n                        </tbody>\r\n                    </table>\r\n                </table>\r\n\r\n                <chart class="dailyChart">\r\n                    <nvd3 options="searchesPerHourOfDayChart.options" data="searchesPerHourOfDayChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n\r\n        </div>\r\n    </div>\r\n\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadsPerDayOfWeek"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadsPerDayOfWeek\')">\r\n                </span>\r\n                NZB downloads per day of week\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadsPerDayOfWeek">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Day of the week</th>\r\n                        <th>Downloads</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.downloadsPerDayOfWeek">\r\n                        <td>{{ stat.day }}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="weeklyChart">\r\n                    <nvd3 options="downloadsPerDayOfWeekChart.options" data="downloadsPerDayOfWeekChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadsPerHourOfDay"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadsPerHourOfDay\')">\r\n                </span>\r\n                NZB downloads per hour of day\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadsPerHourOfDay">\r\n                <table>\r\n                    <table class="table">\r\n                        <thead>\r\n                        <tr>\r\n                            <th>Hour of the day</th>\r\n                            <th>Downloads</th>\r\n                        </tr>\r\n                        </thead>\r\n                        <tbody>\r\n                        <tr ng-repeat="stat in stats.downloadsPerHourOfDay">\r\n                            <td>{{ stat.hour }}</td>\r\n                            <td>{{ stat.count }}</td>\r\n                        </tr>\r\n                        </tbody>\r\n                    </table>\r\n                </table>\r\n\r\n                <chart class="dailyChart">\r\n                    <nvd3 options="downloadsPerHourOfDayChart.options" data="downloadsPerHourOfDayChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n    </div>\r\n\r\n\r\n</div>\r\n');
+$templateCache.put('static/html/states/main-stats.html','<pattern id="diagonalHatch" patternUnits="userSpaceOnUse" width="4" height="4">\r\n    <path d="M-1,1 l2,-2\r\n           M0,4 l4,-4\r\n           M3,5 l2,-2"></path>\r\n</pattern>\r\n<div class="row" style="margin-top: 30px; margin-bottom: 30px">\r\n    <div class="col-md-6" style="font-size: x-small; text-align: justify; text-justify: auto">\r\n        Disclaimer: Don\'t read too much into these stats. Which indexer is picked for a download depends on its score\r\n        and some more or less random values like posting time of the NZB.\r\n        Some indexers might have nightly downtime which would influence the percentage of successful accesses.\r\n    </div>\r\n    <div class="col-md-4">\r\n        <p class="input-group">\r\n            <span class="input-group-addon" id="after-addon">After</span>\r\n            <input type="text" class="form-control" uib-datepicker-popup ng-model="afterDate" is-open="after.opened"\r\n                   datepicker-options="dateOptions" ng-required="true" close-text="Close"\r\n                   ng-keypress="onKeypress($event)"/>\r\n            <span class="input-group-btn input-group-btn2">\r\n            <button type="button" class="btn btn-default" ng-click="openAfter()"><i\r\n                    class="glyphicon glyphicon-calendar"></i></button>\r\n          </span>\r\n        </p>\r\n    </div>\r\n    <div class="col-md-4">\r\n        <p class="input-group">\r\n            <span class="input-group-addon" id="before-addon">Before</span>\r\n            <input type="text" class="form-control" uib-datepicker-popup ng-model="beforeDate" is-open="before.opened"\r\n                   datepicker-options="dateOptions" ng-required="true" close-text="Close"\r\n                   ng-keypress="onKeypress($event)"/>\r\n            <span class="input-group-btn input-group-btn2">\r\n            <button type="button" class="btn btn-default" ng-click="openBefore()"><i\r\n                    class="glyphicon glyphicon-calendar"></i></button>\r\n          </span>\r\n        </p>\r\n    </div>\r\n    <div class="col-md-3">\r\n        <label>Show disabled indexers</label>\r\n        <input bs-switch type="checkbox" ng-model="foo.includeDisabledIndexersInStats"\r\n               switch-change="toggleIncludeDisabledIndexers()" switch-size="mini"/>\r\n    </div>\r\n    <div class="col-md-3">\r\n        <button type="button" class="btn btn-info" ng-click="refresh()">Refresh</button>\r\n    </div>\r\n</div>\r\n\r\n\r\n<div cg-busy="{promise:statsLoadingPromise,message:\'Calculating stats\', delay:100}">\r\n    <div class="row" ng-if="stats.failedSections.length > 0">\r\n        <div class="col-md-20 alert alert-warning" role="alert">\r\n            Some stats could not be calculated in time: {{ stats.failedSections.join(", ") }}\r\n        </div>\r\n    </div>\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.avgResponseTimes" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'avgResponseTimes\')">\r\n                </span>\r\n    \r\n    \r\n                Avg. response times (in ms) <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                  uib-tooltip="Response time is the time an API request takes, from start to completion of the web call"></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.avgResponseTimes">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Indexer</th>\r\n                        <th>Avg. response time (ms)</th>\r\n                        <th>Delta</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="avgResponseTime in stats.avgResponseTimes">\r\n                        <td>{{ avgResponseTime.indexer }}</td>\r\n                        <td>{{ avgResponseTime.avgResponseTime }}</td>\r\n                        <td>{{ avgResponseTime.delta }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart>\r\n                    <nvd3 options="avgResponseTimesChart.options" data="avgResponseTimesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time" tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.avgIndexerUniquenessScore" switch-size="mini" ng-change="onStatsSwitchToggle(\'avgIndexerUniquenessScore\')">\r\n                </span>\r\n                Indexer scores <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                     uib-tooltip="Is not being calculated depending on the after and before dates set above but for the whole time an indexer has been used."></span>\r\n            </div>\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Indexer</th>\r\n                        <th>Avg. score <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                             uib-tooltip="The results uniqueness score determines how unique a downloaded result is to the indexer. A high score means that the indexer often returned results which were either downloaded from that indexer or *could\'ve been\' downloaded from it. See also https://github.com/theotherp/nzbhydra2/wiki/Indexer-results-uniqueness-score"></span>\r\n                        </th>\r\n                        <th># of dl searches <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top" uib-tooltip="Number of searches, which resulted in a download and where this indexer was searched"></span></th>\r\n                        <th>Unique downloads <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                   uib-tooltip="Number of downloads, where no other indexer provided the same result (i.e. without this indexer you would\'ve missed this particular result)"></span></th>\r\n                    </tr>\r\n                    in\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="entry in stats.indexerScores">\r\n                        <td>{{ entry.indexerName }}</td>\r\n                        <td>{{ entry.averageUniquenessScore }}</td>\r\n                        <td>{{ entry.involvedSearches }}</td>\r\n                        <td>{{ entry.uniqueDownloads }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.indexerApiAccessStats" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'indexerApiAccessStats\')">\r\n                </span>\r\n                <caption>Indexer API accesses <span class="glyphicon glyphicon-question-sign" tooltip-placement="top"\r\n                                                    uib-tooltip="An API access is considered failed only when the indexer could not be reached, not if auth was unsuccessful or Hydra had an unexpected error. The average calculation only spans the time since the first search with the indexer."></span>\r\n                </caption>\r\n            </div>\r\n            <table class="table" style="margin-top: 9px" ng-show="foo.statsSwichState.indexerApiAccessStats">\r\n                <thead>\r\n                <tr>\r\n                    <th>Indexer</th>\r\n                    <th>Avg. per day</th>\r\n                    <th>% successful</th>\r\n                    <th>% failed</th>\r\n                </tr>\r\n                </thead>\r\n                <tbody>\r\n                <tr ng-repeat="avgIndexerAccessSuccess in stats.indexerApiAccessStats">\r\n                    <td>{{ avgIndexerAccessSuccess.indexerName }}</td>\r\n                    <td>{{ avgIndexerAccessSuccess.averageAccessesPerDay | number: 0 }}</td>\r\n                    <td>{{ avgIndexerAccessSuccess.percentSuccessful | number: 0}}</td>\r\n                    <td>{{ avgIndexerAccessSuccess.percentConnectionError | number: 0 }}</td>\r\n                </tr>\r\n                </tbody>\r\n            </table>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.indexerDownloadShares" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'indexerDownloadShares\')">\r\n                </span>\r\n                NZB downloads per indexer <span class="glyphicon glyphicon-question-sign" tooltip-placement="top"\r\n                                                uib-tooltip="Only downloads by enabled indexers are taken into account and displayed"></span></caption>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.indexerDownloadShares">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Indexer</th>\r\n                        <th>Total</th>\r\n                        <th>% of all enabled</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="indexerDownloads in stats.indexerDownloadShares">\r\n                        <td>{{ indexerDownloads.indexerName }}</td>\r\n                        <td>{{ indexerDownloads.total | number: 0}}</td>\r\n                        <td>{{ indexerDownloads.share | number: 0 }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart>\r\n                    <nvd3 options="indexerDownloadSharesChart.options" data="indexerDownloadSharesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n\r\n\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadsPerAgeStats" switch-size="mini"\r\n                       ng-change="onStatsSwitchToggle(\'downloadsPerAgeStats\')">\r\n                </span>\r\n                NZB downloads per age (in 100 day steps, all downloads)\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadsPerAgeStats">\r\n                <table class="table">\r\n                    <tbody>\r\n                    <tr>\r\n                        <td>Average age</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.averageAge}}</td>\r\n                    </tr>\r\n                    <tr>\r\n                        <td>% older than 1000 days</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.percentOlder1000 | number : 1}}</td>\r\n                    </tr>\r\n                    <tr>\r\n                        <td>% older than 2000 days</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.percentOlder2000 | number : 1}}</td>\r\n                    </tr>\r\n                    <tr>\r\n                        <td>% older than 3000 days</td>\r\n                        <td>{{ stats.downloadsPerAgeStats.percentOlder3000 | number : 1}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="downloadsPerAge">\r\n                    <nvd3 options="downloadsPerAgeChart.options" data="downloadsPerAgeChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                <input bs-switch type="checkbox" ng-model="foo.statsSwichState.successfulDownloadsPerIndexer"\r\n                       switch-size="mini" ng-change="onStatsSwitchToggle(\'successfulDownloadsPerIndexer\')">\r\n                    </span>\r\n                Successful downloads per indexer <span class="glyphicon glyphicon-question-sign" tooltip-placement="top"\r\n                                                       uib-tooltip="Only works if user scripts report the actual download result of a NZB\'s content. Shows percentage of successful downloads of all downloads with reported status."></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.successfulDownloadsPerIndexer">\r\n                <table class="table">\r\n                    <thead>\r\n                    <th>Indexer</th>\r\n                    <th>% of successful downloads</th>\r\n                    <th># of all downloads</th>\r\n                    <th># of successful downloads</th>\r\n                    <th># of unsuccessful downloads</th>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.successfulDownloadsPerIndexer">\r\n                        <td>{{ stat.indexerName}}</td>\r\n                        <td>{{ stat.percentSuccessful | number : 1}}</td>\r\n                        <td>{{ stat.countAll | number : 0}}</td>\r\n                        <td>{{ stat.countSuccessful | number : 0}}</td>\r\n                        <td>{{ stat.countError | number : 0}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="successfulDownloadsPerIndexerChart">\r\n                    <nvd3 options="successfulDownloadsPerIndexerChart.options"\r\n                          data="successfulDownloadsPerIndexerChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n\r\n        </div>\r\n    </div>\r\n\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchSharesPerUser"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'searchSharesPerUser\')">\r\n                    </span>\r\n\r\n                Searches per username\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchSharesPerUser">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.searchSharesPerUser">\r\n                        <td>{{ stat.key }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="searchSharesPerUserChart">\r\n                    <nvd3 options="searchSharesPerUserChart.options" data="searchSharesPerUserChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadSharesPerUser"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadSharesPerUser\')">\r\n                </span>\r\n                Downloads per username\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadSharesPerUser">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in downloadSharesPerUser">\r\n                        <td>{{ stat.user }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="downloadSharesPerUserChart">\r\n                    <nvd3 options="downloadSharesPerUserChart.options" data="downloadSharesPerUserChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchSharesPerIp" switch-size="mini"\r\n                           ng-change="onStatsSwitchToggle(\'searchSharesPerIp\')">\r\n                    </span>\r\n    \r\n                Searches per host\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchSharesPerIp">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Host</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.searchSharesPerIp">\r\n                        <td>{{ stat.key }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="searchSharesPerIpChart">\r\n                    <nvd3 options="searchSharesPerIpChart.options" data="searchSharesPerIpChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadSharesPerIp"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadSharesPerIp\')">\r\n                </span>\r\n                Downloads per host\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadSharesPerIp">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Host</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in downloadSharesPerIp">\r\n                        <td>{{ stat.key }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count}}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="downloadSharesPerIpChart">\r\n                    <nvd3 options="downloadSharesPerIpChart.options" data="downloadSharesPerIpChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n    </div>\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.userAgentSearchShares"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'userAgentSearchShares\')">\r\n                </span>\r\n                API Searches per user agent <span class="glyphicon glyphicon-question-sign" tooltip-placement="auto top"\r\n                                                  uib-tooltip="Some tools don\'t use specific user agents. They will most likely show up as \'Mozilla\' or as \'Other\'"></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.userAgentSearchShares">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User agent</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.userAgentSearchShares">\r\n                        <td>{{ stat.userAgent }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="userAgentSearchSharesChart">\r\n                    <nvd3 options="userAgentSearchSharesChart.options" data="userAgentSearchSharesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.userAgentDownloadShares"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'userAgentDownloadShares\')">\r\n                </span>\r\n                API downloads per user agent <span class="glyphicon glyphicon-question-sign"\r\n                                                   tooltip-placement="auto top"\r\n                                                   uib-tooltip="Some tools don\'t use specific user agents. They will most likely show up as \'Mozilla\' or as \'Other\'"></span>\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.userAgentDownloadShares">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>User agent</th>\r\n                        <th>Percentage</th>\r\n                        <th>Count</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.userAgentDownloadShares">\r\n                        <td>{{ stat.userAgent }}</td>\r\n                        <td>{{ stat.percentage | number : 1}}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="userAgentDownloadSharesChart">\r\n                    <nvd3 options="userAgentDownloadSharesChart.options"\r\n                          data="userAgentDownloadSharesChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n    </div>\r\n\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchesPerDayOfWeek"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'searchesPerDayOfWeek\')">\r\n                </span>\r\n                Searches per day of week\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchesPerDayOfWeek">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Day of the week</th>\r\n                        <th>Searches</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.searchesPerDayOfWeek">\r\n                        <td>{{ stat.day }}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="weeklyChart">\r\n                    <nvd3 options="searchesPerDayOfWeekChart.options" data="searchesPerDayOfWeekChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.searchesPerHourOfDay"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'searchesPerHourOfDay\')">\r\n                </span>\r\n                Searches per hour of day\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.searchesPerHourOfDay">\r\n                <table>\r\n                    <table class="table">\r\n                        <thead>\r\n                        <tr>\r\n                            <th>Hour of the day</th>\r\n                            <th>Searches</th>\r\n                        </tr>\r\n                        </thead>\r\n                        <tbody>\r\n                        <tr ng-repeat="stat in stats.searchesPerHourOfDay">\r\n                            <td>{{ stat.hour }}</td>\r\n                            <td>{{ stat.count }}</td>\r\n                        </tr>\r\n                        </tbody>\r\n                    </table>\r\n                </table>\r\n\r\n                <chart class="dailyChart">\r\n                    <nvd3 options="searchesPerHourOfDayChart.options" data="searchesPerHourOfDayChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n\r\n        </div>\r\n    </div>\r\n\r\n\r\n    <div class="row">\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadsPerDayOfWeek"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadsPerDayOfWeek\')">\r\n                </span>\r\n                NZB downloads per day of week\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadsPerDayOfWeek">\r\n                <table class="table">\r\n                    <thead>\r\n                    <tr>\r\n                        <th>Day of the week</th>\r\n                        <th>Downloads</th>\r\n                    </tr>\r\n                    </thead>\r\n                    <tbody>\r\n                    <tr ng-repeat="stat in stats.downloadsPerDayOfWeek">\r\n                        <td>{{ stat.day }}</td>\r\n                        <td>{{ stat.count }}</td>\r\n                    </tr>\r\n                    </tbody>\r\n                </table>\r\n\r\n                <chart class="weeklyChart">\r\n                    <nvd3 options="downloadsPerDayOfWeekChart.options" data="downloadsPerDayOfWeekChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n\r\n\r\n        <div class="col-md-10 stat-box">\r\n            <div class="caption">\r\n                <span uib-tooltip="Hiding a stat will disable its calculation and may improve overall loading time"\r\n                      tooltip-placement="auto top">\r\n                    <input bs-switch type="checkbox" ng-model="foo.statsSwichState.downloadsPerHourOfDay"\r\n                           switch-size="mini" ng-change="onStatsSwitchToggle(\'downloadsPerHourOfDay\')">\r\n                </span>\r\n                NZB downloads per hour of day\r\n            </div>\r\n            <tab-or-chart display="chart" ng-show="foo.statsSwichState.downloadsPerHourOfDay">\r\n                <table>\r\n                    <table class="table">\r\n                        <thead>\r\n                        <tr>\r\n                            <th>Hour of the day</th>\r\n                            <th>Downloads</th>\r\n                        </tr>\r\n                        </thead>\r\n                        <tbody>\r\n                        <tr ng-repeat="stat in stats.downloadsPerHourOfDay">\r\n                            <td>{{ stat.hour }}</td>\r\n                            <td>{{ stat.count }}</td>\r\n                        </tr>\r\n                        </tbody>\r\n                    </table>\r\n                </table>\r\n\r\n                <chart class="dailyChart">\r\n                    <nvd3 options="downloadsPerHourOfDayChart.options" data="downloadsPerHourOfDayChart.data"></nvd3>\r\n                </chart>\r\n            </tab-or-chart>\r\n        </div>\r\n    </div>\r\n\r\n\r\n</div>\r\n');
 $templateCache.put('static/html/states/notification-history.html','<div id="content">\n  <div class="row" style="margin-top: 30px; margin-bottom: 20px">\n    <div class="col-md-5"></div>\n    <div class="col-md-10" style="text-align: center">\n      <dir-pagination-controls on-page-change="update()" pagination-id="notification"></dir-pagination-controls>\n    </div>\n    <div class="col-md-5" style="text-align: right">\n      <button class="btn btn-default" ng-click="update()"><span class="glyphicon glyphicon-refresh"></span></button>\n    </div>\n  </div>\n  <div class="table-responsive">\n  <table class="table">\n    <thead>\n    <tr>\n      <th class="col-md-2" style="width: {{columnSizes.time}}%;">\n        <column-sortable column="time" style="width: 10%" reversed="false" start-mode="2">Time\n        </column-sortable>\n        <column-filter-wrapper>\n          <time-filter column="time" selected="preselectedTimeInterval"/>\n        </column-filter-wrapper>\n      </th>\n      <th class="col-md-8" style="width: {{columnSizes.type}}%">\n        <column-sortable column="NOTIFICATION_EVENT_TYPE" reversed="false" start-mode="1">Type\n        </column-sortable>\n        <column-filter-wrapper>\n          <checkboxes-filter column="NOTIFICATION_EVENT_TYPE" entries="eventTypesForFiltering" preselect="true" show-invert="true"/>\n        </column-filter-wrapper>\n      </th>\n\n      <th style="width: {{columnSizes.title}}%">\n        Title\n      </th>\n      <th style="width: {{columnSizes.body}}%">\n        Body\n      </th>\n      <th style="width: {{columnSizes.urls}}%">\n        URLs\n      </th>\n    </tr>\n    </thead>\n    <tbody>\n    <tr dir-paginate="notification in notifications | itemsPerPage: limit" total-items="totalNotifications"\n        current-page="pagination.current" pagination-id="notifications">\n      <td class="narrow-row">{{ notification.time | reformatDate }}</td>\n      <td class="narrow-row" ng-bind-html="formatEventType(notification)"></td>\n      <td class="narrow-row">{{ ::notification.title }}</td>\n      <td class="narrow-row" ng-bind-html="formatEventBody(notification)"></td>\n      <td class="narrow-row">{{ ::notification.urls }}</td>\n      </td>\n    </tr>\n    </tbody>\n  </table>\n  </div>\n    <dir-pagination-controls on-page-change="pageChanged(newPageNumber)" pagination-id="notifications"></dir-pagination-controls>\n\n</div>\n');
 $templateCache.put('static/html/states/search-history.html','<div id="content">\r\n  <div class="row" style="margin-top: 30px; margin-bottom: 20px">\r\n    <div class="col-md-5"></div>\r\n    <div class="col-md-10" style="text-align: center">\r\n      <dir-pagination-controls on-page-change="update()" pagination-id="searches"></dir-pagination-controls>\r\n    </div>\r\n    <div class="col-md-5" style="text-align: right">\r\n      <label>\r\n        <input type="checkbox" ng-model="foo.showUserAgentInHistory" ng-change="toggleShowUserAgentInHistory(foo.showUserAgentInHistory)">\r\n        Show user agents\r\n      </label>\r\n      <button class="btn btn-default" ng-click="update()"><span class="glyphicon glyphicon-refresh"></span></button>\r\n    </div>\r\n  </div>\r\n  <div class="table-responsive">\r\n  <table class="table">\r\n    <thead>\r\n    <tr>\r\n      <th class="col-md-2" style="width: {{columnSizes.time}}%;">\r\n        <column-sortable column="time" style="width: 10%" reversed="false" start-mode="2">Time\r\n        </column-sortable>\r\n        <column-filter-wrapper>\r\n          <time-filter column="time" selected="preselectedTimeInterval"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th class="col-md-8" style="width: {{columnSizes.query}}%">\r\n        <column-sortable column="query" reversed="false" start-mode="1">Query\r\n        </column-sortable>\r\n        <column-filter-wrapper>\r\n          <freetext-filter column="query"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th class="col-md-8" style="width: {{columnSizes.userAgent}}%" ng-if="foo.showUserAgentInHistory">\r\n        <column-sortable column="user_agent" reversed="false" start-mode="1">User agent\r\n        </column-sortable>\r\n        <column-filter-wrapper>\r\n          <freetext-filter column="user_agent"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th style="width: {{columnSizes.category}}%">\r\n        <column-sortable column="category_name" reversed="false" start-mode="1">Category\r\n        </column-sortable>\r\n        <column-filter-wrapper>\r\n          <checkboxes-filter column="category_name" entries="categoriesForFiltering" preselect="true"\r\n                             show-invert="true"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th style="width: {{columnSizes.additionalParameters}}%">\r\n        Additional parameters\r\n      </th>\r\n      <th class="col-md-1" style="width: {{columnSizes.source}}%">\r\n        <column-sortable column="source" reversed="false" start-mode="1">Source\r\n        </column-sortable>\r\n        <column-filter-wrapper>\r\n          <boolean-filter column="source" options="accessOptionsForFiltering" preselect="0"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th class="col-md-2" style="width: {{columnSizes.username}}%" ng-if="columnSizes.username > 0">\r\n        <column-sortable column="username" reversed="false" start-mode="1">User</column-sortable>\r\n        <column-filter-wrapper>\r\n          <freetext-filter column="username"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th class="col-md-2" style="width: {{columnSizes.ip}}%" ng-if="columnSizes.ip > 0">\r\n        <column-sortable column="ip" reversed="false" start-mode="1">Host</column-sortable>\r\n        <column-filter-wrapper>\r\n          <freetext-filter column="ip"/>\r\n        </column-filter-wrapper>\r\n      </th>\r\n      <th>Details</th>\r\n    </tr>\r\n    </thead>\r\n    <tbody>\r\n    <tr dir-paginate="request in searchRequests | itemsPerPage: limit" total-items="totalRequests"\r\n        current-page="pagination.current" pagination-id="searches">\r\n      <td class="narrow-row">{{ request.time | reformatDate }}</td>\r\n      <td class="narrow-row">\r\n        <a href="" ng-click="openSearch(request)"\r\n           uib-tooltip="Repeat this search with all currently enabled indexers." tooltip-placement="top"\r\n           tooltip-trigger="mouseenter"\r\n        ><span class="glyphicon glyphicon-search"></span></a>\r\n        <span ng-class="{\'history-title\': request.title != null || (request.query == null && request.identifiers.length === 0 && request.season ==null && request.episode ==null)}">\r\n                    {{ formatQuery(request) }}\r\n                </span>\r\n      </td>\r\n      <td class="narrow-row" ng-if="foo.showUserAgentInHistory">{{ ::request.userAgent }}</td>\r\n      <td class="narrow-row">{{ ::request.categoryName }}</td>\r\n      <td class="narrow-row" ng-bind-html="formatAdditional(request)"></td>\r\n      <td class="narrow-row">{{ ::request.source === "INTERNAL" ? "Internal" : "API"}}</td>\r\n      <td class="narrow-row" ng-if="columnSizes.username > 0">{{ ::request.username }}</td>\r\n      <td class="narrow-row" ng-if="columnSizes.ip > 0">{{ ::request.ip }}</td>\r\n      <td class="narrow-row"><span ng-click="showDetails(request.id)" class="glyphicon glyphicon-eye-open"></span>\r\n      </td>\r\n    </tr>\r\n    </tbody>\r\n  </table>\r\n  </div>\r\n  <dir-pagination-controls on-page-change="pageChanged(newPageNumber)"\r\n                           pagination-id="searches"></dir-pagination-controls>\r\n\r\n</div>\r\n');
 $templateCache.put('static/html/states/search-results.html','<span ng-show="doShowResults">\n<div class="row d-flex justify-content-center" ng-if="indexersearches.length" style="margin-top: 25px">\n    <div class="col-xs-20 col-sm-18 col-md-14 col-lg-10">\n        <uib-accordion close-others="oneAtATime" id="search-results-accordion">\n            <div uib-accordion-group panel-class="panel-indexer-statuses" is-open="foo.indexerStatusesExpanded"\n                 is-disabled="true" class="">\n                <uib-accordion-heading>\n                    <span class="indexer-statuses-accordion">\n                        <span ng-click="toggleIndexerStatuses()">Indexer statuses</span><span ng-if="countRejected > 0"> / Rejected results</span> <i\n                            class="pull-right glyphicon"\n                            ng-class="{\'glyphicon-chevron-down\': foo.indexerStatusesExpanded, \'glyphicon-chevron-right\': !foo.indexerStatusesExpanded}"\n                            ng-click="toggleIndexerStatuses()"></i>\n                    </span>\n                </uib-accordion-heading>\n                <table class="table">\n                    <thead>\n                    <tr>\n                        <th class="col-md-6 text-left">\n                            Indexer\n                        </th>\n                        <th class="col-md-2 text-left">\n                            Results\n                        </th>\n                        <th class="col-md-4 text-left">\n                            Response time\n                        </th>\n                        <th class="col-md-9 text-left">\n                            Status\n                        </th>\n                    </tr>\n                    </thead>\n                    <tbody>\n                        <tr ng-repeat-start="ps in indexersearches " ng-if="0"></tr>\n                        <!-- First result in the list, show regularly -->\n                        <tr>\n                            <td class="text-left">\n                                {{ ::ps.indexerName }}\n                            </td>\n                            <td class="text-left">\n                                <span ng-if="::ps.didSearch">\n                                    <span ng-if="::!ps.totalResultsKnown && ps.numberOfAvailableResults > 0">&gt;</span>{{ ::ps.numberOfAvailableResults }}\n                                </span>\n                                    </td>\n                                    <td class="text-left">\n                                <span ng-if="::ps.didSearch">\n                                    {{ ::ps.responseTime }}ms\n                                </span>\n                                    </td>\n                                    <td class="text-left">\n                                <span ng-if="::ps.didSearch">\n                                    <span class="glyphicon"\n                                          ng-class="{\'glyphicon-ok\' : ps.wasSuccessful, \'glyphicon-remove\' : !ps.wasSuccessful}"></span>\n                                    <span ng-if="::!ps.wasSuccessful">{{ ::ps.errorMessage }}</span>\n                                </span>\n\n                                <span ng-if="::!ps.didSearch">Did not search.</span>\n                            </td>\n                        </tr>\n                        <tr ng-repeat-end ng-if="0"></tr>\n\n\n                        <tr ng-repeat-start="ps in ::notPickedIndexersWithReason" ng-if="0"></tr>\n                        <tr>\n                            <td class="text-left">\n                                {{ ::ps.indexer }}\n                            </td>\n                            <td class="text-left">\n                            </td>\n                            <td class="text-left">\n                            </td>\n                            <td class="text-left">\n                                <span class="glyphicon glyphicon-minus"></span>\n                                {{::ps.reason}}\n                            </td>\n                        </tr>\n                        <tr ng-repeat-end ng-if="0"></tr>\n                    </tbody>\n                </table>\n\n                <table class="table" style="margin-bottom: 0px; margin-top: 5px" ng-if="countRejected > 0">\n                    <thead>\n                        <tr>\n                            <th class="col-md-5 text-left">\n                            </th>\n                            <th class="col-md-5 text-left" style="text-align: right">\n                                Reject reason\n                            </th>\n                            <th class="col-md-5 text-left">\n                                Count\n                            </th>\n                            <th class="col-md-5 text-left">\n                            </th>\n                        </tr>\n                    </thead>\n                    <tbody>\n                    <tr ng-repeat="entry in rejected | filter: filterRejectedZero(entry)">\n                        <td>\n                        </td>\n                        <td style="text-align: right">\n                            {{ entry[0] }}\n                        </td>\n                        <td>\n                            {{ entry[1] }}\n                        </td>\n                        <td>\n                        </td>\n                    </tr>\n                    </tbody>\n                </table>\n            </div>\n        </uib-accordion>\n    </div>\n</div>\n\n<div class="row" ng-if="::indexersearches.length == 0" style="margin-top: 50px">\n    <div class="well">\n        <h2>No indexers were picked for this search</h2>\n        <div style="width: 520px; margin: auto;text-align: left;">\n            Reasons:\n            <ul style="padding-left: 15px">\n                <li ng-repeat="tuple in ::notPickedIndexersWithReason">{{::tuple.indexer}}: {{::tuple.reason}}</li>\n            </ul>\n        </div>\n    </div>\n</div>\n\n<div class="row" ng-if="::indexersearches.length > 0 && (numberOfAvailableResults === 0)" style="margin-top: 50px" id="no-search-results">\n    <div class="well">\n        <h2 ng-if="!anyIndexersSearchedSuccessfully">Unable to search any indexer successfully; no results available</h2>\n        <h2 ng-if="!anyResultsRejected && anyIndexersSearchedSuccessfully">No results were found for this search</h2>\n    </div>\n</div>\n<div ng-if="::indexersearches.length > 0 && numberOfAvailableResults > 0" style="margin-top: 10px">\n    <div class="row my-5">\n        <div class="col-md-8 text-left">\n            <div class="d-flex flex-wrap">\n                <div id="display-options" class="pe-2 mb-2"\n                    multiselect-dropdown options="optionsOptions" selected-model="optionsSelectedModel"\n                    settings="optionsExtraSettings" events="optionsEvents"\n                ></div>\n\n                <div selection-button invert-selection="invertSelection" select-all="selectAll" deselect-all="deselectAll"\n                    id="search-results-selection-button" class="pe-2 mb-2"></div>\n\n                <download-nzbs-button search-results="selected" callback="downloadNzbsCallback(result)"></download-nzbs-button>\n                <download-nzbzip-button search-results="selected" search-title="searchTitle"\n                                        callback="downloadNzbsCallback(result)" ng-if="foo.showResultsAsZipButton && allowZipDownload"></download-nzbzip-button>\n            </div>\n        </div>\n\n        <div class="col-md-4 search-results-pagination">\n            <dir-pagination-controls auto-hide="false" max-size="5"></dir-pagination-controls>\n        </div>\n        <div class="col-md-8 text-right">\n\n\n            <div>\n                <span class="badge"\n                    uib-tooltip-html="getRejectedReasonsTooltip()"\n                    tooltip-class="rejected-tooltip"\n                    tooltip-placement="top"\n                    tooltip-trigger="click"\n                >\n                    <span ng-if="numberOfLoadedResults <= numberOfAvailableResults">\n                        Loaded {{ numberOfLoadedResults }} ({{ numberOfFilteredResults }} filtered, {{numberOfDuplicateResults}} duplicates) of <span ng-if="totalAvailableUnknown">&gt;</span>{{ numberOfAvailableResults }} results (rejected {{ numberOfRejectedResults }})\n                    </span>\n                    <span ng-if="numberOfLoadedResults > numberOfAvailableResults">\n                    Loaded all {{ numberOfLoadedResults }} results (rejected {{ numberOfRejectedResults }})\n                    </span>\n                </span>\n\n                <div class="btn-group">\n                    <!--Add tooltip div to body to prevent div being insert in btn-group and changing layout because more children are there -->\n                    <button class="btn btn-default" ng-click="loadMore(false)" ng-disabled="!loadMoreEnabled"\n                            tooltip-append-to-body="true"\n                            uib-tooltip="Click to load more results from the indexers. May reset some filters"\n                            tooltip-placement="top"\n                            tooltip-trigger="mouseenter"\n                    >Load more\n                        <img src="static/img/spinner.gif" ng-if="loadingMore"/>\n                    </button>\n                    <button type="button" class="btn btn-default dropdown-toggle" data-toggle="dropdown"\n                            aria-haspopup="true" aria-expanded="false" ng-disabled="!loadMoreEnabled">\n                        <span class="caret"></span>\n                        <span class="sr-only">Toggle Dropdown</span>\n                    </button>\n                    <ul class="dropdown-menu">\n                        <li><a href="#" ng-click="loadMore(true)"\n                            uib-tooltip="Click to load all of the results from the indexers. May take a while and a lot of API requests..."\n                            tooltip-placement="top"\n                            tooltip-trigger="mouseenter"\n                        >Load all results</a></li>\n                    </ul>\n                </div>\n\n            </div>\n        </div>\n    </div>\n\n    <div class="row" ng-if="::showEmbyResults">\n        <div class="col-md-6"></div>\n        <div class="col-md-8">\n    <div class="alert alert-success" role="alert">\n        <span ng-if="embyType===\'show\'">\n            This show is already available on the server. Please check if the episodes you are interested in are available or request them using Ombi.\n        </span>\n        <span ng-if="embyType===\'movie\'">\n            This movie is already available on the server. Please check if the quality matches the one you want..\n        </span>\n    </div>\n            </div>\n    </div>\n    \n    <div class="row" ng-if="::(isShowFilterButtons)">\n        <div class="col-md-20">\n            <div class="btn-toolbar" role="toolbar" style="margin: auto; display:inline-block">\n                <div class="btn-group btn-group-xs" role="group" ng-if="isShowFilterButtonsVideo">\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.source.camts" uib-btn-checkbox>CAM / TS\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.source.tv" uib-btn-checkbox>TV\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.source.web" uib-btn-checkbox>WEB\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.source.dvd" uib-btn-checkbox>DVD\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.source.bluray" uib-btn-checkbox>\n                        Blu-Ray\n                    </button>\n                </div>\n                <div class="btn-group btn-group-xs" role="group" ng-if="isShowFilterButtonsVideo">\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.quality.q480p" uib-btn-checkbox>480p\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.quality.q720p" uib-btn-checkbox>720p\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.quality.q1080p" uib-btn-checkbox>\n                        1080p\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.quality.q2160p" uib-btn-checkbox>\n                        2160p\n                    </button>\n                </div>\n                <div class="btn-group btn-group-xs" role="group" ng-if="isShowFilterButtonsVideo">\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.other.q3d" uib-btn-checkbox>3D\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.other.x265" uib-btn-checkbox>x265\n                    </button>\n                    <button type="button" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.other.hevc" uib-btn-checkbox>HEVC\n                    </button>\n                </div>\n                <div class="btn-group btn-group-xs" role="group">\n                    <button ng-repeat="entry in customFilterButtons" class="btn btn-default filter-button" ng-change="onFilterButtonsModelChange()"\n                            uncheckable ng-model="filterButtonsModel.custom[entry]" uib-btn-checkbox>{{entry}}\n\n                    </button>\n\n                </div>\n            </div>\n        </div>\n    </div>\n\n    <table class="table table-hover search-results-table">\n        <thead class="search-results-header">\n        <tr class="search-results-header-row">\n            <th class="col-md-13 cursor-default search-results-cell result-title">\n                <column-sortable column="title" reversed="false" start-mode="1">Title\n                </column-sortable>\n                <column-filter-wrapper inline="true">\n                    <freetext-filter column="title" on-key="true" id="title-filter" placeholder="Filter results"\n                                     tooltip="Filter in title words. Prepend words with ! to exclude them. Wrap in \'/\' to use regular expressions."\n                                     no-focus="true"/>\n                </column-filter-wrapper>\n            </th>\n            <th class="col-md-1 cursor-default search-results-cell result-indexer"\n                style="vertical-align: top; text-align: right">\n                <column-sortable column="indexer" reversed="false" start-mode="1">Indexer\n                </column-sortable>\n                <column-filter-wrapper>\n                    <checkboxes-filter column="indexer" entries="indexersForFiltering" preselect="true"\n                                       show-invert="true" id="indexer-filter"/>\n                </column-filter-wrapper>\n            </th>\n            <th class="col-md-1 cursor-default search-results-cell result-category"\n                style="vertical-align: top; text-align: right">\n                <column-sortable column="category" reversed="false" start-mode="1">Category\n                </column-sortable>\n                <column-filter-wrapper>\n                    <checkboxes-filter column="category" entries="categoriesForFiltering" preselect="true"\n                                       show-invert="true" id="category-filter"/>\n                </column-filter-wrapper>\n            </th>\n            <th class="col-md-1 cursor-default search-results-cell result-size"\n                style="vertical-align: top; text-align: right">\n                <column-sortable column="size" reversed="false" start-mode="2">Size\n                </column-sortable>\n                <column-filter-wrapper>\n                    <number-range-filter column="size" addon="MB" id="size-filter"/>\n                </column-filter-wrapper>\n            </th>\n            <th class="col-md-1 cursor-default search-results-cell result-details"\n                style="vertical-align: top; text-align: right"\n                tooltip-append-to-body="true"\n                uib-tooltip="Displays grabs and for torrents also seeders / peers, with sort and filter effecting seeders if available, otherwise grabs. You can enable that or filtering and sorting the sum of all values is used (see display options)"\n                tooltip-placement="top"\n                tooltip-trigger="mouseenter"\n            >\n\n                <column-sortable column="grabs" reversed="false" start-mode="2">Details\n                </column-sortable>\n                <column-filter-wrapper>\n                    <number-range-filter column="grabs" id="grabs-filter"/>\n                </column-filter-wrapper>\n            </th>\n            <th class="col-md-1 cursor-default search-results-cell result-age"\n                style="vertical-align: top; text-align: right">\n                <column-sortable column="epoch" reversed="true" start-mode="2">Age\n                </column-sortable>\n                <column-filter-wrapper>\n                    <number-range-filter column="epoch" addon="days" id="age-filter" tooltip="Suffix with h or m to filter by hours or minutes, respectively"/>\n                </column-filter-wrapper>\n            </th>\n            <th class="col-md-2 search-results-cell result-links" style="vertical-align: top">\n                Links\n            </th>\n        </tr>\n        </thead>\n        <tbody>\n        <tr>\n            <th style="text-align: center; margin-top: 5px" colspan="67" ng-if="allResultsFiltered || numberOfAcceptedResults === 0">\n                <h2 ng-if="allResultsFiltered">All results are currently filtered</h2>\n                <h2 ng-if="numberOfAcceptedResults === 0">All found results have been rejected</h2>\n            </th>\n        </tr>\n        </tbody>\n\n       <tbody dir-paginate-start="result in filteredResults | itemsPerPage:limitTo track by result.searchResultId"\n              ng-show="0"></tbody>\n        <tbody search-result result="result" on-finish-render search-results-controller-shared="shared" class="search-result-tbody" style="{{::result.style}}"></tbody>\n        <tbody dir-paginate-end ng-show="0"></tbody>\n        <tbody>{{result.title}}</tbody>\n\n    </table>\n\n    <dir-pagination-controls auto-hide="false" on-page-change="onPageChange(newPageNumber, oldPageNumber)"></dir-pagination-controls>\n</div>\n</span>\n');
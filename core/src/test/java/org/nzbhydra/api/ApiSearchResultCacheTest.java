@@ -0,0 +1,120 @@
+package org.nzbhydra.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ApiSearchResultCacheTest {
+
+    private Instant now = Instant.parse("2021-01-13T09:00:00.000Z");
+    private final ApiSearchResultCache<String> testee = new ApiSearchResultCache<>(2, Duration.ofHours(24), () -> now);
+
+    @AfterEach
+    public void tearDown() {
+        testee.shutdown();
+    }
+
+    @Test
+    void shouldCacheAndUpdateAfterCacheTime() {
+        assertThat(testee.get(1, Duration.ofMinutes(5), false, () -> "first")).isEqualTo("first");
+        assertThat(testee.get(1, Duration.ofMinutes(5), false, () -> "second")).isEqualTo("first");
+
+        now = now.plus(Duration.ofMinutes(6));
+        assertThat(testee.get(1, Duration.ofMinutes(5), false, () -> "second")).isEqualTo("second");
+
+        assertThat(testee.getHits()).isEqualTo(1);
+        assertThat(testee.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEvictOldestEntry() {
+        testee.get(1, Duration.ofMinutes(5), false, () -> "1");
+        now = now.plusSeconds(1);
+        testee.get(2, Duration.ofMinutes(5), false, () -> "2");
+        now = now.plusSeconds(1);
+        testee.get(3, Duration.ofMinutes(5), false, () -> "3");
+
+        assertThat(testee.size()).isEqualTo(2);
+        assertThat(testee.get(2, Duration.ofMinutes(5), false, () -> "new")).isEqualTo("2");
+        assertThat(testee.get(1, Duration.ofMinutes(5), false, () -> "new")).isEqualTo("new");
+    }
+
+    @Test
+    void shouldNotCacheFailedSearch() {
+        assertThatThrownBy(() -> testee.get(1, Duration.ofMinutes(5), false, () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(testee.size()).isEqualTo(0);
+        assertThat(testee.get(1, Duration.ofMinutes(5), false, () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void shouldCoalesceIdenticalSearches() throws Exception {
+        CountDownLatch searchStarted = new CountDownLatch(1);
+        CountDownLatch finishSearch = new CountDownLatch(1);
+        AtomicInteger searches = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<String> first = executor.submit(() -> testee.get(1, Duration.ofMinutes(5), false, () -> {
+                searches.incrementAndGet();
+                searchStarted.countDown();
+                try {
+                    finishSearch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return "result";
+            }));
+            assertThat(searchStarted.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<String> second = executor.submit(() -> testee.get(1, Duration.ofMinutes(5), false, () -> {
+                searches.incrementAndGet();
+                return "other";
+            }));
+            Future<String> third = executor.submit(() -> testee.get(1, Duration.ofMinutes(5), false, () -> {
+                searches.incrementAndGet();
+                return "other";
+            }));
+            waitUntil(() -> testee.getCoalesced() == 2);
+            finishSearch.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(third.get(10, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(searches.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldServeStaleResultAndUpdateInBackground() throws Exception {
+        testee.get(1, Duration.ofMinutes(5), true, () -> "old");
+        now = now.plus(Duration.ofMinutes(6));
+
+        assertThat(testee.get(1, Duration.ofMinutes(5), true, () -> "new")).isEqualTo("old");
+        assertThat(testee.getStaleHits()).isEqualTo(1);
+
+        waitUntil(() -> testee.get(1, Duration.ofMinutes(5), true, () -> "newer").equals("new"));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(end);
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -24,6 +24,8 @@ import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
 import org.nzbhydra.misc.UserAgentMapper;
 import org.nzbhydra.searching.CategoryProvider;
 import org.nzbhydra.searching.CustomQueryAndTitleMappingHandler;
+import org.nzbhydra.searching.SearchAdmission;
+import org.nzbhydra.searching.SearchRejectedException;
 import org.nzbhydra.searching.SearchResult;
 import org.nzbhydra.searching.Searcher;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
@@ -72,6 +74,8 @@ public class ExternalApiTest {
     private Jaxb2Marshaller jaxb2MarshallerMock;
     @Mock
     private CustomQueryAndTitleMappingHandler customQueryAndTitleMappingHandler;
+    @Mock
+    private SearchAdmission searchAdmission;
     IndexerConfig indexerConfig = new IndexerConfig();
 
 
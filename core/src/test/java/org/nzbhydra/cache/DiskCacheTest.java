@@ -18,19 +18,29 @@ package org.nzbhydra.cache;
 
 import lombok.SneakyThrows;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@Disabled
 class DiskCacheTest {
 
     File file;
@@ -53,51 +63,176 @@ class DiskCacheTest {
     @SneakyThrows
     public void shouldSaveAndLoad() {
         DiskCache diskCache = new DiskCache(file, "name");
-        assertThat(diskCache.lookup("doesntExistYet")).isNull();
-        assertThat(diskCache.get("doesntExistYet")).isNull();
-
-        byte[] value = "hello".getBytes(StandardCharsets.UTF_8);
-
-        diskCache.put("key", value);
-        assertThat(diskCache.get("key").get()).isEqualTo(value);
-        assertThat(file.listFiles()).isNotEmpty();
+        AtomicInteger loads = new AtomicInteger();
+        DiskCache.Loader loader = outputStream -> {
+            loads.incrementAndGet();
+            outputStream.write("hello".getBytes(StandardCharsets.UTF_8));
+        };
+
+        File cached = diskCache.get("key", loader);
+        assertThat(Files.readString(cached.toPath())).isEqualTo("hello");
+        assertThat(diskCache.get("key", loader)).isEqualTo(cached);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(diskCache.getTotalSize()).isEqualTo(5);
 
         diskCache.evict("key");
         assertThat(file.listFiles()).isEmpty();
-
+        assertThat(diskCache.getTotalSize()).isEqualTo(0);
     }
 
     @Test
     @SneakyThrows
     public void shouldCleanWhenTooMany() {
-        DiskCache diskCache = new DiskCache(file, "name");
+        DiskCache diskCache = new DiskCache(file, "name", 500, Long.MAX_VALUE);
         for (int i = 1; i <= 501; i++) {
-            byte[] value = "hello".getBytes(StandardCharsets.UTF_8);
-            diskCache.put("key" + i, value);
+            put(diskCache, "key" + i, "hello");
+            if (i == 3) {
+                //Make key1 the least recently used
+                put(diskCache, "key2", "hello");
+            }
         }
-        assertThat(diskCache.get("key1"))
+        assertThat(diskCache.getEntryCount()).isEqualTo(500);
+        assertThat(file.listFiles()).hasSize(500);
+        assertThat(isCached(diskCache, "key1"))
                 .as("Should've deleted oldest entry")
-                .isNull();
+                .isFalse();
 
-        assertThat(diskCache.get("key2"))
+        assertThat(isCached(diskCache, "key2"))
                 .as("Should've kept second oldest entry")
-                .isNotNull();
+                .isTrue();
     }
 
     @Test
     @SneakyThrows
     public void shouldCleanWhenTooLarge() {
-        DiskCache diskCache = new DiskCache(file, "name");
+        DiskCache diskCache = new DiskCache(file, "name", 500, 25);
         for (int i = 1; i <= 3; i++) {
-            String value = RandomStringUtils.random(10_000_000);
-            diskCache.put("key" + i, value.getBytes(StandardCharsets.UTF_8));
+            put(diskCache, "key" + i, "0123456789");
         }
-        assertThat(diskCache.get("key1"))
+        assertThat(diskCache.getTotalSize()).isEqualTo(20);
+        assertThat(isCached(diskCache, "key1"))
                 .as("Should've deleted oldest entry")
-                .isNull();
+                .isFalse();
 
-        assertThat(diskCache.get("key2"))
+        assertThat(isCached(diskCache, "key2"))
                 .as("Should've kept second oldest entry")
-                .isNotNull();
+                .isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    public void shouldRebuildIndexFromFiles() {
+        DiskCache diskCache = new DiskCache(file, "name");
+        put(diskCache, "key1", "hello");
+        put(diskCache, "key2", "hello");
+        Files.writeString(new File(file, "interrupted.tmp").toPath(), "hello");
+        Files.writeString(new File(file, "aHR0cDovL3d3dy5leGFtcGxlLmNvbS9pbWFnZS5qcGc=").toPath(), "hello");
+
+        DiskCache rebuilt = new DiskCache(file, "name");
+        assertThat(rebuilt.getEntryCount()).isEqualTo(2);
+        assertThat(rebuilt.getTotalSize()).isEqualTo(10);
+        assertThat(new File(file, "interrupted.tmp")).doesNotExist();
+        assertThat(new File(file, "aHR0cDovL3d3dy5leGFtcGxlLmNvbS9pbWFnZS5qcGc=")).doesNotExist();
+        assertThat(isCached(rebuilt, "key1")).isTrue();
+    }
+
+    @Test
+    @SneakyThrows
+    public void shouldLoadOnlyOnceForConcurrentRequests() {
+        DiskCache diskCache = new DiskCache(file, "name");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        DiskCache.Loader loader = outputStream -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            try {
+                finishLoad.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            outputStream.write("hello".getBytes(StandardCharsets.UTF_8));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<File>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> diskCache.get("key", loader)));
+            loadStarted.await(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> diskCache.get("key", loader)));
+            }
+            finishLoad.countDown();
+            for (Future<File> future : futures) {
+                assertThat(Files.readString(future.get(10, TimeUnit.SECONDS).toPath())).isEqualTo("hello");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void shouldNotCacheFailedLoads() {
+        DiskCache diskCache = new DiskCache(file, "name");
+
+        assertThatThrownBy(() -> diskCache.get("key", outputStream -> {
+            outputStream.write("partial".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Connection reset");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(file.listFiles()).isEmpty();
+        assertThat(isCached(diskCache, "key")).isFalse();
+    }
+
+    @Test
+    @SneakyThrows
+    public void shouldKeepSmallEntriesInMemory() {
+        DiskCache diskCache = new DiskCache(file, "name", 500, Long.MAX_VALUE, 100);
+        put(diskCache, "small", "hello");
+        put(diskCache, "large", "01234567890123456789");
+
+        //Files deleted on disk are still served from memory
+        FileUtils.cleanDirectory(file);
+        Resource small = diskCache.getResource("small", outputStream -> {
+            throw new IOException("Not cached");
+        });
+        assertThat(small).isInstanceOf(ByteArrayResource.class);
+        assertThat(small.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("hello");
+        assertThatThrownBy(() -> diskCache.getResource("large", outputStream -> {
+            throw new IOException("Not cached");
+        })).isInstanceOf(IOException.class);
+
+        diskCache.evict("small");
+        assertThat(diskCache.getResource("small", outputStream -> outputStream.write("reloaded".getBytes(StandardCharsets.UTF_8))).getContentAsString(StandardCharsets.UTF_8)).isEqualTo("reloaded");
+    }
+
+    @Test
+    @SneakyThrows
+    public void shouldKeepReturnedResourceReadableWhenEvicted() {
+        DiskCache diskCache = new DiskCache(file, "name");
+        Resource resource = diskCache.getResource("key", outputStream -> outputStream.write("hello".getBytes(StandardCharsets.UTF_8)));
+        assertThat(resource.contentLength()).isEqualTo(5);
+
+        diskCache.evict("key");
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("hello");
+        }
+    }
+
+    private static void put(DiskCache diskCache, String key, String value) throws IOException {
+        diskCache.getResource(key, outputStream -> outputStream.write(value.getBytes(StandardCharsets.UTF_8))).getInputStream().close();
+    }
+
+    private static boolean isCached(DiskCache diskCache, String key) {
+        try {
+            diskCache.get(key, outputStream -> {
+                throw new IOException("Not cached");
+            });
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package org.nzbhydra.debuginfos;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HydraMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Metrics.removeRegistry(registry);
+        registry.close();
+    }
+
+    @Test
+    void shouldRecordIndexerRequestsByIndexerAndResult() {
+        HydraMetrics.recordIndexerRequest("indexer1", "search", "successful", 100);
+        HydraMetrics.recordIndexerRequest("indexer1", "search", "successful", 300);
+        HydraMetrics.recordIndexerRequest("indexer1", "search", "error", 5000);
+
+        Timer successful = registry.get("hydra.indexer.request").tags("indexer", "indexer1", "result", "successful").timer();
+        assertThat(successful.count()).isEqualTo(2);
+        assertThat(successful.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(400);
+        assertThat(registry.get("hydra.indexer.request").tags("result", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReuseMetersForSameTags() {
+        HydraMetrics.recordDownloaderPoll("sabnzbd", "history", true, 100);
+        HydraMetrics.recordDownloaderPoll("sabnzbd", "history", true, 200);
+        HydraMetrics.recordDownloaderPoll("sabnzbd", "queue", true, 50);
+
+        assertThat(registry.get("hydra.downloader.poll").timers()).hasSize(2);
+        assertThat(registry.get("hydra.downloader.poll").tags("type", "history").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountRejectedResultsByReason() {
+        Multiset<String> reasonsForRejection = HashMultiset.create();
+        reasonsForRejection.add("Wrong category", 3);
+        reasonsForRejection.add("Too old");
+
+        HydraMetrics.countRejectedResults("indexer1", reasonsForRejection);
+
+        assertThat(registry.get("hydra.results.rejected").tags("reason", "Wrong category").counter().count()).isEqualTo(3);
+        assertThat(registry.get("hydra.results.rejected").tags("reason", "Too old").counter().count()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,225 @@
+package org.nzbhydra.downloading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchSource;
+import org.nzbhydra.config.downloading.FileDownloadAccessType;
+import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.indexers.IndexerAccessTracker;
+import org.nzbhydra.indexers.IndexerEntity;
+import org.nzbhydra.searching.db.SearchResultEntity;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BulkFileDownloaderTest {
+
+    @Mock
+    private FileHandler fileHandler;
+    @Mock
+    private ConfigProvider configProvider;
+    @Mock
+    private IndexerAccessTracker indexerAccessTracker;
+    @InjectMocks
+    private BulkFileDownloader testee;
+
+    private final IndexerConfig indexerConfig1 = new IndexerConfig();
+    private final IndexerConfig indexerConfig2 = new IndexerConfig();
+    private final IndexerEntity indexerEntity1 = new IndexerEntity("indexer1");
+    private final IndexerEntity indexerEntity2 = new IndexerEntity("indexer2");
+
+    @BeforeEach
+    public void setUp() {
+        indexerConfig1.setName("indexer1");
+        indexerConfig2.setName("indexer2");
+        indexerEntity1.setId(1);
+        indexerEntity2.setId(2);
+        when(configProvider.getIndexerByName("indexer1")).thenReturn(indexerConfig1);
+        when(configProvider.getIndexerByName("indexer2")).thenReturn(indexerConfig2);
+        when(fileHandler.getFileByResult(eq(FileDownloadAccessType.PROXY), eq(SearchSource.INTERNAL), any())).thenAnswer(invocation -> {
+            SearchResultEntity searchResult = invocation.getArgument(2);
+            return DownloadResult.createSuccessfulDownloadResult(searchResult.getTitle(), searchResult.getTitle().getBytes(), null);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        testee.shutdown();
+    }
+
+    @Test
+    void shouldDownloadAllAndCallConsumerInCallingThread() {
+        List<SearchResultEntity> searchResults = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            searchResults.add(createSearchResult(i, i % 2 == 0 ? indexerEntity1 : indexerEntity2));
+        }
+        Thread callingThread = Thread.currentThread();
+        List<Long> consumedIds = new ArrayList<>();
+
+        testee.download(searchResults, SearchSource.INTERNAL, (searchResult, result) -> {
+            assertThat(Thread.currentThread()).isSameAs(callingThread);
+            assertThat(result.isSuccessful()).isTrue();
+            assertThat(new String(result.getContent())).isEqualTo(searchResult.getTitle());
+            consumedIds.add(searchResult.getId());
+        });
+
+        assertThat(consumedIds).containsExactlyInAnyOrder(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    void shouldCallConsumerInOrderOfSearchResults() {
+        when(fileHandler.getFileByResult(eq(FileDownloadAccessType.PROXY), eq(SearchSource.INTERNAL), any())).thenAnswer(invocation -> {
+            SearchResultEntity searchResult = invocation.getArgument(2);
+            //Earlier results take longer
+            Thread.sleep(50 - searchResult.getId() * 10);
+            return DownloadResult.createSuccessfulDownloadResult(searchResult.getTitle(), new byte[0], null);
+        });
+        List<SearchResultEntity> searchResults = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            searchResults.add(createSearchResult(i, i % 2 == 0 ? indexerEntity1 : indexerEntity2));
+        }
+        List<Long> consumedIds = new ArrayList<>();
+
+        testee.download(searchResults, SearchSource.INTERNAL, (searchResult, result) -> consumedIds.add(searchResult.getId()));
+
+        assertThat(consumedIds).containsExactly(0L, 1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void shouldReportResultsOfUnknownIndexersAsErrors() {
+        when(configProvider.getIndexerByName("indexer2")).thenThrow(new RuntimeException("Unable to find indexer with name indexer2"));
+        Map<Long, DownloadResult> results = new ConcurrentHashMap<>();
+
+        testee.download(List.of(createSearchResult(1, indexerEntity1), createSearchResult(2, indexerEntity2)), SearchSource.INTERNAL, (searchResult, result) -> results.put(searchResult.getId(), result));
+
+        assertThat(results.get(1L).isSuccessful()).isTrue();
+        assertThat(results.get(2L).isSuccessful()).isFalse();
+        assertThat(results.get(2L).getError()).contains("Indexer indexer2 not found");
+    }
+
+    @Test
+    void shouldNotWaitForeverWhenDownloadFailsUnexpectedly() {
+        when(fileHandler.getFileByResult(any(), any(), any())).thenThrow(new StackOverflowError());
+        List<SearchResultEntity> searchResults = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            searchResults.add(createSearchResult(i, indexerEntity1));
+        }
+        List<DownloadResult> results = new ArrayList<>();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> testee.download(searchResults, SearchSource.INTERNAL, (searchResult, result) -> results.add(result)));
+
+        assertThat(results).hasSize(5).noneMatch(DownloadResult::isSuccessful);
+    }
+
+    @Test
+    void shouldLimitConnectionsPerIndexer() {
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        Map<String, Integer> maxRunning = new ConcurrentHashMap<>();
+        when(fileHandler.getFileByResult(eq(FileDownloadAccessType.PROXY), eq(SearchSource.INTERNAL), any())).thenAnswer(invocation -> {
+            SearchResultEntity searchResult = invocation.getArgument(2);
+            String indexer = searchResult.getIndexer().getName();
+            int current = running.computeIfAbsent(indexer, x -> new AtomicInteger()).incrementAndGet();
+            maxRunning.merge(indexer, current, Math::max);
+            Thread.sleep(20);
+            running.get(indexer).decrementAndGet();
+            return DownloadResult.createSuccessfulDownloadResult(searchResult.getTitle(), new byte[0], null);
+        });
+        List<SearchResultEntity> searchResults = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            searchResults.add(createSearchResult(i, indexerEntity1));
+        }
+        AtomicInteger consumed = new AtomicInteger();
+
+        testee.download(searchResults, SearchSource.INTERNAL, (searchResult, result) -> consumed.incrementAndGet());
+
+        assertThat(consumed.get()).isEqualTo(8);
+        assertThat(maxRunning.get("indexer1")).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldNotDownloadMoreThanAllowedByDownloadLimit() {
+        indexerConfig1.setDownloadLimit(5);
+        when(indexerAccessTracker.countSince(eq(1), eq(IndexerAccessTracker.AccessGroup.DOWNLOADS), any(Instant.class))).thenReturn(3);
+        List<SearchResultEntity> searchResults = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            searchResults.add(createSearchResult(i, indexerEntity1));
+        }
+        searchResults.add(createSearchResult(4, indexerEntity2));
+        AtomicInteger successful = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        testee.download(searchResults, SearchSource.INTERNAL, (searchResult, result) -> {
+            if (result.isSuccessful()) {
+                successful.incrementAndGet();
+            } else {
+                assertThat(result.getError()).contains("Download limit of indexer indexer1 reached");
+                failed.incrementAndGet();
+            }
+        });
+
+        assertThat(successful.get()).isEqualTo(3);
+        assertThat(failed.get()).isEqualTo(2);
+        verify(fileHandler, times(3)).getFileByResult(any(), any(), any());
+        verify(indexerAccessTracker, never()).countSince(eq(2), any(), any());
+    }
+
+    @Test
+    void shouldReportFailedDownloadsAsErrors() {
+        when(fileHandler.getFileByResult(any(), any(), any())).thenThrow(new RuntimeException("boom"));
+
+        List<DownloadResult> results = new ArrayList<>();
+        testee.download(List.of(createSearchResult(1, indexerEntity1)), SearchSource.INTERNAL, (searchResult, result) -> results.add(result));
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(results.get(0).getError()).contains("boom");
+    }
+
+    @Test
+    void shouldStopAndRethrowWhenConsumerFails() {
+        List<SearchResultEntity> searchResults = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            searchResults.add(createSearchResult(i, indexerEntity1));
+        }
+        AtomicInteger consumed = new AtomicInteger();
+
+        assertThatThrownBy(() -> testee.download(searchResults, SearchSource.INTERNAL, (searchResult, result) -> {
+            consumed.incrementAndGet();
+            throw new IOException("Stream closed");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(consumed.get()).isEqualTo(1);
+    }
+
+    private static SearchResultEntity createSearchResult(long id, IndexerEntity indexerEntity) {
+        SearchResultEntity searchResult = new SearchResultEntity();
+        searchResult.setId(id);
+        searchResult.setIndexer(indexerEntity);
+        searchResult.setTitle("title" + id);
+        return searchResult;
+    }
+
+}
@@ -0,0 +1,26 @@
+package org.nzbhydra.downloading.downloaders;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DownloaderEntryIndexTest {
+
+    @Test
+    void shouldFindEntriesByIdAndNormalizedName() {
+        DownloaderEntry entry1 = new DownloaderEntry("1", "Some.Show.S01E01-GROUP", "Completed", null);
+        DownloaderEntry entry2 = new DownloaderEntry("2", "some show s01e02 group", "Failed", null);
+        DownloaderEntry entryWithoutName = new DownloaderEntry("3", null, "Grabbing", null);
+        Downloader.DownloaderEntryIndex testee = new Downloader.DownloaderEntryIndex(List.of(entry1, entry2, entryWithoutName));
+
+        assertThat(testee.getById("1")).containsExactly(entry1);
+        assertThat(testee.getById("3")).containsExactly(entryWithoutName);
+        assertThat(testee.getById("4")).isEmpty();
+        assertThat(testee.getByName("some.show.s01e01-group")).containsExactly(entry1);
+        assertThat(testee.getByName("Some Show S01E02 Group!")).containsExactly(entry2);
+        assertThat(testee.getByName("Some.Show.S01E03-GROUP")).isEmpty();
+    }
+
+}
@@ -77,14 +77,14 @@ public class DownloaderTest {
 
         testee.checkForStatusUpdates(Collections.singletonList(new FileDownloadEntity()), StatusCheckType.HISTORY);
 
-        verify(testee, never()).isDownloadMatchingDownloaderEntry(any(), any());
+        verify(testee, never()).getMatchingDownloaderEntries(any(), any());
     }
 
     @Test
     void shouldSkipDownloadEntriesWithUnparsableStatus() throws Exception {
         when(testee.getHistory(any())).thenReturn(Collections.singletonList(downloaderEntry));
         when(testee.getDownloadStatusFromDownloaderEntry(any(), any())).thenReturn(null);
-        when(testee.isDownloadMatchingDownloaderEntry(any(), any())).thenReturn(true);
+        when(testee.getMatchingDownloaderEntries(any(), any())).thenReturn(Collections.singletonList(downloaderEntry));
 
         testee.checkForStatusUpdates(Collections.singletonList(downloadEntityMock), StatusCheckType.HISTORY);
 
@@ -95,7 +95,7 @@ public class DownloaderTest {
     void shouldSetNewStatusIfUpdates() throws Exception {
         when(testee.getHistory(any())).thenReturn(Collections.singletonList(downloaderEntry));
         when(testee.getDownloadStatusFromDownloaderEntry(any(), any())).thenReturn(FileDownloadStatus.NZB_DOWNLOAD_SUCCESSFUL);
-        when(testee.isDownloadMatchingDownloaderEntry(any(), any())).thenReturn(true);
+        when(testee.getMatchingDownloaderEntries(any(), any())).thenReturn(Collections.singletonList(downloaderEntry));
 
         testee.checkForStatusUpdates(Collections.singletonList(downloadEntityMock), StatusCheckType.HISTORY);
 
@@ -106,7 +106,7 @@ public class DownloaderTest {
     void shouldSkipNewStatusIfNotUpdates() throws Exception {
         when(testee.getHistory(any())).thenReturn(Collections.singletonList(downloaderEntry));
         when(testee.getDownloadStatusFromDownloaderEntry(any(), any())).thenReturn(FileDownloadStatus.NONE);
-        when(testee.isDownloadMatchingDownloaderEntry(any(), any())).thenReturn(true);
+        when(testee.getMatchingDownloaderEntries(any(), any())).thenReturn(Collections.singletonList(downloaderEntry));
 
         testee.checkForStatusUpdates(Collections.singletonList(downloadEntityMock), StatusCheckType.HISTORY);
 
@@ -17,6 +17,25 @@
 package org.nzbhydra.downloading.downloaders.sabnzbd;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.nzbhydra.config.downloading.DownloaderConfig;
+import org.nzbhydra.downloading.downloaders.DownloaderEntry;
+import org.nzbhydra.downloading.downloaders.sabnzbd.mapping.History;
+import org.nzbhydra.downloading.downloaders.sabnzbd.mapping.HistoryEntry;
+import org.nzbhydra.downloading.downloaders.sabnzbd.mapping.HistoryResponse;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class SabnzbdTest {
 
@@ -26,4 +45,36 @@ class SabnzbdTest {
         org.assertj.core.api.Assertions.assertThat(Sabnzbd.durationStringToSeconds("01:01")).isEqualTo(61);
     }
 
+    @Test
+    void shouldReuseHistoryIfUnchanged() throws Exception {
+        Sabnzbd testee = spy(new Sabnzbd(null, null, null, null, null, null, null, null, null));
+        DownloaderConfig downloaderConfig = new DownloaderConfig();
+        downloaderConfig.setUrl("http://127.0.0.1:8086");
+        testee.initialize(downloaderConfig);
+        Instant completed = Instant.now();
+
+        History history = new History();
+        history.setLast_history_update(5L);
+        history.setSlots(List.of(new HistoryEntry("nzoId", "Completed", "name.nzb", completed.getEpochSecond(), 0L)));
+        HistoryResponse fullResponse = new HistoryResponse();
+        fullResponse.setHistory(history);
+        History unchangedHistory = new History();
+        unchangedHistory.setLast_history_update(5L);
+        unchangedHistory.setSlots(Collections.emptyList());
+        HistoryResponse unchangedResponse = new HistoryResponse();
+        unchangedResponse.setHistory(unchangedHistory);
+        doReturn(fullResponse, unchangedResponse).when(testee).callSabnzb(any(), eq(HistoryResponse.class));
+
+        List<DownloaderEntry> firstEntries = testee.getHistory(completed.minusSeconds(10));
+        List<DownloaderEntry> secondEntries = testee.getHistory(completed.minusSeconds(10));
+
+        assertThat(firstEntries).hasSize(1);
+        assertThat(secondEntries).isEqualTo(firstEntries);
+        assertThat(testee.getHistory(completed.plusSeconds(10))).isEmpty();
+        ArgumentCaptor<URI> uriCaptor = ArgumentCaptor.forClass(URI.class);
+        verify(testee, times(3)).callSabnzb(uriCaptor.capture(), eq(HistoryResponse.class));
+        assertThat(uriCaptor.getAllValues().get(0).getQuery()).doesNotContain("last_history_update");
+        assertThat(uriCaptor.getAllValues().get(1).getQuery()).contains("last_history_update=5");
+    }
+
 }
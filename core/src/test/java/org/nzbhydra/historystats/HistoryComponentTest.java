@@ -0,0 +1,87 @@
+package org.nzbhydra.historystats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.nzbhydra.NzbHydra;
+import org.nzbhydra.historystats.stats.HistoryRequest;
+import org.nzbhydra.searching.db.SearchEntity;
+import org.nzbhydra.searching.db.SearchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = NzbHydra.class)
+public class HistoryComponentTest {
+
+    @Autowired
+    private SearchRepository searchRepository;
+    @Autowired
+    private History history;
+
+    @BeforeEach
+    public void setUp() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        List<SearchEntity> searches = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            SearchEntity search = new SearchEntity();
+            search.setQuery("query" + i);
+            //Two searches at the same time so that the ID decides about the order
+            search.setTime(now.minus(i == 4 ? 3 : i, ChronoUnit.MINUTES));
+            searches.add(search);
+        }
+        searchRepository.saveAll(searches);
+    }
+
+    @Test
+    void shouldLoadAdjacentPagesStartingAtLoadedPage() {
+        List<Integer> page1 = ids(history.getHistory(request(1, null), History.SEARCH_TABLE, SearchEntity.class));
+        List<Integer> page2 = ids(history.getHistory(request(2, null), History.SEARCH_TABLE, SearchEntity.class));
+        assertThat(page1).hasSize(2);
+        assertThat(page2).hasSize(2).doesNotContainAnyElementsOf(page1);
+
+        SearchEntity lastOfPage1 = searchRepository.findById(page1.get(1)).get();
+        Page<SearchEntity> seekedPage2 = history.getHistory(request(2, new SeekPosition(lastOfPage1.getTime(), lastOfPage1.getId(), false)), History.SEARCH_TABLE, SearchEntity.class);
+        assertThat(ids(seekedPage2)).isEqualTo(page2);
+        assertThat(seekedPage2.getTotalElements()).isEqualTo(5);
+
+        SearchEntity firstOfPage2 = searchRepository.findById(page2.get(0)).get();
+        Page<SearchEntity> seekedPage1 = history.getHistory(request(1, new SeekPosition(firstOfPage2.getTime(), firstOfPage2.getId(), true)), History.SEARCH_TABLE, SearchEntity.class);
+        assertThat(ids(seekedPage1)).isEqualTo(page1);
+    }
+
+    @Test
+    void shouldRejectUnknownColumns() {
+        HistoryRequest request = request(1, null);
+        request.setSortModel(new SortModel("query; drop table SEARCH", 1));
+
+        assertThatThrownBy(() -> history.getHistory(request, History.SEARCH_TABLE, SearchEntity.class)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HistoryRequest request(int page, SeekPosition seekPosition) {
+        HistoryRequest request = new HistoryRequest();
+        request.setPage(page);
+        request.setLimit(2);
+        request.setSortModel(new SortModel("time", 2));
+        request.setSeekPosition(seekPosition);
+        return request;
+    }
+
+    private static List<Integer> ids(Page<SearchEntity> page) {
+        return page.getContent().stream().map(SearchEntity::getId).toList();
+    }
+
+}
@@ -72,6 +72,8 @@ public class StatsComponentTest {
 
     @Autowired
     private Stats stats;
+    @Autowired
+    private StatsRollups statsRollups;
 
     @BeforeEach
     public void setUp() {
@@ -91,6 +93,8 @@ public class StatsComponentTest {
         searchModuleProvider.loadIndexers(Arrays.asList(indexerConfig1, indexerConfig2));
         indexer1 = indexerRepository.findByName("indexer1");
         indexer2 = indexerRepository.findByName("indexer2");
+        //The rollup task run on startup would hide the rows saved with times in the past
+        statsRollups.reset();
     }
 
     @Test
@@ -123,6 +127,87 @@ public class StatsComponentTest {
         assertThat(averageResponseTimes.get(0).getAvgResponseTime()).isCloseTo(2333D, within(0D));
     }
 
+    @Test
+    void shouldUseRolledUpApiAccesses() throws Exception {
+        for (long responseTime : new long[]{1000L, 2000L, 3000L}) {
+            IndexerApiAccessEntity apiAccess = new IndexerApiAccessEntity(indexer1);
+            apiAccess.setResponseTime(responseTime);
+            apiAccess.setTime(Instant.now().minus(2, ChronoUnit.DAYS));
+            apiAccessRepository.save(apiAccess);
+        }
+        //Too new to be rolled up
+        IndexerApiAccessEntity newApiAccess = new IndexerApiAccessEntity(indexer1);
+        newApiAccess.setResponseTime(6000L);
+        newApiAccess.setTime(Instant.now());
+        apiAccessRepository.save(newApiAccess);
+
+        StatsRequest statsRequest = new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true);
+        assertThat(stats.averageResponseTimes(statsRequest).get(0).getAvgResponseTime()).isCloseTo(3000D, within(0D));
+
+        statsRollups.update();
+        assertThat(stats.averageResponseTimes(statsRequest).get(0).getAvgResponseTime()).isCloseTo(3000D, within(0D));
+
+        //Only the rolled up accesses are left
+        apiAccessRepository.deleteAll();
+        assertThat(stats.averageResponseTimes(statsRequest).get(0).getAvgResponseTime()).isCloseTo(2000D, within(0D));
+    }
+
+    @Test
+    void shouldRollUpAccessesSavedAfterNewerOnes() throws Exception {
+        IndexerApiAccessEntity newApiAccess = new IndexerApiAccessEntity(indexer1);
+        newApiAccess.setResponseTime(6000L);
+        newApiAccess.setTime(Instant.now());
+        apiAccessRepository.save(newApiAccess);
+        //Has a higher ID than the new access
+        IndexerApiAccessEntity oldApiAccess = new IndexerApiAccessEntity(indexer1);
+        oldApiAccess.setResponseTime(1000L);
+        oldApiAccess.setTime(Instant.now().minus(2, ChronoUnit.DAYS));
+        apiAccessRepository.save(oldApiAccess);
+
+        statsRollups.update();
+        StatsRequest statsRequest = new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true);
+        assertThat(stats.averageResponseTimes(statsRequest).get(0).getAvgResponseTime()).isCloseTo(3500D, within(0D));
+
+        apiAccessRepository.delete(oldApiAccess);
+        assertThat(stats.averageResponseTimes(statsRequest).get(0).getAvgResponseTime()).isCloseTo(3500D, within(0D));
+    }
+
+    @Test
+    void shouldRollUpAccessesSavedAfterTheirHourWasRolledUp() throws Exception {
+        statsRollups.update();
+        IndexerApiAccessEntity lateApiAccess = new IndexerApiAccessEntity(indexer1);
+        lateApiAccess.setResponseTime(2000L);
+        //In the last closed hour
+        lateApiAccess.setTime(Instant.now().minus(70, ChronoUnit.MINUTES));
+        apiAccessRepository.save(lateApiAccess);
+
+        statsRollups.update();
+        apiAccessRepository.delete(lateApiAccess);
+
+        StatsRequest statsRequest = new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true);
+        assertThat(stats.averageResponseTimes(statsRequest).get(0).getAvgResponseTime()).isCloseTo(2000D, within(0D));
+    }
+
+    @Test
+    void shouldCalculateRequestedSectionsAndReportTheirTimes() throws Exception {
+        IndexerApiAccessEntity apiAccess = new IndexerApiAccessEntity(indexer1);
+        apiAccess.setResponseTime(1000L);
+        apiAccessRepository.save(apiAccess);
+
+        StatsRequest statsRequest = new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true);
+        statsRequest.setAvgResponseTimes(true);
+        statsRequest.setSearchesPerDayOfWeek(true);
+        statsRequest.setDownloadsPerAgeStats(true);
+        StatsResponse response = stats.getAllStats(statsRequest);
+
+        assertThat(response.getAvgResponseTimes()).hasSize(1);
+        assertThat(response.getSearchesPerDayOfWeek()).hasSize(7);
+        assertThat(response.getDownloadsPerAgeStats()).isNotNull();
+        assertThat(response.getIndexerApiAccessStats()).isNull();
+        assertThat(response.getSectionTimes()).containsOnlyKeys("avgResponseTimes", "searchesPerDayOfWeek", "downloadsPerAgeStats");
+        assertThat(response.getFailedSections()).isEmpty();
+    }
+
     @Test
     void shouldCalculateSearchesPerDayOfWeek() throws Exception {
         SearchEntity searchFriday = new SearchEntity();
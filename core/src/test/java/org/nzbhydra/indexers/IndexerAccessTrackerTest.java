@@ -0,0 +1,61 @@
+package org.nzbhydra.indexers;
+
+import org.junit.jupiter.api.Test;
+import org.nzbhydra.indexers.IndexerAccessTracker.AccessGroup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexerAccessTrackerTest {
+
+    private final IndexerAccessTracker testee = new IndexerAccessTracker(null);
+    private final Instant now = Instant.parse("2021-01-13T09:00:00.000Z");
+
+    @Test
+    void shouldCountAndFindOldestAccesses() {
+        for (int i = 10; i > 0; i--) {
+            testee.recordAccess(1, IndexerApiAccessType.SEARCH, now.minus(i, ChronoUnit.HOURS));
+        }
+        testee.recordAccess(1, IndexerApiAccessType.NZB, now.minus(5, ChronoUnit.HOURS));
+        testee.recordAccess(1, IndexerApiAccessType.DETAILS, now.minus(1, ChronoUnit.MINUTES));
+
+        assertThat(testee.countSince(1, AccessGroup.SEARCHES, now.minus(3, ChronoUnit.HOURS))).isEqualTo(2);
+        assertThat(testee.countSince(1, AccessGroup.API_HITS, now.minus(3, ChronoUnit.HOURS))).isEqualTo(3);
+        assertThat(testee.countSince(1, AccessGroup.DOWNLOADS, now.minus(3, ChronoUnit.HOURS))).isEqualTo(0);
+        assertThat(testee.getOldestSince(1, AccessGroup.SEARCHES, now.minus(3, ChronoUnit.HOURS))).contains(now.minus(2, ChronoUnit.HOURS));
+        assertThat(testee.getOldestSince(1, AccessGroup.DOWNLOADS, now.minus(3, ChronoUnit.HOURS))).isEmpty();
+
+        assertThat(testee.countRecent(1, AccessGroup.SEARCHES, 3)).isEqualTo(3);
+        assertThat(testee.countRecent(1, AccessGroup.SEARCHES, 100)).isEqualTo(10);
+        assertThat(testee.getOldestOfRecent(1, AccessGroup.SEARCHES, 3)).contains(now.minus(3, ChronoUnit.HOURS));
+        assertThat(testee.getOldestOfRecent(1, AccessGroup.SEARCHES, 100)).contains(now.minus(10, ChronoUnit.HOURS));
+        assertThat(testee.getOldestOfRecent(2, AccessGroup.SEARCHES, 100)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepAccessesSortedAndGrow() {
+        for (int i = 0; i < 100; i++) {
+            testee.recordAccess(1, IndexerApiAccessType.SEARCH, now.plusSeconds(i));
+        }
+        //Recorded out of order
+        testee.recordAccess(1, IndexerApiAccessType.SEARCH, now.minusSeconds(1));
+
+        assertThat(testee.countRecent(1, AccessGroup.SEARCHES, 1000)).isEqualTo(101);
+        assertThat(testee.getOldestOfRecent(1, AccessGroup.SEARCHES, 1000)).contains(now.minusSeconds(1));
+        assertThat(testee.getOldestOfRecent(1, AccessGroup.SEARCHES, 1)).contains(now.plusSeconds(99));
+    }
+
+    @Test
+    void shouldRemoveOldAccesses() {
+        testee.recordAccess(1, IndexerApiAccessType.SEARCH, now.minus(3, ChronoUnit.DAYS));
+        testee.recordAccess(1, IndexerApiAccessType.SEARCH, now.minus(1, ChronoUnit.DAYS));
+        testee.recordAccess(1, IndexerApiAccessType.SEARCH, now);
+        assertThat(testee.countRecent(1, AccessGroup.SEARCHES, 10)).isEqualTo(2);
+
+        testee.removeBefore(now.minus(1, ChronoUnit.HOURS));
+        assertThat(testee.countRecent(1, AccessGroup.SEARCHES, 10)).isEqualTo(1);
+    }
+
+}
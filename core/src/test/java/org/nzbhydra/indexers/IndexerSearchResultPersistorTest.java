@@ -27,16 +27,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.nzbhydra.config.downloading.DownloadType;
 import org.nzbhydra.searching.SearchResultIdCalculator;
 import org.nzbhydra.searching.db.SearchResultEntity;
-import org.nzbhydra.searching.db.SearchResultRepository;
+import org.nzbhydra.searching.db.SearchResultWriteQueue;
 import org.nzbhydra.searching.dtoseventsenums.IndexerSearchResult;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,13 +44,13 @@ import static org.mockito.Mockito.when;
 class IndexerSearchResultPersistorTest {
 
     @Mock
-    private SearchResultRepository searchResultRepository;
+    private SearchResultWriteQueue searchResultWriteQueue;
     @Mock
     private Indexer<?> indexer;
     @Mock
     private IndexerEntity indexerEntity;
     @Captor
-    private ArgumentCaptor<List<SearchResultEntity>> entitiesCaptor;
+    private ArgumentCaptor<SearchResultEntity> entityCaptor;
 
     @InjectMocks
     private IndexerSearchResultPersistor testee;
@@ -61,52 +61,50 @@ class IndexerSearchResultPersistorTest {
     }
 
     @Test
-    void shouldPersistNewSearchResults() {
+    void shouldQueueNewSearchResults() {
         // given
         SearchResultItem item1 = getSearchResultItem("title1", "link1", "guid1");
         SearchResultItem item2 = getSearchResultItem("title2", "link2", "guid2");
         List<SearchResultItem> items = List.of(item1, item2);
         IndexerSearchResult indexerSearchResult = new IndexerSearchResult();
-        when(searchResultRepository.findAllIdsByIdIn(anyList())).thenReturn(Set.of());
+        when(searchResultWriteQueue.add(any())).thenReturn(true);
 
         // when
         List<SearchResultItem> result = testee.persistSearchResults(indexer, items, indexerSearchResult);
 
         // then
-        verify(searchResultRepository).saveAll(entitiesCaptor.capture());
-        List<SearchResultEntity> savedEntities = entitiesCaptor.getValue();
-        assertThat(savedEntities).hasSize(2);
+        verify(searchResultWriteQueue, times(2)).add(entityCaptor.capture());
+        List<SearchResultEntity> queuedEntities = entityCaptor.getAllValues();
 
-        SearchResultEntity savedEntity1 = savedEntities.get(0);
-        assertThat(savedEntity1.getTitle()).isEqualTo("title1");
-        assertThat(savedEntity1.getLink()).isEqualTo("link1");
-        assertThat(savedEntity1.getIndexerGuid()).isEqualTo("guid1");
-        assertThat(savedEntity1.getIndexer()).isEqualTo(indexerEntity);
+        SearchResultEntity queuedEntity1 = queuedEntities.get(0);
+        assertThat(queuedEntity1.getId()).isEqualTo(SearchResultIdCalculator.calculateSearchResultId(item1));
+        assertThat(queuedEntity1.getTitle()).isEqualTo("title1");
+        assertThat(queuedEntity1.getLink()).isEqualTo("link1");
+        assertThat(queuedEntity1.getIndexerGuid()).isEqualTo("guid1");
+        assertThat(queuedEntity1.getIndexer()).isEqualTo(indexerEntity);
+        assertThat(indexerSearchResult.getSearchResultEntities()).hasSize(2);
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getSearchResultId()).isEqualTo(SearchResultIdCalculator.calculateSearchResultId(item1));
     }
 
     @Test
-    void shouldNotPersistExistingSearchResults() {
+    void shouldNotKeepAlreadyKnownSearchResults() {
         // given
         SearchResultItem item1 = getSearchResultItem("title1", "link1", "guid1");
         SearchResultItem item2 = getSearchResultItem("title2", "link2", "guid2");
         List<SearchResultItem> items = List.of(item1, item2);
         IndexerSearchResult indexerSearchResult = new IndexerSearchResult();
 
-
         long existingId = SearchResultIdCalculator.calculateSearchResultId(item1);
-        when(searchResultRepository.findAllIdsByIdIn(anyList())).thenReturn(Set.of(existingId));
+        when(searchResultWriteQueue.add(any())).thenAnswer(x -> x.getArgument(0, SearchResultEntity.class).getId() != existingId);
 
         // when
         List<SearchResultItem> result = testee.persistSearchResults(indexer, items, indexerSearchResult);
 
         // then
-        verify(searchResultRepository).saveAll(entitiesCaptor.capture());
-        List<SearchResultEntity> savedEntities = entitiesCaptor.getValue();
-        assertThat(savedEntities).hasSize(1);
-        assertThat(savedEntities.get(0).getTitle()).isEqualTo("title2");
+        assertThat(indexerSearchResult.getSearchResultEntities()).hasSize(1);
+        assertThat(indexerSearchResult.getSearchResultEntities().iterator().next().getTitle()).isEqualTo("title2");
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getSearchResultId()).isEqualTo(existingId);
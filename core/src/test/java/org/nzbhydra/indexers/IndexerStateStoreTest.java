@@ -0,0 +1,92 @@
+/*
+ *  (C) Copyright 2025 TheOtherP (theotherp@posteo.net)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.nzbhydra.indexers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.indexer.IndexerConfig;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IndexerStateStoreTest {
+
+    @Mock
+    private ConfigProvider configProvider;
+    @Mock
+    private BaseConfig baseConfig;
+    @TempDir
+    private File tempDir;
+
+    private final IndexerConfig indexerConfig1 = new IndexerConfig();
+    private final IndexerConfig indexerConfig2 = new IndexerConfig();
+    private IndexerStateStore testee;
+
+    @BeforeEach
+    void setUp() {
+        indexerConfig1.setName("indexer1");
+        indexerConfig2.setName("indexer2");
+        when(configProvider.getBaseConfig()).thenReturn(baseConfig);
+        when(baseConfig.getIndexers()).thenReturn(List.of(indexerConfig1, indexerConfig2));
+        testee = new IndexerStateStore(configProvider, new File(tempDir, "indexerStates.json"), 100_000);
+    }
+
+    @Test
+    void shouldOnlyChangeStateOnTransition() {
+        assertThat(testee.setState(indexerConfig1, IndexerState.ENABLED)).isFalse();
+
+        IndexerState disabled = new IndexerState(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY, 1, 1000L, Instant.now(), "error");
+        assertThat(testee.setState(indexerConfig1, disabled)).isTrue();
+        assertThat(indexerConfig1.getState()).isEqualTo(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY);
+        assertThat(indexerConfig1.getLastError()).isEqualTo("error");
+
+        assertThat(testee.setState(indexerConfig1, disabled)).isFalse();
+        assertThat(testee.setState(indexerConfig1, IndexerState.ENABLED)).isTrue();
+        assertThat(indexerConfig1.getDisabledLevel()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldRestoreWrittenStates() {
+        testee.setState(indexerConfig1, new IndexerState(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY, 2, 1000L, Instant.now(), "error"));
+        testee.setState(indexerConfig2, new IndexerState(IndexerConfig.State.DISABLED_SYSTEM, 0, null, Instant.now(), "auth"));
+        testee.write();
+
+        indexerConfig1.setState(IndexerConfig.State.ENABLED);
+        indexerConfig1.setDisabledLevel(0);
+        //Disabled by the user in the meantime
+        indexerConfig2.setState(IndexerConfig.State.DISABLED_USER);
+
+        testee.loadStates();
+
+        assertThat(indexerConfig1.getState()).isEqualTo(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY);
+        assertThat(indexerConfig1.getDisabledLevel()).isEqualTo(2);
+        assertThat(indexerConfig1.getLastError()).isEqualTo("error");
+        assertThat(indexerConfig2.getState()).isEqualTo(IndexerConfig.State.DISABLED_USER);
+    }
+
+}
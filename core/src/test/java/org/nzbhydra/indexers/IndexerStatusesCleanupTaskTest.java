@@ -18,16 +18,17 @@ package org.nzbhydra.indexers;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.nzbhydra.config.BaseConfig;
-import org.nzbhydra.config.BaseConfigHandler;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.ConfigReaderWriter;
 import org.nzbhydra.config.indexer.IndexerConfig;
 
+import java.io.File;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
@@ -44,8 +45,8 @@ public class IndexerStatusesCleanupTaskTest {
     private BaseConfig baseConfig;
     @Mock
     private ConfigReaderWriter configReaderWriterMock;
-    @Mock
-    private BaseConfigHandler baseConfigHandler;
+    @TempDir
+    private File tempDir;
 
     IndexerConfig indexerConfigEnabled = new IndexerConfig();
     IndexerConfig indexerConfigDisabledSystem = new IndexerConfig();
@@ -60,7 +61,7 @@ public class IndexerStatusesCleanupTaskTest {
     @BeforeEach
     public void setUp() throws Exception {
 
-        testee = new IndexerStatusesCleanupTask(configProvider, baseConfigHandler);
+        testee = new IndexerStatusesCleanupTask(configProvider, new IndexerStateStore(configProvider, new File(tempDir, "indexerStates.json"), 1000));
         indexerConfigEnabled.setState(IndexerConfig.State.ENABLED);
         indexerConfigUserDisabled.setState(IndexerConfig.State.DISABLED_USER);
         indexerConfigDisabledSystem.setState(IndexerConfig.State.DISABLED_SYSTEM);
@@ -8,6 +8,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -42,6 +43,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.File;
 import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -102,6 +104,10 @@ public class IndexerTest {
     private QueryGenerator queryGeneratorMock;
     @Mock
     private BaseConfigHandler baseConfigHandler;
+    @Spy
+    private IndexerStateStore indexerStateStore = new IndexerStateStore(null, new File("indexerStates.json"), TimeUnit.DAYS.toMillis(1));
+    @Mock
+    private IndexerAccessTracker indexerAccessTracker;
 
     private List<SearchResultItem> searchResultItemsToReturn = Collections.emptyList();
 
@@ -1,5 +1,7 @@
 package org.nzbhydra.indexers;
 
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -12,17 +14,25 @@ import org.nzbhydra.config.BaseConfig;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.SearchingConfig;
 import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.indexers.exceptions.IndexerAccessException;
+import org.nzbhydra.indexers.exceptions.IndexerUnreachableException;
 import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
+import org.nzbhydra.mapping.newznab.xml.Xml;
 import org.nzbhydra.webaccess.WebAccess;
+import org.nzbhydra.webaccess.WebAccessException;
 import org.springframework.oxm.Unmarshaller;
 
+import java.io.StringReader;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.data.MapEntry.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -52,7 +62,8 @@ public class IndexerWebAccessTest {
         String xml = "<?xml version=\"1.0\" ?>\n" +
                 "<metadata>\n" +
                 "</metadata>";
-        when(webAccessMock.callUrl(anyString(), headersCaptor.capture(), timeoutCaptor.capture())).thenReturn(xml);
+        when(webAccessMock.readFromUrl(anyString(), headersCaptor.capture(), timeoutCaptor.capture(), any(WebAccess.BodyReader.class)))
+            .thenAnswer(invocation -> invocation.<WebAccess.BodyReader<?>>getArgument(3).read(ResponseBody.create(xml, MediaType.get("application/xml"))));
         BaseConfig baseConfig = new BaseConfig();
         baseConfig.setSearching(searchingConfigMock);
         when(configProviderMock.getBaseConfig()).thenReturn(baseConfig);
@@ -95,7 +106,56 @@ public class IndexerWebAccessTest {
         assertThat(timeoutCaptor.getValue()).isEqualTo(100);
     }
 
+    @Test
+    void shouldTreatCallTimeoutAsUnreachable() throws Exception {
+        when(webAccessMock.readFromUrl(anyString(), any(), anyInt(), any(WebAccess.BodyReader.class))).thenThrow(new WebAccessException(new SocketTimeoutException("timeout")));
+
+        assertThatThrownBy(() -> testee.get(new URI("http://127.0.0.1"), indexerConfig))
+            .isInstanceOf(IndexerUnreachableException.class)
+            .hasMessageContaining("within 10 seconds");
+    }
+
+    @Test
+    void shouldStreamNewznabResponse() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<rss version=\"2.0\" xmlns:newznab=\"http://www.newznab.com/DTD/2010/feeds/attributes/\">\n" +
+            "<channel>\n" +
+            "<newznab:response offset=\"0\" total=\"1\"/>\n" +
+            "<item><title>title</title><newznab:attr name=\"size\" value=\"100\"/></item>\n" +
+            "</channel>\n" +
+            "</rss>";
+        when(webAccessMock.readFromUrl(anyString(), any(), anyInt(), any(WebAccess.BodyReader.class)))
+            .thenAnswer(invocation -> invocation.<WebAccess.BodyReader<?>>getArgument(3).read(ResponseBody.create(xml, MediaType.get("application/xml"))));
+
+        NewznabXmlRoot root = testee.get(new URI("http://127.0.0.1"), indexerConfig, Xml.class);
+
+        assertThat(root.getRssChannel().getNewznabResponse().getTotal()).isEqualTo(1);
+        assertThat(root.getRssChannel().getItems()).hasSize(1);
+        assertThat(root.getRssChannel().getItems().get(0).getNewznabAttributes().get(0).getValue()).isEqualTo("100");
+    }
 
+    @Test
+    void shouldKeepResponseOfUnparseableOutput() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss>\n<channel>\n<item>Function not available\n</rss>";
+        when(webAccessMock.readFromUrl(anyString(), any(), anyInt(), any(WebAccess.BodyReader.class)))
+            .thenAnswer(invocation -> invocation.<WebAccess.BodyReader<?>>getArgument(3).read(ResponseBody.create(xml, MediaType.get("application/xml"))));
+
+        assertThatThrownBy(() -> testee.get(new URI("http://127.0.0.1"), indexerConfig, Xml.class))
+            .isInstanceOf(IndexerAccessException.class)
+            .cause()
+            .isInstanceOfSatisfying(IndexerWebAccess.HydraUnmarshallingFailureException.class, e -> assertThat(e.getResponse()).contains("Function not available"));
+    }
 
+    @Test
+    void shouldKeepTailOfResponse() throws Exception {
+        IndexerWebAccess.ResponseTailReader reader = new IndexerWebAccess.ResponseTailReader(new StringReader("line1\nline2\nline3\nline4"), 10);
+        char[] buffer = new char[4];
+        while (reader.read(buffer, 0, buffer.length) != -1) {
+            //Read all
+        }
+
+        assertThat(reader.getTail()).isEqualTo("ine3\nline4");
+        assertThat(reader.getFirstLineNumberOfTail()).isEqualTo(3);
+    }
 
 }
\ No newline at end of file
@@ -119,6 +119,10 @@ public class NewznabTest {
     @Mock
     private BaseConfigHandler baseConfigHandler;
     @Mock
+    private IndexerStateStore indexerStateStore;
+    @Mock
+    private IndexerAccessTracker indexerAccessTracker;
+    @Mock
     SearchingConfig searchingConfigMock;
     @Mock
     private QueryGenerator queryGeneratorMock;
@@ -0,0 +1,68 @@
+package org.nzbhydra.indexers;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlError;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlItem;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
+import org.nzbhydra.mapping.newznab.xml.Xml;
+import org.nzbhydra.web.WebConfiguration;
+import org.springframework.oxm.Unmarshaller;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NewznabXmlStreamParserTest {
+
+    private final NewznabXmlStreamParser testee = new NewznabXmlStreamParser();
+    private final Unmarshaller unmarshaller = new WebConfiguration().marshaller();
+
+    @Test
+    void shouldParseLikeJaxb() throws Exception {
+        for (String resource : Arrays.asList("newznab_3results.xml", "nzbsOrgResponse.xml", "drunkenSlug_withLimits.xml", "tabluaRasa_withSomeLimits.xml", "animetosho_direct.xml", "cardigann.xml", "btnJackettResponse.xml")) {
+            String xml = Resources.toString(Resources.getResource(NewznabXmlStreamParserTest.class, "/org/nzbhydra/mapping/" + resource), Charsets.UTF_8);
+
+            Xml expected = (Xml) unmarshaller.unmarshal(new StreamSource(new StringReader(xml)));
+            Xml actual = testee.parse(new StringReader(xml));
+
+            assertThat(actual).as(resource).usingRecursiveComparison().isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldParseItems() throws Exception {
+        String xml = Resources.toString(Resources.getResource(NewznabXmlStreamParserTest.class, "/org/nzbhydra/mapping/newznab_3results.xml"), Charsets.UTF_8);
+
+        NewznabXmlRoot root = (NewznabXmlRoot) testee.parse(new StringReader(xml));
+
+        assertThat(root.getRssChannel().getNewznabResponse().getTotal()).isEqualTo(1000);
+        assertThat(root.getRssChannel().getItems()).hasSize(3);
+        NewznabXmlItem item = root.getRssChannel().getItems().get(0);
+        assertThat(item.getTitle()).isEqualTo("testtitle1");
+        assertThat(item.getRssGuid().getGuid()).isEqualTo("eff551fbdb69d6777d5030c209ee5d4b");
+        assertThat(item.getEnclosure().getLength()).isEqualTo(2893890900L);
+        assertThat(item.getNewznabAttributes()).hasSize(6);
+    }
+
+    @Test
+    void shouldParseError() throws Exception {
+        Xml xml = testee.parse(new StringReader("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<error code=\"100\" description=\"Incorrect user credentials\"/>"));
+
+        assertThat(xml).isEqualTo(new NewznabXmlError("100", "Incorrect user credentials"));
+    }
+
+    @Test
+    void shouldFailForOtherDocuments() {
+        assertThatThrownBy(() -> testee.parse(new StringReader("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<caps></caps>")))
+            .isInstanceOf(XMLStreamException.class);
+        assertThatThrownBy(() -> testee.parse(new StringReader("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss><channel><item>")))
+            .isInstanceOf(XMLStreamException.class);
+    }
+
+}
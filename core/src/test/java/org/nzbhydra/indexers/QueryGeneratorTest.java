@@ -0,0 +1,87 @@
+package org.nzbhydra.indexers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchSource;
+import org.nzbhydra.config.SearchSourceRestriction;
+import org.nzbhydra.config.indexer.IndexerConfig;
+import org.nzbhydra.config.mediainfo.MediaIdType;
+import org.nzbhydra.config.searching.SearchType;
+import org.nzbhydra.mediainfo.InfoProvider;
+import org.nzbhydra.mediainfo.MediaInfo;
+import org.nzbhydra.searching.searchrequests.InternalData;
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class QueryGeneratorTest {
+
+    @Mock
+    private ConfigProvider configProviderMock;
+    @Mock
+    private InfoProvider infoProviderMock;
+    @Mock
+    private Indexer<?> indexerMock;
+    @InjectMocks
+    private QueryGenerator testee;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        BaseConfig baseConfig = new BaseConfig();
+        baseConfig.getSearching().setGenerateQueries(SearchSourceRestriction.BOTH);
+        when(configProviderMock.getBaseConfig()).thenReturn(baseConfig);
+
+        IndexerConfig config = new IndexerConfig();
+        config.setName("indexer");
+        config.setSupportedSearchIds(Collections.emptyList());
+        when(indexerMock.getConfig()).thenReturn(config);
+        when(indexerMock.getName()).thenReturn("indexer");
+
+        MediaInfo mediaInfo = new MediaInfo();
+        mediaInfo.setTitle("someShow");
+        when(infoProviderMock.convert(anyMap())).thenReturn(mediaInfo);
+    }
+
+    @Test
+    void shouldReuseQueryGeneratedForEqualRequest() throws Exception {
+        assertThat(testee.generateQueryIfApplicable(createSearchRequest(), null, indexerMock)).isEqualTo("someShow s01e02");
+
+        SearchRequest searchRequest = createSearchRequest();
+        assertThat(testee.generateQueryIfApplicable(searchRequest, null, indexerMock)).isEqualTo("someShow s01e02");
+        assertThat(searchRequest.getInternalData().isQueryGenerated()).isTrue();
+        verify(infoProviderMock, times(1)).convert(anyMap());
+    }
+
+    @Test
+    void shouldNotReuseQueryGeneratedWithoutFallback() throws Exception {
+        assertThat(testee.generateQueryIfApplicable(createSearchRequest(), null, indexerMock)).isEqualTo("someShow s01e02");
+
+        //Season and episode are not added for fallback queries
+        SearchRequest fallbackSearchRequest = createSearchRequest();
+        fallbackSearchRequest.getInternalData().setFallbackStateByIndexer("indexer", InternalData.FallbackState.REQUESTED);
+        assertThat(testee.generateQueryIfApplicable(fallbackSearchRequest, null, indexerMock)).isEqualTo("someShow");
+        assertThat(fallbackSearchRequest.getInternalData().getFallbackStateByIndexer("indexer")).isEqualTo(InternalData.FallbackState.USED);
+    }
+
+    private SearchRequest createSearchRequest() {
+        SearchRequest searchRequest = new SearchRequest(SearchSource.INTERNAL, SearchType.TVSEARCH, 0, 100);
+        searchRequest.getIdentifiers().put(MediaIdType.TVDB, "tvdbId");
+        searchRequest.setSeason(1);
+        searchRequest.setEpisode("2");
+        return searchRequest;
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.nzbhydra.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LowestLevelPropertyDefinerTest {
+
+    private final LowestLevelPropertyDefiner testee = new LowestLevelPropertyDefiner();
+
+    @Test
+    void shouldDefineLowestLevel() {
+        testee.setLevels("INFO,DEBUG");
+        assertThat(testee.getPropertyValue()).isEqualTo("DEBUG");
+
+        testee.setLevels("WARN, info");
+        assertThat(testee.getPropertyValue()).isEqualTo("INFO");
+    }
+
+}
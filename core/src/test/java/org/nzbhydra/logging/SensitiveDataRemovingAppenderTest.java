@@ -0,0 +1,53 @@
+package org.nzbhydra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SensitiveDataRemovingAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger logger = loggerContext.getLogger("test");
+    private final ListAppender<ILoggingEvent> listAppender = new ListAppender<>();
+    private final SensitiveDataRemovingAppender testee = new SensitiveDataRemovingAppender();
+
+    @BeforeEach
+    public void setUp() {
+        listAppender.setContext(loggerContext);
+        listAppender.start();
+        testee.setContext(loggerContext);
+        testee.addAppender(listAppender);
+        testee.start();
+    }
+
+    @Test
+    void shouldRemoveSensitiveDataFromMessageAndException() {
+        RuntimeException exception = new RuntimeException("Unable to call https://www.indexer.com/api?apikey=12345678", new RuntimeException("password=secret"));
+        testee.doAppend(new LoggingEvent("fqcn", logger, Level.INFO, "Calling {}", exception, new Object[]{"https://www.indexer.com/api?t=search&apikey=12345678"}));
+
+        ILoggingEvent event = listAppender.list.get(0);
+        assertThat(event.getFormattedMessage()).isEqualTo("Calling https://www.indexer.com/api?t=search&apikey=<apikey>");
+        assertThat(event.getMessage()).isEqualTo(event.getFormattedMessage());
+        assertThat(event.getArgumentArray()).isNull();
+        assertThat(event.getLevel()).isEqualTo(Level.INFO);
+        assertThat(event.getThrowableProxy().getMessage()).isEqualTo("Unable to call https://www.indexer.com/api?apikey=<apikey>");
+        assertThat(event.getThrowableProxy().getCause().getMessage()).isEqualTo("password=<password>");
+    }
+
+    @Test
+    void shouldOnlyCheckForParametersWhereNamesCanEnd() {
+        assertThat(SensitiveDataRemover.mayContainParameter("Searching indexer with query abc")).isFalse();
+        assertThat(SensitiveDataRemover.mayContainParameter("https://www.indexer.com/api?t=search&q=abc")).isFalse();
+        assertThat(SensitiveDataRemover.mayContainParameter("https://www.indexer.com/api?apikey=12345678")).isTrue();
+        assertThat(SensitiveDataRemover.mayContainParameter("https://www.indexer.com/api?apikey%3D12345678")).isTrue();
+        assertThat(SensitiveDataRemover.mayContainParameter("password: 12345678")).isTrue();
+    }
+
+}
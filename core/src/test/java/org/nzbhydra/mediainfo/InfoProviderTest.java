@@ -8,13 +8,23 @@ import org.mockito.Mock;
 import org.mockito.internal.util.collections.Sets;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.mediainfo.MediaIdType;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
@@ -30,13 +40,16 @@ public class InfoProviderTest {
     private TvInfoRepository tvInfoRepositoryMock;
     @Mock
     private MovieInfoRepository movieInfoRepository;
+    @Mock
+    private ConfigProvider configProviderMock;
 
     @InjectMocks
     private InfoProvider testee = new InfoProvider();
 
     @BeforeEach
     public void setUp() throws Exception {
-
+        when(configProviderMock.getBaseConfig()).thenReturn(new BaseConfig());
+        testee.init();
 
         when(tvMazeHandlerMock.getInfos(anyString(), any(MediaIdType.class))).thenReturn(new TvMazeSearchResult("tvmazeId", "tvrageId", "tvdbId", "imdbid", "title", 0, "posterUrl"));
         when(tvMazeHandlerMock.search(anyString())).thenReturn(Collections.singletonList(new TvMazeSearchResult("tvmazeId", "tvrageId", "tvdbId", "Imdbid", "title", 0, "posterUrl")));
@@ -81,6 +94,13 @@ public class InfoProviderTest {
         assertThat(testee.canConvertAny(Sets.newSet(MediaIdType.TVMAZE, MediaIdType.TVDB), Sets.newSet(MediaIdType.TMDB))).isFalse();
     }
 
+    @Test
+    void shouldGetConvertibleTo() {
+        assertThat(testee.getConvertibleTo(Sets.newSet(MediaIdType.IMDB))).containsExactlyInAnyOrder(MediaIdType.IMDB, MediaIdType.TMDB, MediaIdType.MOVIETITLE);
+        assertThat(testee.getConvertibleTo(Sets.newSet(MediaIdType.TVMAZE))).contains(MediaIdType.TVDB).doesNotContain(MediaIdType.TMDB);
+        assertThat(testee.getConvertibleTo(Sets.newSet())).isEmpty();
+    }
+
     @Test
     void shouldCatchUnexpectedError() throws Exception {
         when(tvMazeHandlerMock.getInfos(anyString(), eq(MediaIdType.TVDB))).thenThrow(IllegalArgumentException.class);
@@ -154,4 +174,40 @@ public class InfoProviderTest {
         assertThat(info).isEqualTo(mostInfo);
     }
 
+    @Test
+    void shouldConvertSameIdOnlyOnceAtATime() throws Exception {
+        CountDownLatch conversionStarted = new CountDownLatch(1);
+        CountDownLatch finishConversion = new CountDownLatch(1);
+        when(tvMazeHandlerMock.getInfos("slow", MediaIdType.TVDB)).thenAnswer(invocation -> {
+            conversionStarted.countDown();
+            finishConversion.await(5, TimeUnit.SECONDS);
+            return new TvMazeSearchResult("tvmazeId", "tvrageId", "tvdbId", "imdbId", "title", 0, "posterUrl");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MediaInfo> first = executor.submit(() -> testee.convert("slow", MediaIdType.TVDB));
+            assertThat(conversionStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MediaInfo> second = executor.submit(() -> testee.convert("slow", MediaIdType.TVDB));
+            //Other IDs are converted while the slow conversion is still running
+            assertThat(testee.convert("other", MediaIdType.TVDB).getTitle()).contains("title");
+
+            finishConversion.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(second.get(5, TimeUnit.SECONDS));
+            verify(tvMazeHandlerMock, times(1)).getInfos("slow", MediaIdType.TVDB);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldConvertAgainAfterConversionFailedWithError() throws Exception {
+        when(tvMazeHandlerMock.getInfos("broken", MediaIdType.TVDB)).thenThrow(new StackOverflowError());
+
+        assertThatThrownBy(() -> testee.convert("broken", MediaIdType.TVDB)).isInstanceOf(StackOverflowError.class);
+        //Would block forever if the failed conversion was still cached as running
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThatThrownBy(() -> testee.convert("broken", MediaIdType.TVDB)).isInstanceOf(StackOverflowError.class));
+        verify(tvMazeHandlerMock, times(2)).getInfos("broken", MediaIdType.TVDB);
+    }
+
 }
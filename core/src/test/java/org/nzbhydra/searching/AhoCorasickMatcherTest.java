@@ -0,0 +1,42 @@
+package org.nzbhydra.searching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AhoCorasickMatcherTest {
+
+    @Test
+    void shouldFindPatterns() {
+        AhoCorasickMatcher testee = new AhoCorasickMatcher(List.of("he", "she", "hers", "x264"));
+
+        assertThat(testee.findAny("ushers")).contains("she");
+        assertThat(testee.findAny("a.x264.b")).contains("x264");
+        assertThat(testee.findAny("x26")).isEmpty();
+        assertThat(testee.findAny("HE")).isEmpty();
+
+        BitSet found = testee.findAll("ushers");
+        assertThat(found.get(0)).isTrue();
+        assertThat(found.get(1)).isTrue();
+        assertThat(found.get(2)).isTrue();
+        assertThat(found.get(3)).isFalse();
+    }
+
+    @Test
+    void shouldFindOverlappingPatterns() {
+        AhoCorasickMatcher testee = new AhoCorasickMatcher(List.of("aab", "ab", "b"));
+
+        assertThat(testee.findAll("aaab").cardinality()).isEqualTo(3);
+        assertThat(testee.findAll("aaa").isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldHandleEmptyPatterns() {
+        assertThat(new AhoCorasickMatcher(List.of()).findAny("abc")).isEmpty();
+        assertThat(new AhoCorasickMatcher(List.of("")).findAny("abc")).contains("");
+    }
+
+}
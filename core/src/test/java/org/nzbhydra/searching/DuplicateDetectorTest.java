@@ -103,6 +103,8 @@ public class DuplicateDetectorTest {
         assertThat(result.getDuplicateGroups().get(3).size()).isEqualTo(1);
         assertThat(result.getDuplicateGroups().get(4).size()).isEqualTo(2);
         assertThat(result.getDuplicateGroups().get(5).size()).isEqualTo(1);
+        //Only the last group of a title is counted as unique result
+        assertThat(result.getUniqueResultsPerIndexer()).hasSize(1);
     }
 
 
@@ -126,6 +128,33 @@ public class DuplicateDetectorTest {
         assertThat(items.get(0).getDuplicateIdentifier()).isEqualTo(items.get(1).getDuplicateIdentifier()).as("Duplicates should have the same duplicate identifiers");
     }
 
+    @Test
+    void shouldKeepDuplicateIdsWhenResultsAreAddedIncrementally() throws Exception {
+        SearchResultItem item1 = new SearchResultItem();
+        setValues(item1, "1", "poster1", "group", Instant.now());
+        SearchResultItem item2 = new SearchResultItem();
+        setValues(item2, "2", "poster2", "group", Instant.now());
+        item2.setTitle("Ti.t-le");
+        SearchResultItem item3 = new SearchResultItem();
+        setValues(item3, "3", "poster1", "group", Instant.now());
+        item3.setTitle("TI_TLE");
+
+        DuplicateDetectionIndex index = new DuplicateDetectionIndex();
+        DuplicateDetectionResult result = testee.detectDuplicates(index, Sets.newHashSet(item1, item2));
+        assertThat(result.getDuplicateGroups()).hasSize(2);
+        int item1Identifier = item1.getDuplicateIdentifier();
+        int item2Identifier = item2.getDuplicateIdentifier();
+        assertThat(item1Identifier).isNotEqualTo(item2Identifier);
+
+        result = testee.detectDuplicates(index, Sets.newHashSet(item1, item2, item3));
+        assertThat(result.getDuplicateGroups()).hasSize(2);
+        assertThat(result.getNumberOfDuplicates()).isEqualTo(1);
+        assertThat(item1.getDuplicateIdentifier()).isEqualTo(item1Identifier);
+        assertThat(item2.getDuplicateIdentifier()).isEqualTo(item2Identifier);
+        assertThat(item3.getDuplicateIdentifier()).isEqualTo(item1Identifier);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
     @Test
     void shouldUseUsenetDateForComparison() throws Exception {
         SearchResultItem item1 = new SearchResultItem();
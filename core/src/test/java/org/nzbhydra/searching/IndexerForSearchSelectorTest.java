@@ -1,11 +1,10 @@
 package org.nzbhydra.searching;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.internal.util.collections.Sets;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -22,6 +21,8 @@ import org.nzbhydra.config.indexer.SearchModuleType;
 import org.nzbhydra.config.mediainfo.MediaIdType;
 import org.nzbhydra.downloading.FileDownloadRepository;
 import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.indexers.IndexerAccessTracker;
+import org.nzbhydra.indexers.IndexerApiAccessType;
 import org.nzbhydra.indexers.IndexerApiAccessRepository;
 import org.nzbhydra.indexers.IndexerEntity;
 import org.nzbhydra.indexers.status.IndexerLimit;
@@ -30,7 +31,6 @@ import org.nzbhydra.mediainfo.InfoProvider;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.springframework.context.ApplicationEventPublisher;
 
-import java.sql.Timestamp;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -48,7 +48,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -78,10 +78,8 @@ public class IndexerForSearchSelectorTest {
     private ApplicationEventPublisher eventPublisher;
     @Mock
     private Category category;
-    @Mock
-    private EntityManager entityManagerMock;
-    @Mock
-    private Query queryMock;
+    @Spy
+    private IndexerAccessTracker indexerAccessTracker = new IndexerAccessTracker(null);
     @Mock
     private IndexerLimitRepository indexerLimitRepositoryMock;
 
@@ -91,6 +89,7 @@ public class IndexerForSearchSelectorTest {
 
     @InjectMocks
     private IndexerForSearchSelector testee;
+    private IndexerForSearchSelector.SelectionContext context;
 
     @BeforeEach
     public void setUp() throws Exception {
@@ -104,9 +103,9 @@ public class IndexerForSearchSelectorTest {
         when(baseConfig.getSearching()).thenReturn(searchingConfig);
         when(category.getName()).thenReturn("category");
         when(category.getSubtype()).thenReturn(Subtype.NONE);
-        when(entityManagerMock.createNativeQuery(anyString())).thenReturn(queryMock);
         when(indexerLimitRepositoryMock.findByIndexer(any())).thenReturn(indexerLimit);
         when(searchRequest.meets(any())).thenCallRealMethod();
+        context = testee.createContext(searchRequest);
     }
 
 
@@ -116,18 +115,18 @@ public class IndexerForSearchSelectorTest {
         when(searchRequest.getSource()).thenReturn(SearchSource.INTERNAL);
         when(searchRequest.getIndexers()).thenReturn(Optional.of(Sets.newSet("anotherIndexer")));
 
-        assertThat(testee.checkIndexerSelected(indexer)).isFalse();
+        assertThat(testee.checkIndexerSelected(context, indexer)).isFalse();
 
         when(searchRequest.getSource()).thenReturn(SearchSource.API);
-        assertThat(testee.checkIndexerSelected(indexer)).isFalse();
+        assertThat(testee.checkIndexerSelected(context, indexer)).isFalse();
 
         when(searchRequest.getIndexers()).thenReturn(Optional.of(Sets.newSet("indexer")));
 
         when(searchRequest.getSource()).thenReturn(SearchSource.INTERNAL);
-        assertTrue(testee.checkIndexerSelected(indexer));
+        assertTrue(testee.checkIndexerSelected(context, indexer));
 
         when(searchRequest.getSource()).thenReturn(SearchSource.API);
-        assertTrue(testee.checkIndexerSelected(indexer));
+        assertTrue(testee.checkIndexerSelected(context, indexer));
     }
 
     @Test
@@ -136,14 +135,14 @@ public class IndexerForSearchSelectorTest {
 
         indexerConfigMock.setState(IndexerConfig.State.ENABLED);
         indexerConfigMock.setDisabledUntil(null);
-        assertTrue(testee.checkIndexerStatus(indexer));
+        assertTrue(testee.checkIndexerStatus(context, indexer));
 
         indexerConfigMock.setState(IndexerConfig.State.DISABLED_SYSTEM_TEMPORARY);
         indexerConfigMock.setDisabledUntil(Instant.now().plus(1, ChronoUnit.DAYS).toEpochMilli());
-        assertThat(testee.checkIndexerStatus(indexer)).isFalse();
+        assertThat(testee.checkIndexerStatus(context, indexer)).isFalse();
 
         indexerConfigMock.setState(IndexerConfig.State.DISABLED_SYSTEM);
-        assertThat(testee.checkIndexerStatus(indexer)).isFalse();
+        assertThat(testee.checkIndexerStatus(context, indexer)).isFalse();
     }
 
     @Test
@@ -151,29 +150,29 @@ public class IndexerForSearchSelectorTest {
         when(searchRequest.getCategory()).thenReturn(category);
         indexerConfigMock.setEnabledCategories(Collections.emptyList());
 
-        assertTrue(testee.checkDisabledForCategory(indexer));
+        assertTrue(testee.checkDisabledForCategory(context, indexer));
 
         indexerConfigMock.setEnabledCategories(Arrays.asList("anotherCategory"));
-        assertThat(testee.checkDisabledForCategory(indexer)).isFalse();
+        assertThat(testee.checkDisabledForCategory(context, indexer)).isFalse();
 
         indexerConfigMock.setEnabledCategories(Arrays.asList(("category")));
-        assertTrue(testee.checkDisabledForCategory(indexer));
+        assertTrue(testee.checkDisabledForCategory(context, indexer));
     }
 
     @Test
     void shouldCheckForLoadLimiting() {
         indexerConfigMock.setLoadLimitOnRandom(null);
-        assertTrue(testee.checkLoadLimiting(indexer));
+        assertTrue(testee.checkLoadLimiting(context, indexer));
 
         indexerConfigMock.setLoadLimitOnRandom(1);
         for (int i = 0; i < 50; i++) {
-            assertTrue(testee.checkLoadLimiting(indexer));
+            assertTrue(testee.checkLoadLimiting(context, indexer));
         }
 
         indexerConfigMock.setLoadLimitOnRandom(2);
         int countNotPicked = 0;
         for (int i = 0; i < 500; i++) {
-            countNotPicked += testee.checkLoadLimiting(indexer) ? 0 : 1;
+            countNotPicked += testee.checkLoadLimiting(context, indexer) ? 0 : 1;
         }
         assertTrue(countNotPicked > 0);
     }
@@ -184,10 +183,10 @@ public class IndexerForSearchSelectorTest {
         when(searchRequest.getSource()).thenReturn(SearchSource.INTERNAL);
         indexerConfigMock.setEnabledForSearchSource(SearchSourceRestriction.API);
 
-        assertThat(testee.checkSearchSource(indexer)).isFalse();
+        assertThat(testee.checkSearchSource(context, indexer)).isFalse();
 
         when(searchRequest.getSource()).thenReturn(SearchSource.API);
-        assertTrue(testee.checkSearchSource(indexer));
+        assertTrue(testee.checkSearchSource(context, indexer));
     }
 
     @Test
@@ -196,36 +195,35 @@ public class IndexerForSearchSelectorTest {
         Set<MediaIdType> provided = Sets.newSet(MediaIdType.TVMAZE);
 
         when(searchRequest.getQuery()).thenReturn(Optional.empty());
-        when(infoProviderMock.canConvertAny(provided, supported)).thenReturn(true);
-        assertTrue(testee.checkSearchId(indexer));
+        when(infoProviderMock.getConvertibleTo(provided)).thenReturn(supported);
+        assertTrue(testee.checkSearchId(context, indexer));
 
         //Search ID doesn't matter if a query is provided
         when(searchRequest.getQuery()).thenReturn(Optional.of("a query"));
-        when(infoProviderMock.canConvertAny(provided, supported)).thenReturn(false);
-        assertTrue(testee.checkSearchId(indexer));
+        when(infoProviderMock.getConvertibleTo(provided)).thenReturn(Collections.emptySet());
+        assertTrue(testee.checkSearchId(context, indexer));
 
         //When no IDs are provided and no query is provided the ID check should be successful (might be an update query)
         provided = new HashSet<>();
         when(searchRequest.getQuery()).thenReturn(Optional.empty());
-        verify(infoProviderMock, never()).canConvertAny(provided, supported);
-        assertTrue(testee.checkSearchId(indexer));
+        verify(infoProviderMock, never()).getConvertibleTo(provided);
+        assertTrue(testee.checkSearchId(context, indexer));
     }
 
     @Test
     void shouldIgnoreHitAndDownloadLimitIfNoneAreSet() {
         indexerConfigMock.setHitLimit(null);
         indexerConfigMock.setDownloadLimit(null);
-        testee.checkIndexerHitLimit(indexer);
+        testee.checkIndexerHitLimit(context, indexer);
         verify(nzbDownloadRepository, never()).findBySearchResultIndexerOrderByTimeDesc(any(), any());
     }
 
     @Test
     void shouldIgnoreHitLimitIfNotYetReached() {
         indexerConfigMock.setHitLimit(10);
-        when(queryMock.getResultList()).thenReturn(Collections.emptyList());
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertTrue(result);
-        verify(entityManagerMock).createNativeQuery(anyString());
+        verify(indexerAccessTracker).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -236,10 +234,10 @@ public class IndexerForSearchSelectorTest {
         testee.clock = Clock.fixed(currentTime, ZoneId.of("UTC"));
         indexerConfigMock.setHitLimit(1);
         indexerConfigMock.setHitLimitResetTime(null);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(firstAccess)));
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.SEARCH, firstAccess);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertThat(result).isFalse();
-        verify(entityManagerMock).createNativeQuery(anyString());
+        verify(indexerAccessTracker).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -250,10 +248,10 @@ public class IndexerForSearchSelectorTest {
         testee.clock = Clock.fixed(currentTime, ZoneId.of("UTC"));
         indexerConfigMock.setHitLimit(1);
         indexerConfigMock.setHitLimitResetTime(12);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(firstAccess)));
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.SEARCH, firstAccess);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertThat(result).isFalse();
-        verify(entityManagerMock).createNativeQuery(anyString());
+        verify(indexerAccessTracker).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -264,10 +262,10 @@ public class IndexerForSearchSelectorTest {
         testee.clock = Clock.fixed(currentTime, ZoneId.of("UTC"));
         indexerConfigMock.setHitLimit(2);
         indexerConfigMock.setHitLimitResetTime(12);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(firstAccess)));
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.SEARCH, firstAccess);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertTrue(result);
-        verify(entityManagerMock).createNativeQuery(anyString());
+        verify(indexerAccessTracker).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -278,10 +276,10 @@ public class IndexerForSearchSelectorTest {
         testee.clock = Clock.fixed(currentTime, ZoneId.of("UTC"));
         indexerConfigMock.setHitLimit(1);
         indexerConfigMock.setHitLimitResetTime(6);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(firstAccess)));
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.SEARCH, firstAccess);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertTrue(result);
-        verify(entityManagerMock).createNativeQuery(anyString());
+        verify(indexerAccessTracker).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -294,9 +292,9 @@ public class IndexerForSearchSelectorTest {
         indexerLimit.setApiHits(1);
         indexerLimit.setOldestApiHit(firstAccess);
 
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertThat(result).isFalse();
-        verify(entityManagerMock, never()).createNativeQuery(anyString());
+        verify(indexerAccessTracker, never()).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -309,9 +307,9 @@ public class IndexerForSearchSelectorTest {
         indexerLimit.setApiHits(1);
         indexerLimit.setOldestApiHit(firstAccess);
 
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertTrue(result);
-        verify(entityManagerMock, never()).createNativeQuery(anyString());
+        verify(indexerAccessTracker, never()).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -324,9 +322,9 @@ public class IndexerForSearchSelectorTest {
         indexerLimit.setApiHits(1);
         indexerLimit.setOldestApiHit(firstAccess);
 
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertTrue(result);
-        verify(entityManagerMock, never()).createNativeQuery(anyString());
+        verify(indexerAccessTracker, never()).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -339,12 +337,12 @@ public class IndexerForSearchSelectorTest {
         testee.clock = Clock.fixed(currentTime, ZoneId.of("UTC"));
         indexerConfigMock.setHitLimit(1);
         indexerLimit.setApiHits(1);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(oldestHitDatabase)));
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.SEARCH, oldestHitDatabase);
         indexerLimit.setOldestApiHit(oldestHitApiResult);
 
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertThat(result).isFalse();
-        verify(entityManagerMock, never()).createNativeQuery(anyString());
+        verify(indexerAccessTracker, never()).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
@@ -355,19 +353,19 @@ public class IndexerForSearchSelectorTest {
         testee.clock = Clock.fixed(currentTime, ZoneId.of("UTC"));
         indexerConfigMock.setHitLimit(1);
         indexerLimit.setApiHits(1);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(firstAccess)));
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.SEARCH, firstAccess);
 
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
 
         assertThat(result).isFalse();
-        verify(entityManagerMock).createNativeQuery(anyString());
+        verify(indexerAccessTracker).countRecent(anyInt(), any(), anyInt());
     }
 
     @Test
     void shouldIgnoreDownloadLimitIfNotYetReachedUsingAccessHistory() {
         indexerConfigMock.setDownloadLimit(10);
-        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(Instant.now().minus(10, ChronoUnit.MILLIS))));
-        boolean result = testee.checkIndexerHitLimit(indexer);
+        indexerAccessTracker.recordAccess(indexerEntity.getId(), IndexerApiAccessType.NZB, Instant.now().minus(10, ChronoUnit.MILLIS));
+        boolean result = testee.checkIndexerHitLimit(context, indexer);
         assertTrue(result);
     }
 
@@ -388,21 +386,21 @@ public class IndexerForSearchSelectorTest {
     void shouldOnlyUseTorznabIndexersForTorrentSearches() throws Exception {
         indexerConfigMock.setSearchModuleType(SearchModuleType.NEWZNAB);
         when(searchRequest.getDownloadType()).thenReturn(DownloadType.TORRENT);
-        assertFalse(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(indexer), "Only torznab indexers should be used for torrent searches");
+        assertFalse(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(context, indexer), "Only torznab indexers should be used for torrent searches");
 
         indexerConfigMock.setSearchModuleType(SearchModuleType.TORZNAB);
         when(searchRequest.getDownloadType()).thenReturn(DownloadType.TORRENT);
-        assertTrue(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(indexer), "Torznab indexers should be used for torrent searches");
+        assertTrue(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(context, indexer), "Torznab indexers should be used for torrent searches");
 
         indexerConfigMock.setSearchModuleType(SearchModuleType.TORZNAB);
         when(searchRequest.getSource()).thenReturn(SearchSource.INTERNAL);
         when(searchRequest.getDownloadType()).thenReturn(DownloadType.NZB);
-        assertTrue(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(indexer), "Torznab indexers should be selected for internal NZB searches");
+        assertTrue(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(context, indexer), "Torznab indexers should be selected for internal NZB searches");
 
         indexerConfigMock.setSearchModuleType(SearchModuleType.TORZNAB);
         when(searchRequest.getSource()).thenReturn(SearchSource.API);
         when(searchRequest.getDownloadType()).thenReturn(DownloadType.NZB);
-        assertFalse(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(indexer), "Torznab indexers should not be selected for API NZB searches");
+        assertFalse(testee.checkTorznabOnlyUsedForTorrentOrInternalSearches(context, indexer), "Torznab indexers should not be selected for API NZB searches");
     }
 
     @Test
@@ -459,10 +457,10 @@ public class IndexerForSearchSelectorTest {
         assertTrue(testee.isInTime("10-7"));
 
         indexerConfigMock.setSchedule(Arrays.asList("tu-we6", "mo"));
-        assertTrue(testee.checkSchedule(indexer));
+        assertTrue(testee.checkSchedule(context, indexer));
 
         indexerConfigMock.setSchedule(Arrays.asList("tu-we6"));
-        assertThat(testee.checkSchedule(indexer)).isFalse();
+        assertThat(testee.checkSchedule(context, indexer)).isFalse();
 
         testee.clock = Clock.fixed(Instant.ofEpochSecond(1513412203), ZoneId.of("UTC")); //Saturday, December 16, 2017 8:16:43 AM
         assertTrue(testee.isInTime("fr-sa"));
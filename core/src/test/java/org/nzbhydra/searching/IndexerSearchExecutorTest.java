@@ -0,0 +1,46 @@
+package org.nzbhydra.searching;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexerSearchExecutorTest {
+
+    private final IndexerSearchExecutor testee = new IndexerSearchExecutor(2, 1);
+
+    @AfterEach
+    public void tearDown() {
+        testee.onShutdown();
+    }
+
+    @Test
+    void shouldNotBlockThreadsWithSearchesWaitingForBusyIndexer() throws Exception {
+        CountDownLatch indexer1MayReturn = new CountDownLatch(1);
+        List<Future<String>> indexer1Futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            indexer1Futures.add(testee.submit("indexer1", () -> {
+                indexer1MayReturn.await();
+                return "indexer1";
+            }));
+        }
+
+        Future<String> indexer2Future = testee.submit("indexer2", () -> "indexer2");
+
+        assertThat(indexer2Future.get(10, TimeUnit.SECONDS)).isEqualTo("indexer2");
+        assertThat(testee.getWaitingForIndexer("indexer1")).isEqualTo(2);
+
+        indexer1MayReturn.countDown();
+        for (Future<String> future : indexer1Futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo("indexer1");
+        }
+        assertThat(testee.getWaitingForIndexer("indexer1")).isZero();
+    }
+
+}
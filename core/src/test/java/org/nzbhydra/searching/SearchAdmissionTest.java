@@ -0,0 +1,119 @@
+package org.nzbhydra.searching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SearchAdmissionTest {
+
+    @Mock
+    private ConfigProvider configProvider;
+    private final BaseConfig baseConfig = new BaseConfig();
+    private SearchAdmission testee;
+
+    @BeforeEach
+    public void setUp() {
+        when(configProvider.getBaseConfig()).thenReturn(baseConfig);
+        baseConfig.getSearching().setMaxConcurrentApiSearches(1);
+        baseConfig.getSearching().setApiSearchQueueSize(1);
+        baseConfig.getSearching().setTimeout(10);
+        testee = new SearchAdmission(configProvider);
+    }
+
+    @Test
+    void shouldQueueAndRejectWhenQueueIsFull() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SearchAdmission.Permit first = testee.acquire();
+            assertThat(testee.getRunning()).isEqualTo(1);
+
+            Future<?> second = executor.submit(() -> testee.acquire().close());
+            waitUntil(() -> testee.getQueued() == 1);
+
+            assertThatThrownBy(() -> testee.acquire())
+                .isInstanceOf(SearchRejectedException.class)
+                .satisfies(e -> assertThat(((SearchRejectedException) e).getRetryAfterSeconds()).isEqualTo(10));
+            assertThat(testee.getRejected()).isEqualTo(1);
+
+            first.close();
+            second.get(10, TimeUnit.SECONDS);
+            assertThat(testee.getRunning()).isEqualTo(0);
+            assertThat(testee.getQueued()).isEqualTo(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldAdmitWaitingSearchWhenLimitIsRaised() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            testee.acquire();
+            Future<?> second = executor.submit(() -> testee.acquire());
+            waitUntil(() -> testee.getQueued() == 1);
+
+            baseConfig.getSearching().setMaxConcurrentApiSearches(2);
+            testee.handleNewConfig(new ConfigChangedEvent(this, baseConfig, baseConfig));
+
+            second.get(5, TimeUnit.SECONDS);
+            assertThat(testee.getRunning()).isEqualTo(2);
+            assertThat(testee.getQueued()).isEqualTo(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRejectWhenNoSearchFinishesInTime() {
+        baseConfig.getSearching().setTimeout(0);
+        testee.acquire();
+
+        assertThatThrownBy(() -> testee.acquire()).isInstanceOf(SearchRejectedException.class);
+        assertThat(testee.getQueued()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldNotLimitIfDisabled() {
+        baseConfig.getSearching().setMaxConcurrentApiSearches(0);
+        baseConfig.getSearching().setApiSearchQueueSize(0);
+
+        for (int i = 0; i < 10; i++) {
+            testee.acquire();
+        }
+        assertThat(testee.getRunning()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldReleaseOnlyOnce() {
+        SearchAdmission.Permit permit = testee.acquire();
+        permit.close();
+        permit.close();
+
+        assertThat(testee.getRunning()).isEqualTo(0);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(end);
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package org.nzbhydra.searching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.nzbhydra.config.SearchSource;
+import org.nzbhydra.config.searching.SearchType;
+import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.searching.dtoseventsenums.IndexerSearchFinishedEvent;
+import org.nzbhydra.searching.dtoseventsenums.PartialSearchResultsEvent;
+import org.nzbhydra.searching.dtoseventsenums.SearchMessageEvent;
+import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SearchWebTest {
+
+    @Mock
+    private SimpMessageSendingOperations messagingTemplate;
+    @Mock
+    private Indexer indexer;
+    @InjectMocks
+    private SearchWeb testee;
+
+    private final SearchRequest searchRequest = new SearchRequest(SearchSource.INTERNAL, SearchType.SEARCH, 0, 100);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        searchRequest.setSearchRequestId(123);
+        Field field = SearchWeb.class.getDeclaredField("searchStates");
+        field.setAccessible(true);
+        @SuppressWarnings("unchecked") Map<Long, SearchState> searchStates = (Map<Long, SearchState>) field.get(testee);
+        searchStates.put(123L, new SearchState(123));
+    }
+
+    @Test
+    void shouldOnlySendNewMessagesToSearchTopic() {
+        testee.handleSearchMessageEvent(new SearchMessageEvent(searchRequest, "b"));
+        testee.handleSearchMessageEvent(new SearchMessageEvent(searchRequest, "a"));
+        testee.handleSearchMessageEvent(new SearchMessageEvent(searchRequest, "a"));
+
+        ArgumentCaptor<SearchStateUpdate> captor = ArgumentCaptor.forClass(SearchStateUpdate.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/searchState/123"), captor.capture());
+        List<SearchStateUpdate> updates = captor.getAllValues();
+        assertThat(updates.get(0).isComplete()).isFalse();
+        assertThat(updates.get(0).getMessages()).extracting(SortableMessage::getMessage).containsExactly("b");
+        assertThat(updates.get(1).getMessages()).extracting(SortableMessage::getMessage).containsExactly("a");
+        assertThat(updates.get(1).getIndexersFinished()).isNull();
+
+        SearchStateUpdate complete = testee.connectSearchState(123);
+        assertThat(complete.isComplete()).isTrue();
+        assertThat(complete.getMessages()).extracting(SortableMessage::getMessage).containsExactly("a", "b");
+    }
+
+    @Test
+    void shouldOnlySendChangedCounters() {
+        testee.handleIndexerSearchFinishedEvent(new IndexerSearchFinishedEvent(searchRequest));
+
+        ArgumentCaptor<SearchStateUpdate> captor = ArgumentCaptor.forClass(SearchStateUpdate.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/searchState/123"), captor.capture());
+        assertThat(captor.getValue().getIndexersFinished()).isEqualTo(1);
+        assertThat(captor.getValue().getIndexersSelected()).isNull();
+        assertThat(captor.getValue().getMessages()).isNull();
+    }
+
+    @Test
+    void shouldSendNumberOfPartialResultsAndNewestOnes() {
+        when(indexer.getName()).thenReturn("indexer");
+        List<SearchResultItem> items = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            items.add(searchResultItem("title" + i, Instant.now().minus(i, ChronoUnit.HOURS)));
+        }
+
+        testee.handlePartialSearchResultsEvent(new PartialSearchResultsEvent(searchRequest, items.subList(1, 12)));
+        testee.handlePartialSearchResultsEvent(new PartialSearchResultsEvent(searchRequest, items.subList(0, 1)));
+
+        ArgumentCaptor<SearchStateUpdate> captor = ArgumentCaptor.forClass(SearchStateUpdate.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/searchState/123"), captor.capture());
+        SearchStateUpdate first = captor.getAllValues().get(0);
+        assertThat(first.getNumberOfResults()).isEqualTo(11);
+        assertThat(first.getNewestResults()).extracting(SearchStateResult::getTitle).startsWith("title1").hasSize(10);
+        assertThat(first.getMessages()).isNull();
+        SearchStateUpdate second = captor.getAllValues().get(1);
+        assertThat(second.getNumberOfResults()).isEqualTo(12);
+        assertThat(second.getNewestResults()).extracting(SearchStateResult::getTitle).startsWith("title0", "title1").hasSize(10).doesNotContain("title10");
+        assertThat(second.getNewestResults().get(0).getIndexer()).isEqualTo("indexer");
+        assertThat(second.getNewestResults().get(1).getAge()).isEqualTo("1h");
+
+        SearchStateUpdate complete = testee.connectSearchState(123);
+        assertThat(complete.getNumberOfResults()).isEqualTo(12);
+        assertThat(complete.getNewestResults()).isEqualTo(second.getNewestResults());
+    }
+
+    private SearchResultItem searchResultItem(String title, Instant pubDate) {
+        SearchResultItem item = new SearchResultItem();
+        item.setTitle(title);
+        item.setIndexer(indexer);
+        item.setPubDate(pubDate);
+        return item;
+    }
+
+    @Test
+    void shouldIgnoreUnknownSearches() {
+        searchRequest.setSearchRequestId(456);
+        testee.handleIndexerSearchFinishedEvent(new IndexerSearchFinishedEvent(searchRequest));
+
+        verify(messagingTemplate, times(0)).convertAndSend(any(String.class), any(Object.class));
+        assertThat(testee.connectSearchState(456)).isNull();
+    }
+
+}
@@ -29,7 +29,7 @@ import org.nzbhydra.mediainfo.InfoProvider;
 import org.nzbhydra.searching.IndexerForSearchSelector.IndexerForSearchSelection;
 import org.nzbhydra.searching.db.SearchRepository;
 import org.nzbhydra.searching.db.SearchResultEntity;
-import org.nzbhydra.searching.db.SearchResultRepository;
+import org.nzbhydra.searching.db.SearchResultWriteQueue;
 import org.nzbhydra.searching.dtoseventsenums.DuplicateDetectionResult;
 import org.nzbhydra.searching.dtoseventsenums.IndexerSearchResult;
 import org.nzbhydra.searching.dtoseventsenums.SearchResultItem;
@@ -41,10 +41,16 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -74,7 +80,7 @@ public class SearcherUnitTest {
 
     private IndexerEntity indexerEntity = new IndexerEntity();
     @Mock
-    private SearchResultRepository searchResultRepositoryMock;
+    private SearchResultWriteQueue searchResultWriteQueue;
     private SearchResultEntity searchResultEntityMock = new SearchResultEntity();
     @Mock
     private InfoProvider infoProviderMock;
@@ -103,6 +109,7 @@ public class SearcherUnitTest {
 
         searchResultEntityMock.setIndexer(indexerEntity);
         searcher.duplicateDetector = duplicateDetector;
+        searcher.indexerSearchExecutor = new IndexerSearchExecutor(10, 5);
 
         when(indexer1.getName()).thenReturn("indexer1");
         when(indexer1.getConfig()).thenReturn(indexerConfigMock);
@@ -116,12 +123,13 @@ public class SearcherUnitTest {
         when(searchRequestMock.getInternalData()).thenReturn(new InternalData());
         when(indexerPicker.pickIndexers(any())).thenReturn(pickingResultMock);
         when(indexerSearchRepository.findByIndexerEntityAndSearchEntity(any(), any())).thenReturn(indexerSearchEntityMock);
+        when(indexerSearchRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         when(pickingResultMock.getSelectedIndexers()).thenReturn(Arrays.asList(indexer1));
-        when(duplicateDetector.detectDuplicates(any())).thenAnswer(new Answer<DuplicateDetectionResult>() {
+        when(duplicateDetector.detectDuplicates(any(), any())).thenAnswer(new Answer<DuplicateDetectionResult>() {
             @Override
             public DuplicateDetectionResult answer(InvocationOnMock invocation) throws Throwable {
-                Set<SearchResultItem> items = invocation.getArgument(0);
+                Collection<SearchResultItem> items = invocation.getArgument(1);
                 List<LinkedHashSet<SearchResultItem>> sets = items.stream().map(x -> {
                     return Sets.newLinkedHashSet(Arrays.asList(x));
                 }).collect(Collectors.toList());
@@ -240,6 +248,71 @@ public class SearcherUnitTest {
 
     }
 
+    @Test
+    void shouldReturnEarlyForApiSearchesAndUseLateResultsForNextPage() throws Exception {
+        configProviderMock.getBaseConfig().getSearching().setApiEarlyReturnSeconds(1);
+        when(pickingResultMock.getSelectedIndexers()).thenReturn(Arrays.asList(indexer1, indexer2));
+        IndexerSearchResult indexer1results = mockIndexerSearchResult(0, 100, false, 100, indexer1);
+        when(indexer1.search(any(), anyInt(), anyInt())).thenReturn(indexer1results);
+        IndexerSearchResult indexer2results = mockIndexerSearchResult(0, 100, false, 100, indexer2);
+        CountDownLatch indexer2MayReturn = new CountDownLatch(1);
+        when(indexer2.search(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            indexer2MayReturn.await(10, TimeUnit.SECONDS);
+            return indexer2results;
+        });
+
+        SearchRequest searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 50);
+        searchRequest.setTitle("some title so it will be found in the search request cache");
+        SearchResult result = searcher.search(searchRequest);
+        //indexer2 is still blocked so the search must've returned early
+        assertThat(result.getSearchResultItems()).hasSize(50);
+        assertThat(result.getIndexerSearchResults()).containsExactly(indexer1results);
+        indexer2MayReturn.countDown();
+
+        searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 50, 50);
+        searchRequest.setTitle("some title so it will be found in the search request cache");
+        result = searcher.search(searchRequest);
+        assertThat(result.getIndexerSearchResults()).containsExactlyInAnyOrder(indexer1results, indexer2results);
+
+        verify(indexer1, times(1)).search(any(), anyInt(), anyInt());
+        verify(indexer2, times(1)).search(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldCollectConcurrentlyWithoutBlocking() throws Exception {
+        SearchCacheEntry searchCacheEntry = new SearchCacheEntry(searchRequestMock, pickingResultMock, null);
+        searchCacheEntry.getIndexerCacheEntries().put("indexer1", new IndexerSearchCacheEntry(indexer1));
+        IndexerSearchResult indexer1results = mockIndexerSearchResult(0, 10, false, 10, indexer1);
+        CountDownLatch indexer1MayReturn = new CountDownLatch(1);
+        CompletionService<IndexerSearchResult> completionService = searcher.indexerSearchExecutor.newCompletionService("indexer1", searchCacheEntry.getCompletedIndexerSearches());
+        Future<IndexerSearchResult> future = completionService.submit(() -> {
+            indexer1MayReturn.await();
+            return indexer1results;
+        });
+        searchCacheEntry.getPendingIndexerSearches().put(future, "indexer1");
+
+        SearchRequest searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> {
+                searcher.collectIndexerSearchResults(searchRequest, searchCacheEntry, null);
+                return null;
+            });
+            Future<?> second = executor.submit(() -> {
+                searcher.collectIndexerSearchResults(searchRequest, searchCacheEntry, null);
+                return null;
+            });
+            indexer1MayReturn.countDown();
+
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(searchCacheEntry.getPendingIndexerSearches()).isEmpty();
+        assertThat(searchCacheEntry.getIndexerCacheEntries().get("indexer1").getIndexerSearchResults()).containsExactly(indexer1results);
+    }
+
     private void setResultsPerDay(int offset, IndexerSearchResult result1) {
         int resultsPerDay = 100;
         List<List<SearchResultItem>> partitions = Lists.partition(result1.getSearchResultItems(), resultsPerDay);
@@ -0,0 +1,86 @@
+package org.nzbhydra.searching.cleanup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.nzbhydra.searching.Searcher;
+import org.nzbhydra.tasks.HydraTaskScheduler;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ChunkedDeleterTest {
+
+    private static final String DELETE_SQL = "DELETE FROM SEARCH WHERE ID >= ? AND ID < ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private Searcher searcher;
+    @Mock
+    private HydraTaskScheduler hydraTaskScheduler;
+
+    private ChunkedDeleter testee;
+
+    @BeforeEach
+    public void setUp() {
+        testee = new ChunkedDeleter(jdbcTemplate, searcher, hydraTaskScheduler);
+    }
+
+    @Test
+    void shouldDeleteIdRangesUpToHighestExistingId() {
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.<String, Object>of("LOWEST", 1, "HIGHEST", 25_000));
+        //Every ID exists
+        when(jdbcTemplate.update(eq(DELETE_SQL), anyLong(), anyLong())).thenAnswer(x -> (int) (x.<Long>getArgument(2) - x.<Long>getArgument(1)));
+
+        long deleted = testee.deleteBelow("task", "searches", "SEARCH", "ID", Integer.MAX_VALUE);
+
+        assertThat(deleted).isEqualTo(25_000);
+        verify(jdbcTemplate).update(DELETE_SQL, 1L, 10_001L);
+        verify(hydraTaskScheduler).reportProgress(eq("task"), startsWith("Deleted 25000 searches"));
+    }
+
+    @Test
+    void shouldNotDeleteIfNoRowIsOldEnough() {
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.<String, Object>of("LOWEST", 100, "HIGHEST", 200));
+
+        assertThat(testee.deleteBelow("task", "searches", "SEARCH", "ID", 50)).isEqualTo(0);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void shouldDeleteMatchingRowsByKeyUntilChunkIsNotFull() {
+        String sql = "DELETE FROM STATS_SEARCH_HOURLY WHERE _ROWID_ IN (SELECT t._ROWID_ FROM STATS_SEARCH_HOURLY t WHERE t.HOUR_START < ? LIMIT ?)";
+        when(jdbcTemplate.update(eq(sql), eq("cutoff"), any())).thenReturn(10_000, 5);
+
+        long deleted = testee.deleteMatchingByKey("task", "hourly search stats", "STATS_SEARCH_HOURLY", "_ROWID_", "t.HOUR_START < ?", "cutoff");
+
+        assertThat(deleted).isEqualTo(10_005);
+        verify(jdbcTemplate).update(sql, "cutoff", 10_000);
+        verify(jdbcTemplate, times(2)).update(eq(sql), eq("cutoff"), any());
+    }
+
+    @Test
+    void shouldAdaptChunkSizeToTargetDuration() {
+        assertThat(ChunkedDeleter.adaptChunkSize(10_000, 10)).isEqualTo(20_000);
+        assertThat(ChunkedDeleter.adaptChunkSize(10_000, ChunkedDeleter.TARGET_CHUNK_MILLIS)).isEqualTo(10_000);
+        assertThat(ChunkedDeleter.adaptChunkSize(10_000, ChunkedDeleter.TARGET_CHUNK_MILLIS * 4)).isEqualTo(5_000);
+        assertThat(ChunkedDeleter.adaptChunkSize(ChunkedDeleter.MIN_CHUNK_SIZE, 10_000)).isEqualTo(ChunkedDeleter.MIN_CHUNK_SIZE);
+        assertThat(ChunkedDeleter.adaptChunkSize(ChunkedDeleter.MAX_CHUNK_SIZE, 0)).isEqualTo(ChunkedDeleter.MAX_CHUNK_SIZE);
+    }
+
+}
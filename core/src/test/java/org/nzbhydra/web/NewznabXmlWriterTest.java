@@ -0,0 +1,89 @@
+package org.nzbhydra.web;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.nzbhydra.mapping.newznab.NewznabResponse;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlError;
+import org.nzbhydra.mapping.newznab.xml.NewznabXmlRoot;
+import org.springframework.oxm.Unmarshaller;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NewznabXmlWriterTest {
+
+    private final NewznabXmlWriter testee = new NewznabXmlWriter();
+    private final Unmarshaller unmarshaller = new WebConfiguration().marshaller();
+
+    @Test
+    void shouldWriteWhatJaxbReads() throws Exception {
+        for (String resource : Arrays.asList("newznab_3results.xml", "nzbsOrgResponse.xml", "animetosho_direct.xml", "btnJackettResponse.xml")) {
+            NewznabXmlRoot expected = read(resource);
+            expected.setSearchType(resource.contains("Jackett") ? NewznabResponse.SearchType.TORZNAB : NewznabResponse.SearchType.NEWZNAB);
+
+            NewznabXmlRoot actual = unmarshal(write(expected));
+
+            assertThat(actual).as(resource).usingRecursiveComparison().ignoringFields("searchType").isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldOnlyDeclareNamespaceForSearchType() throws Exception {
+        NewznabXmlRoot root = read("btnJackettResponse.xml");
+        root.setSearchType(NewznabResponse.SearchType.TORZNAB);
+        String xml = write(root);
+        assertThat(xml).contains("xmlns:torznab=\"http://torznab.com/schemas/2015/feed\"");
+        assertThat(xml).doesNotContain("xmlns:newznab");
+        assertThat(xml).contains("<torznab:attr name=\"seeders\"");
+
+        root = read("newznab_3results.xml");
+        root.setSearchType(NewznabResponse.SearchType.NEWZNAB);
+        xml = write(root);
+        assertThat(xml).contains("xmlns:newznab=\"http://www.newznab.com/DTD/2010/feeds/attributes/\"");
+        assertThat(xml).doesNotContain("xmlns:torznab");
+        assertThat(xml).doesNotContain("searchType");
+    }
+
+    @Test
+    void shouldWriteApiLimits() throws Exception {
+        NewznabXmlRoot root = read("drunkenSlug_withLimits.xml");
+
+        NewznabXmlRoot actual = unmarshal(write(root));
+
+        assertThat(actual.getRssChannel().getApiLimits().getApiCurrent()).isEqualTo(root.getRssChannel().getApiLimits().getApiCurrent());
+        assertThat(actual.getRssChannel().getApiLimits().getApiMax()).isEqualTo(root.getRssChannel().getApiLimits().getApiMax());
+        assertThat(actual.getRssChannel().getApiLimits().getGrabCurrent()).isEqualTo(root.getRssChannel().getApiLimits().getGrabCurrent());
+        assertThat(actual.getRssChannel().getApiLimits().getGrabMax()).isEqualTo(root.getRssChannel().getApiLimits().getGrabMax());
+        assertThat(actual.getRssChannel().getItems()).hasSameSizeAs(root.getRssChannel().getItems());
+    }
+
+    @Test
+    void shouldWriteError() throws Exception {
+        NewznabXmlRoot root = new NewznabXmlRoot();
+        root.setRssChannel(null);
+        root.setError(new NewznabXmlError("100", "Incorrect user credentials"));
+
+        assertThat(unmarshal(write(root)).getError()).isEqualTo(root.getError());
+    }
+
+    private NewznabXmlRoot read(String resource) throws Exception {
+        return unmarshal(Resources.toString(Resources.getResource(NewznabXmlWriterTest.class, "/org/nzbhydra/mapping/" + resource), Charsets.UTF_8));
+    }
+
+    private NewznabXmlRoot unmarshal(String xml) throws Exception {
+        return (NewznabXmlRoot) unmarshaller.unmarshal(new StreamSource(new StringReader(xml)));
+    }
+
+    private String write(NewznabXmlRoot root) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        testee.write(root, bos);
+        return bos.toString(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.nzbhydra.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrecompressedResourcesTest {
+
+    private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    //The brotli variants are checked by the gulp task "verify-compressed", there's no brotli decoder in the JDK
+    @Test
+    void shouldContainCurrentContentInGzipVariants() throws Exception {
+        Resource[] compressedResources = resolver.getResources("classpath:static/**/*.gz");
+        assertThat(compressedResources).isNotEmpty();
+
+        for (Resource compressedResource : compressedResources) {
+            Resource resource = compressedResource.createRelative(compressedResource.getFilename().replaceFirst("\\.gz$", ""));
+            Resource brotliResource = compressedResource.createRelative(resource.getFilename() + ".br");
+            assertThat(resource.exists()).as("%s exists", resource).isTrue();
+            assertThat(brotliResource.exists()).as("%s exists", brotliResource).isTrue();
+            try (InputStream compressed = new GZIPInputStream(compressedResource.getInputStream()); InputStream plain = resource.getInputStream()) {
+                assertThat(compressed.readAllBytes()).as("Content of %s (run 'gulp compress')", compressedResource).isEqualTo(plain.readAllBytes());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.nzbhydra.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StaticResourceUrlsTest {
+
+    private StaticResourceUrls testee;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+        handler.setLocations(List.of(new ClassPathResource("static/")));
+        handler.setResourceResolvers(List.of(new EncodedResourceResolver(), new VersionResourceResolver().addContentVersionStrategy("/**"), new PathResourceResolver()));
+        handler.afterPropertiesSet();
+        ResourceUrlProvider resourceUrlProvider = new ResourceUrlProvider();
+        resourceUrlProvider.setHandlerMap(Map.of("/static/**", handler));
+        testee = new StaticResourceUrls(resourceUrlProvider);
+    }
+
+    @Test
+    void shouldAddContentHashToUrl() {
+        assertThat(testee.get("js/nzbhydra.js")).matches("static/js/nzbhydra-[0-9a-f]{32}\\.js");
+        assertThat(testee.get("css/alllibs.css")).matches("static/css/alllibs-[0-9a-f]{32}\\.css");
+    }
+
+    @Test
+    void shouldReturnUnversionedUrlForUnknownResource() {
+        assertThat(testee.get("js/unknown.js")).isEqualTo("static/js/unknown.js");
+    }
+
+}
@@ -0,0 +1,3 @@
+drop table if exists STATS_ROLLUP_STATE;
+drop table if exists STATS_SEARCH_HOURLY;
+drop table if exists STATS_INDEXERAPIACCESS_HOURLY;
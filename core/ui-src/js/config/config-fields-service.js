@@ -700,6 +700,70 @@ function ConfigFields($injector) {
                                 help: '256 should suffice except when working with big databases / many indexers. See <a href="https://github.com/theotherp/nzbhydra2/wiki/Memory-requirements" target="_blank">wiki</a>.',
                                 advanced: true
                             }
+                        },
+                        {
+                            key: 'webServerThreads',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Web server threads',
+                                min: 5,
+                                help: 'Maximum number of requests handled at the same time. Should be higher than the number of concurrent searches plus their queue so that the web UI and downloads stay responsive. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'mediaInfoCacheEntries',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Media info cache entries',
+                                min: 0,
+                                help: 'Number of movie and show infos (and title searches) kept in memory. Infos not in memory are loaded from the database. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'mediaInfoCacheMinutes',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Media info cache time',
+                                addonRight: {
+                                    text: 'minutes'
+                                },
+                                min: 1,
+                                help: 'How long movie and show infos are kept in memory. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'imageCacheSizeMb',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Image cache size',
+                                addonRight: {
+                                    text: 'MB'
+                                },
+                                min: 1,
+                                help: 'Disk space used for proxied images. The least recently used images are deleted when the cache is full. Takes effect on next restart.',
+                                advanced: true
+                            }
+                        },
+                        {
+                            key: 'imageCacheMemoryMb',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Image memory cache size',
+                                addonRight: {
+                                    text: 'MB'
+                                },
+                                min: 0,
+                                help: 'Memory used to keep the most recently used proxied images in addition to the disk cache. Set to 0 to serve all images from disk. Takes effect on next restart.',
+                                advanced: true
+                            }
                         }
                     ]
 
@@ -1550,6 +1614,47 @@ function ConfigFields($injector) {
                                     text: 'minutes'
                                 }
                             }
+                        },
+                        {
+                            key: 'serveStaleCachedResults',
+                            type: 'horizontalSwitch',
+                            templateOptions: {
+                                type: 'switch',
+                                label: 'Serve stale cached results',
+                                help: 'When enabled cached API search results will be returned even if the cache time is exceeded. The search is then repeated in the background so that the next request gets the updated results.'
+                            }
+                        },
+                        {
+                            key: 'apiEarlyReturnSeconds',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'API early return',
+                                help: 'When set API searches will return after this time if enough results were already found instead of waiting for the slowest indexer. Results of indexers still being searched will be used for the next page. Should be lower than the timeout.',
+                                addonRight: {
+                                    text: 'seconds'
+                                }
+                            }
+                        },
+                        {
+                            key: 'maxConcurrentApiSearches',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Max concurrent searches',
+                                min: 0,
+                                help: 'API and web UI searches executed at the same time. Further searches wait in a queue. Set to 0 to disable the limit.'
+                            }
+                        },
+                        {
+                            key: 'apiSearchQueueSize',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Search queue size',
+                                min: 0,
+                                help: 'API and web UI searches allowed to wait for a running one to finish. When the queue is full further searches are rejected with HTTP status 429 and a Retry-After header instead of blocking.'
+                            }
                         }
                     ]
                 }
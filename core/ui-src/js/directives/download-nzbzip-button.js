@@ -32,23 +32,42 @@ function downloadNzbzipButton() {
                     searchTitle = "";
                 }
                 var filename = "NZBHydra NZBs" + searchTitle + ".zip";
-                $http({method: "post", url: link, data: values}).then(function (response) {
-                    if (response.data.successful && response.data.zip !== null) {
-                        link = "internalapi/nzbzipDownload";
-                        FileDownloadService.downloadFile(link, filename, "POST", response.data.zipFilepath);
+                //The ZIP is streamed while the NZBs are downloaded. Which ones could be added is contained in the ZIP's comment
+                $http({method: "post", url: link, data: values, responseType: 'arraybuffer'}).then(function (response) {
+                    var result = readZipComment(response.data);
+                    if (result === null) {
+                        growl.error("Unable to read ZIP with NZBs");
+                    } else if (result.successful) {
+                        FileDownloadService.saveFile(response.data, filename);
                         if (angular.isDefined($scope.callback)) {
-                            $scope.callback({result: response.data.addedIds});
+                            $scope.callback({result: result.addedIds});
                         }
-                        if (response.data.missedIds.length > 0) {
-                            growl.error("Unable to add " + response.missedIds.length + " out of " + values.length + " NZBs to ZIP");
+                        if (result.missedIds.length > 0) {
+                            growl.error("Unable to add " + result.missedIds.length + " out of " + values.length + " NZBs to ZIP");
                         }
                     } else {
-                        growl.error(response.data.message);
+                        growl.error(result.message);
                     }
                 }, function (data, status, headers, config) {
                     growl.error(status);
                 });
             }
+        };
+
+        function readZipComment(buffer) {
+            var view = new DataView(buffer);
+            //The end of central directory record has 22 bytes followed by the comment
+            for (var offset = buffer.byteLength - 22; offset >= 0; offset--) {
+                if (view.getUint32(offset, true) === 0x06054b50) {
+                    var commentLength = view.getUint16(offset + 20, true);
+                    try {
+                        return JSON.parse(new TextDecoder("utf-8").decode(new Uint8Array(buffer, offset + 22, commentLength)));
+                    } catch (e) {
+                        return null;
+                    }
+                }
+            }
+            return null;
         }
     }
 }
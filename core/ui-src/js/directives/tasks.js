@@ -24,10 +24,19 @@ function hydraTasks() {
         controller: controller
     };
 
-    function controller($scope, $http) {
+    function controller($scope, $http, $interval) {
 
-        $http.get("internalapi/tasks").then(function (response) {
-            $scope.tasks = response.data;
+        function loadTasks() {
+            $http.get("internalapi/tasks").then(function (response) {
+                $scope.tasks = response.data;
+            });
+        }
+
+        loadTasks();
+        //Keep the progress of running tasks up to date
+        var updateInterval = $interval(loadTasks, 5000);
+        $scope.$on("$destroy", function () {
+            $interval.cancel(updateInterval);
         });
 
         $scope.runTask = function (taskName) {
@@ -3,11 +3,12 @@ angular
     .controller('DownloadHistoryController', DownloadHistoryController);
 
 
-function DownloadHistoryController($scope, StatsService, downloads, ConfigService, $timeout, $sce) {
+function DownloadHistoryController($scope, StatsService, HistoryPaginationService, downloads, ConfigService, $timeout, $sce) {
     $scope.limit = 100;
     $scope.pagination = {
         current: 1
     };
+    var loadedPage = 1;
     var sortModel = {
         column: "time",
         sortMode: 2
@@ -83,9 +84,12 @@ function DownloadHistoryController($scope, StatsService, downloads, ConfigServic
     }
 
     $scope.update = function () {
-        StatsService.getDownloadHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (downloads) {
+        var page = $scope.pagination.current;
+        var seekPosition = HistoryPaginationService.getSeekPosition(loadedPage, page, $scope.nzbDownloads);
+        StatsService.getDownloadHistory(page, $scope.limit, $scope.filterModel, sortModel, seekPosition).then(function (downloads) {
             $scope.nzbDownloads = downloads.nzbDownloads;
             $scope.totalDownloads = downloads.totalDownloads;
+            loadedPage = page;
         });
     };
 
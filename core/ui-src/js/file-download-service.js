@@ -5,7 +5,8 @@ angular
 function FileDownloadService($http, growl) {
 
     var service = {
-        downloadFile: downloadFile
+        downloadFile: downloadFile,
+        saveFile: saveFile
     };
 
     return service;
@@ -17,20 +18,24 @@ function FileDownloadService($http, growl) {
             data: data,
             responseType: 'arraybuffer'
         }).then(function (response, status, headers, config) {
-            var a = document.createElement('a');
-            var blob = new Blob([response.data], {'type': "application/octet-stream"});
-            a.href = URL.createObjectURL(blob);
-            a.download = filename;
-
-            document.body.appendChild(a);
-            a.click();
-            document.body.removeChild(a);
+            saveFile(response.data, filename);
         }, function (data, status, headers, config) {
             growl.error(status);
         });
 
     }
 
+    function saveFile(data, filename) {
+        var a = document.createElement('a');
+        var blob = new Blob([data], {'type': "application/octet-stream"});
+        a.href = URL.createObjectURL(blob);
+        a.download = filename;
+
+        document.body.appendChild(a);
+        a.click();
+        document.body.removeChild(a);
+    }
+
 
 }
 
@@ -0,0 +1,25 @@
+angular
+    .module('nzbhydraApp')
+    .factory('HistoryPaginationService', HistoryPaginationService);
+
+function HistoryPaginationService() {
+
+    return {
+        getSeekPosition: getSeekPosition
+    };
+
+    //When the page next to the loaded one is requested it's read starting at the loaded page's first or last entry which is faster than skipping all entries before it
+    function getSeekPosition(loadedPage, requestedPage, entries) {
+        if (!entries || entries.length === 0) {
+            return undefined;
+        }
+        if (requestedPage === loadedPage + 1) {
+            var last = entries[entries.length - 1];
+            return {time: last.time, id: last.id, before: false};
+        }
+        if (requestedPage === loadedPage - 1) {
+            return {time: entries[0].time, id: entries[0].id, before: true};
+        }
+        return undefined;
+    }
+}
@@ -3,11 +3,12 @@ angular
     .controller('NotificationHistoryController', NotificationHistoryController);
 
 
-function NotificationHistoryController($scope, StatsService, preloadData, ConfigService, $timeout, NotificationService) {
+function NotificationHistoryController($scope, StatsService, HistoryPaginationService, preloadData, ConfigService, $timeout, NotificationService) {
     $scope.limit = 100;
     $scope.pagination = {
         current: 1
     };
+    var loadedPage = 1;
     var sortModel = {
         column: "time",
         sortMode: 2
@@ -34,9 +35,12 @@ function NotificationHistoryController($scope, StatsService, preloadData, Config
     };
 
     $scope.update = function () {
-        StatsService.getNotificationHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (data) {
+        var page = $scope.pagination.current;
+        var seekPosition = HistoryPaginationService.getSeekPosition(loadedPage, page, $scope.notifications);
+        StatsService.getNotificationHistory(page, $scope.limit, $scope.filterModel, sortModel, seekPosition).then(function (data) {
             $scope.notifications = data.notifications;
             $scope.totalNotifications = data.totalNotifications;
+            loadedPage = page;
         });
     };
 
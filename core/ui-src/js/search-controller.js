@@ -421,6 +421,8 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
 
     var loggedSearchFinished = false;
     $scope.messages = [];
+    $scope.numberOfResults = 0;
+    $scope.newestResults = [];
     $scope.indexerSelectionFinished = false;
     $scope.indexersSelected = 0;
     $scope.indexersFinished = 0;
@@ -432,17 +434,21 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
     var stompClient = Stomp.over(socket);
     stompClient.debug = null;
     stompClient.connect({}, function (frame) {
-        stompClient.subscribe('/topic/searchState', function (message) {
+        //Only updates for this search are sent to its topic. Each update only contains what changed, except for the complete state requested after subscribing
+        stompClient.subscribe('/topic/searchState/' + searchRequestId, function (message) {
             var data = JSON.parse(message.body);
-            if (searchRequestId !== data.searchRequestId) {
-                return;
+            if (data.searchFinished !== undefined) {
+                $scope.searchFinished = data.searchFinished;
             }
-            $scope.searchFinished = data.searchFinished;
-            $scope.indexersSelected = data.indexersSelected;
-            $scope.indexersFinished = data.indexersFinished;
-            $scope.progressMax = data.indexersSelected;
-            if ($scope.progressMax > data.indexersSelected) {
-                $scope.progressMax = ">=" + data.indexersSelected;
+            if (data.indexerSelectionFinished !== undefined) {
+                $scope.indexerSelectionFinished = data.indexerSelectionFinished;
+            }
+            if (data.indexersSelected !== undefined) {
+                $scope.indexersSelected = data.indexersSelected;
+                $scope.progressMax = data.indexersSelected;
+            }
+            if (data.indexersFinished !== undefined) {
+                $scope.indexersFinished = data.indexersFinished;
             }
             if ($scope.indexersFinished > 0) {
                 $scope.buttonText = "Show results";
@@ -450,13 +456,42 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
                 $scope.btnType = "btn-warning";
             }
             if (data.messages) {
-                $scope.messages = data.messages;
+                if (data.complete) {
+                    $scope.messages = data.messages;
+                    loggedSearchFinished = false;
+                } else {
+                    addMessages(data.messages);
+                }
+            }
+            if (data.numberOfResults !== undefined) {
+                //Results of finished indexers are shown before the search is done. They're not deduplicated yet
+                $scope.numberOfResults = data.numberOfResults;
+                $scope.newestResults = data.newestResults;
             }
             if ($scope.searchFinished && !loggedSearchFinished) {
                 $scope.messages.push("Finished searching. Preparing results...");
                 loggedSearchFinished = true;
             }
         });
+        stompClient.send("/app/connectSearchState/" + searchRequestId);
+    });
+
+    function addMessages(messages) {
+        _.each(messages, function (message) {
+            var known = _.any($scope.messages, function (existing) {
+                return existing.message === message.message && existing.messageSortValue === message.messageSortValue;
+            });
+            if (!known) {
+                $scope.messages.push(message);
+            }
+        });
+        $scope.messages = _.sortBy($scope.messages, function (message) {
+            return _.isString(message) ? "\uffff" : message.messageSortValue.toLowerCase();
+        });
+    }
+
+    $scope.$on("$destroy", function () {
+        stompClient.disconnect();
     });
 
     $scope.shortcutSearch = function () {
@@ -3,11 +3,12 @@ angular
     .controller('SearchHistoryController', SearchHistoryController);
 
 
-function SearchHistoryController($scope, $state, SearchHistoryService, ConfigService, localStorageService, history, $sce, $filter, $timeout, $http, $uibModal) {
+function SearchHistoryController($scope, $state, SearchHistoryService, HistoryPaginationService, ConfigService, localStorageService, history, $sce, $filter, $timeout, $http, $uibModal) {
     $scope.limit = 100;
     $scope.pagination = {
         current: 1
     };
+    var loadedPage = 1;
     var sortModel = {
         column: "time",
         sortMode: 2
@@ -96,9 +97,12 @@ function SearchHistoryController($scope, $state, SearchHistoryService, ConfigSer
 
 
     $scope.update = function () {
-        SearchHistoryService.getSearchHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (history) {
+        var page = $scope.pagination.current;
+        var seekPosition = HistoryPaginationService.getSeekPosition(loadedPage, page, $scope.searchRequests);
+        SearchHistoryService.getSearchHistory(page, $scope.limit, $scope.filterModel, sortModel, undefined, undefined, seekPosition).then(function (history) {
             $scope.searchRequests = history.searchRequests;
             $scope.totalRequests = history.totalRequests;
+            loadedPage = page;
         });
     };
 
@@ -19,13 +19,14 @@ function SearchHistoryService($filter, $http) {
         });
     }
 
-    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser) {
+    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser, seekPosition) {
         var params = {
             page: pageNumber,
             limit: limit,
             filterModel: filterModel,
             distinct: distinct,
-            onlyCurrentUser: onlyCurrentUser
+            onlyCurrentUser: onlyCurrentUser,
+            seekPosition: seekPosition
         };
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
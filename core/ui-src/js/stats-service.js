@@ -18,8 +18,8 @@ function StatsService($http) {
         });
     }
 
-    function buildParams(pageNumber, limit, filterModel, sortModel) {
-        var params = {page: pageNumber, limit: limit, filterModel: filterModel};
+    function buildParams(pageNumber, limit, filterModel, sortModel, seekPosition) {
+        var params = {page: pageNumber, limit: limit, filterModel: filterModel, seekPosition: seekPosition};
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
         }
@@ -40,8 +40,8 @@ function StatsService($http) {
         return params;
     }
 
-    function getDownloadHistory(pageNumber, limit, filterModel, sortModel) {
-        var params = buildParams(pageNumber, limit, filterModel, sortModel);
+    function getDownloadHistory(pageNumber, limit, filterModel, sortModel, seekPosition) {
+        var params = buildParams(pageNumber, limit, filterModel, sortModel, seekPosition);
         return $http.post("internalapi/history/downloads", params).then(function (response) {
             return {
                 nzbDownloads: response.data.content,
@@ -51,8 +51,8 @@ function StatsService($http) {
         });
     }
 
-    function getNotificationHistory(pageNumber, limit, filterModel, sortModel) {
-        var params = buildParams(pageNumber, limit, filterModel, sortModel);
+    function getNotificationHistory(pageNumber, limit, filterModel, sortModel, seekPosition) {
+        var params = buildParams(pageNumber, limit, filterModel, sortModel, seekPosition);
         return $http.post("internalapi/history/notifications", params).then(function (response) {
             return {
                 notifications: response.data.content,
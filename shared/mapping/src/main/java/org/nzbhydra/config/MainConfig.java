@@ -121,6 +121,22 @@ public class MainConfig {
     private int databaseWriteDelay = 5000;
 
 
+    //Web server settings
+    @RestartRequired
+    private int webServerThreads = 50;
+
+
+    //Cache settings
+    @RestartRequired
+    private int mediaInfoCacheEntries = 1000;
+    @RestartRequired
+    private int mediaInfoCacheMinutes = 60;
+    @RestartRequired
+    private int imageCacheSizeMb = 50;
+    @RestartRequired
+    private int imageCacheMemoryMb = 0;
+
+
     //Other settings
     @SensitiveData
     @DiffIgnore
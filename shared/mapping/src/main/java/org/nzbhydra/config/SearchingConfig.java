@@ -41,6 +41,8 @@ public class SearchingConfig {
 
     @JsonFormat(shape = Shape.STRING)
     private SearchSourceRestriction applyRestrictions = SearchSourceRestriction.BOTH;
+    private Integer apiEarlyReturnSeconds;
+    private int apiSearchQueueSize = 10;
     private int coverSize = 128;
     private List<CustomQueryAndTitleMapping> customMappings = new ArrayList<>();
     private Integer globalCacheTimeMinutes;
@@ -65,6 +67,7 @@ public class SearchingConfig {
     private boolean loadAllCachedOnInternal;
     private int loadLimitInternal = 100;
     private Integer maxAge;
+    private int maxConcurrentApiSearches = 10;
     private Integer minSeeders;
     @JsonSetter()
     private List<String> removeTrailing = new ArrayList<>();
@@ -72,6 +75,7 @@ public class SearchingConfig {
     private String requiredRegex;
     private List<String> requiredWords = new ArrayList<>();
     private boolean sendTorznabCategories = true;
+    private boolean serveStaleCachedResults = false;
     private boolean showQuickFilterButtons = true;
     private boolean alwaysShowQuickFilterButtons = false;
     private List<String> customQuickFilterButtons = new ArrayList<>();
@@ -90,6 +94,10 @@ public class SearchingConfig {
         return Optional.ofNullable(globalCacheTimeMinutes);
     }
 
+    public Optional<Integer> getApiEarlyReturnSeconds() {
+        return Optional.ofNullable(apiEarlyReturnSeconds);
+    }
+
     public Optional<Integer> getMaxAge() {
         return Optional.ofNullable(maxAge);
     }
@@ -0,0 +1,26 @@
+package org.nzbhydra.historystats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.nzbhydra.springnative.ReflectionMarker;
+
+import java.time.Instant;
+
+/**
+ * Identifies the first or last row of the page loaded before so that the page next to it can be read without skipping all
+ * rows before it.
+ */
+@Data
+@ReflectionMarker
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeekPosition {
+    private Instant time;
+    private int id;
+    /**
+     * If true the page before the row is requested, otherwise the page after it.
+     */
+    private boolean before;
+
+}
@@ -30,7 +30,10 @@ import org.nzbhydra.historystats.stats.UserAgentShare;
 import org.nzbhydra.springnative.ReflectionMarker;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @ReflectionMarker
@@ -66,4 +69,8 @@ public class StatsResponse {
     private int numberOfConfiguredIndexers;
     private int numberOfEnabledIndexers;
 
+    //Sections are named like the flags in the request
+    private Map<String, Long> sectionTimes = new LinkedHashMap<>();
+    private List<String> failedSections = new ArrayList<>();
+
 }
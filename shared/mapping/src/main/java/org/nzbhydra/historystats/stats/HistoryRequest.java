@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.nzbhydra.historystats.FilterModel;
+import org.nzbhydra.historystats.SeekPosition;
 import org.nzbhydra.historystats.SortModel;
 import org.nzbhydra.springnative.ReflectionMarker;
 
@@ -19,6 +20,10 @@ public class HistoryRequest {
     protected int limit = 100;
     protected FilterModel filterModel = new FilterModel();
     protected SortModel sortModel;
+    /**
+     * Set when the page next to a loaded page is requested. Only used when sorting by time.
+     */
+    protected SeekPosition seekPosition;
 
 
 }
@@ -96,6 +96,39 @@ public class NewznabXmlApilimits {
         return grabMax != null ? grabMax : grabmax;
     }
 
+    //Lombok matches setter names case-insensitively and wouldn't generate any of these because of the fields with the same names in different cases
+    public void setApicurrent(Integer apicurrent) {
+        this.apicurrent = apicurrent;
+    }
+
+    public void setApiCurrent(Integer apiCurrent) {
+        this.apiCurrent = apiCurrent;
+    }
+
+    public void setApimax(Integer apimax) {
+        this.apimax = apimax;
+    }
+
+    public void setApiMax(Integer apiMax) {
+        this.apiMax = apiMax;
+    }
+
+    public void setGrabcurrent(Integer grabcurrent) {
+        this.grabcurrent = grabcurrent;
+    }
+
+    public void setGrabCurrent(Integer grabCurrent) {
+        this.grabCurrent = grabCurrent;
+    }
+
+    public void setGrabmax(Integer grabmax) {
+        this.grabmax = grabmax;
+    }
+
+    public void setGrabMax(Integer grabMax) {
+        this.grabMax = grabMax;
+    }
+
     public Instant getApiOldestTime() {
         //The format of the dates is currently "Mon, 20 Apr 20 03:20:41 +0200" (with only two digits for the year)
         // which is a different format than the pubdate so it's parsed as year 20 instead of 2020